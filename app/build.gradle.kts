@@ -4,6 +4,7 @@ plugins {
     id("simple-commerce.java-conventions")
     id("org.springframework.boot")
     id("com.google.protobuf")
+    id("me.champeau.jmh")
     antlr
     application
 }
@@ -11,9 +12,11 @@ plugins {
 val antlrVersion by extra("4.13.2")
 val graphQlJavaVersion by extra("22.0")
 val jSpecifyVersion by extra("1.0.0")
+val jmhVersion by extra("1.37")
 
 val springInstrument: Configuration by configurations.creating
 val mockitoAgent: Configuration by configurations.creating
+val aspectjWeaver: Configuration by configurations.creating
 
 val enablePreview = "--enable-preview"
 val javaVersion: Provider<Int> = providers
@@ -29,6 +32,7 @@ repositories {
 
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.springframework.boot:spring-boot-starter-graphql")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-oauth2-resource-server")
@@ -51,11 +55,16 @@ dependencies {
     springInstrument("org.springframework:spring-instrument") {
         because("Required for Spring Load-Time Weaving")
     }
+    aspectjWeaver("org.aspectj:aspectjweaver") {
+        because("Weaves the security aspects into benchmarked classes")
+    }
     mockitoAgent(libs.mockito) {
         because("Required for inline mocking")
         isTransitive = false
     }
-    runtimeOnly("org.postgresql:postgresql")
+    implementation("org.postgresql:postgresql") {
+        because("Price change notifications are received through the driver's LISTEN support")
+    }
     runtimeOnly("org.flywaydb:flyway-database-postgresql")
     runtimeOnly("org.springframework.security:spring-security-aspects")
     testImplementation("org.springframework.boot:spring-boot-starter-webflux")
@@ -68,8 +77,13 @@ dependencies {
     testImplementation("org.testcontainers:junit-jupiter")
     testImplementation("org.testcontainers:postgresql")
     testImplementation("com.google.protobuf:protobuf-java-util")
+    testImplementation(libs.jqwik)
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
     testAndDevelopmentOnly("org.springframework.boot:spring-boot-docker-compose")
+    jmh("org.testcontainers:postgresql") {
+        because("The product search benchmark reads from a seeded PostgreSQL container")
+    }
+    jmh("org.flywaydb:flyway-database-postgresql")
 }
 
 dependencyManagement {
@@ -85,6 +99,14 @@ tasks.withType<Test> {
     jvmArgs(enablePreview, "-javaagent:${mockitoAgent.asPath}")
 }
 
+jmh {
+    jmhVersion = property("jmhVersion") as String
+    jvmArgsAppend.addAll(enablePreview, "-javaagent:${aspectjWeaver.singleFile}")
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+}
+
 tasks.withType<JavaCompile> {
     options.compilerArgs.add(enablePreview)
     options.compilerArgs.add("-Xlint:preview")
@@ -0,0 +1,87 @@
+package com.simplecommerce.product;
+
+import com.simplecommerce.config.security.PermissionMethodAuthorizer;
+import com.simplecommerce.security.aspects.CheckAspect;
+import com.simplecommerce.security.aspects.MethodAuthorizer;
+import com.simplecommerce.shared.GlobalId;
+import com.simplecommerce.shared.authorization.AuthorizationService;
+import com.simplecommerce.shared.types.Product;
+import com.simplecommerce.shared.types.ProductStatus;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.SpringAuthorizationEventPublisher;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Measures {@link ProductManagement#findProduct(String)} with and without the {@code @Check} aspect authorizing it.
+ * The repository and the authorization service answer from memory, so the difference is the cost of interception.
+ * {@code ProductManagement} is woven at load time, so the forks run with the AspectJ weaver agent.
+ * Run with {@code ./gradlew :app:jmh}.
+ *
+ * @author julius.krah
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductAuthorizationBenchmark {
+
+  @Param({"false", "true"})
+  private boolean authorize;
+
+  private ProductManagement productManagement;
+  private String id;
+
+  @Setup
+  public void setUp() {
+    var entity = new ProductEntity();
+    entity.setId(UUID.randomUUID());
+    entity.setTitle("Kaspersky");
+    entity.setSlug("kaspersky");
+    entity.setStatus(ProductStatus.DRAFT);
+    id = new GlobalId("Product", entity.getId().toString()).encode();
+
+    var products = (Products) Proxy.newProxyInstance(Products.class.getClassLoader(), new Class<?>[]{Products.class},
+        (_, method, _) -> switch (method.getName()) {
+          case "findById" -> Optional.of(entity);
+          default -> throw new UnsupportedOperationException(method.getName());
+        });
+    productManagement = new ProductManagement();
+    productManagement.setProductRepository(() -> products);
+
+    var beanFactory = new StaticListableBeanFactory();
+    AuthorizationService authorizationService = (_, _, _, _) -> true;
+    beanFactory.addBean("authz", authorizationService);
+    CheckAspect.aspectOf().setAuthorizer(authorize ? authorizer(beanFactory) : null);
+    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("neo", "password"));
+  }
+
+  @TearDown
+  public void tearDown() {
+    CheckAspect.aspectOf().setAuthorizer(null);
+    SecurityContextHolder.clearContext();
+  }
+
+  @Benchmark
+  public Product findProduct() {
+    return productManagement.findProduct(id);
+  }
+
+  private static MethodAuthorizer authorizer(StaticListableBeanFactory beanFactory) {
+    return new PermissionMethodAuthorizer(beanFactory.getBeanProvider(AuthorizationService.class),
+        new SpringAuthorizationEventPublisher(_ -> {
+        }), beanFactory);
+  }
+}
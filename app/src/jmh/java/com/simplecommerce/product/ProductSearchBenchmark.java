@@ -0,0 +1,118 @@
+package com.simplecommerce.product;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Reads the first page and a page halfway through a catalog of 1M products, half of them published, with the keyset
+ * query that {@code Products.findBy(spec, query -> query.sortBy(title).limit(50).scroll(position))} renders for the
+ * storefront listing. Both pages should take about as long, since each is an index range scan. The catalog is seeded
+ * once per fork into a PostgreSQL container migrated with the application's Flyway scripts, so Docker must be
+ * available. Run with {@code ./gradlew :app:jmh}.
+ *
+ * @author julius.krah
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProductSearchBenchmark {
+  private static final int PRODUCTS = 1_000_000;
+  private static final int PAGE_SIZE = 50;
+  // Spring Data reads one row more than the limit to tell whether there is a next page
+  private static final String FIRST_PAGE = """
+      SELECT id, title FROM products
+      WHERE status = 'PUBLISHED'
+      ORDER BY title, id LIMIT ?""";
+  private static final String NEXT_PAGE = """
+      SELECT id, title FROM products
+      WHERE status = 'PUBLISHED' AND (title > ? OR (title = ? AND id > ?))
+      ORDER BY title, id LIMIT ?""";
+
+  @Param({"first", "deep"})
+  private String page;
+
+  private PostgreSQLContainer<?> postgres;
+  private Connection connection;
+  private PreparedStatement query;
+
+  @Setup
+  public void setUp() throws SQLException {
+    postgres = new PostgreSQLContainer<>("postgres:17.2-alpine");
+    postgres.start();
+    Flyway.configure()
+        .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+        .locations("classpath:db/migration/postgresql")
+        .load()
+        .migrate();
+    connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    seed();
+    if (page.equals("first")) {
+      query = connection.prepareStatement(FIRST_PAGE);
+      query.setInt(1, PAGE_SIZE + 1);
+    } else {
+      query = connection.prepareStatement(NEXT_PAGE);
+      try (var keys = connection.prepareStatement("""
+          SELECT title, id FROM products WHERE status = 'PUBLISHED'
+          ORDER BY title, id OFFSET ? LIMIT 1""")) {
+        keys.setInt(1, PRODUCTS / 4);
+        try (var position = keys.executeQuery()) {
+          position.next();
+          query.setString(1, position.getString("title"));
+          query.setString(2, position.getString("title"));
+          query.setObject(3, position.getObject("id", UUID.class));
+        }
+      }
+      query.setInt(4, PAGE_SIZE + 1);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    connection.close();
+    postgres.stop();
+  }
+
+  @Benchmark
+  public List<UUID> readPage() throws SQLException {
+    var ids = new ArrayList<UUID>(PAGE_SIZE + 1);
+    try (var rows = query.executeQuery()) {
+      while (rows.next()) {
+        ids.add(rows.getObject("id", UUID.class));
+      }
+    }
+    if (ids.size() != PAGE_SIZE + 1) {
+      throw new IllegalStateException("Expected a full page with a next page, read " + ids.size() + " products");
+    }
+    return ids;
+  }
+
+  private void seed() throws SQLException {
+    try (var insert = connection.prepareStatement("""
+        INSERT INTO products (id, created_at, updated_at, slug, title, status)
+        SELECT gen_random_uuid(), now(), now(), 'benchmark-' || i, 'Benchmark ' || md5(i::text),
+               CASE WHEN i % 2 = 0 THEN 'PUBLISHED' ELSE 'DRAFT' END
+        FROM generate_series(1, ?) AS i""");
+        var analyze = connection.createStatement()) {
+      insert.setInt(1, PRODUCTS);
+      insert.executeUpdate();
+      analyze.execute("ANALYZE products");
+    }
+  }
+}
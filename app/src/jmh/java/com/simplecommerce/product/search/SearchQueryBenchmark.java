@@ -0,0 +1,64 @@
+package com.simplecommerce.product.search;
+
+import com.simplecommerce.product.ProductEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Compares turning a search string into a product specification with the regex parser, the ANTLR parser
+ * and the plan cache. Run with {@code ./gradlew :app:jmh}.
+ *
+ * @author julius.krah
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchQueryBenchmark {
+
+  @Param({
+      "status:published",
+      "status:published category:electronics price:100..200",
+      "title:\"wireless headphones\" created:2024-01-01..2024-12-31 status:published headphones"
+  })
+  private String query;
+
+  private RegexSearchQueryParser regexParser;
+  private SearchQueryParser parser;
+  private SearchQueryTranslator translator;
+  private SearchQueryCompiler compiler;
+
+  @Setup
+  public void setUp() {
+    regexParser = new RegexSearchQueryParser();
+    parser = new SearchQueryParser();
+    translator = new SearchQueryTranslator();
+    compiler = new SearchQueryCompiler(parser, translator, 1024,
+        new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    compiler.compile(query);
+  }
+
+  @Benchmark
+  public Specification<ProductEntity> regex() {
+    return translator.translateToSpecification(regexParser.parse(query));
+  }
+
+  @Benchmark
+  public Specification<ProductEntity> antlr() {
+    return translator.translateToSpecification(parser.parse(query));
+  }
+
+  @Benchmark
+  public Specification<ProductEntity> cachedPlan() {
+    return compiler.compile(query).specification();
+  }
+}
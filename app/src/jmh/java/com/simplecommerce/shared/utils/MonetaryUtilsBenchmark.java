@@ -0,0 +1,60 @@
+package com.simplecommerce.shared.utils;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import javax.money.CurrencyQueryBuilder;
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import javax.money.MonetaryAmount;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares converting a stored amount and currency code into a {@link MonetaryAmount} by querying the
+ * {@link Monetary} providers on every call with the cached registries of {@link MonetaryUtils}.
+ * Run with {@code ./gradlew :app:jmh}.
+ *
+ * @author julius.krah
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MonetaryUtilsBenchmark {
+
+  @Param({"USD", "EUR", "GHS"})
+  private String currencyCode;
+
+  private final BigDecimal amount = new BigDecimal("149.99");
+  private final Locale locale = Locale.US;
+
+  @Benchmark
+  public CurrencyUnit currencyQuery() {
+    var query = CurrencyQueryBuilder.of().setCurrencyCodes(currencyCode).setCountries(locale).build();
+    return Monetary.getCurrency(query);
+  }
+
+  @Benchmark
+  public CurrencyUnit cachedCurrency() {
+    return MonetaryUtils.getCurrency(currencyCode, locale);
+  }
+
+  @Benchmark
+  public MonetaryAmount amountQuery() {
+    var query = CurrencyQueryBuilder.of().setCurrencyCodes(currencyCode).setCountries(locale).build();
+    return Monetary.getDefaultAmountFactory()
+        .setCurrency(Monetary.getCurrency(query))
+        .setNumber(amount)
+        .create();
+  }
+
+  @Benchmark
+  public MonetaryAmount cachedAmount() {
+    return MonetaryUtils.getMonetaryAmount(amount, currencyCode, locale);
+  }
+}
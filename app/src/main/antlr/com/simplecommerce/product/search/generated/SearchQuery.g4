@@ -5,44 +5,50 @@ package com.simplecommerce.product.search.generated;
 }
 
 // Entry point
-query: expr EOF;
+query: expr? EOF;
 
-// Expressions with precedence
+// Expressions with precedence: NOT binds tighter than AND, AND binds tighter than OR.
+// Adjacent terms without an operator are combined with AND.
 expr
-    : expr OR expr                          #OrExpr
-    | expr AND expr                         #AndExpr
+    : expr AND? expr                        #AndExpr
+    | expr OR expr                          #OrExpr
     | term                                  #TermExpr
     ;
 
 term
-    : field ':' value                       #FieldValueTerm
+    : field ':' comparator value            #FieldComparisonTerm
     | field ':' range                       #FieldRangeTerm
+    | field ':' value                       #FieldValueTerm
     | field ':' quotedString                #FieldQuotedTerm
     | '(' expr ')'                          #ParenTerm
     | NOT term                              #NotTerm
+    | (value | quotedString)                #KeywordTerm
     ;
 
 field: IDENTIFIER;
 
-value: IDENTIFIER | NUMBER | BOOLEAN;
+value: IDENTIFIER | NUMBER | DATE | BOOLEAN;
 
 range: value '..' value;
 
+comparator: '>=' | '<=' | '>' | '<';
+
 quotedString: QUOTED_STRING;
 
 // Keywords
 OR: 'OR';
 AND: 'AND';
 NOT: 'NOT';
+BOOLEAN: 'true' | 'false';
 
 // Tokens
-IDENTIFIER: [a-zA-Z_][a-zA-Z0-9_]*;
+DATE: [0-9][0-9][0-9][0-9] '-' [0-9][0-9] '-' [0-9][0-9];
 NUMBER: [0-9]+ ('.' [0-9]+)?;
-BOOLEAN: 'true' | 'false';
+IDENTIFIER: [a-zA-Z_][a-zA-Z0-9_-]*;
 QUOTED_STRING: '"' (~["])* '"';
 
 // Whitespace
 WS: [ \t\r\n]+ -> skip;
 
 // Skip unrecognized characters (for better error handling)
-UNKNOWN: . -> channel(HIDDEN);
\ No newline at end of file
+UNKNOWN: . -> channel(HIDDEN);
@@ -11,7 +11,7 @@ import org.springframework.stereotype.Component;
 
 /// @author julius.krah
 @Component
-@Profile("keto-authz")
+@Profile({"keto-authz", "embedded-authz"})
 class ActorEventHandler {
   private final AuthorizationBridge authorizationBridge;
 
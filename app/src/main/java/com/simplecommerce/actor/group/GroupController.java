@@ -6,14 +6,16 @@ import com.simplecommerce.actor.Group;
 import com.simplecommerce.actor.GroupMember;
 import com.simplecommerce.actor.Role;
 import com.simplecommerce.shared.GlobalId;
+import com.simplecommerce.shared.authorization.AuthorizationService;
 import com.simplecommerce.shared.authorization.BuiltIns;
-import com.simplecommerce.shared.authorization.KetoAuthorizationService;
 import com.simplecommerce.shared.types.GroupMemberInput;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 import org.jspecify.annotations.Nullable;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.ScrollPosition;
@@ -34,11 +36,11 @@ class GroupController {
   private final ObjectProvider<GroupService> groupService;
   // Defer creation of the GroupService to avoid early initialization of aspectj proxy
   private final Supplier<GroupService> groupServiceSupplier = StableValue.supplier(GroupManagement::new);
-  private final KetoAuthorizationService ketoService;
+  private final AuthorizationService authorizationService;
 
-  GroupController(ObjectProvider<GroupService> groupService, ObjectProvider<KetoAuthorizationService> ketoService) {
+  GroupController(ObjectProvider<GroupService> groupService, ObjectProvider<AuthorizationService> authorizationService) {
     this.groupService = groupService;
-    this.ketoService = ketoService.getIfAvailable();
+    this.authorizationService = authorizationService.getIfAvailable();
   }
 
   @SchemaMapping(typeName = "Group")
@@ -78,16 +80,22 @@ class GroupController {
   }
 
   @SchemaMapping(typeName = "Group")
-  List<Role> roles(Group source) {
-    if (ketoService == null) {
-      return List.of();
+  CompletableFuture<List<Role>> roles(Group source) {
+    if (authorizationService == null) {
+      return CompletableFuture.completedFuture(List.of());
     }
-    // Check each built-in role assignment via Keto: Role:<name>#assignees includes Group:<gid>#members
+    // Check each built-in role assignment: Role:<name>#assignees includes Group:<gid>#members.
+    // The checks are asynchronous, so the roles of every group in a page are resolved concurrently without blocking
     var gid = source.id();
-    return Arrays.stream(BuiltIns.DEFAULT_ROLES)
-        .filter(r -> ketoService.checkPermission("Role", r.getName(), "assignees", gid))
-        .map(r -> new Role(r.getName(), null, Arrays.asList(r.getPermissions())))
+    var checks = Arrays.stream(BuiltIns.DEFAULT_ROLES)
+        .map(r -> authorizationService.checkPermissionAsync("Role", r.getName(), "assignees", gid))
         .toList();
+    return CompletableFuture.allOf(checks.toArray(CompletableFuture[]::new))
+        .thenApply(_ -> IntStream.range(0, checks.size())
+            .filter(i -> checks.get(i).join())
+            .mapToObj(i -> BuiltIns.DEFAULT_ROLES[i])
+            .map(r -> new Role(r.getName(), null, Arrays.asList(r.getPermissions())))
+            .toList());
   }
 }
 
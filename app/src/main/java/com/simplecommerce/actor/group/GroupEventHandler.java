@@ -14,7 +14,7 @@ import org.springframework.stereotype.Component;
 
 /// @author julius.krah
 @Component
-@Profile("keto-authz")
+@Profile({"keto-authz", "embedded-authz"})
 class GroupEventHandler {
   private final AuthorizationBridge authorizationBridge;
   private static final Logger LOG = LoggerFactory.getLogger(GroupEventHandler.class);
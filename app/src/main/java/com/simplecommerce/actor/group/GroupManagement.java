@@ -33,7 +33,7 @@ public class GroupManagement implements GroupService {
   private Groups groupRepository;
   private GroupMembers groupMembersRepository;
   @Nullable
-  private AuthorizationBridge authorizationBridge; // may be null when keto-authz profile not active
+  private AuthorizationBridge authorizationBridge; // may be null when no authorization profile is active
   private final UserService userService = new UserManagement();
   private static final String EDITORS_RELATION = "editors";
   private static final String VIEWERS_RELATION = "viewers";
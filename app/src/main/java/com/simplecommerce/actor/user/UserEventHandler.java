@@ -14,7 +14,7 @@ import org.springframework.stereotype.Component;
 
 /// @author julius.krah
 @Component
-@Profile("keto-authz")
+@Profile({"keto-authz", "embedded-authz"})
 class UserEventHandler {
 
   private static final Logger LOG = LoggerFactory.getLogger(UserEventHandler.class);
@@ -0,0 +1,733 @@
+package com.simplecommerce.cart;
+
+import static java.util.Objects.requireNonNull;
+
+import com.simplecommerce.cart.CartSnapshot.Line;
+import com.simplecommerce.cart.CartSnapshot.Owner;
+import com.simplecommerce.cart.CartStore.CartWrite;
+import com.simplecommerce.shared.exceptions.NotFoundException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Write-behind cache of carts, keyed by their owner. Mutations are applied to the cached {@link CartSnapshot} and
+ * return immediately; the carts changed within {@code simple-commerce.cart.write-behind.window} are written to the
+ * database together by {@link CartStore}, so several mutations of a cart cost one write. {@link #flush()} writes the
+ * pending changes at once; checkout instead writes the changes of the cart it reads with
+ * {@link #flushInTransaction(UUID)}, in its own transaction. If the combined write fails, the carts are
+ * written one at a time; a cart that fails {@code simple-commerce.cart.write-behind.max-attempts} flushes in a row
+ * is dropped and logged.
+ * <p>
+ * At most {@code simple-commerce.cart.cache.max-size} carts are kept; the least recently used carts without pending
+ * changes are evicted first. Instances do not share their caches and requests for a cart may reach any instance, so
+ * a cart without pending changes is reloaded once it has been cached for {@code simple-commerce.cart.cache.ttl}.
+ * <p>
+ * A cart is written only if its row still has the version the cached state was loaded or last written with. If
+ * another instance wrote the cart in the meantime, the cart is reloaded and the mutations not yet written are applied
+ * again; a mutation that no longer applies, such as a change to an item removed elsewhere, is logged and dropped.
+ *
+ * @author julius.krah
+ */
+@Component
+class CartCache implements SmartLifecycle {
+  private static final Logger LOG = LoggerFactory.getLogger(CartCache.class);
+
+  private final CartStore store;
+  private final int maxSize;
+  private final Duration window;
+  private final long timeToLive;
+  private final int maxAttempts;
+  // Guards the entries, their indexes and the pending changes
+  private final ReentrantLock lock = new ReentrantLock();
+  // Held from draining the pending changes until they are written, so writes reach the database in order
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<Owner, UUID> owners = new HashMap<>();
+  private final Map<UUID, UUID> itemCarts = new HashMap<>();
+  private final Set<UUID> dirty = new LinkedHashSet<>();
+  private final Set<UUID> flushing = new HashSet<>();
+  // Carts written by a transaction that has not completed yet; flush() leaves their later changes pending until it does
+  private final Set<UUID> uncommitted = new HashSet<>();
+  private final Set<UUID> removed = new HashSet<>();
+  // Guest carts being merged into a user cart
+  private final Set<UUID> merging = new HashSet<>();
+  // Consecutive failed writes per cart
+  private final Map<UUID, Integer> failures = new HashMap<>();
+  private volatile @Nullable Thread flusher;
+  private volatile @Nullable CountDownLatch stopSignal;
+
+  CartCache(CartStore store,
+      @Value("${simple-commerce.cart.cache.max-size:10000}") int maxSize,
+      @Value("${simple-commerce.cart.write-behind.window:100ms}") Duration window,
+      @Value("${simple-commerce.cart.cache.ttl:30s}") Duration timeToLive,
+      @Value("${simple-commerce.cart.write-behind.max-attempts:5}") int maxAttempts) {
+    this.store = store;
+    this.maxSize = maxSize;
+    this.window = window;
+    this.timeToLive = timeToLive.toNanos();
+    this.maxAttempts = maxAttempts;
+  }
+
+  /**
+   * The cart of {@code owner}, loaded from the database unless it is cached.
+   */
+  Optional<CartSnapshot> find(Owner owner) {
+    var cached = cached(owners, owner);
+    return cached.isPresent() ? cached : cache(store.load(owner));
+  }
+
+  /**
+   * The cart of {@code owner}, or the cart created by {@code creator} if the owner has none.
+   */
+  CartSnapshot getOrCreate(Owner owner, Supplier<CartSnapshot> creator) {
+    return find(owner).orElseGet(() -> {
+      lock.lock();
+      try {
+        var id = owners.get(owner);
+        if (id != null) {
+          return requireNonNull(entries.get(id)).cart();
+        }
+        var created = creator.get();
+        put(new Entry(created, Entry.NEW, List.of(), System.nanoTime()));
+        dirty.add(created.id());
+        return created;
+      } finally {
+        lock.unlock();
+      }
+    });
+  }
+
+  Optional<CartSnapshot> findById(UUID cartId) {
+    lock.lock();
+    try {
+      var cached = fresh(cartId);
+      if (cached != null) {
+        return Optional.of(cached);
+      }
+    } finally {
+      lock.unlock();
+    }
+    return cache(store.loadById(cartId));
+  }
+
+  /**
+   * The cart containing the item {@code itemId}.
+   */
+  Optional<CartSnapshot> findByItemId(UUID itemId) {
+    var cached = cached(itemCarts, itemId);
+    return cached.isPresent() ? cached : cache(store.loadByItemId(itemId));
+  }
+
+  /**
+   * Applies {@code mutation} to the cached state of {@code cart} and schedules the result to be written.
+   *
+   * @return the new state of the cart
+   */
+  CartSnapshot update(CartSnapshot cart, UnaryOperator<CartSnapshot> mutation) {
+    lock.lock();
+    try {
+      if (removed.contains(cart.id()) || merging.contains(cart.id())) {
+        throw new NotFoundException("Cart not found");
+      }
+      var entry = entries.get(cart.id());
+      if (entry == null) {
+        // Evicted since it was read: the snapshot is based on the row it was read from
+        entry = new Entry(cart, cart.version(), List.of(), System.nanoTime());
+      }
+      var updated = mutation.apply(entry.cart());
+      put(entry.apply(updated, mutation));
+      dirty.add(updated.id());
+      return updated;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes {@code cart} and schedules it to be deleted.
+   */
+  void remove(CartSnapshot cart) {
+    lock.lock();
+    try {
+      discard(cart.id());
+      removed.add(cart.id());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Drops the cached state of a cart whose version {@code version} was changed in the database. Changes made to the
+   * cart after that version are kept: their write finds the row changed, so they are applied again to the reloaded
+   * cart.
+   */
+  void evict(UUID cartId, long version) {
+    lock.lock();
+    try {
+      var entry = entries.get(cartId);
+      if (entry != null && entry.cart().version() <= version) {
+        discard(cartId);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Merges the guest cart {@code guestCartId} into the cart {@code userCartId} in the database, after writing the
+   * pending changes. The guest cart can no longer be changed once the merge starts. Changes made to the user cart
+   * while the merge runs are applied again to the merged cart.
+   *
+   * @return the merged cart
+   */
+  CartSnapshot merge(UUID guestCartId, UUID userCartId) {
+    writeLock.lock();
+    try {
+      lock.lock();
+      try {
+        merging.add(guestCartId);
+      } finally {
+        lock.unlock();
+      }
+      flush();
+      if (!store.merge(guestCartId, userCartId)) {
+        throw new NotFoundException("Guest cart not found");
+      }
+      var merged = store.loadById(userCartId);
+      lock.lock();
+      try {
+        discard(guestCartId);
+        rebase(userCartId, merged);
+        var entry = entries.get(userCartId);
+        if (entry == null) {
+          throw new NotFoundException("Cart not found");
+        }
+        return entry.cart();
+      } finally {
+        lock.unlock();
+      }
+    } finally {
+      lock.lock();
+      try {
+        merging.remove(guestCartId);
+      } finally {
+        lock.unlock();
+      }
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Writes the pending changes of the cart of {@code owner} in the caller's transaction.
+   *
+   * @see #flushInTransaction(UUID)
+   */
+  void flushInTransaction(Owner owner) {
+    UUID cartId;
+    lock.lock();
+    try {
+      cartId = owners.get(owner);
+    } finally {
+      lock.unlock();
+    }
+    if (cartId != null) {
+      flushInTransaction(cartId);
+    }
+  }
+
+  /**
+   * Writes the pending changes of the cart {@code cartId} in the caller's transaction and waits for the write, so that
+   * the caller reads them without holding a second connection. The cached state is based on the written version once
+   * the transaction commits; if it rolls back, the changes are written again with the next flush. If the cart was
+   * changed elsewhere, it is reloaded and its changes are applied and written again, up to {@code max-attempts} times.
+   *
+   * @throws org.springframework.transaction.IllegalTransactionStateException if there is no transaction
+   */
+  void flushInTransaction(UUID cartId) {
+    writeLock.lock();
+    try {
+      for (var attempt = 1; attempt <= maxAttempts; attempt++) {
+        List<CartWrite> carts;
+        Set<UUID> deleted;
+        lock.lock();
+        try {
+          deleted = removed.contains(cartId) ? Set.of(cartId) : Set.of();
+          if (dirty.remove(cartId)) {
+            var entry = requireNonNull(entries.get(cartId));
+            carts = List.of(new CartWrite(entry.cart(), entry.storedVersion()));
+            flushing.add(cartId);
+          } else {
+            carts = List.of();
+          }
+          uncommitted.add(cartId);
+        } finally {
+          lock.unlock();
+        }
+        if (carts.isEmpty() && deleted.isEmpty()) {
+          release(cartId);
+          return;
+        }
+        Set<UUID> stale;
+        try {
+          stale = store.writeInTransaction(carts, deleted);
+        } catch (RuntimeException e) {
+          release(cartId);
+          failed(carts, deleted, e);
+          throw e;
+        }
+        if (stale.isEmpty()) {
+          TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              committed(carts, deleted, status == STATUS_COMMITTED);
+            }
+          });
+          return;
+        }
+        release(cartId);
+        reapply(carts.getFirst());
+      }
+      LOG.warn("Cart {} kept changing elsewhere, leaving its changes to the next flush", cartId);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Writes every pending change to the database and waits for the write.
+   */
+  void flush() {
+    writeLock.lock();
+    try {
+      List<CartWrite> carts;
+      Set<UUID> deleted;
+      lock.lock();
+      try {
+        carts = new ArrayList<>(dirty.size());
+        for (var id : dirty) {
+          if (uncommitted.contains(id)) {
+            continue;
+          }
+          var entry = requireNonNull(entries.get(id));
+          carts.add(new CartWrite(entry.cart(), entry.storedVersion()));
+          flushing.add(id);
+        }
+        carts.forEach(write -> dirty.remove(write.cart().id()));
+        deleted = Set.copyOf(removed);
+      } finally {
+        lock.unlock();
+      }
+      if (carts.isEmpty() && deleted.isEmpty()) {
+        return;
+      }
+      write(carts, deleted);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void start() {
+    var signal = new CountDownLatch(1);
+    stopSignal = signal;
+    flusher = Thread.ofVirtual().name("cart-write-behind").start(() -> {
+      try {
+        while (!signal.await(window.toNanos(), TimeUnit.NANOSECONDS)) {
+          flushQuietly();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+  }
+
+  /**
+   * Stops the periodic flush once its current write completes, then flushes the changes still pending.
+   */
+  @Override
+  public void stop() {
+    var thread = flusher;
+    if (thread != null) {
+      requireNonNull(stopSignal).countDown();
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      flusher = null;
+    }
+    flush();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return flusher != null;
+  }
+
+  /**
+   * Number of cached carts.
+   */
+  int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Writes {@code carts} and deletes {@code deleted} in one transaction. If that fails, each cart is written in a
+   * transaction of its own, so that one cart the database rejects does not hold back the others; the first failure is
+   * rethrown once the others are written.
+   */
+  private void write(List<CartWrite> carts, Set<UUID> deleted) {
+    try {
+      try {
+        applied(carts, deleted, store.write(carts, deleted));
+      } catch (RuntimeException e) {
+        if (carts.size() + deleted.size() == 1) {
+          failed(carts, deleted, e);
+          throw e;
+        }
+        LOG.warn("Writing {} cart(s) together failed, writing them one at a time", carts.size() + deleted.size(), e);
+        writeEach(carts, deleted);
+      }
+    } finally {
+      lock.lock();
+      try {
+        carts.forEach(write -> flushing.remove(write.cart().id()));
+        evictIfFull();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private void writeEach(List<CartWrite> carts, Set<UUID> deleted) {
+    @Nullable RuntimeException failure = null;
+    for (var id : deleted) {
+      try {
+        applied(List.of(), Set.of(id), store.write(List.of(), Set.of(id)));
+      } catch (RuntimeException e) {
+        failed(List.of(), Set.of(id), e);
+        failure = failure == null ? e : failure;
+      }
+    }
+    for (var write : carts) {
+      try {
+        applied(List.of(write), Set.of(), store.write(List.of(write), Set.of()));
+      } catch (RuntimeException e) {
+        failed(List.of(write), Set.of(), e);
+        failure = failure == null ? e : failure;
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void applied(List<CartWrite> carts, Set<UUID> deleted, Set<UUID> stale) {
+    LOG.debug("Wrote {} cart(s) and deleted {} cart(s)", carts.size() - stale.size(), deleted.size());
+    lock.lock();
+    try {
+      removed.removeAll(deleted);
+      deleted.forEach(failures::remove);
+      for (var write : carts) {
+        failures.remove(write.cart().id());
+        if (!stale.contains(write.cart().id())) {
+          written(write);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    for (var write : carts) {
+      if (stale.contains(write.cart().id())) {
+        reapply(write);
+      }
+    }
+  }
+
+  /**
+   * Schedules the carts of a failed write to be written again, unless they have failed {@code max-attempts} times: those
+   * are dropped, with their state logged, so that they are not retried forever.
+   */
+  private void failed(List<CartWrite> carts, Set<UUID> deleted, RuntimeException e) {
+    lock.lock();
+    try {
+      for (var id : deleted) {
+        if (failures.merge(id, 1, Integer::sum) >= maxAttempts) {
+          failures.remove(id);
+          removed.remove(id);
+          LOG.error("Dropping the deletion of cart {} after {} failed attempts", id, maxAttempts, e);
+        }
+      }
+      for (var write : carts) {
+        var id = write.cart().id();
+        if (failures.merge(id, 1, Integer::sum) >= maxAttempts) {
+          failures.remove(id);
+          LOG.error("Dropping cart {} after {} failed writes: {}", id, maxAttempts, write.cart(), e);
+          discard(id);
+        } else if (entries.containsKey(id)) {
+          dirty.add(id);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Ends a write made in the caller's transaction: if it committed, records it like a write of its own; otherwise the
+   * cart is written again with the next flush.
+   */
+  private void committed(List<CartWrite> carts, Set<UUID> deleted, boolean committed) {
+    lock.lock();
+    try {
+      for (var id : deleted) {
+        uncommitted.remove(id);
+        if (committed) {
+          removed.remove(id);
+        }
+      }
+      for (var write : carts) {
+        var id = write.cart().id();
+        uncommitted.remove(id);
+        flushing.remove(id);
+        if (committed) {
+          failures.remove(id);
+          written(write);
+        } else if (entries.containsKey(id)) {
+          dirty.add(id);
+        }
+      }
+      evictIfFull();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Hands a cart that {@link #flushInTransaction(UUID)} did not write back to the periodic flush.
+   */
+  private void release(UUID cartId) {
+    lock.lock();
+    try {
+      uncommitted.remove(cartId);
+      flushing.remove(cartId);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Records that {@code write} reached the database: the cached state is now based on the written version, and the
+   * mutations it contained need not be applied again.
+   */
+  private void written(CartWrite write) {
+    var cart = write.cart();
+    var entry = entries.get(cart.id());
+    if (entry != null && entry.storedVersion() == write.storedVersion()) {
+      entries.put(cart.id(), entry.stored(cart.version()));
+    }
+  }
+
+  /**
+   * Reloads a cart whose row was changed elsewhere and applies its unwritten mutations to the reloaded state. A cart
+   * created here whose owner got a cart elsewhere first is replaced by that cart.
+   */
+  private void reapply(CartWrite write) {
+    var cart = write.cart();
+    var reloaded = store.loadById(cart.id())
+        .or(() -> write.storedVersion() == Entry.NEW ? store.load(cart.owner()) : Optional.empty());
+    LOG.info("Cart {} was changed elsewhere, applying its unwritten changes again", cart.id());
+    lock.lock();
+    try {
+      rebase(cart.id(), reloaded);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Replaces the cached state of the cart {@code cartId} with {@code reloaded} and applies the mutations not yet
+   * written to it. If the cart is gone, its cached state and unwritten mutations are dropped.
+   */
+  private void rebase(UUID cartId, Optional<CartSnapshot> reloaded) {
+    var entry = entries.get(cartId);
+    var unwritten = entry != null ? entry.unwritten() : List.<Mutation>of();
+    discard(cartId);
+    if (reloaded.isEmpty()) {
+      LOG.warn("Cart {} was deleted elsewhere, dropping {} unwritten change(s)", cartId, unwritten.size());
+      return;
+    }
+    var rebased = new Entry(reloaded.get(), reloaded.get().version(), List.of(), System.nanoTime());
+    for (var mutation : unwritten) {
+      try {
+        rebased = rebased.apply(mutation.operator().apply(rebased.cart()), mutation.operator());
+      } catch (RuntimeException e) {
+        LOG.warn("Dropping a change to cart {} that no longer applies: {}", cartId, e.getMessage());
+      }
+    }
+    put(rebased);
+    if (!rebased.unwritten().isEmpty()) {
+      dirty.add(rebased.cart().id());
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      LOG.error("Writing carts failed, retrying with the next flush", e);
+    }
+  }
+
+  private <K> Optional<CartSnapshot> cached(Map<K, UUID> index, K key) {
+    lock.lock();
+    try {
+      var id = index.get(key);
+      return id == null ? Optional.empty() : Optional.ofNullable(fresh(id));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * The cached state of the cart {@code cartId}, unless it has no pending changes and was cached longer than the
+   * time to live ago, in which case it is dropped so that it is reloaded.
+   */
+  private @Nullable CartSnapshot fresh(UUID cartId) {
+    var entry = entries.get(cartId);
+    if (entry == null) {
+      return null;
+    }
+    if (!dirty.contains(cartId) && !flushing.contains(cartId) && System.nanoTime() - entry.refreshedAt() >= timeToLive) {
+      discard(cartId);
+      return null;
+    }
+    return entry.cart();
+  }
+
+  /**
+   * Caches a cart loaded from the database, unless it was cached or removed while it was loading.
+   */
+  private Optional<CartSnapshot> cache(Optional<CartSnapshot> loaded) {
+    if (loaded.isEmpty()) {
+      return loaded;
+    }
+    var cart = loaded.get();
+    lock.lock();
+    try {
+      if (removed.contains(cart.id())) {
+        return Optional.empty();
+      }
+      var cached = entries.get(cart.id());
+      if (cached != null) {
+        return Optional.of(cached.cart());
+      }
+      put(new Entry(cart, cart.version(), List.of(), System.nanoTime()));
+      return loaded;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void put(Entry entry) {
+    var cart = entry.cart();
+    var previous = entries.put(cart.id(), entry);
+    if (previous != null) {
+      previous.cart().lines().forEach(line -> itemCarts.remove(line.id()));
+    }
+    owners.put(cart.owner(), cart.id());
+    for (Line line : cart.lines()) {
+      itemCarts.put(line.id(), cart.id());
+    }
+    evictIfFull();
+  }
+
+  private void discard(UUID cartId) {
+    dirty.remove(cartId);
+    var entry = entries.remove(cartId);
+    if (entry != null) {
+      owners.remove(entry.cart().owner(), cartId);
+      entry.cart().lines().forEach(line -> itemCarts.remove(line.id()));
+    }
+  }
+
+  /**
+   * Evicts the least recently used carts that have no pending changes until at most {@code maxSize} are cached.
+   */
+  private void evictIfFull() {
+    var excess = entries.size() - maxSize;
+    if (excess <= 0) {
+      return;
+    }
+    var evicted = new ArrayList<UUID>(excess);
+    for (var id : entries.keySet()) {
+      if (evicted.size() == excess) {
+        break;
+      }
+      if (!dirty.contains(id) && !flushing.contains(id)) {
+        evicted.add(id);
+      }
+    }
+    evicted.forEach(this::discard);
+  }
+
+  /**
+   * A cached cart.
+   *
+   * @param cart the current state
+   * @param storedVersion the version of the row {@code cart} is based on, or {@link #NEW} if it was never written
+   * @param unwritten the mutations applied since, oldest first
+   * @param refreshedAt when the cart was loaded or last written, in {@link System#nanoTime()}
+   */
+  private record Entry(CartSnapshot cart, long storedVersion, List<Mutation> unwritten, long refreshedAt) {
+    static final long NEW = -1L;
+
+    Entry apply(CartSnapshot updated, UnaryOperator<CartSnapshot> operator) {
+      var mutations = new ArrayList<Mutation>(unwritten.size() + 1);
+      mutations.addAll(unwritten);
+      mutations.add(new Mutation(operator, updated.version()));
+      return new Entry(updated, storedVersion, List.copyOf(mutations), refreshedAt);
+    }
+
+    /**
+     * This entry based on the written version {@code version}, keeping the mutations applied after it.
+     */
+    Entry stored(long version) {
+      var pending = unwritten.stream().filter(mutation -> mutation.version() > version).toList();
+      return new Entry(cart, version, pending, System.nanoTime());
+    }
+  }
+
+  /**
+   * A mutation and the version of the snapshot it produced.
+   */
+  private record Mutation(UnaryOperator<CartSnapshot> operator, long version) {
+  }
+}
@@ -1,5 +1,6 @@
 package com.simplecommerce.cart;
 
+import com.simplecommerce.cart.CartSnapshot.Customer;
 import java.util.Optional;
 import java.util.UUID;
 import org.slf4j.Logger;
@@ -9,9 +10,13 @@ import org.springframework.beans.factory.annotation.Autowire;
 import org.springframework.beans.factory.annotation.Configurable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
- * Implementation of CartCheckoutService for checkout operations.
+ * Implementation of CartCheckoutService for checkout operations. Carts are read from the database after the pending
+ * changes of {@link CartCache} to them are written in the checkout transaction, so checkout sees every change made to
+ * the cart.
  *
  * @author julius.krah
  */
@@ -23,27 +28,43 @@ class CartCheckoutManagement implements CartCheckoutService {
   private static final Logger LOG = LoggerFactory.getLogger(CartCheckoutManagement.class);
 
   private Carts cartRepository;
+  private CartCache cartCache;
 
   public void setCartRepository(ObjectFactory<Carts> cartRepository) {
     this.cartRepository = cartRepository.getObject();
   }
 
+  public void setCartCache(ObjectFactory<CartCache> cartCache) {
+    this.cartCache = cartCache.getObject();
+  }
+
   @Override
-  @Transactional(readOnly = true)
   public Optional<CartEntity> getCartEntityById(UUID cartId) {
-    return cartRepository.findById(cartId);
+    cartCache.flushInTransaction(cartId);
+    return cartRepository.findWithItemsById(cartId);
   }
 
   @Override
-  @Transactional(readOnly = true)
   public Optional<CartEntity> getCartEntityByCustomerId(UUID customerId) {
-    return cartRepository.findByCustomerId(customerId);
+    cartCache.flushInTransaction(new Customer(customerId));
+    return cartRepository.findWithItemsByCustomerId(customerId);
   }
 
   @Override
   public void clearCartAfterCheckout(CartEntity cartEntity) {
     LOG.debug("Clearing cart after checkout: cartId={}", cartEntity.getId());
+    var checkedOut = cartEntity.getVersion();
     cartEntity.clearItems();
     cartRepository.save(cartEntity);
+    // The cart is changed behind the cache: once the change is visible, drop the checked-out state, keeping changes
+    // made to the cart since
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status == STATUS_COMMITTED) {
+          cartCache.evict(cartEntity.getId(), checkedOut);
+        }
+      }
+    });
   }
 }
@@ -12,7 +12,7 @@ import java.util.UUID;
 public interface CartCheckoutService {
 
   /**
-   * Get a cart entity by ID for checkout processing.
+   * Get a cart entity by ID for checkout processing. Pending cart changes are written first.
    *
    * @param cartId the cart ID
    * @return the cart entity if found
@@ -20,7 +20,7 @@ public interface CartCheckoutService {
   Optional<CartEntity> getCartEntityById(UUID cartId);
 
   /**
-   * Get a cart entity by customer ID for checkout processing.
+   * Get a cart entity by customer ID for checkout processing. Pending cart changes are written first.
    *
    * @param customerId the customer ID
    * @return the cart entity if found
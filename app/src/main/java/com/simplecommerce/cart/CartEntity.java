@@ -4,6 +4,7 @@ import static jakarta.persistence.CascadeType.ALL;
 import static jakarta.persistence.FetchType.LAZY;
 
 import com.simplecommerce.actor.ActorEntity;
+import com.simplecommerce.shared.types.MinorAmount;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -12,6 +13,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -22,7 +25,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 import org.jspecify.annotations.Nullable;
 
 /**
- * A shopping cart containing items that a customer intends to purchase.
+ * A shopping cart containing items that a customer intends to purchase. The subtotal, item count and total quantity
+ * are kept up to date by the methods that change the items, so they can be read without loading the items.
  *
  * @author julius.krah
  */
@@ -57,6 +61,23 @@ public class CartEntity {
   @Nullable
   private OffsetDateTime expiresAt;
 
+  @Column(name = "subtotal_amount", nullable = false, precision = 19, scale = 4)
+  private BigDecimal subtotalAmount = BigDecimal.ZERO;
+
+  @Column(name = "subtotal_currency", length = 3)
+  @Nullable
+  private String subtotalCurrency;
+
+  @Column(name = "item_count", nullable = false)
+  private int itemCount;
+
+  @Column(name = "total_quantity", nullable = false)
+  private int totalQuantity;
+
+  @Version
+  @Column(nullable = false)
+  private long version;
+
   /**
    * Adds an item to the cart. If the variant already exists in the cart, updates the quantity.
    *
@@ -71,11 +92,12 @@ public class CartEntity {
     if (existingItem.isPresent()) {
       // Update quantity of existing item
       var existing = existingItem.get();
-      existing.setQuantity(existing.getQuantity() + item.getQuantity());
+      setQuantity(existing, existing.getQuantity() + item.getQuantity());
     } else {
       // Add new item
       items.add(item);
       item.setCart(this);
+      adjustTotals(item.getTotalPrice(), 1, item.getQuantity());
     }
   }
 
@@ -85,15 +107,53 @@ public class CartEntity {
    * @param item the cart item to remove
    */
   public void removeItem(CartItemEntity item) {
-    items.remove(item);
+    if (items.remove(item)) {
+      adjustTotals(item.getTotalPrice().times(-1), -1, -item.getQuantity());
+    }
     item.setCart(null);
   }
 
+  /**
+   * Sets the quantity of an item in the cart.
+   *
+   * @param item     the cart item
+   * @param quantity the new quantity
+   */
+  public void setQuantity(CartItemEntity item, int quantity) {
+    var delta = quantity - item.getQuantity();
+    var previousTotal = item.getTotalPrice();
+    item.setQuantity(quantity);
+    adjustTotals(item.getTotalPrice().minus(previousTotal), 0, delta);
+  }
+
   /**
    * Clears all items from the cart.
    */
   public void clearItems() {
     items.clear();
+    subtotalAmount = BigDecimal.ZERO;
+    subtotalCurrency = null;
+    itemCount = 0;
+    totalQuantity = 0;
+  }
+
+  /**
+   * Gets the subtotal of the items in the cart, or {@code null} if the cart is empty.
+   *
+   * @return the subtotal
+   */
+  @Nullable
+  public MinorAmount getSubtotal() {
+    return subtotalCurrency == null ? null : MinorAmount.of(subtotalAmount, subtotalCurrency);
+  }
+
+  /**
+   * Gets the number of items in the cart.
+   *
+   * @return the number of items
+   */
+  public int getItemCount() {
+    return itemCount;
   }
 
   /**
@@ -102,9 +162,16 @@ public class CartEntity {
    * @return the total quantity
    */
   public int getTotalQuantity() {
-    return items.stream()
-        .mapToInt(CartItemEntity::getQuantity)
-        .sum();
+    return totalQuantity;
+  }
+
+  private void adjustTotals(MinorAmount subtotalDelta, int itemCountDelta, int quantityDelta) {
+    var subtotal = getSubtotal();
+    var adjusted = subtotal == null ? subtotalDelta : subtotal.plus(subtotalDelta);
+    subtotalAmount = adjusted.toBigDecimal();
+    subtotalCurrency = adjusted.currency().getCurrencyCode();
+    itemCount += itemCountDelta;
+    totalQuantity += quantityDelta;
   }
 
   public boolean isNew() {
@@ -170,6 +237,10 @@ public class CartEntity {
     this.expiresAt = expiresAt;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -3,6 +3,9 @@ package com.simplecommerce.cart;
 import static jakarta.persistence.FetchType.LAZY;
 
 import com.simplecommerce.product.variant.ProductVariantEntity;
+import com.simplecommerce.shared.types.MinorAmount;
+import com.simplecommerce.shared.types.Money;
+import com.simplecommerce.shared.utils.MonetaryUtils;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -14,9 +17,6 @@ import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.Objects;
 import java.util.UUID;
-import javax.money.CurrencyUnit;
-import javax.money.Monetary;
-import javax.money.MonetaryAmount;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.jspecify.annotations.Nullable;
@@ -59,35 +59,31 @@ public class CartItemEntity {
   private OffsetDateTime updatedAt;
 
   /**
-   * Gets the unit price as a MonetaryAmount.
+   * Gets the unit price at its stored scale, which may be finer than the minor unit of its currency.
    *
    * @return the unit price
    */
-  public MonetaryAmount getUnitPrice() {
-    CurrencyUnit currency = Monetary.getCurrency(unitPriceCurrency);
-    return Monetary.getDefaultAmountFactory()
-        .setCurrency(currency)
-        .setNumber(unitPriceAmount)
-        .create();
+  public Money getUnitPrice() {
+    return new Money(MonetaryUtils.getCurrency(unitPriceCurrency), unitPriceAmount);
   }
 
   /**
-   * Sets the unit price from a MonetaryAmount.
+   * Sets the unit price.
    *
    * @param price the unit price
    */
-  public void setUnitPrice(MonetaryAmount price) {
-    this.unitPriceAmount = price.getNumber().numberValue(BigDecimal.class);
-    this.unitPriceCurrency = price.getCurrency().getCurrencyCode();
+  public void setUnitPrice(Money price) {
+    this.unitPriceAmount = price.amount();
+    this.unitPriceCurrency = price.currency().getCurrencyCode();
   }
 
   /**
-   * Calculates the total price for this line item (unitPrice * quantity).
+   * Calculates the total price for this line item (unitPrice * quantity), rounded to the minor unit.
    *
    * @return the total price
    */
-  public MonetaryAmount getTotalPrice() {
-    return getUnitPrice().multiply(quantity);
+  public MinorAmount getTotalPrice() {
+    return MinorAmount.total(getUnitPrice(), quantity);
   }
 
   public boolean isNew() {
@@ -2,6 +2,7 @@ package com.simplecommerce.cart;
 
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
 
 /**
@@ -13,6 +14,9 @@ interface CartItems extends Repository<CartItemEntity, UUID> {
 
   Optional<CartItemEntity> findById(UUID id);
 
+  @Query("SELECT ci.cart.id FROM CartItem ci WHERE ci.id = :id")
+  Optional<UUID> findCartIdById(UUID id);
+
   CartItemEntity save(CartItemEntity cartItem);
 
   void delete(CartItemEntity cartItem);
@@ -2,20 +2,23 @@ package com.simplecommerce.cart;
 
 import com.simplecommerce.actor.ActorEntity;
 import com.simplecommerce.actor.Actors;
+import com.simplecommerce.cart.CartSnapshot.Customer;
+import com.simplecommerce.cart.CartSnapshot.Line;
+import com.simplecommerce.cart.CartSnapshot.Owner;
+import com.simplecommerce.cart.CartSnapshot.Session;
+import com.simplecommerce.product.pricing.PriceContext;
 import com.simplecommerce.product.pricing.PriceResolutionService;
-import com.simplecommerce.product.variant.ProductVariantManagement;
-import com.simplecommerce.product.variant.ProductVariantService;
+import com.simplecommerce.product.pricing.VariantQuantity;
+import com.simplecommerce.product.variant.ProductVariant;
 import com.simplecommerce.product.variant.ProductVariants;
 import com.simplecommerce.shared.GlobalId;
 import com.simplecommerce.shared.exceptions.NotFoundException;
-import com.simplecommerce.shared.types.Money;
+import com.simplecommerce.shared.types.MinorAmount;
 import com.simplecommerce.shared.utils.MonetaryUtils;
 import com.simplecommerce.shared.utils.SecurityUtils;
-import java.math.BigDecimal;
-import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
-import javax.money.MonetaryAmount;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,7 +29,8 @@ import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
- * Implementation of CartService for managing shopping carts.
+ * Implementation of CartService for managing shopping carts. Carts are read and changed through {@link CartCache},
+ * which writes the changes to the database behind the mutations.
  *
  * @author julius.krah
  */
@@ -35,14 +39,9 @@ import org.springframework.transaction.annotation.Transactional;
 class CartManagement implements CartService {
 
   private static final Logger LOG = LoggerFactory.getLogger(CartManagement.class);
-  private static final int CART_EXPIRY_DAYS = 30;
 
-  public void setCartRepository(ObjectFactory<Carts> cartRepository) {
-    this.cartRepository = cartRepository.getObject();
-  }
-
-  public void setCartItemRepository(ObjectFactory<CartItems> cartItemRepository) {
-    this.cartItemRepository = cartItemRepository.getObject();
+  public void setCartCache(ObjectFactory<CartCache> cartCache) {
+    this.cartCache = cartCache.getObject();
   }
 
   public void setVariantRepository(ObjectFactory<ProductVariants> variantRepository) {
@@ -57,10 +56,8 @@ class CartManagement implements CartService {
     this.actorRepository = actorRepository.getObject();
   }
 
-  private Carts cartRepository;
-  private CartItems cartItemRepository;
+  private CartCache cartCache;
   private ProductVariants variantRepository;
-  private ProductVariantService variantService = new ProductVariantManagement();
   private PriceResolutionService priceResolutionService;
   private Actors actorRepository;
 
@@ -68,26 +65,19 @@ class CartManagement implements CartService {
   @Transactional(readOnly = true)
   public Cart getOrCreateCart() {
     var currentUser = getCurrentUser();
-    CartEntity cartEntity;
-
-    if (currentUser != null) {
-      // Authenticated user - find or create cart
-      cartEntity = cartRepository.findByCustomerId(currentUser.getId())
-          .orElseGet(() -> createCartForUser(currentUser.getId()));
-    } else {
+    if (currentUser == null) {
       throw new IllegalStateException("Cannot create cart without user or session ID");
     }
-
-    return toCart(cartEntity);
+    return toCart(cartOf(new Customer(currentUser.getId())));
   }
 
   @Override
   @Transactional(readOnly = true)
   public Cart findCartById(String id) {
     var globalId = GlobalId.decode(id);
-    var cartEntity = cartRepository.findById(UUID.fromString(globalId.id()))
+    var cart = cartCache.findById(UUID.fromString(globalId.id()))
         .orElseThrow(() -> new NotFoundException("Cart not found"));
-    return toCart(cartEntity);
+    return toCart(cart);
   }
 
   @Override
@@ -95,44 +85,39 @@ class CartManagement implements CartService {
     LOG.debug("Adding item to cart: variantId={}, quantity={}", input.variantId(), input.quantity());
 
     // Get or create cart
-    CartEntity cartEntity = getOrCreateCartEntity(input.sessionId());
+    var cart = getOrCreateCartSnapshot(input.sessionId());
 
     // Get variant
     var globalId = GlobalId.decode(input.variantId());
     var variant = variantRepository.findById(UUID.fromString(globalId.id()))
         .orElseThrow(() -> new NotFoundException("Product variant not found"));
 
-    // Resolve price for the variant
-    var price = priceResolutionService.resolvePrice(variant, null, Locale.getDefault())
-        .orElseThrow(() -> new IllegalStateException("No price found for variant"));
-
-    // Create cart item
-    var cartItem = new CartItemEntity();
-    cartItem.setVariant(variant);
-    cartItem.setQuantity(input.quantity());
-    cartItem.setUnitPrice(convertMoneyToMonetaryAmount(price));
+    // Resolve the unit price for the quantity added, applying its quantity tier
+    var line = new VariantQuantity(variant.getId(), input.quantity());
+    var price = priceResolutionService.resolvePrices(List.of(line), PriceContext.of(null, Locale.getDefault())).get(line);
+    if (price == null) {
+      throw new IllegalStateException("No price found for variant");
+    }
+    var productVariant = ProductVariant.fromEntity(variant);
 
     // Add to cart
-    cartEntity.addItem(cartItem);
-    cartEntity = cartRepository.save(cartEntity);
+    cart = cartCache.update(cart, c -> c.add(productVariant, input.quantity(), price));
 
-    LOG.debug("Added item to cart: cartId={}, cartItemId={}", cartEntity.getId(), cartItem.getId());
-    return toCart(cartEntity);
+    LOG.debug("Added item to cart: cartId={}, variantId={}", cart.id(), variant.getId());
+    return toCart(cart);
   }
 
   @Override
   public Cart updateCartItem(UpdateCartItemInput input) {
     LOG.debug("Updating cart item: cartItemId={}, quantity={}", input.cartItemId(), input.quantity());
 
-    var globalId = GlobalId.decode(input.cartItemId());
-    var cartItem = cartItemRepository.findById(UUID.fromString(globalId.id()))
+    var cartItemId = UUID.fromString(GlobalId.decode(input.cartItemId()).id());
+    var cart = cartCache.findByItemId(cartItemId)
         .orElseThrow(() -> new NotFoundException("Cart item not found"));
 
-    cartItem.setQuantity(input.quantity());
-    cartItem = cartItemRepository.save(cartItem);
+    cart = cartCache.update(cart, c -> c.withQuantity(cartItemId, input.quantity()));
 
-    var cart = cartItem.getCart();
-    LOG.debug("Updated cart item: cartId={}, cartItemId={}", cart.getId(), cartItem.getId());
+    LOG.debug("Updated cart item: cartId={}, cartItemId={}", cart.id(), cartItemId);
     return toCart(cart);
   }
 
@@ -140,15 +125,13 @@ class CartManagement implements CartService {
   public Cart removeFromCart(String cartItemId) {
     LOG.debug("Removing item from cart: cartItemId={}", cartItemId);
 
-    var globalId = GlobalId.decode(cartItemId);
-    var cartItem = cartItemRepository.findById(UUID.fromString(globalId.id()))
+    var itemId = UUID.fromString(GlobalId.decode(cartItemId).id());
+    var cart = cartCache.findByItemId(itemId)
         .orElseThrow(() -> new NotFoundException("Cart item not found"));
 
-    var cart = cartItem.getCart();
-    cart.removeItem(cartItem);
-    cartItemRepository.delete(cartItem);
+    cart = cartCache.update(cart, c -> c.without(itemId));
 
-    LOG.debug("Removed item from cart: cartId={}, cartItemId={}", cart.getId(), globalId.id());
+    LOG.debug("Removed item from cart: cartId={}, cartItemId={}", cart.id(), itemId);
     return toCart(cart);
   }
 
@@ -156,12 +139,10 @@ class CartManagement implements CartService {
   public Cart clearCart() {
     LOG.debug("Clearing cart");
 
-    var cartEntity = getOrCreateCartEntity(null);
-    cartEntity.clearItems();
-    cartEntity = cartRepository.save(cartEntity);
+    var cart = cartCache.update(getOrCreateCartSnapshot(null), CartSnapshot::cleared);
 
-    LOG.debug("Cleared cart: cartId={}", cartEntity.getId());
-    return toCart(cartEntity);
+    LOG.debug("Cleared cart: cartId={}", cart.id());
+    return toCart(cart);
   }
 
   @Override
@@ -173,54 +154,31 @@ class CartManagement implements CartService {
       throw new IllegalStateException("User must be authenticated to merge carts");
     }
 
-    var globalId = GlobalId.decode(guestCartId);
-    var guestCart = cartRepository.findById(UUID.fromString(globalId.id()))
-        .orElseThrow(() -> new NotFoundException("Guest cart not found"));
-
-    var userCart = cartRepository.findByCustomerId(currentUser.getId())
-        .orElseGet(() -> createCartForUser(currentUser.getId()));
-
-    // Merge items from guest cart to user cart
-    for (var item : guestCart.getItems()) {
-      userCart.addItem(item);
+    var guestId = UUID.fromString(GlobalId.decode(guestCartId).id());
+    var userCart = cartOf(new Customer(currentUser.getId()));
+    if (!guestId.equals(userCart.id())) {
+      // Merged in the database by a single statement
+      userCart = cartCache.merge(guestId, userCart.id());
     }
 
-    userCart = cartRepository.save(userCart);
-    cartRepository.delete(guestCart);
-
-    LOG.debug("Merged carts: guestCartId={}, userCartId={}", globalId.id(), userCart.getId());
+    LOG.debug("Merged carts: guestCartId={}, userCartId={}", guestId, userCart.id());
     return toCart(userCart);
   }
 
-  private CartEntity getOrCreateCartEntity(String sessionId) {
+  private CartSnapshot getOrCreateCartSnapshot(@Nullable String sessionId) {
     var currentUser = getCurrentUser();
 
     if (currentUser != null) {
-      return cartRepository.findByCustomerId(currentUser.getId())
-          .orElseGet(() -> createCartForUser(currentUser.getId()));
+      return cartOf(new Customer(currentUser.getId()));
     } else if (sessionId != null) {
-      return cartRepository.findBySessionId(sessionId)
-          .orElseGet(() -> createCartForSession(sessionId));
+      return cartOf(new Session(sessionId));
     } else {
       throw new IllegalStateException("Cannot create cart without user or session ID");
     }
   }
 
-  private CartEntity createCartForUser(UUID userId) {
-    var actor = actorRepository.findById(userId)
-        .orElseThrow(() -> new NotFoundException("User not found"));
-
-    var cart = new CartEntity();
-    cart.setCustomer(actor);
-    cart.setExpiresAt(OffsetDateTime.now().plusDays(CART_EXPIRY_DAYS));
-    return cartRepository.save(cart);
-  }
-
-  private CartEntity createCartForSession(String sessionId) {
-    var cart = new CartEntity();
-    cart.setSessionId(sessionId);
-    cart.setExpiresAt(OffsetDateTime.now().plusDays(CART_EXPIRY_DAYS));
-    return cartRepository.save(cart);
+  private CartSnapshot cartOf(Owner owner) {
+    return cartCache.getOrCreate(owner, () -> CartSnapshot.create(owner));
   }
 
   private @Nullable ActorEntity getCurrentUser() {
@@ -229,73 +187,54 @@ class CartManagement implements CartService {
         .orElse(null);
   }
 
-  private Cart toCart(CartEntity entity) {
-    var items = entity.getItems().stream()
+  private Cart toCart(CartSnapshot cart) {
+    var items = cart.lines().stream()
         .map(this::toCartItem)
         .toList();
 
-    var subtotal = calculateSubtotal(entity);
+    var subtotal = calculateSubtotal(cart);
     var tax = calculateTax(subtotal);
-    var total = subtotal.add(tax);
+    var total = subtotal.plus(tax);
 
     return new Cart(
-        new GlobalId("Cart", entity.getId().toString()).encode(),
+        new GlobalId("Cart", cart.id().toString()).encode(),
         null, // customer will be resolved by GraphQL
-        entity.getSessionId(),
+        cart.owner() instanceof Session(var sessionId) ? sessionId : null,
         items,
-        entity.getTotalQuantity(),
-        convertMonetaryAmountToMoney(subtotal),
-        convertMonetaryAmountToMoney(tax),
-        convertMonetaryAmountToMoney(total),
-        entity.getCreatedAt(),
-        entity.getUpdatedAt(),
-        entity.getExpiresAt()
+        cart.totalQuantity(),
+        subtotal.toMoney(),
+        tax.toMoney(),
+        total.toMoney(),
+        cart.createdAt(),
+        cart.updatedAt(),
+        cart.expiresAt()
     );
   }
 
-  private CartItem toCartItem(CartItemEntity entity) {
-    var variant = variantService.findVariant(
-        entity.getVariant().getId().toString()
-    );
-
-    var unitPrice = entity.getUnitPrice();
-    var totalPrice = entity.getTotalPrice();
-
+  private CartItem toCartItem(Line line) {
     return new CartItem(
-        new GlobalId("CartItem", entity.getId().toString()).encode(),
-        variant,
-        entity.getQuantity(),
-        convertMonetaryAmountToMoney(unitPrice),
-        convertMonetaryAmountToMoney(totalPrice),
-        entity.getCreatedAt(),
-        entity.getUpdatedAt()
+        new GlobalId("CartItem", line.id().toString()).encode(),
+        line.variant(),
+        line.quantity(),
+        line.unitPrice(),
+        line.totalPrice().toMoney(),
+        line.createdAt(),
+        line.updatedAt()
     );
   }
 
-  private MonetaryAmount calculateSubtotal(CartEntity cart) {
-    return cart.getItems().stream()
-        .map(CartItemEntity::getTotalPrice)
-        .reduce(MonetaryAmount::add)
-        .orElse(createZeroAmount());
+  private MinorAmount calculateSubtotal(CartSnapshot cart) {
+    var subtotal = cart.subtotal();
+    return subtotal != null ? subtotal : createZeroAmount();
   }
 
-  private MonetaryAmount calculateTax(MonetaryAmount subtotal) {
+  private MinorAmount calculateTax(MinorAmount subtotal) {
     // TODO: Implement proper tax calculation
     // For now, return 0
-    return createZeroAmount();
-  }
-
-  private MonetaryAmount createZeroAmount() {
-    return MonetaryUtils.getMonetaryAmount(BigDecimal.ZERO, "EUR", LocaleContextHolder.getLocale());
-  }
-
-  private MonetaryAmount convertMoneyToMonetaryAmount(Money money) {
-    return org.javamoney.moneta.Money.of(money.amount(), money.currency().toString());
+    return MinorAmount.zero(subtotal.currency());
   }
 
-  private Money convertMonetaryAmountToMoney(MonetaryAmount amount) {
-    var currencyUnit = amount.getCurrency();
-    var amountValue = amount.getNumber().numberValue(BigDecimal.class);
-    return new Money(currencyUnit, amountValue);
+  private MinorAmount createZeroAmount() {
+    return MinorAmount.zero(MonetaryUtils.getCurrency("EUR", LocaleContextHolder.getLocale()));
   }
 }
@@ -0,0 +1,149 @@
+package com.simplecommerce.cart;
+
+import com.simplecommerce.product.variant.ProductVariant;
+import com.simplecommerce.shared.exceptions.NotFoundException;
+import com.simplecommerce.shared.types.MinorAmount;
+import com.simplecommerce.shared.types.Money;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Immutable state of a cart held by {@link CartCache}. Every mutation returns a new snapshot with the next
+ * {@code version}, which is also the version written to the {@code carts} row. Like {@link CartEntity}, the snapshot
+ * carries its subtotal, item count and total quantity, adjusted by each mutation. Each mutation also moves
+ * {@code expiresAt} to {@link #LIFETIME} after it, so that only carts left unchanged that long are swept.
+ *
+ * @author julius.krah
+ */
+record CartSnapshot(
+    UUID id,
+    Owner owner,
+    List<Line> lines,
+    @Nullable MinorAmount subtotal,
+    int itemCount,
+    int totalQuantity,
+    OffsetDateTime createdAt,
+    OffsetDateTime updatedAt,
+    @Nullable OffsetDateTime expiresAt,
+    long version
+) {
+
+  /**
+   * How long a cart is kept after it was last changed.
+   */
+  static final Duration LIFETIME = Duration.ofDays(30);
+
+  CartSnapshot {
+    lines = List.copyOf(lines);
+  }
+
+  /**
+   * The customer or the guest session a cart belongs to.
+   */
+  sealed interface Owner permits Customer, Session {
+  }
+
+  record Customer(UUID customerId) implements Owner {
+  }
+
+  record Session(String sessionId) implements Owner {
+  }
+
+  /**
+   * A line of the cart.
+   */
+  record Line(
+      UUID id,
+      ProductVariant variant,
+      int quantity,
+      Money unitPrice,
+      OffsetDateTime createdAt,
+      OffsetDateTime updatedAt
+  ) {
+
+    UUID variantId() {
+      return UUID.fromString(variant.id());
+    }
+
+    MinorAmount totalPrice() {
+      return MinorAmount.total(unitPrice, quantity);
+    }
+
+    Line withQuantity(int quantity, OffsetDateTime now) {
+      return new Line(id, variant, quantity, unitPrice, createdAt, now);
+    }
+  }
+
+  /**
+   * A new, empty cart.
+   */
+  static CartSnapshot create(Owner owner) {
+    var now = OffsetDateTime.now();
+    return new CartSnapshot(UUID.randomUUID(), owner, List.of(), null, 0, 0, now, now, now.plus(LIFETIME), 0);
+  }
+
+  Optional<Line> line(UUID itemId) {
+    return lines.stream().filter(line -> line.id().equals(itemId)).findFirst();
+  }
+
+  /**
+   * Adds {@code quantity} of {@code variant}. If the variant is already in the cart, its quantity is increased.
+   */
+  CartSnapshot add(ProductVariant variant, int quantity, Money unitPrice) {
+    var now = OffsetDateTime.now();
+    var next = new ArrayList<Line>(lines.size() + 1);
+    @Nullable MinorAmount totalDelta = null;
+    for (var line : lines) {
+      if (totalDelta == null && line.variant().id().equals(variant.id())) {
+        var increased = line.withQuantity(line.quantity() + quantity, now);
+        totalDelta = increased.totalPrice().minus(line.totalPrice());
+        next.add(increased);
+      } else {
+        next.add(line);
+      }
+    }
+    if (totalDelta != null) {
+      return next(next, totalDelta, 0, quantity, now);
+    }
+    var line = new Line(UUID.randomUUID(), variant, quantity, unitPrice, now, now);
+    next.add(line);
+    return next(next, line.totalPrice(), 1, quantity, now);
+  }
+
+  /**
+   * Sets the quantity of the line {@code itemId}.
+   */
+  CartSnapshot withQuantity(UUID itemId, int quantity) {
+    var now = OffsetDateTime.now();
+    var line = line(itemId).orElseThrow(() -> new NotFoundException("Cart item not found"));
+    var changed = line.withQuantity(quantity, now);
+    return next(lines.stream().map(l -> l == line ? changed : l).toList(),
+        changed.totalPrice().minus(line.totalPrice()), 0, quantity - line.quantity(), now);
+  }
+
+  /**
+   * Removes the line {@code itemId}.
+   */
+  CartSnapshot without(UUID itemId) {
+    var line = line(itemId).orElseThrow(() -> new NotFoundException("Cart item not found"));
+    return next(lines.stream().filter(l -> l != line).toList(), line.totalPrice().times(-1), -1, -line.quantity(),
+        OffsetDateTime.now());
+  }
+
+  CartSnapshot cleared() {
+    var now = OffsetDateTime.now();
+    return new CartSnapshot(id, owner, List.of(), null, 0, 0, createdAt, now, now.plus(LIFETIME), version + 1);
+  }
+
+  private CartSnapshot next(List<Line> lines, MinorAmount subtotalDelta, int itemCountDelta, int quantityDelta,
+      OffsetDateTime now) {
+    var adjusted = subtotal == null ? subtotalDelta : subtotal.plus(subtotalDelta);
+    return new CartSnapshot(id, owner, lines, adjusted, itemCount + itemCountDelta, totalQuantity + quantityDelta,
+        createdAt, now, now.plus(LIFETIME), version + 1);
+  }
+}
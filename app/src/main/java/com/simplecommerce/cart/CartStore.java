@@ -0,0 +1,283 @@
+package com.simplecommerce.cart;
+
+import static java.util.Objects.requireNonNull;
+
+import com.simplecommerce.cart.CartSnapshot.Customer;
+import com.simplecommerce.cart.CartSnapshot.Line;
+import com.simplecommerce.cart.CartSnapshot.Owner;
+import com.simplecommerce.cart.CartSnapshot.Session;
+import com.simplecommerce.product.variant.ProductVariant;
+import com.simplecommerce.shared.exceptions.OperationNotAllowedException;
+import com.simplecommerce.shared.types.MinorAmount;
+import com.simplecommerce.shared.utils.MonetaryUtils;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reads carts into {@link CartSnapshot}s, each with its items and their variants in one query, and writes snapshots
+ * back to the {@code carts} and {@code cart_items} tables. A write replaces the items of every cart it contains and is applied in one transaction, one batched statement per
+ * kind of change.
+ *
+ * @author julius.krah
+ */
+@Component
+class CartStore {
+  private static final String INSERT_CART = """
+      INSERT INTO carts (id, customer_id, session_id, subtotal_amount, subtotal_currency, item_count, total_quantity,
+                         created_at, updated_at, expires_at, version)
+      VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+      ON CONFLICT DO NOTHING""";
+  private static final String UPDATE_CART = """
+      UPDATE carts
+      SET subtotal_amount = ?, subtotal_currency = ?, item_count = ?, total_quantity = ?, updated_at = ?,
+          expires_at = ?, version = ?
+      WHERE id = ? AND version = ?""";
+  private static final String DELETE_MISSING_ITEMS = "DELETE FROM cart_items WHERE cart_id = ? AND NOT (id = ANY (?))";
+  private static final String UPSERT_ITEM = """
+      INSERT INTO cart_items (id, cart_id, variant_id, quantity, unit_price_amount, unit_price_currency, created_at, updated_at)
+      VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+      ON CONFLICT (id) DO UPDATE
+      SET quantity = excluded.quantity, unit_price_amount = excluded.unit_price_amount,
+          unit_price_currency = excluded.unit_price_currency, updated_at = excluded.updated_at""";
+  private static final String LOCK_CARTS = "SELECT id FROM carts WHERE id IN (?, ?) ORDER BY id FOR UPDATE";
+  private static final String CART_CURRENCIES = "SELECT DISTINCT unit_price_currency FROM cart_items WHERE cart_id IN (?, ?)";
+  // Line totals are rounded to the minor unit (:scale) before they are summed, as CartSnapshot does
+  private static final String MERGE = """
+      WITH totals AS (
+        SELECT COALESCE(SUM(
+                 ROUND(COALESCE(ui.unit_price_amount, gi.unit_price_amount) * (COALESCE(ui.quantity, 0) + gi.quantity), :scale)
+                 - ROUND(COALESCE(ui.unit_price_amount, 0) * COALESCE(ui.quantity, 0), :scale)), 0) AS amount,
+               MIN(gi.unit_price_currency) AS currency,
+               COUNT(*) FILTER (WHERE ui.id IS NULL) AS new_items,
+               COALESCE(SUM(gi.quantity), 0) AS quantity
+        FROM cart_items gi
+        LEFT JOIN cart_items ui ON ui.cart_id = :userCartId AND ui.variant_id = gi.variant_id
+        WHERE gi.cart_id = :guestCartId
+      ), merged AS (
+        INSERT INTO cart_items (id, cart_id, variant_id, quantity, unit_price_amount, unit_price_currency)
+        SELECT gen_random_uuid(), :userCartId, variant_id, quantity, unit_price_amount, unit_price_currency
+        FROM cart_items
+        WHERE cart_id = :guestCartId
+        ON CONFLICT (cart_id, variant_id) DO UPDATE SET quantity = cart_items.quantity + excluded.quantity
+      ), removed AS (
+        DELETE FROM carts WHERE id = :guestCartId
+      )
+      UPDATE carts c
+      SET subtotal_amount = c.subtotal_amount + t.amount,
+          subtotal_currency = COALESCE(t.currency, c.subtotal_currency),
+          item_count = c.item_count + t.new_items,
+          total_quantity = c.total_quantity + t.quantity,
+          updated_at = now(),
+          expires_at = GREATEST(c.expires_at, :expiresAt),
+          version = c.version + 1
+      FROM totals t
+      WHERE c.id = :userCartId""";
+
+  private final Carts cartRepository;
+  private final CartItems cartItemRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final JdbcClient jdbcClient;
+  private final TransactionTemplate readTemplate;
+  private final TransactionTemplate writeTemplate;
+  private final TransactionTemplate joinTemplate;
+
+  CartStore(Carts cartRepository, CartItems cartItemRepository, JdbcTemplate jdbcTemplate, JdbcClient jdbcClient,
+      PlatformTransactionManager transactionManager) {
+    this.cartRepository = cartRepository;
+    this.cartItemRepository = cartItemRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.jdbcClient = jdbcClient;
+    this.readTemplate = new TransactionTemplate(transactionManager);
+    this.readTemplate.setReadOnly(true);
+    this.writeTemplate = new TransactionTemplate(transactionManager);
+    this.writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.joinTemplate = new TransactionTemplate(transactionManager);
+    this.joinTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_MANDATORY);
+  }
+
+  Optional<CartSnapshot> load(Owner owner) {
+    return read(() -> switch (owner) {
+      case Customer(var customerId) -> cartRepository.findWithItemsByCustomerId(customerId);
+      case Session(var sessionId) -> cartRepository.findWithItemsBySessionId(sessionId);
+    });
+  }
+
+  Optional<CartSnapshot> loadById(UUID cartId) {
+    return read(() -> cartRepository.findWithItemsById(cartId));
+  }
+
+  Optional<CartSnapshot> loadByItemId(UUID itemId) {
+    return read(() -> cartItemRepository.findCartIdById(itemId).flatMap(cartRepository::findWithItemsById));
+  }
+
+  /**
+   * Deletes the carts {@code removed} and writes {@code carts}. A new cart is inserted unless its ID or owner already
+   * has a row; any other cart is written only if its row still has the version the snapshot is based on.
+   *
+   * @return the IDs of the carts not written because their row was changed, deleted or created elsewhere
+   */
+  Set<UUID> write(List<CartWrite> carts, Collection<UUID> removed) {
+    return write(writeTemplate, carts, removed);
+  }
+
+  /**
+   * Like {@link #write(List, Collection)}, but in the caller's transaction, so that the caller needs no second
+   * connection and reads the written carts before they are committed.
+   *
+   * @throws org.springframework.transaction.IllegalTransactionStateException if there is no transaction
+   */
+  Set<UUID> writeInTransaction(List<CartWrite> carts, Collection<UUID> removed) {
+    return write(joinTemplate, carts, removed);
+  }
+
+  private Set<UUID> write(TransactionTemplate template, List<CartWrite> carts, Collection<UUID> removed) {
+    return requireNonNull(template.execute(_ -> {
+      if (!removed.isEmpty()) {
+        jdbcTemplate.batchUpdate("DELETE FROM carts WHERE id = ?", removed.stream().map(id -> new Object[]{id}).toList());
+      }
+      if (carts.isEmpty()) {
+        return Set.of();
+      }
+      var created = carts.stream().filter(CartWrite::created).map(CartWrite::cart).toList();
+      var changed = carts.stream().filter(write -> !write.created()).toList();
+      var stale = new HashSet<UUID>();
+      var written = new ArrayList<CartSnapshot>(carts.size());
+      collect(created, jdbcTemplate.batchUpdate(INSERT_CART, created.stream().map(CartStore::insertParams).toList()),
+          written, stale);
+      collect(changed.stream().map(CartWrite::cart).toList(),
+          jdbcTemplate.batchUpdate(UPDATE_CART, changed.stream().map(CartStore::updateParams).toList()), written, stale);
+      jdbcTemplate.batchUpdate(DELETE_MISSING_ITEMS, new BatchPreparedStatementSetter() {
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+          var cart = written.get(i);
+          ps.setObject(1, cart.id());
+          ps.setArray(2, ps.getConnection().createArrayOf("uuid", cart.lines().stream().map(Line::id).toArray()));
+        }
+
+        @Override
+        public int getBatchSize() {
+          return written.size();
+        }
+      });
+      jdbcTemplate.batchUpdate(UPSERT_ITEM, written.stream()
+          .flatMap(cart -> cart.lines().stream().map(line -> itemParams(cart, line)))
+          .toList());
+      return stale;
+    }));
+  }
+
+  /**
+   * Moves the items of the cart {@code guestCartId} into the cart {@code userCartId} and deletes the guest cart. Items
+   * of a variant already in the user cart add their quantity to it. Both carts are locked first, so concurrent
+   * merges of the same carts apply one after the other and a guest cart is merged at most once.
+   *
+   * @return {@code false} if there is no guest cart to merge
+   * @throws OperationNotAllowedException if the items of the two carts are priced in different currencies
+   */
+  boolean merge(UUID guestCartId, UUID userCartId) {
+    return requireNonNull(writeTemplate.execute(_ -> {
+      var locked = jdbcClient.sql(LOCK_CARTS).params(guestCartId, userCartId).query(UUID.class).list();
+      if (!locked.contains(guestCartId)) {
+        return false;
+      }
+      var currencies = jdbcClient.sql(CART_CURRENCIES).params(guestCartId, userCartId).query(String.class).list();
+      if (currencies.size() > 1) {
+        throw new OperationNotAllowedException("Cannot merge carts priced in different currencies: " + currencies);
+      }
+      // An empty guest cart merged into an empty user cart has no totals to round
+      var scale = currencies.isEmpty() ? 0
+          : MinorAmount.zero(MonetaryUtils.getCurrency(currencies.getFirst())).toBigDecimal().scale();
+      jdbcClient.sql(MERGE)
+          .param("guestCartId", guestCartId)
+          .param("userCartId", userCartId)
+          .param("scale", scale)
+          .param("expiresAt", OffsetDateTime.now().plus(CartSnapshot.LIFETIME))
+          .update();
+      return true;
+    }));
+  }
+
+  private Optional<CartSnapshot> read(Supplier<Optional<CartEntity>> query) {
+    return requireNonNull(readTemplate.execute(_ -> query.get().map(this::toSnapshot)));
+  }
+
+  private CartSnapshot toSnapshot(CartEntity entity) {
+    var customer = entity.getCustomer();
+    Owner owner = customer != null ? new Customer(customer.getId()) : new Session(requireNonNull(entity.getSessionId()));
+    var lines = entity.getItems().stream()
+        .map(item -> new Line(
+            item.getId(),
+            ProductVariant.fromEntity(item.getVariant()),
+            item.getQuantity(),
+            item.getUnitPrice(),
+            item.getCreatedAt(),
+            item.getUpdatedAt()))
+        .toList();
+    return new CartSnapshot(entity.getId(), owner, lines, entity.getSubtotal(), entity.getItemCount(),
+        entity.getTotalQuantity(), entity.getCreatedAt(), entity.getUpdatedAt(), entity.getExpiresAt(), entity.getVersion());
+  }
+
+  private static void collect(List<CartSnapshot> carts, int[] counts, List<CartSnapshot> written, Set<UUID> stale) {
+    for (var i = 0; i < counts.length; i++) {
+      if (counts[i] == 0) {
+        stale.add(carts.get(i).id());
+      } else {
+        written.add(carts.get(i));
+      }
+    }
+  }
+
+  private static Object[] insertParams(CartSnapshot cart) {
+    var subtotal = cart.subtotal();
+    var customerId = cart.owner() instanceof Customer(var id) ? id : null;
+    var sessionId = cart.owner() instanceof Session(var id) ? id : null;
+    return new Object[]{cart.id(), customerId, sessionId,
+        subtotal == null ? BigDecimal.ZERO : subtotal.toBigDecimal(),
+        subtotal == null ? null : subtotal.currency().getCurrencyCode(),
+        cart.itemCount(), cart.totalQuantity(), cart.createdAt(), cart.updatedAt(), cart.expiresAt(), cart.version()};
+  }
+
+  private static Object[] updateParams(CartWrite write) {
+    var cart = write.cart();
+    var subtotal = cart.subtotal();
+    return new Object[]{subtotal == null ? BigDecimal.ZERO : subtotal.toBigDecimal(),
+        subtotal == null ? null : subtotal.currency().getCurrencyCode(),
+        cart.itemCount(), cart.totalQuantity(), cart.updatedAt(), cart.expiresAt(), cart.version(),
+        cart.id(), write.storedVersion()};
+  }
+
+  private static Object[] itemParams(CartSnapshot cart, Line line) {
+    return new Object[]{line.id(), cart.id(), line.variantId(), line.quantity(), line.unitPrice().amount(),
+        line.unitPrice().currency().getCurrencyCode(), line.createdAt(), line.updatedAt()};
+  }
+
+  /**
+   * A cart to write.
+   *
+   * @param cart the state to write
+   * @param storedVersion the version of the row {@code cart} is based on, or a negative value if the cart is new
+   */
+  record CartWrite(CartSnapshot cart, long storedVersion) {
+
+    boolean created() {
+      return storedVersion < 0;
+    }
+  }
+}
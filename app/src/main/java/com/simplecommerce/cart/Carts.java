@@ -2,6 +2,7 @@ package com.simplecommerce.cart;
 
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.repository.Repository;
 
 /**
@@ -17,6 +18,18 @@ interface Carts extends Repository<CartEntity, UUID> {
 
   Optional<CartEntity> findBySessionId(String sessionId);
 
+  /**
+   * Loads the cart together with its items and their variants in one query.
+   */
+  @EntityGraph(attributePaths = {"items", "items.variant"})
+  Optional<CartEntity> findWithItemsById(UUID id);
+
+  @EntityGraph(attributePaths = {"items", "items.variant"})
+  Optional<CartEntity> findWithItemsByCustomerId(UUID customerId);
+
+  @EntityGraph(attributePaths = {"items", "items.variant"})
+  Optional<CartEntity> findWithItemsBySessionId(String sessionId);
+
   CartEntity save(CartEntity cart);
 
   void delete(CartEntity cart);
@@ -0,0 +1,176 @@
+package com.simplecommerce.cart;
+
+import static java.util.Objects.requireNonNull;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes expired carts in the background. Every {@code simple-commerce.cart.sweeper.interval} the expired carts are
+ * deleted in batches of at most {@code batch-size}. Each batch is a single statement that locks its carts with
+ * {@code SKIP LOCKED}, so instances sweeping at the same time delete disjoint batches and never wait on each other or
+ * on a cart being checked out. Their items go with them through the {@code ON DELETE CASCADE} of {@code cart_items}.
+ * <p>
+ * The sweeper throttles itself by how long the database takes for a batch. A batch slower than
+ * {@code target-batch-duration} halves the next batch and doubles the pause before it. Fast batches grow the batch
+ * back to {@code batch-size}. Deleted carts are dropped from {@link CartCache}. A cart cached with pending changes by
+ * another instance is not written back either: its write expects the version of a row that no longer exists.
+ * <p>
+ * Every change to a cart moves its expiry forward (see {@link CartSnapshot#LIFETIME}), so only carts left unchanged
+ * for that long are deleted, whether they belong to a guest or a customer.
+ *
+ * @author julius.krah
+ */
+@Component
+class ExpiredCartSweeper implements SmartLifecycle {
+  private static final Logger LOG = LoggerFactory.getLogger(ExpiredCartSweeper.class);
+  private static final String DELETE_EXPIRED = """
+      DELETE FROM carts
+      WHERE id IN (
+        SELECT id FROM carts
+        WHERE expires_at < ?
+        ORDER BY expires_at
+        LIMIT ?
+        FOR UPDATE SKIP LOCKED)
+      RETURNING id""";
+  private static final int MIN_BATCH_SIZE = 10;
+
+  private final JdbcClient jdbcClient;
+  private final CartCache cartCache;
+  private final Duration interval;
+  private final int maxBatchSize;
+  private final Duration targetBatchDuration;
+  private final Duration pause;
+  private final @Nullable Counter deleted;
+  private final @Nullable Timer batches;
+  private int batchSize;
+  private volatile @Nullable Thread sweeper;
+  private volatile @Nullable CountDownLatch stopSignal;
+
+  ExpiredCartSweeper(JdbcClient jdbcClient, CartCache cartCache, ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${simple-commerce.cart.sweeper.interval:5m}") Duration interval,
+      @Value("${simple-commerce.cart.sweeper.batch-size:500}") int batchSize,
+      @Value("${simple-commerce.cart.sweeper.target-batch-duration:200ms}") Duration targetBatchDuration,
+      @Value("${simple-commerce.cart.sweeper.pause:100ms}") Duration pause) {
+    this.jdbcClient = jdbcClient;
+    this.cartCache = cartCache;
+    this.interval = interval;
+    this.maxBatchSize = Math.max(batchSize, MIN_BATCH_SIZE);
+    this.batchSize = this.maxBatchSize;
+    this.targetBatchDuration = targetBatchDuration;
+    this.pause = pause;
+    var registry = meterRegistry.getIfAvailable();
+    this.deleted = registry == null ? null : Counter.builder("cart.sweeper.deleted")
+        .description("Expired carts deleted")
+        .register(registry);
+    this.batches = registry == null ? null : Timer.builder("cart.sweeper.batch")
+        .description("Time taken to delete a batch of expired carts")
+        .register(registry);
+  }
+
+  /**
+   * Deletes the carts that expired before {@code now}, batch by batch, until none is left or the sweeper is stopped.
+   *
+   * @return the number of carts deleted
+   */
+  int sweep(OffsetDateTime now) throws InterruptedException {
+    var total = 0;
+    var delay = pause;
+    while (true) {
+      var size = batchSize;
+      var start = System.nanoTime();
+      var ids = jdbcClient.sql(DELETE_EXPIRED).params(now, size).query(UUID.class).list();
+      var elapsed = Duration.ofNanos(System.nanoTime() - start);
+      if (batches != null) {
+        batches.record(elapsed);
+      }
+      if (deleted != null) {
+        deleted.increment(ids.size());
+      }
+      ids.forEach(cartCache::evict);
+      total += ids.size();
+      if (elapsed.compareTo(targetBatchDuration) > 0) {
+        batchSize = Math.max(size / 2, MIN_BATCH_SIZE);
+        delay = delay.multipliedBy(2).compareTo(interval) < 0 ? delay.multipliedBy(2) : interval;
+        LOG.debug("Deleting {} expired cart(s) took {}, continuing with batches of {}", ids.size(), elapsed, batchSize);
+      } else {
+        batchSize = Math.min(size * 2, maxBatchSize);
+        delay = pause;
+      }
+      if (ids.size() < size || awaitStop(delay)) {
+        return total;
+      }
+    }
+  }
+
+  @Override
+  public void start() {
+    var signal = new CountDownLatch(1);
+    stopSignal = signal;
+    sweeper = Thread.ofVirtual().name("expired-cart-sweeper").start(() -> {
+      try {
+        while (!signal.await(interval.toNanos(), TimeUnit.NANOSECONDS)) {
+          sweepQuietly();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+  }
+
+  /**
+   * Stops sweeping once the current batch completes.
+   */
+  @Override
+  public void stop() {
+    var thread = sweeper;
+    if (thread != null) {
+      requireNonNull(stopSignal).countDown();
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      sweeper = null;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return sweeper != null;
+  }
+
+  private void sweepQuietly() throws InterruptedException {
+    try {
+      var count = sweep(OffsetDateTime.now());
+      if (count > 0) {
+        LOG.info("Deleted {} expired cart(s)", count);
+      }
+    } catch (RuntimeException e) {
+      LOG.error("Deleting expired carts failed, retrying in {}", interval, e);
+    }
+  }
+
+  private boolean awaitStop(Duration delay) throws InterruptedException {
+    var signal = stopSignal;
+    if (signal == null) {
+      Thread.sleep(delay);
+      return false;
+    }
+    return signal.await(delay.toNanos(), TimeUnit.NANOSECONDS);
+  }
+}
@@ -0,0 +1,30 @@
+package com.simplecommerce.config;
+
+import com.simplecommerce.shared.utils.Bulkhead;
+import com.simplecommerce.shared.utils.VirtualThreadHelper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author julius.krah
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ConcurrencyProperties.class)
+class ConcurrencyConfiguration {
+  private static final Logger LOG = LoggerFactory.getLogger(ConcurrencyConfiguration.class);
+
+  @Bean
+  InitializingBean registerBulkheads(ConcurrencyProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+    return () -> properties.bulkheads().forEach((name, options) -> {
+      LOG.debug("Limiting '{}' to {} concurrent calls", name, options.maxConcurrentCalls());
+      VirtualThreadHelper.registerBulkhead(new Bulkhead(
+          name, options.maxConcurrentCalls(), options.maxWaitDuration(), meterRegistry.getIfAvailable()));
+    });
+  }
+}
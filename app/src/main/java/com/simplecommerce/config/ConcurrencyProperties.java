@@ -0,0 +1,22 @@
+package com.simplecommerce.config;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Per-subsystem concurrency limits applied by {@link com.simplecommerce.shared.utils.VirtualThreadHelper}.
+ *
+ * @author julius.krah
+ */
+@ConfigurationProperties(prefix = "simple-commerce.concurrency")
+public record ConcurrencyProperties(
+    @DefaultValue Map<String, BulkheadOptions> bulkheads
+) {
+
+  public record BulkheadOptions(
+      int maxConcurrentCalls,
+      @DefaultValue("5s") Duration maxWaitDuration
+  ) { }
+}
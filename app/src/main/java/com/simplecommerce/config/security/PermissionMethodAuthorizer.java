@@ -0,0 +1,190 @@
+package com.simplecommerce.config.security;
+
+import com.simplecommerce.security.aspects.Check;
+import com.simplecommerce.security.aspects.MethodAuthorizer;
+import com.simplecommerce.security.aspects.Permit;
+import com.simplecommerce.shared.authorization.AuthorizationService;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationDeniedException;
+import org.springframework.security.authorization.AuthorizationEventPublisher;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.parameters.DefaultSecurityParameterNameDiscoverer;
+import org.springframework.util.function.SingletonSupplier;
+
+/**
+ * Authorizes {@link Permit} and {@link Check} methods with the {@code authz} {@link AuthorizationService}, the way
+ * their {@code @PreAuthorize} and {@code @PostAuthorize} templates would, without going through Spring's method
+ * security interceptors.
+ * <p>
+ * Each method's annotation is resolved once into a {@link Rule}: the namespace and relation are constants, and the
+ * object, subject and return object expressions are parsed once. The common forms ({@code #param},
+ * {@code 'literal'}, {@code authentication.name}, {@code returnObject}) are resolved without SpEL; other expressions
+ * are compiled to bytecode by SpEL once they have been evaluated a few times. Denials publish an
+ * {@code AuthorizationDeniedEvent} and throw {@link AuthorizationDeniedException}.
+ *
+ * @author julius.krah
+ */
+public class PermissionMethodAuthorizer implements MethodAuthorizer {
+  private static final Pattern PARAMETER = Pattern.compile("#(\\w+)");
+  private static final Pattern LITERAL = Pattern.compile("'([^']*)'");
+  private static final String AUTHENTICATION_NAME = "authentication.name";
+  private static final String RETURN_OBJECT = "returnObject";
+
+  private final Supplier<AuthorizationService> authorizationService;
+  private final AuthorizationEventPublisher eventPublisher;
+  private final BeanResolver beanResolver;
+  private final SpelExpressionParser parser = new SpelExpressionParser(
+      new SpelParserConfiguration(SpelCompilerMode.MIXED, PermissionMethodAuthorizer.class.getClassLoader()));
+  private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultSecurityParameterNameDiscoverer();
+  private final Map<Method, Rule> permitRules = new ConcurrentHashMap<>();
+  private final Map<Method, Rule> checkRules = new ConcurrentHashMap<>();
+
+  public PermissionMethodAuthorizer(ObjectProvider<AuthorizationService> authorizationService,
+      AuthorizationEventPublisher eventPublisher, BeanFactory beanFactory) {
+    this.authorizationService = SingletonSupplier.of(authorizationService::getObject);
+    this.eventPublisher = eventPublisher;
+    this.beanResolver = new BeanFactoryResolver(beanFactory);
+  }
+
+  @Override
+  public void preAuthorize(Method method, Object[] arguments) {
+    var rule = permitRules.computeIfAbsent(method, this::permitRule);
+    var authentication = authentication();
+    var root = new Root(authentication, null);
+    var granted = authorizationService.get().checkPermission(rule.namespace(),
+        rule.object().asString(arguments, root), rule.relation(), rule.subject().asString(arguments, root));
+    authorize(authentication, method, granted);
+  }
+
+  @Override
+  public void postAuthorize(Method method, Object[] arguments, Object returnObject) {
+    var rule = checkRules.computeIfAbsent(method, this::checkRule);
+    var authentication = authentication();
+    var root = new Root(authentication, returnObject);
+    var granted = authorizationService.get().checkPermission(rule.namespace(),
+        rule.object().asString(arguments, root), rule.relation(), rule.subject().asString(arguments, root),
+        Objects.requireNonNull(rule.returnObject()).value(arguments, root));
+    authorize(authentication, method, granted);
+  }
+
+  private void authorize(Authentication authentication, Method method, boolean granted) {
+    if (!granted) {
+      AuthorizationResult decision = new AuthorizationDecision(false);
+      eventPublisher.publishAuthorizationEvent(() -> authentication, method, decision);
+      throw new AuthorizationDeniedException("Access Denied", decision);
+    }
+  }
+
+  private static Authentication authentication() {
+    var authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null) {
+      throw new AuthenticationCredentialsNotFoundException("An Authentication object was not found in the SecurityContext");
+    }
+    return authentication;
+  }
+
+  private Rule permitRule(Method method) {
+    var permit = Objects.requireNonNull(AnnotatedElementUtils.findMergedAnnotation(method, Permit.class),
+        () -> "@Permit not found on " + method);
+    return new Rule(permit.namespace(), permit.relation(), operand(method, permit.object()),
+        operand(method, permit.subject()), null);
+  }
+
+  private Rule checkRule(Method method) {
+    var check = Objects.requireNonNull(AnnotatedElementUtils.findMergedAnnotation(method, Check.class),
+        () -> "@Check not found on " + method);
+    return new Rule(check.namespace(), check.relation(), operand(method, check.object()),
+        operand(method, check.subject()), operand(method, check.returnObject()));
+  }
+
+  private Operand operand(Method method, String expression) {
+    var parameterNames = parameterNameDiscoverer.getParameterNames(method);
+    var parameter = PARAMETER.matcher(expression);
+    if (parameter.matches() && parameterNames != null) {
+      for (var i = 0; i < parameterNames.length; i++) {
+        if (parameterNames[i].equals(parameter.group(1))) {
+          var index = i;
+          return (arguments, _) -> arguments[index];
+        }
+      }
+    }
+    var literal = LITERAL.matcher(expression);
+    if (literal.matches()) {
+      var value = literal.group(1);
+      return (_, _) -> value;
+    }
+    if (AUTHENTICATION_NAME.equals(expression)) {
+      return (_, root) -> root.getAuthentication().getName();
+    }
+    if (RETURN_OBJECT.equals(expression)) {
+      return (_, root) -> root.getReturnObject();
+    }
+    return new SpelOperand(parser.parseExpression(expression), parameterNames == null ? new String[0] : parameterNames, beanResolver);
+  }
+
+  private record Rule(String namespace, String relation, Operand object, Operand subject, @Nullable Operand returnObject) {
+  }
+
+  @FunctionalInterface
+  private interface Operand {
+    @Nullable Object value(Object[] arguments, Root root);
+
+    default @Nullable String asString(Object[] arguments, Root root) {
+      return Objects.toString(value(arguments, root), null);
+    }
+  }
+
+  private record SpelOperand(Expression expression, String[] parameterNames, BeanResolver beanResolver) implements Operand {
+    @Override
+    public @Nullable Object value(Object[] arguments, Root root) {
+      var context = new StandardEvaluationContext(root);
+      context.setBeanResolver(beanResolver);
+      for (var i = 0; i < parameterNames.length && i < arguments.length; i++) {
+        context.setVariable(parameterNames[i], arguments[i]);
+      }
+      return expression.getValue(context);
+    }
+  }
+
+  /**
+   * Root object of the expressions, exposing the properties their annotation defaults refer to.
+   */
+  public static final class Root {
+    private final Authentication authentication;
+    private final @Nullable Object returnObject;
+
+    Root(Authentication authentication, @Nullable Object returnObject) {
+      this.authentication = authentication;
+      this.returnObject = returnObject;
+    }
+
+    public Authentication getAuthentication() {
+      return authentication;
+    }
+
+    public @Nullable Object getReturnObject() {
+      return returnObject;
+    }
+  }
+}
@@ -3,9 +3,12 @@ package com.simplecommerce.config.security;
 import static org.springframework.security.config.Customizer.withDefaults;
 
 import com.simplecommerce.security.aspects.CheckAspect;
+import com.simplecommerce.security.aspects.MethodAuthorizer;
 import com.simplecommerce.security.aspects.PermitAspect;
+import com.simplecommerce.shared.authorization.AuthorizationService;
 import jakarta.servlet.DispatcherType;
-import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.boot.actuate.audit.AuditEventRepository;
 import org.springframework.boot.actuate.audit.InMemoryAuditEventRepository;
@@ -70,19 +73,30 @@ class SecurityConfiguration {
     return new SpringAuthorizationEventPublisher(applicationEventPublisher);
   }
 
+  /*
+   * @Permit and @Check are authorized directly against the authz bean instead of through the
+   * pre/post authorize interceptors, which build an evaluation context and evaluate the whole template per call.
+   */
+  @Bean
+  @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+  MethodAuthorizer permissionMethodAuthorizer(ObjectProvider<AuthorizationService> authorizationService,
+      AuthorizationEventPublisher authorizationEventPublisher, BeanFactory beanFactory) {
+    return new PermissionMethodAuthorizer(authorizationService, authorizationEventPublisher, beanFactory);
+  }
+
   @Bean(name = "permitAspect$0")
   @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
-  PermitAspect permitAspect(MethodInterceptor preAuthorizeAuthorizationMethodInterceptor) {
+  PermitAspect permitAspect(MethodAuthorizer permissionMethodAuthorizer) {
     var aspect = PermitAspect.aspectOf();
-    aspect.setSecurityInterceptor(preAuthorizeAuthorizationMethodInterceptor);
+    aspect.setAuthorizer(permissionMethodAuthorizer);
     return aspect;
   }
 
   @Bean(name = "checkAspect$0")
   @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
-  CheckAspect checkAspect(MethodInterceptor postAuthorizeAuthorizationMethodInterceptor) {
+  CheckAspect checkAspect(MethodAuthorizer permissionMethodAuthorizer) {
     var aspect = CheckAspect.aspectOf();
-    aspect.setSecurityInterceptor(postAuthorizeAuthorizationMethodInterceptor);
+    aspect.setAuthorizer(permissionMethodAuthorizer);
     return aspect;
   }
 
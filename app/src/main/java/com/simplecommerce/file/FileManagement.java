@@ -1,5 +1,6 @@
 package com.simplecommerce.file;
 
+import static com.simplecommerce.shared.utils.Bulkhead.OBJECT_STORE;
 import static com.simplecommerce.shared.utils.VirtualThreadHelper.callInScope;
 import static com.simplecommerce.shared.utils.VirtualThreadHelper.runInScope;
 
@@ -132,7 +133,7 @@ class FileManagement implements FileService, NodeService {
       argsBuilder.extraHeaders(Map.of(HttpHeaders.CONTENT_TYPE, contentType));
     }
     try {
-      var urlString = callInScope(() -> {
+      var urlString = callInScope(OBJECT_STORE, () -> {
         var objectName = properties.mediaBucketPrefix() + "/" +
             Instant.now().toEpochMilli() +"-" + input.filename();
         argsBuilder.object(objectName);
@@ -162,6 +163,7 @@ class FileManagement implements FileService, NodeService {
   }
 
   @Override
+  @Transactional
   public DigitalContent addDigitalContentToVariant(String variantId, FileInput file) {
     var gid = GlobalId.decode(variantId);
     var variantUuid = UUID.fromString(gid.id());
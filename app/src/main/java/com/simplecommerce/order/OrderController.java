@@ -1,19 +1,28 @@
 package com.simplecommerce.order;
 
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+
 import com.simplecommerce.actor.User;
+import com.simplecommerce.product.variant.ProductVariant;
+import com.simplecommerce.product.variant.ProductVariantManagement;
+import com.simplecommerce.product.variant.ProductVariantService;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.data.query.ScrollSubrange;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.function.SingletonSupplier;
 
@@ -29,10 +38,13 @@ class OrderController {
   private static final Logger LOG = LoggerFactory.getLogger(OrderController.class);
 
   private final ObjectProvider<OrderService> orderService;
+  private final ObjectProvider<ProductVariantService> variantService;
   private final Supplier<OrderService> orderServiceSupplier = SingletonSupplier.of(OrderManagement::new);
+  private final Supplier<ProductVariantService> variantServiceSupplier = SingletonSupplier.of(ProductVariantManagement::new);
 
-  OrderController(ObjectProvider<OrderService> orderService) {
+  OrderController(ObjectProvider<OrderService> orderService, ObjectProvider<ProductVariantService> variantService) {
     this.orderService = orderService;
+    this.variantService = variantService;
   }
 
   @QueryMapping
@@ -58,54 +70,33 @@ class OrderController {
   }
 
   @QueryMapping
-  Page<Order> myOrders(
-      @Argument Integer first,
-      @Argument String after,
-      @Argument Integer last,
-      @Argument String before) {
+  Window<Order> myOrders(ScrollSubrange subrange) {
     LOG.debug("Fetching current customer's orders");
-
-    // For simplicity, using first for page size
-    int pageSize = first != null ? first : 10;
-    var pageable = PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "createdAt"));
-
-    return orderService.getIfAvailable(orderServiceSupplier).getCustomerOrders(pageable);
+    var limit = subrange.count().orElse(10);
+    var scroll = subrange.position().orElse(ScrollPosition.keyset());
+    return orderService.getIfAvailable(orderServiceSupplier).getCustomerOrders(limit, scroll);
   }
 
   @QueryMapping
-  Page<Order> customerOrders(
-      @Argument String customerId,
-      @Argument Integer first,
-      @Argument String after,
-      @Argument Integer last,
-      @Argument String before) {
+  Window<Order> customerOrders(@Argument String customerId, ScrollSubrange subrange) {
     LOG.debug("Fetching orders for customer: {}", customerId);
-
-    int pageSize = first != null ? first : 10;
-    var pageable = PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "createdAt"));
-
-    return orderService.getIfAvailable(orderServiceSupplier)
-        .getOrdersByCustomerId(customerId, pageable);
+    var limit = subrange.count().orElse(10);
+    var scroll = subrange.position().orElse(ScrollPosition.keyset());
+    return orderService.getIfAvailable(orderServiceSupplier).getOrdersByCustomerId(customerId, limit, scroll);
   }
 
   @QueryMapping
-  Page<Order> orders(
-      @Argument Integer first,
-      @Argument String after,
-      @Argument Integer last,
-      @Argument String before,
-      @Argument List<OrderStatus> statuses) {
+  Window<Order> orders(ScrollSubrange subrange, @Argument List<OrderStatus> statuses) {
     LOG.debug("Fetching all orders");
-
-    int pageSize = first != null ? first : 10;
-    var pageable = PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "createdAt"));
+    var limit = subrange.count().orElse(10);
+    var scroll = subrange.position().orElse(ScrollPosition.keyset());
 
     if (statuses != null && !statuses.isEmpty()) {
       return orderService.getIfAvailable(orderServiceSupplier)
-          .getOrdersByStatus(statuses, pageable);
+          .getOrdersByStatus(statuses, limit, scroll);
     }
 
-    return orderService.getIfAvailable(orderServiceSupplier).getAllOrders(pageable);
+    return orderService.getIfAvailable(orderServiceSupplier).getAllOrders(limit, scroll);
   }
 
   @SchemaMapping(typeName = "Order")
@@ -133,6 +124,18 @@ class OrderController {
     return source.id();
   }
 
+  @BatchMapping(typeName = "OrderItem")
+  Map<OrderItem, ProductVariant> variant(List<OrderItem> items) {
+    var variantIds = items.stream().map(OrderItem::variantId).collect(toSet());
+    LOG.debug("Fetching variants for {} order items: {}", items.size(), variantIds);
+    var variants = variantService.getIfAvailable(variantServiceSupplier).findVariants(variantIds).stream()
+        .collect(toMap(ProductVariant::id, identity()));
+    // Items whose variant is not found resolve to null
+    return items.stream()
+        .filter(item -> variants.containsKey(item.variantId()))
+        .collect(toMap(identity(), item -> variants.get(item.variantId()), (first, _) -> first));
+  }
+
   @SchemaMapping(typeName = "Address")
   String fullName(Address source) {
     return source.fullName();
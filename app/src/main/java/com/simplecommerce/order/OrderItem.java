@@ -1,17 +1,17 @@
 package com.simplecommerce.order;
 
-import com.simplecommerce.product.variant.ProductVariant;
 import com.simplecommerce.shared.types.Money;
 import java.time.OffsetDateTime;
 
 /**
- * An item in an order.
+ * An item in an order. The purchased variant is referenced by {@code variantId} and resolved in batches when
+ * requested.
  *
  * @author julius.krah
  */
 public record OrderItem(
     String id,
-    ProductVariant variant,
+    String variantId,
     String productTitle,
     String variantTitle,
     String sku,
@@ -10,6 +10,7 @@ import com.simplecommerce.shared.exceptions.NotFoundException;
 import com.simplecommerce.shared.types.UserType;
 import com.simplecommerce.shared.utils.MonetaryUtils;
 import com.simplecommerce.discount.DiscountService;
+import com.simplecommerce.shared.types.MinorAmount;
 import com.simplecommerce.shipping.ShippingService;
 import com.simplecommerce.tax.TaxService;
 import java.math.BigDecimal;
@@ -21,8 +22,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.annotation.Autowire;
 import org.springframework.beans.factory.annotation.Configurable;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -35,6 +38,8 @@ import org.springframework.transaction.annotation.Transactional;
 class OrderManagement implements OrderService {
 
   private static final Logger LOG = LoggerFactory.getLogger(OrderManagement.class);
+  // Keyset order of order listings, backed by the (created_at, id) indexes
+  private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
 
   private Orders orderRepository;
   private OrderItems orderItemRepository;
@@ -43,6 +48,7 @@ class OrderManagement implements OrderService {
   private TaxService taxService;
   private ShippingService shippingService;
   private DiscountService discountService;
+  private OrderNumberGenerator orderNumberGenerator;
 
   public void setOrderRepository(ObjectFactory<Orders> orderRepository) {
     this.orderRepository = orderRepository.getObject();
@@ -72,6 +78,10 @@ class OrderManagement implements OrderService {
     this.discountService = discountService.getObject();
   }
 
+  public void setOrderNumberGenerator(ObjectFactory<OrderNumberGenerator> orderNumberGenerator) {
+    this.orderNumberGenerator = orderNumberGenerator.getObject();
+  }
+
   @Override
   public Order checkout(CheckoutInput input) {
     LOG.debug("Processing checkout: email={}", input.customerEmail());
@@ -140,9 +150,10 @@ class OrderManagement implements OrderService {
     order.setCustomerNotes(input.customerNotes());
     order.setPlacedAt(OffsetDateTime.now());
 
-    // Calculate totals
-    BigDecimal subtotal = BigDecimal.ZERO;
-    String currency = "USD"; // Default currency
+    // Calculate totals in minor units of the cart currency
+    var currency = cart.getItems().getFirst().getUnitPrice().currency();
+    var subtotal = MinorAmount.zero(currency);
+    var zero = MinorAmount.zero(currency).toBigDecimal();
 
     // Convert cart items to order items
     for (var cartItem : cart.getItems()) {
@@ -159,41 +170,40 @@ class OrderManagement implements OrderService {
 
       // Set pricing from cart item
       var unitPrice = cartItem.getUnitPrice();
-      currency = unitPrice.getCurrency().getCurrencyCode();
-      var unitAmount = unitPrice.getNumber().numberValue(BigDecimal.class);
-
-      orderItem.setUnitPriceAmount(unitAmount);
-      orderItem.setUnitPriceCurrency(currency);
-
-      var totalPrice = unitAmount.multiply(BigDecimal.valueOf(cartItem.getQuantity()));
-      orderItem.setTotalPriceAmount(totalPrice);
-      orderItem.setTotalPriceCurrency(currency);
-      orderItem.setTaxAmount(BigDecimal.ZERO);
-      orderItem.setTaxCurrency(currency);
-      orderItem.setDiscountAmount(BigDecimal.ZERO);
-      orderItem.setDiscountCurrency(currency);
+      var totalPrice = cartItem.getTotalPrice();
+      var currencyCode = unitPrice.currency().getCurrencyCode();
+
+      orderItem.setUnitPriceAmount(unitPrice.amount());
+      orderItem.setUnitPriceCurrency(currencyCode);
+      orderItem.setTotalPriceAmount(totalPrice.toBigDecimal());
+      orderItem.setTotalPriceCurrency(currencyCode);
+      orderItem.setTaxAmount(zero);
+      orderItem.setTaxCurrency(currencyCode);
+      orderItem.setDiscountAmount(zero);
+      orderItem.setDiscountCurrency(currencyCode);
 
       order.addItem(orderItem);
-      subtotal = subtotal.add(totalPrice);
+      subtotal = subtotal.plus(totalPrice);
     }
 
     // Calculate shipping cost
-    BigDecimal shippingAmount = BigDecimal.ZERO;
+    var shippingAmount = MinorAmount.zero(currency);
     if (input.shippingMethodId() != null && shippingService != null) {
-      shippingAmount = shippingService.calculateShippingCost(input.shippingMethodId(), subtotal);
+      shippingAmount = MinorAmount.of(
+          shippingService.calculateShippingCost(input.shippingMethodId(), subtotal.toBigDecimal()), currency);
     }
 
     // Apply discount code
-    BigDecimal discountAmount = BigDecimal.ZERO;
+    var discountAmount = MinorAmount.zero(currency);
     if (input.discountCode() != null && discountService != null) {
       var discountResult = discountService.validateAndApplyDiscount(
           input.discountCode(),
           new GlobalId("User", currentUser.getId().toString()).encode(),
-          subtotal
+          subtotal.toBigDecimal()
       );
 
       if (discountResult.valid()) {
-        discountAmount = discountResult.discountAmount();
+        discountAmount = MinorAmount.of(discountResult.discountAmount(), currency);
         LOG.debug("Discount applied: code={}, amount={}", input.discountCode(), discountAmount);
       } else {
         LOG.warn("Invalid discount code: code={}, reason={}",
@@ -203,27 +213,28 @@ class OrderManagement implements OrderService {
     }
 
     // Calculate tax (on subtotal + shipping - discount)
-    BigDecimal taxAmount = BigDecimal.ZERO;
+    var taxAmount = MinorAmount.zero(currency);
     if (order.getShippingCountry() != null && taxService != null) {
-      BigDecimal taxableAmount = subtotal.add(shippingAmount).subtract(discountAmount);
-      taxAmount = taxService.calculateTax(taxableAmount, currency,
-          order.getShippingCountry(), order.getShippingState());
+      var taxableAmount = subtotal.plus(shippingAmount).minus(discountAmount);
+      taxAmount = MinorAmount.of(taxService.calculateTax(taxableAmount.toBigDecimal(), currency.getCurrencyCode(),
+          order.getShippingCountry(), order.getShippingState()), currency);
     }
 
     // Calculate final total
-    BigDecimal total = subtotal.add(taxAmount).add(shippingAmount).subtract(discountAmount);
+    var total = subtotal.plus(taxAmount).plus(shippingAmount).minus(discountAmount);
 
     // Set order financials
-    order.setSubtotalAmount(subtotal);
-    order.setSubtotalCurrency(currency);
-    order.setTaxAmount(taxAmount);
-    order.setTaxCurrency(currency);
-    order.setShippingAmount(shippingAmount);
-    order.setShippingCurrency(currency);
-    order.setDiscountAmount(discountAmount);
-    order.setDiscountCurrency(currency);
-    order.setTotalAmount(total);
-    order.setTotalCurrency(currency);
+    var currencyCode = currency.getCurrencyCode();
+    order.setSubtotalAmount(subtotal.toBigDecimal());
+    order.setSubtotalCurrency(currencyCode);
+    order.setTaxAmount(taxAmount.toBigDecimal());
+    order.setTaxCurrency(currencyCode);
+    order.setShippingAmount(shippingAmount.toBigDecimal());
+    order.setShippingCurrency(currencyCode);
+    order.setDiscountAmount(discountAmount.toBigDecimal());
+    order.setDiscountCurrency(currencyCode);
+    order.setTotalAmount(total.toBigDecimal());
+    order.setTotalCurrency(currencyCode);
 
     // Save order
     order = orderRepository.save(order);
@@ -240,7 +251,7 @@ class OrderManagement implements OrderService {
   @Transactional(readOnly = true)
   public Order findById(String id) {
     var globalId = GlobalId.decode(id);
-    var order = orderRepository.findById(UUID.fromString(globalId.id()))
+    var order = orderRepository.findWithItemsById(UUID.fromString(globalId.id()))
         .orElseThrow(() -> new NotFoundException("Order not found"));
     return toOrder(order);
   }
@@ -255,35 +266,32 @@ class OrderManagement implements OrderService {
 
   @Override
   @Transactional(readOnly = true)
-  public Page<Order> getCustomerOrders(Pageable pageable) {
+  public Window<Order> getCustomerOrders(int limit, ScrollPosition scroll) {
     var currentUser = getCurrentUser();
     if (currentUser == null) {
       throw new IllegalStateException("User must be authenticated");
     }
-    return orderRepository.findByCustomerId(currentUser.getId(), pageable)
-        .map(this::toOrder);
+    return toOrders(orderRepository.findByCustomerId(currentUser.getId(), Limit.of(limit), NEWEST_FIRST, scroll));
   }
 
   @Override
   @Transactional(readOnly = true)
-  public Page<Order> getOrdersByCustomerId(String customerId, Pageable pageable) {
+  public Window<Order> getOrdersByCustomerId(String customerId, int limit, ScrollPosition scroll) {
     var globalId = GlobalId.decode(customerId);
-    return orderRepository.findByCustomerId(UUID.fromString(globalId.id()), pageable)
-        .map(this::toOrder);
+    return toOrders(orderRepository.findByCustomerId(UUID.fromString(globalId.id()), Limit.of(limit), NEWEST_FIRST,
+        scroll));
   }
 
   @Override
   @Transactional(readOnly = true)
-  public Page<Order> getAllOrders(Pageable pageable) {
-    return orderRepository.findAll(pageable)
-        .map(this::toOrder);
+  public Window<Order> getAllOrders(int limit, ScrollPosition scroll) {
+    return toOrders(orderRepository.findBy(Limit.of(limit), NEWEST_FIRST, scroll));
   }
 
   @Override
   @Transactional(readOnly = true)
-  public Page<Order> getOrdersByStatus(List<OrderStatus> statuses, Pageable pageable) {
-    return orderRepository.findByStatusIn(statuses, pageable)
-        .map(this::toOrder);
+  public Window<Order> getOrdersByStatus(List<OrderStatus> statuses, int limit, ScrollPosition scroll) {
+    return toOrders(orderRepository.findByStatusIn(statuses, Limit.of(limit), NEWEST_FIRST, scroll));
   }
 
   @Override
@@ -345,14 +353,7 @@ class OrderManagement implements OrderService {
    * Generate a unique order number.
    */
   private String generateOrderNumber() {
-    // Format: ORD-YYYYMMDD-XXXX
-    var date = OffsetDateTime.now();
-    var dateStr = String.format("%04d%02d%02d",
-        date.getYear(), date.getMonthValue(), date.getDayOfMonth());
-
-    // Get next sequence number
-    var seq = orderRepository.count() + 1000; // Start from 1000
-    return String.format("ORD-%s-%04d", dateStr, seq);
+    return orderNumberGenerator.next();
   }
 
   private ActorEntity getCurrentUser() {
@@ -361,6 +362,16 @@ class OrderManagement implements OrderService {
     return null;
   }
 
+  /**
+   * Converts a window of orders fetched with their customers, loading the items of all its orders with one query.
+   */
+  private Window<Order> toOrders(Window<OrderEntity> orders) {
+    if (!orders.isEmpty()) {
+      orderRepository.findWithItemsByOrderIn(orders.getContent());
+    }
+    return orders.map(this::toOrder);
+  }
+
   private Order toOrder(OrderEntity entity) {
     var customer = toUser(entity.getCustomer());
 
@@ -421,10 +432,10 @@ class OrderManagement implements OrderService {
   }
 
   private OrderItem toOrderItem(OrderItemEntity entity) {
-    // TODO: Implement full ProductVariant conversion
     return new OrderItem(
         new GlobalId("OrderItem", entity.getId().toString()).encode(),
-        null, // variant - simplified for now
+        // The identifier of the lazy variant is read without loading it
+        entity.getVariant().getId().toString(),
         entity.getProductTitle(),
         entity.getVariantTitle(),
         entity.getSku(),
@@ -0,0 +1,71 @@
+package com.simplecommerce.order;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates order numbers of the form {@code ORD-YYYYMMDD-XXXX}. The sequence part is unique across instances: each
+ * {@code nextval} of {@code order_number_seq} reserves a block of as many numbers as the sequence increments by, and
+ * the numbers of a block are handed out from memory (hi/lo). Numbers are not contiguous across instances, and the
+ * unused rest of a block is lost on shutdown.
+ *
+ * @author julius.krah
+ */
+@Component
+class OrderNumberGenerator {
+  private static final Logger LOG = LoggerFactory.getLogger(OrderNumberGenerator.class);
+  private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+  private final LongSupplier nextBlock;
+  private final LongSupplier blockSizeQuery;
+  private final Clock clock;
+  private final ReentrantLock lock = new ReentrantLock();
+  // Read with the first block, since the sequence's increment does not change while the application runs
+  private long blockSize;
+  private long next;
+  private long limit;
+
+  @Autowired
+  OrderNumberGenerator(JdbcClient jdbcClient) {
+    this(() -> jdbcClient.sql("SELECT nextval('order_number_seq')").query(Long.class).single(),
+        () -> jdbcClient.sql("SELECT increment_by FROM pg_sequences WHERE sequencename = 'order_number_seq'")
+            .query(Long.class).single(),
+        Clock.systemDefaultZone());
+  }
+
+  OrderNumberGenerator(LongSupplier nextBlock, LongSupplier blockSizeQuery, Clock clock) {
+    this.nextBlock = nextBlock;
+    this.blockSizeQuery = blockSizeQuery;
+    this.clock = clock;
+  }
+
+  /**
+   * The next order number. Only every {@code n}th call, with {@code n} the block size, reads the sequence.
+   */
+  String next() {
+    long seq;
+    lock.lock();
+    try {
+      if (next == limit) {
+        if (blockSize == 0) {
+          blockSize = blockSizeQuery.getAsLong();
+        }
+        next = nextBlock.getAsLong();
+        limit = next + blockSize;
+        LOG.debug("Reserved order numbers {} to {}", next, limit - 1);
+      }
+      seq = next++;
+    } finally {
+      lock.unlock();
+    }
+    return String.format("ORD-%s-%04d", LocalDate.now(clock).format(DATE), seq);
+  }
+}
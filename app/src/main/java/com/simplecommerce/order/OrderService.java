@@ -1,8 +1,8 @@
 package com.simplecommerce.order;
 
 import java.util.List;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
 /**
  * Service for managing orders.
@@ -36,38 +36,42 @@ public interface OrderService {
   Order findByOrderNumber(String orderNumber);
 
   /**
-   * Get all orders for the current customer.
+   * Get all orders for the current customer, newest first.
    *
-   * @param pageable pagination information
-   * @return page of orders
+   * @param limit the maximum number of orders
+   * @param scroll the position to continue from
+   * @return window of orders
    */
-  Page<Order> getCustomerOrders(Pageable pageable);
+  Window<Order> getCustomerOrders(int limit, ScrollPosition scroll);
 
   /**
-   * Get all orders for a specific customer (admin only).
+   * Get all orders for a specific customer (admin only), newest first.
    *
    * @param customerId the customer ID
-   * @param pageable pagination information
-   * @return page of orders
+   * @param limit the maximum number of orders
+   * @param scroll the position to continue from
+   * @return window of orders
    */
-  Page<Order> getOrdersByCustomerId(String customerId, Pageable pageable);
+  Window<Order> getOrdersByCustomerId(String customerId, int limit, ScrollPosition scroll);
 
   /**
-   * Get all orders.
+   * Get all orders, newest first.
    *
-   * @param pageable pagination information
-   * @return page of orders
+   * @param limit the maximum number of orders
+   * @param scroll the position to continue from
+   * @return window of orders
    */
-  Page<Order> getAllOrders(Pageable pageable);
+  Window<Order> getAllOrders(int limit, ScrollPosition scroll);
 
   /**
-   * Get orders by status.
+   * Get orders by status, newest first.
    *
    * @param statuses the list of statuses
-   * @param pageable pagination information
-   * @return page of orders
+   * @param limit the maximum number of orders
+   * @param scroll the position to continue from
+   * @return window of orders
    */
-  Page<Order> getOrdersByStatus(List<OrderStatus> statuses, Pageable pageable);
+  Window<Order> getOrdersByStatus(List<OrderStatus> statuses, int limit, ScrollPosition scroll);
 
   /**
    * Update order status.
@@ -1,10 +1,14 @@
 package com.simplecommerce.order;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -22,35 +26,64 @@ public interface Orders extends JpaRepository<OrderEntity, UUID> {
    * @param orderNumber the order number
    * @return the order if found
    */
+  @EntityGraph(attributePaths = {"customer", "items"})
   Optional<OrderEntity> findByOrderNumber(String orderNumber);
 
   /**
-   * Find all orders for a customer.
+   * Find an order together with its customer and items.
+   *
+   * @param id the order ID
+   * @return the order if found
+   */
+  @EntityGraph(attributePaths = {"customer", "items"})
+  Optional<OrderEntity> findWithItemsById(UUID id);
+
+  /**
+   * Scroll through all orders.
+   *
+   * @param limit the maximum number of orders
+   * @param sort the sort order
+   * @param scroll the position to continue from
+   * @return window of orders
+   */
+  @EntityGraph(attributePaths = "customer")
+  Window<OrderEntity> findBy(Limit limit, Sort sort, ScrollPosition scroll);
+
+  /**
+   * Scroll through the orders of a customer.
    *
    * @param customerId the customer ID
-   * @param pageable pagination information
-   * @return page of orders
+   * @param limit the maximum number of orders
+   * @param sort the sort order
+   * @param scroll the position to continue from
+   * @return window of orders
    */
-  @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId ORDER BY o.createdAt DESC")
-  Page<OrderEntity> findByCustomerId(@Param("customerId") UUID customerId, Pageable pageable);
+  @EntityGraph(attributePaths = "customer")
+  Window<OrderEntity> findByCustomerId(UUID customerId, Limit limit, Sort sort, ScrollPosition scroll);
 
   /**
-   * Find orders by status.
+   * Scroll through the orders with a status.
    *
    * @param status the order status
-   * @param pageable pagination information
-   * @return page of orders
+   * @param limit the maximum number of orders
+   * @param sort the sort order
+   * @param scroll the position to continue from
+   * @return window of orders
    */
-  Page<OrderEntity> findByStatus(OrderStatus status, Pageable pageable);
+  @EntityGraph(attributePaths = "customer")
+  Window<OrderEntity> findByStatus(OrderStatus status, Limit limit, Sort sort, ScrollPosition scroll);
 
   /**
-   * Find orders by customer email.
+   * Scroll through the orders placed with a customer email.
    *
    * @param email the customer email
-   * @param pageable pagination information
-   * @return page of orders
+   * @param limit the maximum number of orders
+   * @param sort the sort order
+   * @param scroll the position to continue from
+   * @return window of orders
    */
-  Page<OrderEntity> findByCustomerEmailIgnoreCase(String email, Pageable pageable);
+  @EntityGraph(attributePaths = "customer")
+  Window<OrderEntity> findByCustomerEmailIgnoreCase(String email, Limit limit, Sort sort, ScrollPosition scroll);
 
   /**
    * Count orders by customer.
@@ -62,11 +95,24 @@ public interface Orders extends JpaRepository<OrderEntity, UUID> {
   long countByCustomerId(@Param("customerId") UUID customerId);
 
   /**
-   * Find all orders with a specific list of statuses.
+   * Scroll through the orders with a specific list of statuses.
    *
    * @param statuses the list of statuses
-   * @param pageable pagination information
-   * @return page of orders
+   * @param limit the maximum number of orders
+   * @param sort the sort order
+   * @param scroll the position to continue from
+   * @return window of orders
+   */
+  @EntityGraph(attributePaths = "customer")
+  Window<OrderEntity> findByStatusIn(List<OrderStatus> statuses, Limit limit, Sort sort, ScrollPosition scroll);
+
+  /**
+   * Loads the items of {@code orders} into the persistence context. Items are not fetched with the windows above, as
+   * fetching a collection would apply their limit in memory.
+   *
+   * @param orders the orders
+   * @return the orders with their items
    */
-  Page<OrderEntity> findByStatusIn(List<OrderStatus> statuses, Pageable pageable);
+  @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o IN :orders")
+  List<OrderEntity> findWithItemsByOrderIn(@Param("orders") Collection<OrderEntity> orders);
 }
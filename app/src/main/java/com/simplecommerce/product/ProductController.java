@@ -67,6 +67,12 @@ class ProductController {
                   .collect(toMap(Entry::getKey, Entry::getValue))
               );
       });
+      registry.<String, PriceRange>forName("priceRangeDataLoader")
+          .registerMappedBatchLoader((productIds, env) -> {
+              var locale = (Locale) env.getKeyContextsList().getFirst();
+              LOG.debug("Calculating price ranges for {} product(s)", productIds.size());
+              return Mono.fromSupplier(() -> priceResolutionService.calculatePriceRanges(productIds, locale));
+      });
     }
 
     @QueryMapping
@@ -106,15 +112,9 @@ class ProductController {
     }
 
     @SchemaMapping(typeName = "Product")
-    Optional<PriceRange> priceRange(Product source, Locale locale) {
-        LOG.debug("Calculating price range for product {} from locale {}", source.id(), locale);
-        
-        try {
-            return priceResolutionService.calculatePriceRange(source, locale);
-        } catch (Exception e) {
-            LOG.error("Error calculating price range for product {}: {}", source.id(), e.getMessage());
-            return Optional.empty();
-        }
+    CompletableFuture<PriceRange> priceRange(Product source, Locale locale, DataLoader<String, PriceRange> priceRangeDataLoader) {
+        LOG.debug("Deferring price range for product {} from locale {}", source.id(), locale);
+        return priceRangeDataLoader.load(source.id(), locale);
     }
 
     @SchemaMapping
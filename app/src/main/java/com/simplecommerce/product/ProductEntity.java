@@ -65,6 +65,13 @@ public class ProductEntity extends AbstractAggregateRoot<ProductEntity> implemen
   @Enumerated(EnumType.STRING)
   @Column(nullable = false)
   private ProductStatus status = ProductStatus.DRAFT;
+  /**
+   * Weighted full-text document, generated by the database. Only used in search predicates, so it is neither written
+   * nor re-read after a write; the loaded value may be stale.
+   */
+  @JsonIgnore
+  @Column(columnDefinition = "tsvector", insertable = false, updatable = false)
+  private String searchVector;
 
   /**
    * Publishes a {@link ProductEvent} of type {@link ProductEventType#CREATED}.
@@ -13,7 +13,7 @@ import org.springframework.stereotype.Component;
  * @author julius.krah
  */
 @Component
-@Profile("keto-authz")
+@Profile({"keto-authz", "embedded-authz"})
 class ProductEventHandler {
 
   private final AuthorizationBridge authorizationBridge;
@@ -8,8 +8,7 @@ import static java.util.Objects.requireNonNull;
 import com.simplecommerce.node.NodeService;
 import com.simplecommerce.product.ProductEvent.ProductEventType;
 import com.simplecommerce.product.category.CategoryEntity;
-import com.simplecommerce.product.search.SearchQueryParser;
-import com.simplecommerce.product.search.SearchQueryTranslator;
+import com.simplecommerce.product.search.SearchQueryCompiler;
 import com.simplecommerce.product.variant.ProductVariantEntity;
 import com.simplecommerce.product.variant.ProductVariants;
 import com.simplecommerce.security.aspects.Check;
@@ -17,7 +16,7 @@ import com.simplecommerce.security.aspects.Permit;
 import com.simplecommerce.shared.Event;
 import com.simplecommerce.shared.GlobalId;
 import com.simplecommerce.shared.authorization.BasePermissions.Namespaces;
-import com.simplecommerce.shared.authorization.KetoAuthorizationService;
+import com.simplecommerce.shared.authorization.AuthorizationService;
 import com.simplecommerce.shared.exceptions.NotFoundException;
 import com.simplecommerce.shared.exceptions.OperationNotAllowedException;
 import com.simplecommerce.shared.types.Product;
@@ -31,9 +30,11 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowire;
 import org.springframework.beans.factory.annotation.Configurable;
 import org.springframework.data.domain.Limit;
@@ -41,6 +42,13 @@ import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationDeniedException;
+import org.springframework.security.authorization.AuthorizationEventPublisher;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -65,26 +73,26 @@ class ProductManagement implements ProductService, NodeService {
   public void setVariantRepository(ObjectFactory<ProductVariants> variantRepository) {
     this.variantRepository = variantRepository.getObject();
   }
-  public void setSearchQueryParser(ObjectFactory<SearchQueryParser> searchQueryParser) {
-    this.searchQueryParser = searchQueryParser.getObject();
+  public void setSearchQueryCompiler(ObjectFactory<SearchQueryCompiler> searchQueryCompiler) {
+    this.searchQueryCompiler = searchQueryCompiler.getObject();
   }
-  public void setSearchQueryTranslator(ObjectFactory<SearchQueryTranslator> searchQueryTranslator) {
-    this.searchQueryTranslator = searchQueryTranslator.getObject();
-  }
-  public void setKetoAuthorizationService(ObjectFactory<KetoAuthorizationService> ketoAuthorizationService) {
-    this.ketoAuthorizationService = ketoAuthorizationService.getObject();
+  public void setAuthorizationService(ObjectFactory<AuthorizationService> authorizationService) {
+    this.authorizationService = authorizationService.getObject();
   }
   public void setStateMachineService(ObjectFactory<ProductStateMachineService> stateMachineService) {
     this.stateMachineService = stateMachineService.getObject();
   }
+  public void setEventPublisher(ObjectProvider<AuthorizationEventPublisher> eventPublisher) {
+    this.eventPublisher = eventPublisher.getIfAvailable();
+  }
 
   private Products productRepository;
   private Event<ProductEvent> event;
   private ProductVariants variantRepository;
-  private SearchQueryParser searchQueryParser;
-  private SearchQueryTranslator searchQueryTranslator;
-  private KetoAuthorizationService ketoAuthorizationService;
+  private SearchQueryCompiler searchQueryCompiler;
+  private AuthorizationService authorizationService;
   private ProductStateMachineService stateMachineService;
+  private @Nullable AuthorizationEventPublisher eventPublisher;
 
   private ProductEntity toEntity(ProductInput product) {
     var category = new CategoryEntity();
@@ -167,17 +175,7 @@ class ProductManagement implements ProductService, NodeService {
   @Transactional(readOnly = true)
   @Override
   public Window<Product> findProducts(int limit, Sort sort, ScrollPosition scroll) {
-    boolean hasPermission = false;
-    var authentication = SecurityContextHolder.getContext().getAuthentication();
-    if (authentication != null) {
-      hasPermission = ketoAuthorizationService.checkPermission(Namespaces.PRODUCT_NAMESPACE, "__LIST__", VIEW_PRODUCTS.getPermission(), authentication.getName());
-    }
-    // Limit to published products if no permission
-    Specification<ProductEntity> spec = hasPermission ? Specification.unrestricted() : (root, _, cb) ->
-        cb.equal(root.get("status"), ProductStatus.PUBLISHED);
-    return callInScope(() -> productRepository.findBy(spec, function ->
-        function.sortBy(sort).limit(limit).scroll(scroll)))
-        .map(this::fromEntity);
+    return findProducts(visibleProducts(), limit, sort, scroll);
   }
 
   /**
@@ -192,26 +190,39 @@ class ProductManagement implements ProductService, NodeService {
     }
 
     LOG.debug("Finding products with search query: {}", searchQuery);
-    
-    // Parse the search query
-    var parsedQuery = searchQueryParser.parse(searchQuery);
-    LOG.debug("Parsed search query: {}", parsedQuery);
-    
-    // Translate to JPA Specification
-    var specification = searchQueryTranslator.translateToSpecification(parsedQuery);
+    var plan = searchQueryCompiler.compile(searchQuery);
+    LOG.debug("Parsed search query: {}", plan.query());
+
+    var specification = visibleProducts().and(plan.specification());
+    var position = scroll;
+    if (sort.isUnsorted() && scroll.isInitial() && plan.ordered()) {
+      // Relevance and price order are not keysets; such results are paged by offset
+      position = ScrollPosition.offset();
+    }
+    return findProducts(specification, limit, sort, position);
+  }
 
-    // For now, fall back to simple pagination when search is used
-    LOG.warn("Search with specifications enabled but cursor pagination not yet implemented. Using simple approach.");
-    
-    var products = callInScope(() -> productRepository.findAll(specification, sort));
-    var limitedProducts = products.stream()
-        .limit(limit)
-        .map(this::fromEntity)
-        .toList();
-    
-    // Return a basic Window without proper cursor pagination
-    // This is a temporary implementation until proper pagination is added
-    return Window.from(limitedProducts, _ -> null);
+  /**
+   * Keyset-paginated lookup. Spring Data appends the identifier to the sort, renders the scroll position as a
+   * keyset predicate and applies the limit in SQL, so only one page is ever loaded.
+   */
+  private Window<Product> findProducts(Specification<ProductEntity> specification, int limit, Sort sort, ScrollPosition scroll) {
+    return callInScope(() -> productRepository.findBy(specification, function ->
+        function.sortBy(sort).limit(limit).scroll(scroll)))
+        .map(this::fromEntity);
+  }
+
+  /**
+   * Products the current user may list. Limited to published products unless the user has the list permission.
+   */
+  private Specification<ProductEntity> visibleProducts() {
+    boolean hasPermission = false;
+    var authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null) {
+      hasPermission = authorizationService.checkPermission(Namespaces.PRODUCT_NAMESPACE, "__LIST__", VIEW_PRODUCTS.getPermission(), authentication.getName());
+    }
+    return hasPermission ? Specification.unrestricted() : (root, _, cb) ->
+        cb.equal(root.get("status"), ProductStatus.PUBLISHED);
   }
 
   /**
@@ -307,17 +318,41 @@ class ProductManagement implements ProductService, NodeService {
     return callInScope(() -> productRepository.saveAndFlush(productEntity));
   }
 
+  /**
+   * Checks with Keto that the current user may edit product {@code id} without blocking the caller, and loads the
+   * product only once the check is granted. This is the {@link Permit} edit check of the publish, archive and
+   * reactivate mutations. Without an authenticated user the check fails closed, and a denial publishes an
+   * {@code AuthorizationDeniedEvent}, as {@code PermissionMethodAuthorizer} does for {@link Permit} methods.
+   */
+  private Mono<Product> findEditableProduct(String id) {
+    var authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null) {
+      return Mono.error(new AuthenticationCredentialsNotFoundException("An Authentication object was not found in the SecurityContext"));
+    }
+    var permitted = authorizationService.checkPermissionAsync(Namespaces.PRODUCT_NAMESPACE, GlobalId.decode(id).id(), "edit", authentication.getName());
+    // The check may complete on a gRPC thread, which does not carry the caller's security context for findProduct.
+    var lookup = new DelegatingSecurityContextCallable<Product>(() -> findProduct(id));
+    return Mono.fromFuture(permitted)
+        .flatMap(allowed -> allowed ? Mono.fromCallable(lookup) : Mono.<Product>error(denied(authentication, id)));
+  }
+
+  private AuthorizationDeniedException denied(Authentication authentication, String id) {
+    AuthorizationResult decision = new AuthorizationDecision(false);
+    if (eventPublisher != null) {
+      eventPublisher.publishAuthorizationEvent(() -> authentication, id, decision);
+    }
+    return new AuthorizationDeniedException("Access Denied", decision);
+  }
+
   /**
    * {@inheritDoc}
    */
-  @Permit(namespace = Namespaces.PRODUCT_NAMESPACE, relation = "edit", object = "T(com.simplecommerce.shared.GlobalId).decode(#id).id")
   @Override
   public Mono<Product> publishProduct(String id) {
     LOG.info("Publishing product: {}", id);
 
-    var product = findProduct(id);
-
-    return stateMachineService.publishProduct(product)
+    return findEditableProduct(id)
+        .flatMap(stateMachineService::publishProduct)
         .switchIfEmpty(Mono.error(new OperationNotAllowedException("Product state transition to PUBLISHED was rejected")))
         .publishOn(Schedulers.boundedElastic())
         .map(newStatus -> {
@@ -334,14 +369,12 @@ class ProductManagement implements ProductService, NodeService {
   /**
    * {@inheritDoc}
    */
-  @Permit(namespace = Namespaces.PRODUCT_NAMESPACE, relation = "edit", object = "T(com.simplecommerce.shared.GlobalId).decode(#id).id")
   @Override
   public Mono<Product> archiveProduct(String id) {
     LOG.info("Archiving product: {}", id);
 
-    var product = findProduct(id);
-
-    return stateMachineService.archiveProduct(product)
+    return findEditableProduct(id)
+        .flatMap(stateMachineService::archiveProduct)
         .switchIfEmpty(Mono.error(new OperationNotAllowedException("Product state transition to ARCHIVED was rejected")))
         .publishOn(Schedulers.boundedElastic())
         .map(newStatus -> {
@@ -358,14 +391,12 @@ class ProductManagement implements ProductService, NodeService {
   /**
    * {@inheritDoc}
    */
-  @Permit(namespace = Namespaces.PRODUCT_NAMESPACE, relation = "edit", object = "T(com.simplecommerce.shared.GlobalId).decode(#id).id")
   @Override
   public Mono<Product> reactivateProduct(String id) {
     LOG.info("Reactivating product: {}", id);
 
-    var product = findProduct(id);
-
-    return stateMachineService.reactivateProduct(product)
+    return findEditableProduct(id)
+        .flatMap(stateMachineService::reactivateProduct)
         .switchIfEmpty(Mono.error(new OperationNotAllowedException("Product state transition to DRAFT was rejected")))
         .publishOn(Schedulers.boundedElastic())
         .map(newStatus -> {
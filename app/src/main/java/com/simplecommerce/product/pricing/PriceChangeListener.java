@@ -0,0 +1,79 @@
+package com.simplecommerce.product.pricing;
+
+import com.simplecommerce.product.variant.ProductVariantEntity;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import java.util.UUID;
+import org.hibernate.Hibernate;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts the {@link VariantPricingCache} entry of a variant when the variant, one of its price sets or one of
+ * their rules is written. The entry is evicted on flush and again once the transaction completes, so that a
+ * concurrent reader cannot cache the state from before the commit.
+ *
+ * @author julius.krah
+ * @since 1.0
+ */
+public class PriceChangeListener {
+
+  private final ObjectProvider<VariantPricingCache> pricingCache;
+
+  public PriceChangeListener(ObjectProvider<VariantPricingCache> pricingCache) {
+    this.pricingCache = pricingCache;
+  }
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  void onChange(Object entity) {
+    var cache = pricingCache.getIfAvailable();
+    if (cache == null) {
+      return;
+    }
+    var variantId = switch (entity) {
+      case ProductVariantEntity variant -> variant.getId();
+      case PriceSetEntity priceSet -> variantId(priceSet);
+      case PriceRuleEntity rule when Hibernate.isInitialized(rule.getPriceSet()) -> variantId(rule.getPriceSet());
+      default -> null;
+    };
+    if (variantId == null) {
+      // The owning variant cannot be determined without loading it
+      evictAll(cache);
+    } else {
+      evict(cache, variantId);
+    }
+  }
+
+  private static @Nullable UUID variantId(@Nullable PriceSetEntity priceSet) {
+    return priceSet == null || priceSet.getVariant() == null ? null : priceSet.getVariant().getId();
+  }
+
+  private static void evict(VariantPricingCache cache, UUID variantId) {
+    cache.evict(variantId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          cache.evict(variantId);
+        }
+      });
+    }
+  }
+
+  private static void evictAll(VariantPricingCache cache) {
+    cache.clear();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          cache.clear();
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.simplecommerce.product.pricing;
+
+import static java.util.Objects.requireNonNull;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.Nullable;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached pricings when a change to a variant, its price sets or rules is committed by any instance or by a
+ * native statement. The database announces these changes on the {@code variant_pricing} channel. This component
+ * listens to it on a connection of its own, outside the pool, as the connection is held for the lifetime of the
+ * instance. Changes committed while it is not listening are not announced to it, so the whole
+ * {@link VariantPricingCache} is cleared whenever it starts listening.
+ *
+ * @author julius.krah
+ */
+@Component
+@Profile("serve")
+class PriceChangeNotifications implements SmartLifecycle {
+  private static final Logger LOG = LoggerFactory.getLogger(PriceChangeNotifications.class);
+  private static final String CHANNEL = "variant_pricing";
+  private static final int POLL_TIMEOUT_MILLIS = 1000;
+
+  private final JdbcConnectionDetails connectionDetails;
+  private final VariantPricingCache pricingCache;
+  private final Duration reconnectDelay;
+  private volatile @Nullable Thread listener;
+  private volatile @Nullable CountDownLatch stopSignal;
+
+  PriceChangeNotifications(JdbcConnectionDetails connectionDetails, VariantPricingCache pricingCache,
+      @Value("${simple-commerce.pricing.notifications.reconnect-delay:5s}") Duration reconnectDelay) {
+    this.connectionDetails = connectionDetails;
+    this.pricingCache = pricingCache;
+    this.reconnectDelay = reconnectDelay;
+  }
+
+  @Override
+  public void start() {
+    var signal = new CountDownLatch(1);
+    stopSignal = signal;
+    listener = Thread.ofVirtual().name("price-change-notifications").start(() -> {
+      try {
+        do {
+          try (var connection = DriverManager.getConnection(connectionDetails.getJdbcUrl(),
+              connectionDetails.getUsername(), connectionDetails.getPassword())) {
+            listen(connection, signal);
+          } catch (SQLException | RuntimeException e) {
+            LOG.warn("Listening for price changes failed, reconnecting in {}", reconnectDelay, e);
+          }
+        } while (!signal.await(reconnectDelay.toNanos(), TimeUnit.NANOSECONDS));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+  }
+
+  /**
+   * Stops listening once the current poll returns.
+   */
+  @Override
+  public void stop() {
+    var thread = listener;
+    if (thread != null) {
+      requireNonNull(stopSignal).countDown();
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      listener = null;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return listener != null;
+  }
+
+  private void listen(Connection connection, CountDownLatch signal) throws SQLException {
+    connection.setAutoCommit(true);
+    try (var statement = connection.createStatement()) {
+      statement.execute("LISTEN " + CHANNEL);
+    }
+    // Pricings cached before LISTEN took effect may miss a change
+    pricingCache.clear();
+    var notifications = connection.unwrap(PGConnection.class);
+    while (signal.getCount() > 0) {
+      var received = notifications.getNotifications(POLL_TIMEOUT_MILLIS);
+      if (received == null) {
+        continue;
+      }
+      for (var notification : received) {
+        LOG.debug("Evicting pricing of variant {} changed elsewhere", notification.getParameter());
+        pricingCache.evict(UUID.fromString(notification.getParameter()));
+      }
+    }
+  }
+}
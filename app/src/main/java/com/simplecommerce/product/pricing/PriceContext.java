@@ -3,6 +3,7 @@ package com.simplecommerce.product.pricing;
 import com.simplecommerce.shared.utils.MonetaryUtils;
 import java.util.Locale;
 import javax.money.CurrencyUnit;
+import org.jspecify.annotations.Nullable;
 import org.springframework.util.Assert;
 
 /**
@@ -37,6 +38,20 @@ public record PriceContext(
     return new PriceContext(locale, null, null, MonetaryUtils.getCurrency(locale), 1);
   }
 
+  /**
+   * Creates a price context from the given input, or the default context when there is none.
+   *
+   * @param input the price context input
+   * @param locale the current locale
+   * @return a PriceContext for the input
+   */
+  public static PriceContext of(@Nullable PriceContextInput input, Locale locale) {
+    if (input == null) {
+      return defaultContext(locale);
+    }
+    return new PriceContext(locale, input.customerGroup(), input.region(), input.currency(), input.quantity());
+  }
+
   /**
    * Creates a price context for B2C customers.
    *
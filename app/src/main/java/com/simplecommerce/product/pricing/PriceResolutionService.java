@@ -2,27 +2,19 @@ package com.simplecommerce.product.pricing;
 
 import com.simplecommerce.product.PriceRange;
 import com.simplecommerce.shared.types.Product;
-import com.simplecommerce.product.ProductEntity;
 import com.simplecommerce.product.variant.ProductVariantEntity;
 import com.simplecommerce.product.variant.ProductVariants;
-import com.simplecommerce.shared.utils.MonetaryUtils;
 import com.simplecommerce.shared.types.Money;
-import com.simplecommerce.shared.exceptions.NotFoundException;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import java.time.OffsetDateTime;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Limit;
-import org.springframework.data.domain.ScrollPosition;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -40,21 +32,22 @@ public class PriceResolutionService {
   private static final Logger LOG = LoggerFactory.getLogger(PriceResolutionService.class);
   
   private final ProductVariants variantRepository;
-  @PersistenceContext
-  private EntityManager entityManager;
+  private final VariantPricingCache pricingCache;
 
-  public PriceResolutionService(ProductVariants variantRepository) {
+  public PriceResolutionService(ProductVariants variantRepository, VariantPricingCache pricingCache) {
     this.variantRepository = variantRepository;
+    this.pricingCache = pricingCache;
   }
 
   /**
    * Resolves the price for a product variant based on the given context.
    * The resolution algorithm:
-   * 1. Find all active price sets for the variant
-   * 2. For each price set, find matching price rules based on context
-   * 3. Select the rule from the highest priority price set
-   * 4. If multiple rules match in the same price set, prefer more specific contexts
-   * 5. Fall back to DEFAULT context rules if no specific match found
+   * 1. Take the active price sets of the variant, highest priority first
+   * 2. For each price set, find a valid rule for the customer group, then the region, then the currency
+   * 3. Fall back to the DEFAULT context rules of the price set
+   * 4. Select the rule from the highest priority price set that has one
+   * Among the rules of one context, the tier with the highest applicable minimum quantity wins.
+   * The rules of each variant are compiled once and cached in {@link VariantPricingCache}.
    *
    * @param variant the product variant
    * @param context the pricing context
@@ -62,87 +55,63 @@ public class PriceResolutionService {
    * @return the resolved price, or empty if no price can be determined
    */
   public Optional<Money> resolvePrice(ProductVariantEntity variant, @Nullable PriceContextInput context, Locale locale) {
-    PriceContext ctx = PriceContext.defaultContext(locale);
-    if(Objects.nonNull(context)) {
-      ctx = new PriceContext(locale, context.customerGroup(), context.region(), context.currency(), context.quantity());
-    }
+    var ctx = PriceContext.of(context, locale);
     LOG.debug("Resolving price for variant {} with context {}", variant.getId(), ctx);
-
-    var currentTime = OffsetDateTime.now();
-    if(!entityManager.contains(variant)) {
-      variant = variantRepository.findById(variant.getId()).orElseThrow(NotFoundException::new);
-    }
-    
-    // Get all active price sets, ordered by priority (highest first)
-    var activePriceSets = variant.getPriceSets().stream()
-        .filter(PriceSetEntity::getActive)
-        .sorted(Comparator.comparing(PriceSetEntity::getPriority).reversed())
-        .toList();
-
-    if (activePriceSets.isEmpty()) {
-      LOG.warn("No active price sets found for variant {}", variant.getId());
-      return Optional.empty();
-    }
-
-    // Try to find a matching price rule
-    for (var priceSet : activePriceSets) {
-      var matchingRule = findBestMatchingRule(priceSet.getRules(), ctx, currentTime);
-      if (matchingRule.isPresent()) {
-        var rule = matchingRule.get();
-        var currency = MonetaryUtils.getCurrency(rule.getPriceCurrency(), locale);
-        var resolvedPrice = new Money(currency, rule.getPriceAmount());
-        
-        LOG.debug("Resolved price {} for variant {} using rule {} from price set {}", 
-            resolvedPrice, variant.getId(), rule.getId(), priceSet.getId());
-        
-        return Optional.of(resolvedPrice);
-      }
-    }
-
-    LOG.warn("No matching price rule found for variant {} with context {}", variant.getId(), context);
-    return Optional.empty();
+    return resolvePrice(variant.getId(), pricingCache.get(variant.getId()), ctx, System.currentTimeMillis());
   }
 
   /**
-   * Finds the best matching price rule from a list of rules based on the given context.
-   * Matching priority:
-   * 1. Exact context match (GEOGRAPHIC, CURRENCY, CUSTOMER_GROUP with matching value)
-   * 2. DEFAULT context (fallback)
+   * Resolves the prices of many variants in the same context. Variants that are not cached yet are loaded with
+   * their price sets and rules in two fetch-join queries.
    *
-   * @param rules the list of price rules to search
+   * @param variantIds the variant identifiers
    * @param context the pricing context
-   * @param currentTime the current time for validity checking
-   * @return the best matching rule, or empty if none found
+   * @return the resolved price per variant; variants without a price are absent
    */
-  private Optional<PriceRuleEntity> findBestMatchingRule(List<PriceRuleEntity> rules, 
-                                                        PriceContext context, 
-                                                        OffsetDateTime currentTime) {
-    
-    // Filter valid rules for the given context and time
-    var validRules = rules.stream()
-        .filter(rule -> rule.isValidFor(context, context.quantity(), currentTime))
-        .toList();
-
-    if (validRules.isEmpty()) {
-      return Optional.empty();
+  public Map<UUID, Money> resolvePricesByVariant(Collection<UUID> variantIds, PriceContext context) {
+    if (variantIds.isEmpty()) {
+      return Map.of();
     }
+    LOG.debug("Resolving prices for {} variant(s) with context {}", variantIds.size(), context);
+    var currentTime = System.currentTimeMillis();
+    var prices = new HashMap<UUID, Money>();
+    pricingCache.getAll(variantIds).forEach((variantId, pricing) ->
+        resolvePrice(variantId, pricing, context, currentTime).ifPresent(price -> prices.put(variantId, price)));
+    return prices;
+  }
 
-    // Priority 1: Find exact context matches (non-DEFAULT)
-    var exactMatches = validRules.stream()
-        .filter(rule -> rule.getContextType() != PriceContextType.DEFAULT)
-        .toList();
-
-    if (!exactMatches.isEmpty()) {
-      // If multiple exact matches, prefer the first one (could be enhanced with more complex logic)
-      return Optional.of(exactMatches.getFirst());
+  /**
+   * Resolves the prices of many variant lines in the same context, applying the quantity tiers of each line.
+   * Variants that are not cached yet are loaded with their price sets and rules in two fetch-join queries,
+   * regardless of the number of lines.
+   *
+   * @param items the variants and quantities to price
+   * @param context the pricing context; its quantity is replaced by the quantity of each line
+   * @return the resolved unit price per line; lines without a price are absent
+   */
+  public Map<VariantQuantity, Money> resolvePrices(Collection<VariantQuantity> items, PriceContext context) {
+    if (items.isEmpty()) {
+      return Map.of();
     }
+    LOG.debug("Resolving prices for {} line(s) with context {}", items.size(), context);
+    var pricings = pricingCache.getAll(items.stream().map(VariantQuantity::variantId).toList());
+    var currentTime = System.currentTimeMillis();
+    var prices = new HashMap<VariantQuantity, Money>();
+    for (var item : items) {
+      resolvePrice(item.variantId(), pricings.get(item.variantId()), context.withQuantity(item.quantity()), currentTime)
+          .ifPresent(price -> prices.put(item, price));
+    }
+    return prices;
+  }
 
-    // Priority 2: Fall back to DEFAULT context
-    var defaultMatches = validRules.stream()
-        .filter(rule -> rule.getContextType() == PriceContextType.DEFAULT)
-        .toList();
-
-    return defaultMatches.isEmpty() ? Optional.empty() : Optional.of(defaultMatches.getFirst());
+  private Optional<Money> resolvePrice(UUID variantId, VariantPricing pricing, PriceContext ctx, long currentTime) {
+    var resolvedPrice = pricing.resolve(ctx, currentTime);
+    if (resolvedPrice == null) {
+      LOG.warn("No matching price rule found for variant {} with context {}", variantId, ctx);
+      return Optional.empty();
+    }
+    LOG.debug("Resolved price {} for variant {}", resolvedPrice, variantId);
+    return Optional.of(resolvedPrice);
   }
 
   /**
@@ -155,42 +124,38 @@ public class PriceResolutionService {
    */
   public Optional<PriceRange> calculatePriceRange(Product product, Locale locale) {
     LOG.debug("Calculating price range for product {}", product.id());
-    var productEntity = new ProductEntity();
-    productEntity.setId(UUID.fromString(product.id()));
-    // Fetch all variants for the product
-    var variants = variantRepository.findByProductId(
-        productEntity.getId(),
-        Limit.unlimited(),
-        Sort.unsorted(),
-        ScrollPosition.keyset()
-    ).getContent();
+    return Optional.ofNullable(calculatePriceRanges(List.of(product.id()), locale).get(product.id()));
+  }
 
-    if (variants.isEmpty()) {
-      LOG.debug("No variants found for product {}", product.id());
-      return Optional.empty();
+  /**
+   * Calculates the price ranges of many products. The variants of the products are looked up with one query, and
+   * each variant is resolved from its cached pricing in the default context.
+   *
+   * @param productIds the product identifiers
+   * @param locale the locale for currency formatting
+   * @return the price range per product; products without any price are absent
+   */
+  public Map<String, PriceRange> calculatePriceRanges(Collection<String> productIds, Locale locale) {
+    if (productIds.isEmpty()) {
+      return Map.of();
     }
-
-    // Collect all prices by resolving pricing for each variant
-    var prices = variants.stream()
-        .map(variant -> resolvePrice(variant, null, locale))
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .toList();
-
-    if (prices.isEmpty()) {
-      LOG.debug("No resolved prices found for product {} variants", product.id());
-      return Optional.empty();
+    LOG.debug("Calculating price ranges for {} product(s)", productIds.size());
+    var variants = variantRepository.findKeysByProductIdIn(productIds.stream().map(UUID::fromString).toList());
+    var pricings = pricingCache.getAll(variants.stream().map(ProductVariants.VariantKey::getId).toList());
+
+    var context = PriceContext.defaultContext(locale);
+    var currentTime = System.currentTimeMillis();
+    var ranges = new HashMap<String, PriceRange>();
+    for (var variant : variants) {
+      resolvePrice(variant.getId(), pricings.get(variant.getId()), context, currentTime).ifPresent(price -> ranges.merge(
+          variant.getProductId().toString(), new PriceRange(price, price), PriceResolutionService::span));
     }
+    return ranges;
+  }
 
-    // Find min and max prices
-    var minPrice = prices.stream()
-        .min(Comparator.comparing(Money::amount));
-    
-    var maxPrice = prices.stream()
-        .max(Comparator.comparing(Money::amount));
-
-    return minPrice.isPresent() && maxPrice.isPresent() 
-        ? Optional.of(new PriceRange(minPrice.get(), maxPrice.get()))
-        : Optional.empty();
+  private static PriceRange span(PriceRange a, PriceRange b) {
+    var start = a.start().amount().compareTo(b.start().amount()) <= 0 ? a.start() : b.start();
+    var stop = a.stop().amount().compareTo(b.stop().amount()) >= 0 ? a.stop() : b.stop();
+    return new PriceRange(start, stop);
   }
-}
\ No newline at end of file
+}
@@ -5,6 +5,7 @@ import static jakarta.persistence.FetchType.LAZY;
 import com.simplecommerce.shared.utils.MonetaryUtils;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
@@ -28,6 +29,7 @@ import org.springframework.data.domain.Auditable;
  * @author julius.krah
  * @since 1.0
  */
+@EntityListeners(PriceChangeListener.class)
 @Entity(name = "PriceRule")
 @Table(name = "price_rules")
 public class PriceRuleEntity implements Auditable<String, UUID, OffsetDateTime> {
@@ -6,6 +6,7 @@ import com.simplecommerce.product.variant.ProductVariantEntity;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
@@ -29,6 +30,7 @@ import org.springframework.data.domain.Auditable;
  * @author julius.krah
  * @since 1.0
  */
+@EntityListeners(PriceChangeListener.class)
 @Entity(name = "PriceSet")
 @Table(name = "price_sets")
 public class PriceSetEntity implements Auditable<String, UUID, OffsetDateTime> {
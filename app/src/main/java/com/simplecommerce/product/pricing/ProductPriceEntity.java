@@ -0,0 +1,114 @@
+package com.simplecommerce.product.pricing;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.UUID;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Lowest and highest list price of a product in one currency. Rows are maintained by database triggers
+ * whenever variants, price sets or price rules change; see {@code V22__create_product_price_index.sql}.
+ * Only used to filter and sort product search by price.
+ *
+ * @author julius.krah
+ * @since 1.0
+ */
+@Immutable
+@Entity(name = "ProductPrice")
+@Table(name = "product_price_index")
+@IdClass(ProductPriceEntity.Key.class)
+public class ProductPriceEntity {
+
+  @Id
+  @Column(name = "product_id")
+  private UUID productId;
+
+  @Id
+  private String currency;
+
+  @Column(name = "min_amount", nullable = false)
+  private BigDecimal minAmount;
+
+  @Column(name = "max_amount", nullable = false)
+  private BigDecimal maxAmount;
+
+  public UUID getProductId() {
+    return productId;
+  }
+
+  public String getCurrency() {
+    return currency;
+  }
+
+  public BigDecimal getMinAmount() {
+    return minAmount;
+  }
+
+  public BigDecimal getMaxAmount() {
+    return maxAmount;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ProductPriceEntity that)) {
+      return false;
+    }
+    return Objects.equals(productId, that.productId) && Objects.equals(currency, that.currency);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(productId, currency);
+  }
+
+  @Override
+  public String toString() {
+    return "ProductPriceEntity{" +
+        "productId=" + productId +
+        ", currency='" + currency + '\'' +
+        ", minAmount=" + minAmount +
+        ", maxAmount=" + maxAmount +
+        '}';
+  }
+
+  /**
+   * Identifier of a {@link ProductPriceEntity}.
+   */
+  public static class Key implements Serializable {
+    private UUID productId;
+    private String currency;
+
+    public Key() {
+    }
+
+    public Key(UUID productId, String currency) {
+      this.productId = productId;
+      this.currency = currency;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key that)) {
+        return false;
+      }
+      return Objects.equals(productId, that.productId) && Objects.equals(currency, that.currency);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(productId, currency);
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.simplecommerce.product.pricing;
+
+import com.simplecommerce.shared.types.Money;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Prices of a list of variants and quantities in one pricing context.
+ *
+ * @param lines the quoted lines, in the order they were requested
+ * @param subtotal the sum of the line totals, or {@code null} if a line has no price or lines differ in currency
+ *
+ * @since 1.0
+ * @author julius.krah
+ */
+public record Quote(List<QuoteLine> lines, @Nullable Money subtotal) {
+
+}
@@ -0,0 +1,14 @@
+package com.simplecommerce.product.pricing;
+
+/**
+ * Input for a line of a price quote.
+ *
+ * @param variantId the product variant global ID
+ * @param quantity the quantity to quote
+ *
+ * @since 1.0
+ * @author julius.krah
+ */
+public record QuoteItemInput(String variantId, int quantity) {
+
+}
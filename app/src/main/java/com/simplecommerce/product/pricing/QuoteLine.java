@@ -0,0 +1,19 @@
+package com.simplecommerce.product.pricing;
+
+import com.simplecommerce.shared.types.Money;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A priced line of a quote.
+ *
+ * @param variantId the product variant global ID
+ * @param quantity the quoted quantity
+ * @param unitPrice the resolved unit price for the quantity, or {@code null} if the variant has no price
+ * @param total the unit price multiplied by the quantity, or {@code null} if the variant has no price
+ *
+ * @since 1.0
+ * @author julius.krah
+ */
+public record QuoteLine(String variantId, int quantity, @Nullable Money unitPrice, @Nullable Money total) {
+
+}
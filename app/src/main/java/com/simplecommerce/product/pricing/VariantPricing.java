@@ -0,0 +1,194 @@
+package com.simplecommerce.product.pricing;
+
+import com.simplecommerce.product.variant.ProductVariantEntity;
+import com.simplecommerce.shared.types.Money;
+import com.simplecommerce.shared.utils.MonetaryUtils;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Immutable, compiled price rules of a single variant. Active price sets are ordered by priority (highest first);
+ * the active rules of each set are bucketed by {@link PriceContextType} and context value, and every bucket keeps
+ * its quantity tiers and validity windows in primitive arrays sorted by minimum quantity. Resolving a price is a
+ * few map probes and an array scan, without touching the persistence context.
+ * <p>
+ * Within a price set, a customer group rule is preferred over a geographic rule, which is preferred over a
+ * currency rule; {@link PriceContextType#DEFAULT DEFAULT} rules are the fallback. Within a bucket the tier with
+ * the highest applicable minimum quantity wins.
+ *
+ * @author julius.krah
+ * @since 1.0
+ */
+final class VariantPricing {
+
+  /**
+   * Pricing of a variant without any price rule.
+   */
+  static final VariantPricing NONE = new VariantPricing(new CompiledPriceSet[0]);
+
+  private static final PriceContextType[] SPECIFICITY = {
+      PriceContextType.CUSTOMER_GROUP, PriceContextType.GEOGRAPHIC, PriceContextType.CURRENCY
+  };
+
+  private final CompiledPriceSet[] priceSets;
+
+  private VariantPricing(CompiledPriceSet[] priceSets) {
+    this.priceSets = priceSets;
+  }
+
+  /**
+   * Compiles the price sets and rules of {@code variant}, which must be initialized.
+   */
+  static VariantPricing compile(ProductVariantEntity variant) {
+    var priceSets = variant.getPriceSets().stream()
+        .filter(PriceSetEntity::getActive)
+        .sorted(Comparator.comparing(PriceSetEntity::getPriority).reversed())
+        .map(CompiledPriceSet::compile)
+        .toArray(CompiledPriceSet[]::new);
+    return priceSets.length == 0 ? NONE : new VariantPricing(priceSets);
+  }
+
+  /**
+   * Resolves the price for {@code context} at {@code epochMilli}.
+   *
+   * @return the price, or {@code null} if no rule applies
+   */
+  @Nullable Money resolve(PriceContext context, long epochMilli) {
+    var quantity = context.quantity();
+    var currency = context.currency() == null ? null : context.currency().getCurrencyCode();
+    for (var priceSet : priceSets) {
+      var price = priceSet.resolve(context.customerGroup(), context.region(), currency, quantity, epochMilli);
+      if (price != null) {
+        return price;
+      }
+    }
+    return null;
+  }
+
+  private record CompiledPriceSet(EnumMap<PriceContextType, Map<String, PriceTiers>> buckets, @Nullable PriceTiers defaults) {
+
+    static CompiledPriceSet compile(PriceSetEntity priceSet) {
+      var rulesByContext = new EnumMap<PriceContextType, Map<String, List<PriceRuleEntity>>>(PriceContextType.class);
+      var defaultRules = new ArrayList<PriceRuleEntity>();
+      for (var rule : priceSet.getRules()) {
+        if (Boolean.FALSE.equals(rule.getActive())) {
+          continue;
+        }
+        if (rule.getContextType() == PriceContextType.DEFAULT) {
+          if (rule.getContextValue() == null) { // Default rule has no specific context
+            defaultRules.add(rule);
+          }
+        } else if (rule.getContextValue() != null) {
+          rulesByContext.computeIfAbsent(rule.getContextType(), _ -> new HashMap<>())
+              .computeIfAbsent(key(rule), _ -> new ArrayList<>())
+              .add(rule);
+        }
+      }
+      var buckets = new EnumMap<PriceContextType, Map<String, PriceTiers>>(PriceContextType.class);
+      rulesByContext.forEach((type, rules) -> {
+        var tiers = new HashMap<String, PriceTiers>(rules.size());
+        rules.forEach((value, valueRules) -> tiers.put(value, PriceTiers.compile(valueRules)));
+        buckets.put(type, Map.copyOf(tiers));
+      });
+      return new CompiledPriceSet(buckets, defaultRules.isEmpty() ? null : PriceTiers.compile(defaultRules));
+    }
+
+    private static String key(PriceRuleEntity rule) {
+      var value = rule.getContextValue();
+      return rule.getContextType() == PriceContextType.CURRENCY ? value.trim().toUpperCase(Locale.ROOT) : value;
+    }
+
+    @Nullable Money resolve(@Nullable String customerGroup, @Nullable String region, @Nullable String currency,
+        @Nullable Integer quantity, long epochMilli) {
+      for (var type : SPECIFICITY) {
+        var value = switch (type) {
+          case CUSTOMER_GROUP -> customerGroup;
+          case GEOGRAPHIC -> region;
+          case CURRENCY -> currency;
+          case DEFAULT -> null;
+        };
+        var bucket = buckets.get(type);
+        if (value != null && bucket != null) {
+          var tiers = bucket.get(value);
+          var price = tiers == null ? null : tiers.find(quantity, epochMilli);
+          if (price != null) {
+            return price;
+          }
+        }
+      }
+      return defaults == null ? null : defaults.find(quantity, epochMilli);
+    }
+  }
+
+  /**
+   * Rules of one context value as parallel arrays, sorted by minimum quantity.
+   */
+  private static final class PriceTiers {
+    private final int[] minQuantity;
+    private final int[] maxQuantity;
+    private final long[] validFrom;
+    private final long[] validUntil;
+    private final Money[] prices;
+
+    private PriceTiers(int size) {
+      minQuantity = new int[size];
+      maxQuantity = new int[size];
+      validFrom = new long[size];
+      validUntil = new long[size];
+      prices = new Money[size];
+    }
+
+    static PriceTiers compile(List<PriceRuleEntity> rules) {
+      var sorted = rules.stream()
+          .sorted(Comparator.comparingInt(rule -> Objects.requireNonNullElse(rule.getMinQuantity(), Integer.MIN_VALUE)))
+          .toList();
+      var tiers = new PriceTiers(sorted.size());
+      for (int i = 0; i < sorted.size(); i++) {
+        var rule = sorted.get(i);
+        tiers.minQuantity[i] = Objects.requireNonNullElse(rule.getMinQuantity(), Integer.MIN_VALUE);
+        tiers.maxQuantity[i] = Objects.requireNonNullElse(rule.getMaxQuantity(), Integer.MAX_VALUE);
+        tiers.validFrom[i] = rule.getValidFrom() == null ? Long.MIN_VALUE : rule.getValidFrom().toInstant().toEpochMilli();
+        tiers.validUntil[i] = rule.getValidUntil() == null ? Long.MAX_VALUE : rule.getValidUntil().toInstant().toEpochMilli();
+        tiers.prices[i] = new Money(MonetaryUtils.getCurrency(rule.getPriceCurrency()), rule.getPriceAmount());
+      }
+      return tiers;
+    }
+
+    /**
+     * Finds the applicable rule with the highest minimum quantity. Without a quantity, tiers are not checked.
+     */
+    @Nullable Money find(@Nullable Integer quantity, long epochMilli) {
+      int end = quantity == null ? minQuantity.length : upperBound(quantity);
+      for (int i = end - 1; i >= 0; i--) {
+        if ((quantity == null || quantity <= maxQuantity[i]) && validFrom[i] <= epochMilli && epochMilli <= validUntil[i]) {
+          return prices[i];
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Number of tiers whose minimum quantity is at most {@code quantity}.
+     */
+    private int upperBound(int quantity) {
+      int low = 0;
+      int high = minQuantity.length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (minQuantity[middle] <= quantity) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+  }
+}
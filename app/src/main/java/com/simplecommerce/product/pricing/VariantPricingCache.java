@@ -0,0 +1,141 @@
+package com.simplecommerce.product.pricing;
+
+import com.simplecommerce.product.variant.ProductVariants;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ConcurrentLruCache;
+
+/**
+ * Bounded LRU cache of {@link VariantPricing} keyed by variant id. Entries are compiled from the variant, its price
+ * sets and rules on first use. They are evicted by {@link PriceChangeListener} when this node changes any of them,
+ * by {@link PriceChangeNotifications} when any node or a native statement commits a change, and at the latest
+ * {@code simple-commerce.pricing.cache-ttl} after they were compiled. An entry whose load overlapped an eviction
+ * is served to its caller but not kept, as it may have been read before the evicting change was committed.
+ * Callers must hold a transaction so that missing entries can be loaded.
+ * Cache activity is published as {@code cache.gets} (tagged {@code result=hit|miss}) and {@code cache.size}
+ * with {@code cache=variant-pricing}.
+ *
+ * @author julius.krah
+ * @since 1.0
+ */
+@Component
+public class VariantPricingCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(VariantPricingCache.class);
+  private static final String CACHE_NAME = "variant-pricing";
+
+  private final ProductVariants variantRepository;
+  private final ConcurrentLruCache<UUID, Entry> pricings;
+  private final long timeToLive;
+  // Incremented by every eviction, so a load can tell whether an eviction happened while it ran
+  private final AtomicLong evictions = new AtomicLong();
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public VariantPricingCache(ProductVariants variantRepository,
+      @Value("${simple-commerce.pricing.cache-size:10000}") int capacity,
+      @Value("${simple-commerce.pricing.cache-ttl:5m}") Duration timeToLive,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    this.variantRepository = variantRepository;
+    this.timeToLive = timeToLive.toNanos();
+    this.pricings = new ConcurrentLruCache<>(capacity, this::generate);
+    meterRegistry.ifAvailable(this::bindTo);
+  }
+
+  /**
+   * Returns the compiled pricing of a variant, or {@link VariantPricing#NONE} if the variant does not exist.
+   */
+  VariantPricing get(UUID variantId) {
+    requests.increment();
+    var entry = pricings.get(variantId);
+    if (System.nanoTime() - entry.compiledAt() >= timeToLive) {
+      pricings.remove(variantId);
+      entry = pricings.get(variantId);
+    }
+    if (entry.evictedWhileLoading()) {
+      pricings.remove(variantId);
+    }
+    return entry.pricing();
+  }
+
+  /**
+   * Returns the compiled pricing of many variants. Variants that are not cached are loaded together with their
+   * price sets and rules in two queries before being compiled.
+   */
+  Map<UUID, VariantPricing> getAll(Collection<UUID> variantIds) {
+    var generation = evictions.get();
+    var missing = variantIds.stream().filter(id -> !pricings.contains(id)).distinct().toList();
+    if (!missing.isEmpty()) {
+      var variants = variantRepository.findWithPriceSetsByIdIn(missing);
+      if (!variants.isEmpty()) {
+        variantRepository.findPriceSetsWithRulesByVariantIn(variants);
+      }
+    }
+    var result = new HashMap<UUID, VariantPricing>(variantIds.size());
+    for (var variantId : variantIds) {
+      result.put(variantId, get(variantId));
+    }
+    if (!missing.isEmpty() && evictions.get() != generation) {
+      // The preloaded variants may predate a change committed since
+      missing.forEach(pricings::remove);
+    }
+    return result;
+  }
+
+  public void evict(UUID variantId) {
+    evictions.incrementAndGet();
+    pricings.remove(variantId);
+  }
+
+  public void clear() {
+    evictions.incrementAndGet();
+    pricings.clear();
+  }
+
+  public long hitCount() {
+    return requests.sum() - misses.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  private Entry generate(UUID variantId) {
+    misses.increment();
+    LOG.debug("Compiling pricing of variant {}", variantId);
+    var generation = evictions.get();
+    var pricing = variantRepository.findById(variantId).map(VariantPricing::compile).orElse(VariantPricing.NONE);
+    return new Entry(pricing, System.nanoTime(), evictions.get() != generation);
+  }
+
+  private void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("cache.gets", this, VariantPricingCache::hitCount)
+        .tags("cache", CACHE_NAME, "result", "hit")
+        .description("Variant pricing served from the cache")
+        .register(registry);
+    FunctionCounter.builder("cache.gets", this, VariantPricingCache::missCount)
+        .tags("cache", CACHE_NAME, "result", "miss")
+        .description("Variant pricing compiled because it was not cached")
+        .register(registry);
+    Gauge.builder("cache.size", pricings, ConcurrentLruCache::size)
+        .tag("cache", CACHE_NAME)
+        .description("Number of cached variant pricings")
+        .register(registry);
+  }
+
+  private record Entry(VariantPricing pricing, long compiledAt, boolean evictedWhileLoading) {
+  }
+}
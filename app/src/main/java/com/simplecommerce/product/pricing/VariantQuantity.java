@@ -0,0 +1,16 @@
+package com.simplecommerce.product.pricing;
+
+import java.util.UUID;
+
+/**
+ * A quantity of a product variant to be priced, such as a cart or quote line.
+ *
+ * @param variantId the product variant identifier
+ * @param quantity the quantity, used to select quantity tiers
+ *
+ * @since 1.0
+ * @author julius.krah
+ */
+public record VariantQuantity(UUID variantId, int quantity) {
+
+}
@@ -0,0 +1,82 @@
+package com.simplecommerce.product.search;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Typed syntax tree of a search query. Produced by {@link SearchQueryParser} and translated by
+ * {@link SearchQueryTranslator}.
+ *
+ * @author julius.krah
+ * @since 1.0
+ */
+public sealed interface SearchExpression {
+
+  /**
+   * All terms of the expression in source order.
+   */
+  Stream<SearchTerm> terms();
+
+  /**
+   * Terms that are not negated by an enclosing {@link Not}.
+   */
+  Stream<SearchTerm> positiveTerms();
+
+  record And(List<SearchExpression> operands) implements SearchExpression {
+    public And {
+      operands = List.copyOf(operands);
+    }
+
+    @Override
+    public Stream<SearchTerm> terms() {
+      return operands.stream().flatMap(SearchExpression::terms);
+    }
+
+    @Override
+    public Stream<SearchTerm> positiveTerms() {
+      return operands.stream().flatMap(SearchExpression::positiveTerms);
+    }
+  }
+
+  record Or(List<SearchExpression> operands) implements SearchExpression {
+    public Or {
+      operands = List.copyOf(operands);
+    }
+
+    @Override
+    public Stream<SearchTerm> terms() {
+      return operands.stream().flatMap(SearchExpression::terms);
+    }
+
+    @Override
+    public Stream<SearchTerm> positiveTerms() {
+      return operands.stream().flatMap(SearchExpression::positiveTerms);
+    }
+  }
+
+  record Not(SearchExpression operand) implements SearchExpression {
+
+    @Override
+    public Stream<SearchTerm> terms() {
+      return operand.terms();
+    }
+
+    @Override
+    public Stream<SearchTerm> positiveTerms() {
+      return Stream.empty();
+    }
+  }
+
+  record Term(SearchTerm term) implements SearchExpression {
+
+    @Override
+    public Stream<SearchTerm> terms() {
+      return Stream.of(term);
+    }
+
+    @Override
+    public Stream<SearchTerm> positiveTerms() {
+      return Stream.of(term);
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.simplecommerce.product.search;
+
+import com.simplecommerce.product.search.generated.SearchQueryBaseVisitor;
+import com.simplecommerce.product.search.generated.SearchQueryParser.AndExprContext;
+import com.simplecommerce.product.search.generated.SearchQueryParser.FieldComparisonTermContext;
+import com.simplecommerce.product.search.generated.SearchQueryParser.FieldQuotedTermContext;
+import com.simplecommerce.product.search.generated.SearchQueryParser.FieldRangeTermContext;
+import com.simplecommerce.product.search.generated.SearchQueryParser.FieldValueTermContext;
+import com.simplecommerce.product.search.generated.SearchQueryParser.KeywordTermContext;
+import com.simplecommerce.product.search.generated.SearchQueryParser.NotTermContext;
+import com.simplecommerce.product.search.generated.SearchQueryParser.OrExprContext;
+import com.simplecommerce.product.search.generated.SearchQueryParser.ParenTermContext;
+import com.simplecommerce.product.search.generated.SearchQueryParser.QueryContext;
+import com.simplecommerce.product.search.generated.SearchQueryParser.QuotedStringContext;
+import com.simplecommerce.product.search.generated.SearchQueryParser.TermExprContext;
+import java.util.ArrayList;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+/**
+ * Builds a {@link SearchExpression} from the ANTLR parse tree. Nested conjunctions and disjunctions are flattened.
+ *
+ * @author julius.krah
+ * @since 1.0
+ */
+class SearchExpressionBuilder extends SearchQueryBaseVisitor<SearchExpression> {
+
+  @Override
+  public SearchExpression visitQuery(QueryContext ctx) {
+    return ctx.expr() == null ? null : visit(ctx.expr());
+  }
+
+  @Override
+  public SearchExpression visitAndExpr(AndExprContext ctx) {
+    var operands = new ArrayList<SearchExpression>();
+    for (ParseTree child : ctx.expr()) {
+      switch (visit(child)) {
+        case SearchExpression.And and -> operands.addAll(and.operands());
+        case SearchExpression operand -> operands.add(operand);
+      }
+    }
+    return new SearchExpression.And(operands);
+  }
+
+  @Override
+  public SearchExpression visitOrExpr(OrExprContext ctx) {
+    var operands = new ArrayList<SearchExpression>();
+    for (ParseTree child : ctx.expr()) {
+      switch (visit(child)) {
+        case SearchExpression.Or or -> operands.addAll(or.operands());
+        case SearchExpression operand -> operands.add(operand);
+      }
+    }
+    return new SearchExpression.Or(operands);
+  }
+
+  @Override
+  public SearchExpression visitTermExpr(TermExprContext ctx) {
+    return visit(ctx.term());
+  }
+
+  @Override
+  public SearchExpression visitFieldComparisonTerm(FieldComparisonTermContext ctx) {
+    var operator = switch (ctx.comparator().getText()) {
+      case ">" -> SearchTerm.Operator.GREATER_THAN;
+      case "<" -> SearchTerm.Operator.LESS_THAN;
+      case ">=" -> SearchTerm.Operator.GREATER_THAN_OR_EQUAL;
+      case "<=" -> SearchTerm.Operator.LESS_THAN_OR_EQUAL;
+      default -> throw new IllegalStateException("Unexpected comparator: " + ctx.comparator().getText());
+    };
+    return term(ctx.field().getText(), operator, ctx.value().getText());
+  }
+
+  @Override
+  public SearchExpression visitFieldRangeTerm(FieldRangeTermContext ctx) {
+    var range = ctx.range();
+    return term(ctx.field().getText(), SearchTerm.Operator.RANGE,
+        range.value(0).getText() + ".." + range.value(1).getText());
+  }
+
+  @Override
+  public SearchExpression visitFieldValueTerm(FieldValueTermContext ctx) {
+    return term(ctx.field().getText(), SearchTerm.Operator.EQUALS, ctx.value().getText());
+  }
+
+  @Override
+  public SearchExpression visitFieldQuotedTerm(FieldQuotedTermContext ctx) {
+    return term(ctx.field().getText(), SearchTerm.Operator.EQUALS, unquote(ctx.quotedString()));
+  }
+
+  @Override
+  public SearchExpression visitParenTerm(ParenTermContext ctx) {
+    return visit(ctx.expr());
+  }
+
+  @Override
+  public SearchExpression visitNotTerm(NotTermContext ctx) {
+    return new SearchExpression.Not(visit(ctx.term()));
+  }
+
+  @Override
+  public SearchExpression visitKeywordTerm(KeywordTermContext ctx) {
+    var keyword = ctx.quotedString() != null ? unquote(ctx.quotedString()) : ctx.value().getText();
+    return term("text", SearchTerm.Operator.CONTAINS, keyword);
+  }
+
+  private static SearchExpression term(String field, SearchTerm.Operator operator, String value) {
+    return new SearchExpression.Term(new SearchTerm(field, operator, value));
+  }
+
+  private static String unquote(QuotedStringContext ctx) {
+    var text = ctx.getText();
+    return text.substring(1, text.length() - 1);
+  }
+}
@@ -0,0 +1,16 @@
+package com.simplecommerce.product.search;
+
+import com.simplecommerce.product.ProductEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * A search query compiled for execution. Plans are immutable and shared between requests.
+ *
+ * @param query the parsed search query
+ * @param specification the filter (and relevance ordering) to apply to products
+ * @param ordered whether the plan orders results (by relevance or price) when no explicit sort is given
+ * @author julius.krah
+ * @since 1.0
+ */
+public record SearchPlan(SearchQuery query, Specification<ProductEntity> specification, boolean ordered) {
+}
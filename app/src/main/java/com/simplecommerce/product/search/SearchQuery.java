@@ -1,17 +1,19 @@
 package com.simplecommerce.product.search;
 
 import java.util.List;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Represents a parsed search query with terms and logical operators.
  * 
  * @param terms the search terms
  * @param operator the primary logical operator (AND/OR) between terms
+ * @param expression the syntax tree of the query, {@code null} when the query is empty
  * 
  * @author julius.krah
  * @since 1.0
  */
-public record SearchQuery(List<SearchTerm> terms, Operator operator) {
+public record SearchQuery(List<SearchTerm> terms, Operator operator, @Nullable SearchExpression expression) {
 
   public enum Operator {
     AND,
@@ -19,6 +21,41 @@ public record SearchQuery(List<SearchTerm> terms, Operator operator) {
     NOT
   }
 
+  /**
+   * Creates a flat query that combines all terms with {@code operator}.
+   */
+  public SearchQuery(List<SearchTerm> terms, Operator operator) {
+    this(terms, operator, flatten(terms, operator));
+  }
+
+  /**
+   * Creates a query from a syntax tree.
+   */
+  public static SearchQuery of(@Nullable SearchExpression expression) {
+    if (expression == null) {
+      return new SearchQuery(List.of(), Operator.AND, null);
+    }
+    var operator = switch (expression) {
+      case SearchExpression.Or _ -> Operator.OR;
+      case SearchExpression.Not _ -> Operator.NOT;
+      case SearchExpression.And _, SearchExpression.Term _ -> Operator.AND;
+    };
+    return new SearchQuery(expression.terms().toList(), operator, expression);
+  }
+
+  private static @Nullable SearchExpression flatten(@Nullable List<SearchTerm> terms, Operator operator) {
+    if (terms == null || terms.isEmpty()) {
+      return null;
+    }
+    List<SearchExpression> operands = terms.stream().<SearchExpression>map(SearchExpression.Term::new).toList();
+    SearchExpression conjunction = operands.size() == 1 ? operands.getFirst() : new SearchExpression.And(operands);
+    return switch (operator) {
+      case AND -> conjunction;
+      case OR -> operands.size() == 1 ? conjunction : new SearchExpression.Or(operands);
+      case NOT -> new SearchExpression.Not(conjunction);
+    };
+  }
+
   /**
    * Checks if the query is empty (no terms).
    */
@@ -0,0 +1,91 @@
+package com.simplecommerce.product.search;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ConcurrentLruCache;
+
+/**
+ * Parses and translates search queries into {@link SearchPlan}s, keeping the most recently used plans in a
+ * bounded LRU cache keyed by the normalized query string. Queries that fail to parse are not cached.
+ * Cache activity is published as {@code cache.gets} (tagged {@code result=hit|miss}) and {@code cache.size}
+ * with {@code cache=search-plans}.
+ *
+ * @author julius.krah
+ * @since 1.0
+ */
+@Service
+public class SearchQueryCompiler {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SearchQueryCompiler.class);
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final String CACHE_NAME = "search-plans";
+
+  private final SearchQueryParser searchQueryParser;
+  private final SearchQueryTranslator searchQueryTranslator;
+  private final ConcurrentLruCache<String, SearchPlan> plans;
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public SearchQueryCompiler(SearchQueryParser searchQueryParser, SearchQueryTranslator searchQueryTranslator,
+      @Value("${simple-commerce.search.plan-cache-size:1024}") int capacity, ObjectProvider<MeterRegistry> meterRegistry) {
+    this.searchQueryParser = searchQueryParser;
+    this.searchQueryTranslator = searchQueryTranslator;
+    this.plans = new ConcurrentLruCache<>(capacity, this::generate);
+    meterRegistry.ifAvailable(this::bindTo);
+  }
+
+  /**
+   * Returns the plan for {@code queryString}, compiling it on first use.
+   *
+   * @param queryString the raw search query string
+   * @return the compiled plan
+   * @throws com.simplecommerce.shared.exceptions.InvalidInputException if the query is not valid
+   */
+  public SearchPlan compile(String queryString) {
+    requests.increment();
+    return plans.get(normalize(queryString));
+  }
+
+  public long hitCount() {
+    return requests.sum() - misses.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  private SearchPlan generate(String queryString) {
+    misses.increment();
+    LOG.debug("Compiling search query: {}", queryString);
+    var query = searchQueryParser.parse(queryString);
+    return new SearchPlan(query, searchQueryTranslator.translateToSpecification(query),
+        searchQueryTranslator.ordersResults(query));
+  }
+
+  private static String normalize(String queryString) {
+    return queryString == null ? "" : WHITESPACE.matcher(queryString.strip()).replaceAll(" ");
+  }
+
+  private void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("cache.gets", this, SearchQueryCompiler::hitCount)
+        .tags("cache", CACHE_NAME, "result", "hit")
+        .description("Search plans served from the cache")
+        .register(registry);
+    FunctionCounter.builder("cache.gets", this, SearchQueryCompiler::missCount)
+        .tags("cache", CACHE_NAME, "result", "miss")
+        .description("Search plans compiled because they were not cached")
+        .register(registry);
+    Gauge.builder("cache.size", plans, ConcurrentLruCache::size)
+        .tag("cache", CACHE_NAME)
+        .description("Number of cached search plans")
+        .register(registry);
+  }
+}
@@ -1,27 +1,38 @@
 package com.simplecommerce.product.search;
 
-import com.simplecommerce.product.search.SearchQuery.Operator;
+import com.simplecommerce.product.search.generated.SearchQueryLexer;
+import com.simplecommerce.shared.exceptions.InvalidInputException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 /**
- * Parser for search queries using GitHub-style search syntax.
+ * Parser for search queries using GitHub-style search syntax, backed by the {@code SearchQuery.g4} grammar.
  * Supported syntax:
  * - Field queries: status:published, price:100, category:electronics
+ * - Comparisons: price:>100, created:<=2024-12-31
  * - Range queries: price:100..200, created:2024-01-01..2024-12-31
  * - Quoted strings: title:"wireless headphones"
- * - Boolean operators: status:published AND category:electronics
+ * - Keywords: headphones "noise cancelling"
+ * - Boolean operators: status:published AND category:electronics, NOT status:archived
  * - Grouping: (status:published OR status:draft) AND category:electronics
+ * NOT binds tighter than AND, AND binds tighter than OR; adjacent terms are combined with AND.
  * Examples:
  * - status:published price:100..200
  * - category:electronics AND (status:published OR status:draft)
  * - title:"wireless headphones" AND price:>100
- * 
+ *
  * @author julius.krah
  * @since 1.0
  */
@@ -30,191 +41,86 @@ public class SearchQueryParser {
 
   private static final Logger LOG = LoggerFactory.getLogger(SearchQueryParser.class);
 
-  // Regex patterns for different query components
-  private static final Pattern FIELD_VALUE_PATTERN = Pattern.compile("(\\w+):(\\w+)");
-  private static final Pattern FIELD_QUOTED_PATTERN = Pattern.compile("(\\w+):\"([^\"]+)\"");
-  private static final Pattern FIELD_RANGE_PATTERN = Pattern.compile("(\\w+):(\\w+)\\.\\.(\\w+)");
-  private static final Pattern FIELD_COMPARISON_PATTERN = Pattern.compile("(\\w+):([><=]+)(\\w+)");
-
   /**
    * Parses a search query string into a structured SearchQuery object.
-   * 
+   *
    * @param queryString the raw search query string
    * @return parsed SearchQuery object
+   * @throws InvalidInputException if the query is not valid
    */
   public SearchQuery parse(String queryString) {
     LOG.debug("Parsing search query: {}", queryString);
-    
+
     if (queryString == null || queryString.trim().isEmpty()) {
-      return new SearchQuery(new ArrayList<>(), Operator.AND);
+      return SearchQuery.of(null);
     }
 
-    var terms = new ArrayList<SearchTerm>();
-    var cleanQuery = queryString.trim();
-
-    // For now, implement a simple parser that handles basic field:value syntax
-    // This can be enhanced with proper ANTLR parsing later
-    
-    // Split by AND/OR while preserving the operators
-    var segments = splitPreservingOperators(cleanQuery);
-    var operator = detectPrimaryOperator(cleanQuery);
-
-    for (String segment : segments) {
-      if (isOperator(segment)) {
-        continue; // Skip operator segments
-      }
-      
-      var term = parseSegment(segment.trim());
-      if (term != null) {
-        terms.add(term);
-      }
+    var errors = new ArrayList<String>();
+    var expression = parse(queryString, errors);
+    if (!errors.isEmpty()) {
+      throw new InvalidInputException("Invalid search query: " + String.join("; ", errors));
     }
-
-    var result = new SearchQuery(terms, operator);
+    var result = SearchQuery.of(expression);
     LOG.debug("Parsed search query: {}", result);
     return result;
   }
 
   /**
-   * Parses a single segment of the query into a SearchTerm.
-   */
-  private SearchTerm parseSegment(String segment) {
-    // Try quoted field pattern first
-    Matcher quotedMatcher = FIELD_QUOTED_PATTERN.matcher(segment);
-    if (quotedMatcher.matches()) {
-      return new SearchTerm(
-          quotedMatcher.group(1),
-          SearchTerm.Operator.EQUALS,
-          quotedMatcher.group(2)
-      );
-    }
-
-    // Try range pattern
-    Matcher rangeMatcher = FIELD_RANGE_PATTERN.matcher(segment);
-    if (rangeMatcher.matches()) {
-      return new SearchTerm(
-          rangeMatcher.group(1),
-          SearchTerm.Operator.RANGE,
-          rangeMatcher.group(2) + ".." + rangeMatcher.group(3)
-      );
-    }
-
-    // Try comparison pattern
-    Matcher comparisonMatcher = FIELD_COMPARISON_PATTERN.matcher(segment);
-    if (comparisonMatcher.matches()) {
-      var operatorStr = comparisonMatcher.group(2);
-      var operator = switch (operatorStr) {
-        case ">" -> SearchTerm.Operator.GREATER_THAN;
-        case "<" -> SearchTerm.Operator.LESS_THAN;
-        case ">=" -> SearchTerm.Operator.GREATER_THAN_OR_EQUAL;
-        case "<=" -> SearchTerm.Operator.LESS_THAN_OR_EQUAL;
-        default -> SearchTerm.Operator.EQUALS;
-      };
-      return new SearchTerm(
-          comparisonMatcher.group(1),
-          operator,
-          comparisonMatcher.group(3)
-      );
-    }
-
-    // Try simple field:value pattern
-    Matcher fieldValueMatcher = FIELD_VALUE_PATTERN.matcher(segment);
-    if (fieldValueMatcher.matches()) {
-      return new SearchTerm(
-          fieldValueMatcher.group(1),
-          SearchTerm.Operator.EQUALS,
-          fieldValueMatcher.group(2)
-      );
-    }
-
-    // If no pattern matches, treat as a general text search
-    if (!segment.isEmpty()) {
-      return new SearchTerm("text", SearchTerm.Operator.CONTAINS, segment);
-    }
-
-    return null;
-  }
-
-  /**
-   * Splits the query string while preserving AND/OR operators.
+   * Validates a search query for syntax errors.
+   *
+   * @param queryString the query to validate
+   * @return validation result with any error messages
    */
-  private List<String> splitPreservingOperators(String query) {
-    var parts = new ArrayList<String>();
-    var currentPart = new StringBuilder();
-    var tokens = query.split("\\s+");
-
-    for (String token : tokens) {
-      if (isOperator(token)) {
-        if (currentPart.isEmpty()) {
-          parts.add(currentPart.toString().trim());
-          currentPart = new StringBuilder();
-        }
-        parts.add(token);
-      } else {
-        if (currentPart.isEmpty()) {
-          currentPart.append(" ");
-        }
-        currentPart.append(token);
-      }
+  public SearchQueryValidation validate(String queryString) {
+    if (queryString == null) {
+      return SearchQueryValidation.error("Query cannot be null");
     }
 
-    if (currentPart.isEmpty()) {
-      parts.add(currentPart.toString().trim());
+    if (queryString.trim().isEmpty()) {
+      return SearchQueryValidation.success(); // Empty queries are valid
     }
 
-    return parts;
+    var errors = new ArrayList<String>();
+    parse(queryString, errors);
+    return errors.isEmpty() ? SearchQueryValidation.success() : SearchQueryValidation.errors(errors);
   }
 
   /**
-   * Detects the primary operator in the query (AND vs OR).
+   * Parses with the faster SLL prediction first and only falls back to full LL prediction (with error reporting)
+   * when SLL fails.
    */
-  private Operator detectPrimaryOperator(String query) {
-    if (query.contains(" OR ")) {
-      return Operator.OR;
+  private SearchExpression parse(String queryString, List<String> errors) {
+    var lexer = new SearchQueryLexer(CharStreams.fromString(queryString));
+    lexer.removeErrorListeners();
+    var tokens = new CommonTokenStream(lexer);
+    var parser = new com.simplecommerce.product.search.generated.SearchQueryParser(tokens);
+    parser.removeErrorListeners();
+    parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+    parser.setErrorHandler(new BailErrorStrategy());
+    try {
+      return new SearchExpressionBuilder().visit(parser.query());
+    } catch (ParseCancellationException e) {
+      tokens.seek(0);
+      parser.reset();
+      parser.addErrorListener(new CollectingErrorListener(errors));
+      parser.setErrorHandler(new DefaultErrorStrategy());
+      parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+      var tree = parser.query();
+      return errors.isEmpty() ? new SearchExpressionBuilder().visit(tree) : null;
     }
-    return Operator.AND; // Default to AND
   }
 
-  /**
-   * Checks if a token is a boolean operator.
-   */
-  private boolean isOperator(String token) {
-    return "AND".equals(token) || "OR".equals(token) || "NOT".equals(token);
-  }
+  private static final class CollectingErrorListener extends BaseErrorListener {
+    private final List<String> errors;
 
-  /**
-   * Validates a search query for syntax errors.
-   * 
-   * @param queryString the query to validate
-   * @return validation result with any error messages
-   */
-  public SearchQueryValidation validate(String queryString) {
-    var errors = new ArrayList<String>();
-    
-    if (queryString == null) {
-      errors.add("Query cannot be null");
-      return new SearchQueryValidation(false, errors);
+    private CollectingErrorListener(List<String> errors) {
+      this.errors = errors;
     }
 
-    if (queryString.trim().isEmpty()) {
-      return new SearchQueryValidation(true, errors); // Empty queries are valid
+    @Override
+    public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+        String msg, RecognitionException e) {
+      errors.add("at position " + charPositionInLine + ": " + msg);
     }
-
-    // Check for unclosed quotes
-    long quoteCount = queryString.chars().filter(ch -> ch == '"').count();
-    if (quoteCount % 2L != 0L) {
-      errors.add("Unclosed quote in query");
-    }
-
-    // Check for unmatched parentheses
-    long openParens = queryString.chars().filter(ch -> ch == '(').count();
-    long closeParens = queryString.chars().filter(ch -> ch == ')').count();
-    if (openParens != closeParens) {
-      errors.add("Unmatched parentheses in query");
-    }
-
-    // Additional validations can be added here
-
-    return new SearchQueryValidation(errors.isEmpty(), errors);
   }
-}
\ No newline at end of file
+}
@@ -1,20 +1,25 @@
 package com.simplecommerce.product.search;
 
 import com.simplecommerce.product.ProductEntity;
+import com.simplecommerce.product.pricing.ProductPriceEntity;
 import com.simplecommerce.shared.types.ProductStatus;
 import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
@@ -22,8 +27,12 @@ import org.springframework.stereotype.Service;
  * Translates parsed search queries into JPA Specifications for database queries.
  * Supported fields:
  * - status: product status (draft, published, archived)
- * - title: product title (text search)
- * - price: product price (comparison and range)
+ * - title: product title (full-text search)
+ * - description: product description (full-text search)
+ * - text: title, description and slug (full-text search, ranked by relevance)
+ * - price: product list price (comparison and range), optionally in the currency given by {@code currency:}
+ * - currency: products with a list price in the currency
+ * - sort: {@code price-asc} or {@code price-desc}, ordering by list price
  * - created: creation date (date range)
  * - updated: update date (date range)
  * - category: category name
@@ -36,9 +45,12 @@ import org.springframework.stereotype.Service;
 public class SearchQueryTranslator {
 
   private static final Logger LOG = LoggerFactory.getLogger(SearchQueryTranslator.class);
+  private static final Set<String> FULL_TEXT_FIELDS = Set.of("text", "title", "description");
 
   /**
-   * Translates a SearchQuery into a JPA Specification for ProductEntity.
+   * Translates a SearchQuery into a JPA Specification for ProductEntity. Field names, operators and values are
+   * resolved once here; the returned specification only assembles criteria nodes, so it can be cached and
+   * reused for every execution of the same query.
    * 
    * @param searchQuery the parsed search query
    * @return JPA Specification for database filtering
@@ -46,54 +58,179 @@ public class SearchQueryTranslator {
   public Specification<ProductEntity> translateToSpecification(SearchQuery searchQuery) {
     LOG.debug("Translating search query to specification: {}", searchQuery);
 
-    if (searchQuery.isEmpty()) {
+    if (searchQuery.isEmpty() || searchQuery.expression() == null) {
       return Specification.unrestricted(); // No filtering
     }
 
-    return (root, query, criteriaBuilder) -> {
-      var predicates = new ArrayList<Predicate>();
+    var currency = currency(searchQuery);
+    var filter = translate(searchQuery.expression(), currency);
+    Specification<ProductEntity> specification = filter == null ? Specification.unrestricted() : filter;
+    var priceOrder = priceOrder(searchQuery);
+    if (priceOrder != null) {
+      // Added first so that it takes precedence over relevance
+      specification = specification.and(orderByPrice(priceOrder, currency));
+    }
+    var keywords = keywords(searchQuery);
+    return keywords.isEmpty() ? specification : specification.and(orderByRelevance(String.join(" or ", keywords)));
+  }
 
-      for (SearchTerm term : searchQuery.terms()) {
-        var predicate = translateTerm(term, root, query, criteriaBuilder);
-        if (predicate != null) {
-          predicates.add(predicate);
-        }
+  /**
+   * Whether results of the query are ordered by relevance when no explicit sort is given.
+   * Relevance is not a keyset, so such results must be paged by offset.
+   *
+   * @param searchQuery the parsed search query
+   * @return {@code true} if the query contains keyword terms that are not negated
+   */
+  public boolean ranksByRelevance(SearchQuery searchQuery) {
+    return !keywords(searchQuery).isEmpty();
+  }
+
+  /**
+   * Whether the query orders its results itself, by relevance or by a {@code sort:price-asc|price-desc}
+   * qualifier, when no explicit sort is given. Neither order is a keyset, so such results must be paged by offset.
+   *
+   * @param searchQuery the parsed search query
+   * @return {@code true} if the query ranks by relevance or sorts by price
+   */
+  public boolean ordersResults(SearchQuery searchQuery) {
+    return priceOrder(searchQuery) != null || ranksByRelevance(searchQuery);
+  }
+
+  private @Nullable Specification<ProductEntity> translate(SearchExpression expression, @Nullable String currency) {
+    return switch (expression) {
+      case SearchExpression.And and -> combine(and.operands(), true, currency);
+      case SearchExpression.Or or -> combine(or.operands(), false, currency);
+      case SearchExpression.Not not -> {
+        var operand = translate(not.operand(), currency);
+        yield operand == null ? null : (root, query, criteriaBuilder) ->
+            criteriaBuilder.not(operand.toPredicate(root, query, criteriaBuilder));
       }
+      case SearchExpression.Term term -> translateTerm(term.term(), currency);
+    };
+  }
 
-      if (predicates.isEmpty()) {
-        return criteriaBuilder.conjunction(); // Always true
+  /**
+   * Combines the operands that could be translated; terms that were ignored do not take part.
+   */
+  private @Nullable Specification<ProductEntity> combine(List<SearchExpression> operands, boolean conjunction,
+      @Nullable String currency) {
+    var specifications = operands.stream()
+        .map(operand -> translate(operand, currency))
+        .filter(Objects::nonNull)
+        .toList();
+    if (specifications.isEmpty()) {
+      return null;
+    }
+    if (specifications.size() == 1) {
+      return specifications.getFirst();
+    }
+    return (root, query, criteriaBuilder) -> {
+      var predicates = specifications.stream()
+          .map(specification -> specification.toPredicate(root, query, criteriaBuilder))
+          .filter(Objects::nonNull)
+          .toArray(Predicate[]::new);
+      return conjunction ? criteriaBuilder.and(predicates) : criteriaBuilder.or(predicates);
+    };
+  }
+
+  /**
+   * Orders by {@code ts_rank} over the keyword terms, unless the caller already sorted the query.
+   * Spring Data replaces this ordering whenever an explicit or keyset sort is applied.
+   */
+  private Specification<ProductEntity> orderByRelevance(String keywords) {
+    return (root, query, criteriaBuilder) -> {
+      if (query != null && !Long.class.equals(query.getResultType()) && query.getOrderList().isEmpty()) {
+        // websearch_to_tsquery syntax: rank documents matching any of the keywords
+        var rank = criteriaBuilder.function("textrank", Double.class, root.get("searchVector"), criteriaBuilder.literal(keywords));
+        query.orderBy(criteriaBuilder.desc(rank), criteriaBuilder.asc(root.get("id")));
       }
+      return null;
+    };
+  }
 
-      // Combine predicates based on the query operator
-      return switch (searchQuery.operator()) {
-        case AND -> criteriaBuilder.and(predicates.toArray(new Predicate[0]));
-        case OR -> criteriaBuilder.or(predicates.toArray(new Predicate[0]));
-        case NOT -> criteriaBuilder.not(criteriaBuilder.and(predicates.toArray(new Predicate[0])));
-      };
+  /**
+   * Orders by the lowest (ascending) or highest (descending) list price from the price index. Products without
+   * a price come last.
+   */
+  private Specification<ProductEntity> orderByPrice(Direction direction, @Nullable String currency) {
+    return (root, query, criteriaBuilder) -> {
+      if (query != null && !Long.class.equals(query.getResultType()) && query.getOrderList().isEmpty()) {
+        var subquery = query.subquery(BigDecimal.class);
+        var price = subquery.from(ProductPriceEntity.class);
+        subquery.where(priceOf(root, price, currency, criteriaBuilder));
+        Order order;
+        if (direction.isAscending()) {
+          subquery.select(criteriaBuilder.min(price.<BigDecimal>get("minAmount")));
+          order = criteriaBuilder.asc(subquery);
+        } else {
+          subquery.select(criteriaBuilder.max(price.<BigDecimal>get("maxAmount")));
+          order = criteriaBuilder instanceof HibernateCriteriaBuilder hibernate
+              ? hibernate.desc(subquery, false) : criteriaBuilder.desc(subquery);
+        }
+        query.orderBy(order, criteriaBuilder.asc(root.get("id")));
+      }
+      return null;
     };
   }
 
+  private static @Nullable Direction priceOrder(SearchQuery searchQuery) {
+    if (searchQuery.expression() == null) {
+      return null;
+    }
+    return searchQuery.expression().positiveTerms()
+        .filter(term -> "sort".equalsIgnoreCase(term.field()))
+        .map(term -> switch (term.value().toLowerCase()) {
+          case "price", "price-asc" -> Direction.ASC;
+          case "price-desc" -> Direction.DESC;
+          default -> null;
+        })
+        .filter(Objects::nonNull)
+        .findFirst()
+        .orElse(null);
+  }
+
   /**
-   * Translates a single search term into a JPA Predicate.
+   * The currency that price terms are compared in, from a {@code currency:XYZ} qualifier.
+   * Without one, a price term matches a product priced in any currency.
    */
-  private Predicate translateTerm(SearchTerm term, 
-                                 Root<ProductEntity> root,
-                                 CriteriaQuery<?> query,
-                                 CriteriaBuilder criteriaBuilder) {
-    
+  private static @Nullable String currency(SearchQuery searchQuery) {
+    return searchQuery.getTermsForField("currency").stream()
+        .filter(term -> term.operator() == SearchTerm.Operator.EQUALS)
+        .map(term -> term.value().toUpperCase())
+        .findFirst()
+        .orElse(null);
+  }
+
+  private List<String> keywords(SearchQuery searchQuery) {
+    if (searchQuery.expression() == null) {
+      return List.of();
+    }
+    return searchQuery.expression().positiveTerms()
+        .filter(term -> FULL_TEXT_FIELDS.contains(term.field().toLowerCase()))
+        .filter(term -> term.operator() == SearchTerm.Operator.EQUALS || term.operator() == SearchTerm.Operator.CONTAINS)
+        .map(SearchTerm::value)
+        .toList();
+  }
+
+  /**
+   * Translates a single search term into a JPA Specification.
+   */
+  private @Nullable Specification<ProductEntity> translateTerm(SearchTerm term, @Nullable String currency) {
     LOG.debug("Translating search term: {}", term);
 
     return switch (term.field().toLowerCase()) {
-      case "status" -> translateStatusTerm(term, root, criteriaBuilder);
-      case "title" -> translateTextTerm(term, root.get("title"), criteriaBuilder);
-      case "description" -> translateTextTerm(term, root.get("description"), criteriaBuilder);
-      case "slug" -> translateTextTerm(term, root.get("slug"), criteriaBuilder);
-      case "price" -> translatePriceTerm(term, root, criteriaBuilder);
-      case "created" -> translateDateTerm(term, root.get("createdAt"), criteriaBuilder);
-      case "updated" -> translateDateTerm(term, root.get("updatedAt"), criteriaBuilder);
-      case "category" -> translateCategoryTerm(term, root, criteriaBuilder);
-      case "tags" -> translateTagsTerm(term, root, criteriaBuilder);
-      case "text" -> translateFullTextSearch(term, root, criteriaBuilder);
+      case "status" -> translateStatusTerm(term);
+      case "title" -> translateKeywordTerm(term, "title");
+      case "description" -> translateKeywordTerm(term, "description");
+      case "slug" -> translateTextTerm(term, "slug");
+      case "price" -> translatePriceTerm(term, currency);
+      case "currency" -> translateCurrencyTerm(term);
+      case "sort" -> null; // Applied as ordering, see orderByPrice
+      case "created" -> translateDateTerm(term, "createdAt");
+      case "updated" -> translateDateTerm(term, "updatedAt");
+      case "category" -> translateCategoryTerm(term);
+      case "tags" -> translateTagsTerm(term);
+      case "text" -> translateFullTextSearch(term);
       default -> {
         LOG.warn("Unknown search field: {}", term.field());
         yield null; // Ignore unknown fields
@@ -104,14 +241,12 @@ public class SearchQueryTranslator {
   /**
    * Translates status-related search terms.
    */
-  private Predicate translateStatusTerm(SearchTerm term, 
-                                       Root<ProductEntity> root,
-                                       CriteriaBuilder criteriaBuilder) {
+  private @Nullable Specification<ProductEntity> translateStatusTerm(SearchTerm term) {
     try {
       var status = ProductStatus.valueOf(term.value().toUpperCase());
       return switch (term.operator()) {
-        case EQUALS -> criteriaBuilder.equal(root.get("status"), status);
-        case NOT_EQUALS -> criteriaBuilder.notEqual(root.get("status"), status);
+        case EQUALS -> (root, _, criteriaBuilder) -> criteriaBuilder.equal(root.get("status"), status);
+        case NOT_EQUALS -> (root, _, criteriaBuilder) -> criteriaBuilder.notEqual(root.get("status"), status);
         default -> {
           LOG.warn("Unsupported operator {} for status field", term.operator());
           yield null;
@@ -126,24 +261,15 @@ public class SearchQueryTranslator {
   /**
    * Translates text-based search terms.
    */
-  private Predicate translateTextTerm(SearchTerm term, 
-                                     Path<String> path,
-                                     CriteriaBuilder criteriaBuilder) {
+  private @Nullable Specification<ProductEntity> translateTextTerm(SearchTerm term, String attribute) {
+    var value = term.value();
+    var lowerCase = value.toLowerCase();
     return switch (term.operator()) {
-      case EQUALS -> criteriaBuilder.equal(path, term.value());
-      case NOT_EQUALS -> criteriaBuilder.notEqual(path, term.value());
-      case CONTAINS -> criteriaBuilder.like(
-          criteriaBuilder.lower(path), 
-          "%" + term.value().toLowerCase() + "%"
-      );
-      case STARTS_WITH -> criteriaBuilder.like(
-          criteriaBuilder.lower(path), 
-          term.value().toLowerCase() + "%"
-      );
-      case ENDS_WITH -> criteriaBuilder.like(
-          criteriaBuilder.lower(path), 
-          "%" + term.value().toLowerCase()
-      );
+      case EQUALS -> (root, _, criteriaBuilder) -> criteriaBuilder.equal(root.get(attribute), value);
+      case NOT_EQUALS -> (root, _, criteriaBuilder) -> criteriaBuilder.notEqual(root.get(attribute), value);
+      case CONTAINS -> like(attribute, "%" + lowerCase + "%");
+      case STARTS_WITH -> like(attribute, lowerCase + "%");
+      case ENDS_WITH -> like(attribute, "%" + lowerCase);
       default -> {
         LOG.warn("Unsupported operator {} for text field", term.operator());
         yield null;
@@ -151,55 +277,98 @@ public class SearchQueryTranslator {
     };
   }
 
+  private Specification<ProductEntity> like(String attribute, String pattern) {
+    return (root, _, criteriaBuilder) -> criteriaBuilder.like(criteriaBuilder.lower(root.get(attribute)), pattern);
+  }
+
   /**
-   * Translates price-related search terms.
-   * Note: This is a simplified implementation. In a real scenario,
-   * you'd need to join with variants and consider contextual pricing.
+   * Translates price-related search terms against the per-product price index. A product matches when some
+   * price between its lowest and highest list price satisfies the term, e.g. {@code price:100..200} matches
+   * products whose price range overlaps 100 to 200.
    */
-  private Predicate translatePriceTerm(SearchTerm term, 
-                                      Root<ProductEntity> root,
-                                      CriteriaBuilder criteriaBuilder) {
+  private @Nullable Specification<ProductEntity> translatePriceTerm(SearchTerm term, @Nullable String currency) {
     try {
       if (term.isRange()) {
         var startValue = new BigDecimal(term.getRangeStart());
         var endValue = new BigDecimal(term.getRangeEnd());
-        
-        // This would need to be enhanced to join with variants and price sets
-        LOG.warn("Price range queries not fully implemented yet: {}", term);
-        return null;
-      } else {
-        var value = new BigDecimal(term.value());
-        // Simplified implementation - would need proper variant joining
-        LOG.warn("Price comparison queries not fully implemented yet: {}", term);
-        return null;
+        return priced(currency, (min, max, criteriaBuilder) -> criteriaBuilder.and(
+            criteriaBuilder.lessThanOrEqualTo(min, endValue), criteriaBuilder.greaterThanOrEqualTo(max, startValue)));
       }
+      var value = new BigDecimal(term.value());
+      return switch (term.operator()) {
+        case EQUALS -> priced(currency, (min, max, criteriaBuilder) -> criteriaBuilder.and(
+            criteriaBuilder.lessThanOrEqualTo(min, value), criteriaBuilder.greaterThanOrEqualTo(max, value)));
+        case GREATER_THAN -> priced(currency, (_, max, criteriaBuilder) -> criteriaBuilder.greaterThan(max, value));
+        case GREATER_THAN_OR_EQUAL -> priced(currency, (_, max, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(max, value));
+        case LESS_THAN -> priced(currency, (min, _, criteriaBuilder) -> criteriaBuilder.lessThan(min, value));
+        case LESS_THAN_OR_EQUAL -> priced(currency, (min, _, criteriaBuilder) -> criteriaBuilder.lessThanOrEqualTo(min, value));
+        default -> {
+          LOG.warn("Unsupported operator {} for price field", term.operator());
+          yield null;
+        }
+      };
     } catch (NumberFormatException e) {
       LOG.warn("Invalid price value: {}", term.value());
       return null;
     }
   }
 
+  /**
+   * Translates currency terms: products that have a list price in the currency.
+   */
+  private @Nullable Specification<ProductEntity> translateCurrencyTerm(SearchTerm term) {
+    if (term.operator() != SearchTerm.Operator.EQUALS) {
+      LOG.warn("Unsupported operator {} for currency field", term.operator());
+      return null;
+    }
+    return priced(term.value().toUpperCase(), (_, _, criteriaBuilder) -> criteriaBuilder.conjunction());
+  }
+
+  /**
+   * Products with a price index row matching {@code bounds}, checked with an {@code EXISTS} subquery so that
+   * products priced in several currencies are not duplicated.
+   */
+  private Specification<ProductEntity> priced(@Nullable String currency, PriceBounds bounds) {
+    return (root, query, criteriaBuilder) -> {
+      var subquery = query.subquery(Integer.class);
+      var price = subquery.from(ProductPriceEntity.class);
+      subquery.select(criteriaBuilder.literal(1)).where(
+          priceOf(root, price, currency, criteriaBuilder),
+          bounds.toPredicate(price.<BigDecimal>get("minAmount"), price.<BigDecimal>get("maxAmount"), criteriaBuilder));
+      return criteriaBuilder.exists(subquery);
+    };
+  }
+
+  private static Predicate priceOf(Root<ProductEntity> root, Root<ProductPriceEntity> price, @Nullable String currency,
+      CriteriaBuilder criteriaBuilder) {
+    var product = criteriaBuilder.equal(price.get("productId"), root.get("id"));
+    return currency == null ? product : criteriaBuilder.and(product, criteriaBuilder.equal(price.get("currency"), currency));
+  }
+
+  @FunctionalInterface
+  private interface PriceBounds {
+    Predicate toPredicate(Path<BigDecimal> min, Path<BigDecimal> max, CriteriaBuilder criteriaBuilder);
+  }
+
   /**
    * Translates date-related search terms.
    */
-  private Predicate translateDateTerm(SearchTerm term, 
-                                     Path<OffsetDateTime> path,
-                                     CriteriaBuilder criteriaBuilder) {
+  private @Nullable Specification<ProductEntity> translateDateTerm(SearchTerm term, String attribute) {
     try {
       if (term.isRange()) {
         var startDate = LocalDate.parse(term.getRangeStart()).atStartOfDay().atOffset(ZoneOffset.UTC);
         var endDate = LocalDate.parse(term.getRangeEnd()).plusDays(1L).atStartOfDay().atOffset(ZoneOffset.UTC);
-        return criteriaBuilder.between(path, startDate, endDate);
+        return (root, _, criteriaBuilder) -> criteriaBuilder.between(root.get(attribute), startDate, endDate);
       } else {
         var date = LocalDate.parse(term.value()).atStartOfDay().atOffset(ZoneOffset.UTC);
         var nextDay = date.plusDays(1L);
         
         return switch (term.operator()) {
-          case EQUALS -> criteriaBuilder.between(path, date, nextDay);
-          case GREATER_THAN -> criteriaBuilder.greaterThan(path, nextDay);
-          case LESS_THAN -> criteriaBuilder.lessThan(path, date);
-          case GREATER_THAN_OR_EQUAL -> criteriaBuilder.greaterThanOrEqualTo(path, date);
-          case LESS_THAN_OR_EQUAL -> criteriaBuilder.lessThan(path, nextDay);
+          case EQUALS -> (root, _, criteriaBuilder) -> criteriaBuilder.between(root.get(attribute), date, nextDay);
+          case GREATER_THAN -> (root, _, criteriaBuilder) -> criteriaBuilder.greaterThan(root.get(attribute), nextDay);
+          case LESS_THAN -> (root, _, criteriaBuilder) -> criteriaBuilder.lessThan(root.get(attribute), date);
+          case GREATER_THAN_OR_EQUAL -> (root, _, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(root.get(attribute), date);
+          case LESS_THAN_OR_EQUAL -> (root, _, criteriaBuilder) -> criteriaBuilder.lessThan(root.get(attribute), nextDay);
           default -> {
             LOG.warn("Unsupported operator {} for date field", term.operator());
             yield null;
@@ -215,16 +384,13 @@ public class SearchQueryTranslator {
   /**
    * Translates category-related search terms.
    */
-  private Predicate translateCategoryTerm(SearchTerm term, 
-                                         Root<ProductEntity> root,
-                                         CriteriaBuilder criteriaBuilder) {
-    var categoryJoin = root.join("category");
+  private @Nullable Specification<ProductEntity> translateCategoryTerm(SearchTerm term) {
+    var value = term.value();
+    var pattern = "%" + value.toLowerCase() + "%";
     return switch (term.operator()) {
-      case EQUALS -> criteriaBuilder.equal(categoryJoin.get("slug"), term.value());
-      case CONTAINS -> criteriaBuilder.like(
-          criteriaBuilder.lower(categoryJoin.get("title")), 
-          "%" + term.value().toLowerCase() + "%"
-      );
+      case EQUALS -> (root, _, criteriaBuilder) -> criteriaBuilder.equal(root.join("category").get("slug"), value);
+      case CONTAINS -> (root, _, criteriaBuilder) -> criteriaBuilder.like(
+          criteriaBuilder.lower(root.join("category").get("title")), pattern);
       default -> {
         LOG.warn("Unsupported operator {} for category field", term.operator());
         yield null;
@@ -235,30 +401,40 @@ public class SearchQueryTranslator {
   /**
    * Translates tags-related search terms.
    */
-  private Predicate translateTagsTerm(SearchTerm term, 
-                                     Root<ProductEntity> root,
-                                     CriteriaBuilder criteriaBuilder) {
+  private @Nullable Specification<ProductEntity> translateTagsTerm(SearchTerm term) {
     // This would need proper implementation for collection searching
     LOG.warn("Tags search not fully implemented yet: {}", term);
     return null;
   }
 
   /**
-   * Translates full-text search terms across multiple fields.
+   * Translates keyword terms on a single field. Matches and equality go through the indexed search vector
+   * and are re-checked against the field; other operators fall back to plain text comparison.
    */
-  private Predicate translateFullTextSearch(SearchTerm term, 
-                                           Root<ProductEntity> root,
-                                           CriteriaBuilder criteriaBuilder) {
-    var searchPattern = "%" + term.value().toLowerCase() + "%";
-    
-    // Search across title, description, and slug
-    var titlePredicate = criteriaBuilder.like(
-        criteriaBuilder.lower(root.get("title")), searchPattern);
-    var descriptionPredicate = criteriaBuilder.like(
-        criteriaBuilder.lower(root.get("description")), searchPattern);
-    var slugPredicate = criteriaBuilder.like(
-        criteriaBuilder.lower(root.get("slug")), searchPattern);
-    
-    return criteriaBuilder.or(titlePredicate, descriptionPredicate, slugPredicate);
+  private @Nullable Specification<ProductEntity> translateKeywordTerm(SearchTerm term, String attribute) {
+    var keywords = term.value();
+    return switch (term.operator()) {
+      case EQUALS, CONTAINS -> (root, _, criteriaBuilder) -> criteriaBuilder.and(
+          textSearch(root, keywords, criteriaBuilder),
+          criteriaBuilder.isTrue(criteriaBuilder.function("textmatches", Boolean.class, root.get(attribute), criteriaBuilder.literal(keywords)))
+      );
+      default -> translateTextTerm(term, attribute);
+    };
+  }
+
+  /**
+   * Translates full-text search terms across title, description and slug using the weighted search vector.
+   */
+  private Specification<ProductEntity> translateFullTextSearch(SearchTerm term) {
+    var keywords = term.value();
+    return switch (term.operator()) {
+      case NOT_EQUALS -> (root, _, criteriaBuilder) -> criteriaBuilder.not(textSearch(root, keywords, criteriaBuilder));
+      default -> (root, _, criteriaBuilder) -> textSearch(root, keywords, criteriaBuilder);
+    };
+  }
+
+  private Predicate textSearch(Root<ProductEntity> root, String keywords, CriteriaBuilder criteriaBuilder) {
+    return criteriaBuilder.isTrue(criteriaBuilder.function(
+        "textsearch", Boolean.class, root.get("searchVector"), criteriaBuilder.literal(keywords)));
   }
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package com.simplecommerce.product.variant;
 import com.simplecommerce.shared.types.Node;
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 
 /**
  * Represents a product variant.
@@ -19,4 +20,22 @@ public record ProductVariant(
     String priceCurrency
 ) implements Node {
 
+  /**
+   * Maps a loaded variant. The product is read by its identifier only, so it need not be fetched.
+   * @param entity the variant entity
+   * @return the product variant
+   */
+  public static ProductVariant fromEntity(ProductVariantEntity entity) {
+    var epoch = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    return new ProductVariant(
+        entity.getId() != null ? entity.getId().toString() : null,
+        entity.getCreatedDate().orElse(epoch),
+        entity.getLastModifiedDate().orElse(epoch),
+        entity.getProduct() != null && entity.getProduct().getId() != null ? entity.getProduct().getId().toString() : null,
+        entity.getSku(),
+        entity.getTitle(),
+        entity.getPriceAmount(),
+        entity.getPriceCurrency()
+    );
+  }
 }
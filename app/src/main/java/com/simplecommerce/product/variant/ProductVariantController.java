@@ -1,22 +1,35 @@
 package com.simplecommerce.product.variant;
 
 import static com.simplecommerce.shared.types.Types.NODE_PRODUCT_VARIANT;
+import static java.util.stream.Collectors.groupingBy;
 
 import com.simplecommerce.actor.Actor;
+import com.simplecommerce.product.pricing.PriceContext;
 import com.simplecommerce.product.pricing.PriceContextInput;
 import com.simplecommerce.product.pricing.PriceResolutionService;
 import com.simplecommerce.product.pricing.PriceSet;
 import com.simplecommerce.product.pricing.PriceSetInput;
+import com.simplecommerce.product.pricing.Quote;
+import com.simplecommerce.product.pricing.QuoteItemInput;
+import com.simplecommerce.product.pricing.QuoteLine;
+import com.simplecommerce.product.pricing.VariantQuantity;
 import com.simplecommerce.shared.GlobalId;
 import com.simplecommerce.shared.types.Money;
 import com.simplecommerce.shared.types.Product;
 import com.simplecommerce.shared.types.ProductStatus;
 import com.simplecommerce.shared.utils.MonetaryUtils;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
+import org.dataloader.DataLoader;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
@@ -26,8 +39,10 @@ import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.graphql.data.query.ScrollSubrange;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.function.SingletonSupplier;
+import reactor.core.publisher.Mono;
 
 /**
  * Controller for product variants and related operations.
@@ -39,12 +54,33 @@ import org.springframework.util.function.SingletonSupplier;
 class ProductVariantController {
 
   private final ObjectProvider<ProductVariantService> variantService;
-  private final Supplier<ProductVariantService> variantServiceSupplier = SingletonSupplier.of(ProductVariantManagement::new);
   private final PriceResolutionService priceResolutionService;
+  private final Supplier<ProductVariantService> variantServiceSupplier = SingletonSupplier.of(ProductVariantManagement::new);
 
-  ProductVariantController(ObjectProvider<ProductVariantService> variantService, PriceResolutionService priceResolutionService) {
+  ProductVariantController(BatchLoaderRegistry registry, ObjectProvider<ProductVariantService> variantService,
+      PriceResolutionService priceResolutionService) {
     this.variantService = variantService;
     this.priceResolutionService = priceResolutionService;
+    registry.<PricedVariant, Money>forName("resolvedPriceDataLoader")
+        .registerMappedBatchLoader((keys, env) -> Mono.fromSupplier(() -> resolvePrices(priceResolutionService, keys)));
+  }
+
+  /**
+   * Resolves all requested variants at once, one lookup per distinct pricing context.
+   */
+  private static Map<PricedVariant, Money> resolvePrices(PriceResolutionService priceResolutionService, Set<PricedVariant> keys) {
+    var prices = new HashMap<PricedVariant, Money>();
+    keys.stream().collect(groupingBy(PricedVariant::context)).forEach((context, variants) -> {
+      var resolved = priceResolutionService.resolvePricesByVariant(
+          variants.stream().map(PricedVariant::variantId).toList(), context);
+      for (var variant : variants) {
+        var price = resolved.get(variant.variantId());
+        if (price != null) {
+          prices.put(variant, price);
+        }
+      }
+    });
+    return prices;
   }
 
   @QueryMapping
@@ -52,6 +88,35 @@ class ProductVariantController {
     return variantService.getIfAvailable(variantServiceSupplier).findVariant(GlobalId.decode(id).id());
   }
 
+  @QueryMapping
+  Quote quote(@Argument List<QuoteItemInput> items, @Argument PriceContextInput context, Locale locale) {
+    var quantities = items.stream()
+        .map(item -> new VariantQuantity(UUID.fromString(GlobalId.decode(item.variantId()).id()), item.quantity()))
+        .toList();
+    var prices = priceResolutionService.resolvePrices(quantities, PriceContext.of(context, locale));
+
+    var lines = new ArrayList<QuoteLine>(items.size());
+    for (int i = 0; i < items.size(); i++) {
+      var quantity = quantities.get(i);
+      var unitPrice = prices.get(quantity);
+      var total = unitPrice == null ? null
+          : new Money(unitPrice.currency(), unitPrice.amount().multiply(BigDecimal.valueOf(quantity.quantity())));
+      lines.add(new QuoteLine(items.get(i).variantId(), quantity.quantity(), unitPrice, total));
+    }
+    return new Quote(lines, subtotal(lines));
+  }
+
+  /**
+   * Sums the line totals, provided every line is priced in the same currency.
+   */
+  private static Money subtotal(List<QuoteLine> lines) {
+    var totals = lines.stream().map(QuoteLine::total).toList();
+    if (totals.contains(null) || totals.stream().map(Money::currency).distinct().count() != 1) {
+      return null;
+    }
+    return new Money(totals.getFirst().currency(), totals.stream().map(Money::amount).reduce(BigDecimal.ZERO, BigDecimal::add));
+  }
+
   @SchemaMapping
   Window<ProductVariant> variants(Product source, ScrollSubrange subrange, Sort sort) {
     var limit = subrange.count().orElse(100);
@@ -90,10 +155,9 @@ class ProductVariantController {
   }
 
   @SchemaMapping(typeName = "ProductVariant")
-  Optional<Money> resolvedPrice(ProductVariant source, @Argument PriceContextInput context, Locale locale) {
-    var variant = new ProductVariantEntity();
-    variant.setId(UUID.fromString(source.id()));
-    return priceResolutionService.resolvePrice(variant, context, locale);
+  CompletableFuture<Money> resolvedPrice(ProductVariant source, @Argument PriceContextInput context, Locale locale,
+      DataLoader<PricedVariant, Money> resolvedPriceDataLoader) {
+    return resolvedPriceDataLoader.load(new PricedVariant(UUID.fromString(source.id()), PriceContext.of(context, locale)));
   }
 
   @SchemaMapping(typeName = "ProductVariant")
@@ -131,4 +195,10 @@ class ProductVariantController {
   String deletePriceSet(@Argument String id) {
     throw new UnsupportedOperationException("Add PriceSet not implemented yet");
   }
+
+  /**
+   * Key of the {@code resolvedPriceDataLoader}: the same variant may be priced in several contexts per request.
+   */
+  record PricedVariant(UUID variantId, PriceContext context) {
+  }
 }
@@ -2,11 +2,13 @@ package com.simplecommerce.product.variant;
 
 import static jakarta.persistence.FetchType.LAZY;
 
+import com.simplecommerce.product.pricing.PriceChangeListener;
 import com.simplecommerce.product.pricing.PriceSetEntity;
 import com.simplecommerce.product.ProductEntity;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
@@ -26,6 +28,7 @@ import org.springframework.data.domain.Auditable;
 /**
  * @author julius.krah
  */
+@EntityListeners(PriceChangeListener.class)
 @Entity(name = "ProductVariant")
 @Table(name = "product_variants")
 public class ProductVariantEntity implements Auditable<String, UUID, OffsetDateTime> {
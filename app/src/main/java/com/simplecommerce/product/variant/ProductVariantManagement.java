@@ -10,10 +10,9 @@ import com.simplecommerce.product.pricing.PriceSetEntity;
 import com.simplecommerce.product.ProductEntity;
 import com.simplecommerce.shared.GlobalId;
 import com.simplecommerce.shared.exceptions.NotFoundException;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
-import java.util.function.Supplier;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.annotation.Autowire;
 import org.springframework.beans.factory.annotation.Configurable;
@@ -59,40 +58,35 @@ public class ProductVariantManagement implements ProductVariantService, NodeServ
     return entity;
   }
 
-  private ProductVariant fromEntity(ProductVariantEntity entity) {
-    Supplier<OffsetDateTime> epoch = () -> OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
-    return new ProductVariant(
-        entity.getId() != null ? entity.getId().toString() : null,
-        entity.getCreatedDate().orElseGet(epoch),
-        entity.getLastModifiedDate().orElseGet(epoch),
-        entity.getProduct() != null && entity.getProduct().getId() != null ? entity.getProduct().getId().toString() : null,
-        entity.getSku(),
-        entity.getTitle(),
-        entity.getPriceAmount(),
-        entity.getPriceCurrency()
-    );
-  }
-
   @Override
   @Transactional(readOnly = true)
   public ProductVariant node(String id) {
     var gid = GlobalId.decode(id);
     var variant = callInScope(() -> variantRepository.findById(UUID.fromString(gid.id())));
-    return variant.map(this::fromEntity).orElseThrow(NotFoundException::new);
+    return variant.map(ProductVariant::fromEntity).orElseThrow(NotFoundException::new);
   }
 
   @Override
   @Transactional(readOnly = true)
   public ProductVariant findVariant(String id) {
     var variant = callInScope(() -> variantRepository.findById(UUID.fromString(id)));
-    return variant.map(this::fromEntity).orElseThrow(NotFoundException::new);
+    return variant.map(ProductVariant::fromEntity).orElseThrow(NotFoundException::new);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<ProductVariant> findVariants(Collection<String> ids) {
+    var variantIds = ids.stream().map(UUID::fromString).toList();
+    return callInScope(() -> variantRepository.findByIdIn(variantIds)).stream()
+        .map(ProductVariant::fromEntity)
+        .toList();
   }
 
   @Override
   @Transactional(readOnly = true)
   public Window<ProductVariant> findVariantsByProduct(String productId, int limit, Sort sort, ScrollPosition scroll) {
     return callInScope(() -> variantRepository.findByProductId(UUID.fromString(productId), Limit.of(limit), sort, scroll))
-        .map(this::fromEntity);
+        .map(ProductVariant::fromEntity);
   }
 
   @Override
@@ -107,7 +101,7 @@ public class ProductVariantManagement implements ProductVariantService, NodeServ
     defaultVariant.ifPresent(productVariantEntity -> runInScope(() -> variantRepository.deleteById(productVariantEntity.getId())));
     
     runInScope(() -> variantRepository.saveAndFlush(variantEntity));
-    return fromEntity(variantEntity);
+    return ProductVariant.fromEntity(variantEntity);
   }
 
   @Override
@@ -134,7 +128,7 @@ public class ProductVariantManagement implements ProductVariantService, NodeServ
             removeDefaultPriceSet(entity);
           }
           
-          return fromEntity(entity);
+          return ProductVariant.fromEntity(entity);
         })
         .orElseThrow(NotFoundException::new);
   }
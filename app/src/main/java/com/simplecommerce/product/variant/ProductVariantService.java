@@ -1,5 +1,7 @@
 package com.simplecommerce.product.variant;
 
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Window;
@@ -17,6 +19,13 @@ public interface ProductVariantService {
    */
   ProductVariant findVariant(String id);
 
+  /**
+   * Find product variants by their IDs. Unknown IDs are skipped.
+   * @param ids the variant IDs
+   * @return the product variants found
+   */
+  List<ProductVariant> findVariants(Collection<String> ids);
+
   /**
    * Find variants for a product.
    * @param productId the product ID
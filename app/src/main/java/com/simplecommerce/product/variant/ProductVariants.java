@@ -1,5 +1,8 @@
 package com.simplecommerce.product.variant;
 
+import com.simplecommerce.product.pricing.PriceSetEntity;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Limit;
@@ -16,6 +19,8 @@ import org.springframework.data.repository.Repository;
 public interface ProductVariants extends Repository<ProductVariantEntity, UUID> {
   
   Optional<ProductVariantEntity> findById(UUID id);
+
+  List<ProductVariantEntity> findByIdIn(Collection<UUID> ids);
   
   Window<ProductVariantEntity> findByProductId(UUID productId, Limit limit, Sort sort, ScrollPosition scroll);
   
@@ -31,4 +36,25 @@ public interface ProductVariants extends Repository<ProductVariantEntity, UUID>
 
   @Query("FROM ProductVariant v WHERE v.product.id = :productId AND v.systemGenerated = true")
   Optional<ProductVariantEntity> findByProductIdAndSystemGenerated(UUID productId);
+
+  @Query("SELECT DISTINCT v FROM ProductVariant v LEFT JOIN FETCH v.priceSets WHERE v.id IN :ids")
+  List<ProductVariantEntity> findWithPriceSetsByIdIn(Collection<UUID> ids);
+
+  @Query("SELECT v.id AS id, v.product.id AS productId FROM ProductVariant v WHERE v.product.id IN :productIds")
+  List<VariantKey> findKeysByProductIdIn(Collection<UUID> productIds);
+
+  /**
+   * Loads the price sets of {@code variants} together with their rules into the persistence context.
+   */
+  @Query("SELECT DISTINCT s FROM PriceSet s LEFT JOIN FETCH s.rules WHERE s.variant IN :variants")
+  List<PriceSetEntity> findPriceSetsWithRulesByVariantIn(Collection<ProductVariantEntity> variants);
+
+  /**
+   * Identifier of a variant together with the identifier of its product.
+   */
+  interface VariantKey {
+    UUID getId();
+
+    UUID getProductId();
+  }
 }
@@ -1,5 +1,6 @@
 package com.simplecommerce.shared;
 
+import com.simplecommerce.shared.exceptions.InvalidInputException;
 import com.simplecommerce.shared.exceptions.NotFoundException;
 import com.simplecommerce.shared.exceptions.OperationNotAllowedException;
 import graphql.ErrorClassification;
@@ -37,6 +38,15 @@ public class ExceptionHandling {
         .build();
   }
 
+  @GraphQlExceptionHandler
+  GraphQLError handleInvalidInput(InvalidInputException ex, DataFetchingEnvironment env) {
+    return GraphQLError.newError().message(ex.getMessage())
+        .errorType(ErrorType.BAD_REQUEST)
+        .path(env.getExecutionStepInfo().getPath())
+        .location(env.getMergedField().getSingleField().getSourceLocation())
+        .build();
+  }
+
   @GraphQlExceptionHandler(DataIntegrityViolationException.class)
   GraphQLError handleDuplicate(DataFetchingEnvironment env) {
     return GraphQLError.newError().message("Looks like a duplicate")
@@ -3,7 +3,7 @@ package com.simplecommerce.shared.authorization;
 import java.util.List;
 
 /**
- * Bridge abstraction for writing authorization relationship tuples to Keto.
+ * Bridge abstraction for writing authorization relationship tuples to Keto, or to the embedded tuple store.
  */
 public interface AuthorizationBridge {
   void addActorsToGroup(String groupId, List<String> actorUsernames);
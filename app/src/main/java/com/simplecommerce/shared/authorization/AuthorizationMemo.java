@@ -0,0 +1,124 @@
+package com.simplecommerce.shared.authorization;
+
+import com.simplecommerce.shared.authorization.PermissionDecisionCache.DecisionKey;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Permission decisions made while executing one GraphQL request. {@link AuthorizationMemoInterceptor} attaches a memo
+ * to the GraphQL context of every request; context propagation makes it {@link #current()} in the data fetchers of
+ * that request, and {@link KetoAuthorizationService} consults it before checking with Keto, so each distinct tuple is
+ * checked at most once per request. Checks of the same tuple that run concurrently share one check.
+ * <p>
+ * Failed checks are not remembered. Relation tuple writes made through {@link KetoAuthorizationService} during the
+ * request forget every decision.
+ *
+ * @author julius.krah
+ */
+public final class AuthorizationMemo {
+
+  /**
+   * Key of the memo in the GraphQL context and in context snapshots.
+   */
+  public static final String CONTEXT_KEY = AuthorizationMemo.class.getName();
+
+  private static final ThreadLocal<AuthorizationMemo> CURRENT = new ThreadLocal<>();
+
+  private final Map<DecisionKey, CompletableFuture<Boolean>> decisions = new ConcurrentHashMap<>();
+  private final LongAdder saved = new LongAdder();
+
+  /**
+   * The memo of the GraphQL request executing on this thread, if any.
+   */
+  static @Nullable AuthorizationMemo current() {
+    return CURRENT.get();
+  }
+
+  static void setCurrent(@Nullable AuthorizationMemo memo) {
+    if (memo == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(memo);
+    }
+  }
+
+  /**
+   * Returns the decision remembered for {@code key}, or checks with {@code loader} and remembers the decision.
+   */
+  boolean check(DecisionKey key, Predicate<DecisionKey> loader) {
+    var pending = new CompletableFuture<Boolean>();
+    var decision = decisions.putIfAbsent(key, pending);
+    if (decision != null) {
+      saved.increment();
+      try {
+        return decision.join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException cause ? cause : e;
+      }
+    }
+    try {
+      var allowed = loader.test(key);
+      pending.complete(allowed);
+      return allowed;
+    } catch (RuntimeException e) {
+      decisions.remove(key, pending);
+      pending.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the decision remembered for {@code key}, or checks with {@code asyncLoader} and remembers the decision.
+   */
+  CompletableFuture<Boolean> checkAsync(DecisionKey key, Function<DecisionKey, CompletableFuture<Boolean>> asyncLoader) {
+    var pending = new CompletableFuture<Boolean>();
+    var decision = decisions.putIfAbsent(key, pending);
+    if (decision != null) {
+      saved.increment();
+      return decision;
+    }
+    asyncLoader.apply(key).whenComplete((allowed, failure) -> {
+      if (failure != null) {
+        decisions.remove(key, pending);
+        pending.completeExceptionally(failure);
+      } else {
+        pending.complete(allowed);
+      }
+    });
+    return pending;
+  }
+
+  /**
+   * Forgets every decision.
+   */
+  void invalidate() {
+    decisions.clear();
+  }
+
+  /**
+   * Number of checks answered from this memo instead of being checked again.
+   */
+  public long savedChecks() {
+    return saved.sum();
+  }
+
+  /**
+   * Number of distinct tuples checked.
+   */
+  int size() {
+    return decisions.size();
+  }
+
+  /**
+   * Releases the decisions once the request completed.
+   */
+  void clear() {
+    decisions.clear();
+  }
+}
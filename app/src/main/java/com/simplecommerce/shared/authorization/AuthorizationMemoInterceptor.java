@@ -0,0 +1,53 @@
+package com.simplecommerce.shared.authorization;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Attaches a new {@link AuthorizationMemo} to the GraphQL context of every request and releases it once the
+ * response is produced. Checks answered by the memo are counted by {@code authorization.memo.saved}.
+ *
+ * @author julius.krah
+ */
+@Component
+@Profile("keto-authz")
+class AuthorizationMemoInterceptor implements WebGraphQlInterceptor {
+  private static final Logger LOG = LoggerFactory.getLogger(AuthorizationMemoInterceptor.class);
+
+  private final @Nullable Counter savedChecks;
+
+  AuthorizationMemoInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+    var registry = meterRegistry.getIfAvailable();
+    this.savedChecks = registry == null ? null : Counter.builder("authorization.memo.saved")
+        .description("Permission checks answered by the memo of the GraphQL request instead of being checked again")
+        .register(registry);
+  }
+
+  @Override
+  public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+    var memo = new AuthorizationMemo();
+    request.configureExecutionInput((_, builder) ->
+        builder.graphQLContext(Map.of(AuthorizationMemo.CONTEXT_KEY, memo)).build());
+    return chain.next(request).doFinally(_ -> {
+      var saved = memo.savedChecks();
+      if (saved > 0) {
+        LOG.debug("Request {} checked {} distinct permission(s), {} check(s) saved", request.getId(), memo.size(), saved);
+        if (savedChecks != null) {
+          savedChecks.increment(saved);
+        }
+      }
+      memo.clear();
+    });
+  }
+}
@@ -0,0 +1,33 @@
+package com.simplecommerce.shared.authorization;
+
+import io.micrometer.context.ThreadLocalAccessor;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Propagates the {@link AuthorizationMemo} of a GraphQL request to the threads its data fetchers run on.
+ * Registered through {@code META-INF/services}.
+ *
+ * @author julius.krah
+ */
+public class AuthorizationMemoThreadLocalAccessor implements ThreadLocalAccessor<AuthorizationMemo> {
+
+  @Override
+  public Object key() {
+    return AuthorizationMemo.CONTEXT_KEY;
+  }
+
+  @Override
+  public @Nullable AuthorizationMemo getValue() {
+    return AuthorizationMemo.current();
+  }
+
+  @Override
+  public void setValue(AuthorizationMemo value) {
+    AuthorizationMemo.setCurrent(value);
+  }
+
+  @Override
+  public void setValue() {
+    AuthorizationMemo.setCurrent(null);
+  }
+}
@@ -0,0 +1,68 @@
+package com.simplecommerce.shared.authorization;
+
+import com.simplecommerce.shared.types.ProductStatus;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Permission checks against relation tuples. Registered as the {@code authz} bean referenced by
+ * {@code @Check} and {@code @Permit}; {@link KetoAuthorizationService} checks with Ory Keto and
+ * {@link EmbeddedAuthorizationService} evaluates tuples stored in the application database.
+ *
+ * @author julius.krah
+ */
+public interface AuthorizationService {
+
+  /**
+   * The maximum depth of subject set expansion and parent traversal for a check.
+   */
+  int DEFAULT_MAX_CHECK_DEPTH = 5;
+
+  /**
+   * Check if a subject has a specific permission on a resource.
+   *
+   * @param namespace The namespace (e.g., "Customer", "Actor", "Order")
+   * @param object The object identifier
+   * @param relation The relation to check (e.g., "edit", "view", "remove")
+   * @param subject The subject identifier
+   * @return Boolean indicating if the permission is granted
+   */
+  boolean checkPermission(String namespace, @Nullable String object, String relation, String subject);
+
+  /**
+   * Check if a subject has a specific permission on a resource that was returned as {@code returnObject}. Published
+   * products can be viewed by anyone.
+   */
+  default boolean checkPermission(String namespace, @Nullable String object, String relation, String subject, @Nullable Object returnObject) {
+    var hasPermission = checkPermission(namespace, object, relation, subject);
+    return switch (returnObject) {
+      case ProductStatus status -> hasPermission || status == ProductStatus.PUBLISHED;
+      case null, default -> hasPermission;
+    };
+  }
+
+  /**
+   * Check if a subject has a specific permission on each of several resources. Duplicate objects are checked once.
+   *
+   * @return Whether the permission is granted, per distinct object in the order of {@code objects}
+   */
+  default Map<String, Boolean> checkPermissions(String namespace, Collection<String> objects, String relation, String subject) {
+    var permissions = new LinkedHashMap<String, Boolean>();
+    for (var object : objects) {
+      permissions.computeIfAbsent(object, _ -> checkPermission(namespace, object, relation, subject));
+    }
+    return permissions;
+  }
+
+  /**
+   * Asynchronously check if a subject has a specific permission on a resource.
+   *
+   * @return Future completing with whether the permission is granted
+   */
+  default CompletableFuture<Boolean> checkPermissionAsync(String namespace, @Nullable String object, String relation, String subject) {
+    return CompletableFuture.completedFuture(checkPermission(namespace, object, relation, subject));
+  }
+}
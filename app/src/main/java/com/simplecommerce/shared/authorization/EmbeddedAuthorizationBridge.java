@@ -0,0 +1,180 @@
+package com.simplecommerce.shared.authorization;
+
+import static com.simplecommerce.shared.authorization.BasePermissions.Namespaces.GROUP_NAMESPACE;
+import static com.simplecommerce.shared.authorization.BasePermissions.Namespaces.PRODUCT_NAMESPACE;
+import static com.simplecommerce.shared.authorization.BasePermissions.Namespaces.ROLE_NAMESPACE;
+
+import com.simplecommerce.shared.authorization.RelationTupleIndex.SubjectId;
+import com.simplecommerce.shared.authorization.RelationTupleIndex.SubjectRef;
+import com.simplecommerce.shared.authorization.RelationTupleIndex.SubjectSet;
+import com.simplecommerce.shared.authorization.RelationTupleIndex.Tuple;
+import com.simplecommerce.shared.utils.SecurityUtils;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.audit.listener.AuditApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes relation tuples to {@link RelationTupleStore}, the same tuples {@link KetoAuthorizationBridge} writes to
+ * Keto. Writes are synchronous: checks see them as soon as the call returns.
+ *
+ * @author julius.krah
+ */
+@Component
+@Profile("embedded-authz")
+class EmbeddedAuthorizationBridge implements AuthorizationBridge, ApplicationEventPublisherAware {
+
+  private static final String PERMISSION_ASSIGNED = "PERMISSION_ASSIGNED";
+  private static final String PERMISSION_REVOKED = "PERMISSION_REVOKED";
+  private static final String ASSIGNEES_RELATION = "assignees";
+  private static final String MEMBERS_RELATION = "members";
+  private static final Logger LOG = LoggerFactory.getLogger(EmbeddedAuthorizationBridge.class);
+  private final RelationTupleStore tupleStore;
+  private ApplicationEventPublisher publisher;
+
+  EmbeddedAuthorizationBridge(RelationTupleStore tupleStore) {
+    this.tupleStore = tupleStore;
+  }
+
+  @Override
+  public void addActorsToGroup(String groupId, List<String> actorUsernames) {
+    insert(PERMISSION_ASSIGNED, GROUP_NAMESPACE, List.of(groupId), MEMBERS_RELATION, actorUsernames, SubjectId::new);
+    LOG.debug("Added {} actor(s) as member(s) of Group:{}", actorUsernames.size(), groupId);
+  }
+
+  @Override
+  public void addGroupsToGroup(String parentGroupId, List<String> nestedGroupIds) {
+    insert(PERMISSION_ASSIGNED, GROUP_NAMESPACE, List.of(parentGroupId), MEMBERS_RELATION, nestedGroupIds, EmbeddedAuthorizationBridge::group);
+    LOG.debug("Added {} nested groups to Group:{}", nestedGroupIds.size(), parentGroupId);
+  }
+
+  @Override
+  public void assignGroupPermissionOnProducts(String groupId, List<String> productIds, String relation) {
+    insert(PERMISSION_ASSIGNED, PRODUCT_NAMESPACE, productIds, relation, List.of(groupId), EmbeddedAuthorizationBridge::groupMembers);
+    LOG.debug("Assigned relation '{}' on {} products via Group:{}#members", relation, productIds.size(), groupId);
+  }
+
+  @Override
+  public void assignActorPermissionOnProducts(String username, List<String> productIds, String relation) {
+    insert(PERMISSION_ASSIGNED, PRODUCT_NAMESPACE, productIds, relation, List.of(username), SubjectId::new);
+    LOG.debug("Assigned relation '{}' on {} products to Actor:{}", relation, productIds.size(), username);
+  }
+
+  @Override
+  public void assignRolePermissionOnProducts(String role, List<String> productIds, String relation) {
+    insert(PERMISSION_ASSIGNED, PRODUCT_NAMESPACE, productIds, relation, List.of(role), EmbeddedAuthorizationBridge::roleAssignees);
+    LOG.debug("Assigned relation '{}' on {} products via Role:{}#assignees", relation, productIds.size(), role);
+  }
+
+  @Override
+  public void assignRolesToGroup(String groupId, List<String> roles) {
+    insert(PERMISSION_ASSIGNED, ROLE_NAMESPACE, roles, ASSIGNEES_RELATION, List.of(groupId), EmbeddedAuthorizationBridge::groupMembers);
+    LOG.debug("Assigned relation '{}' on {} role(s) to Group:{}#members", ASSIGNEES_RELATION, roles.size(), groupId);
+  }
+
+  @Override
+  public void assignRolesToActor(String actorUsername, List<String> roles) {
+    insert(PERMISSION_ASSIGNED, ROLE_NAMESPACE, roles, ASSIGNEES_RELATION, List.of(actorUsername), SubjectId::new);
+    LOG.debug("Assigned relation '{}' on {} roles to Actor:{}", ASSIGNEES_RELATION, roles.size(), actorUsername);
+  }
+
+  @Override
+  public void removeActorsFromGroup(String groupId, List<String> actorUsernames) {
+    var tuples = tuples(GROUP_NAMESPACE, List.of(groupId), MEMBERS_RELATION, actorUsernames, SubjectId::new);
+    tupleStore.delete(tuples);
+    tuples.forEach(tuple -> publishAuditEvent(PERMISSION_REVOKED, tuple));
+    LOG.debug("Removed {} actors from Group:{}", actorUsernames.size(), groupId);
+  }
+
+  @Override
+  public void removeGroupsFromGroup(String parentGroupId, List<String> nestedGroupIds) {
+    var tuples = tuples(GROUP_NAMESPACE, List.of(parentGroupId), MEMBERS_RELATION, nestedGroupIds, EmbeddedAuthorizationBridge::group);
+    tupleStore.delete(tuples);
+    tuples.forEach(tuple -> publishAuditEvent(PERMISSION_REVOKED, tuple));
+    LOG.debug("Removed {} nested groups from Group:{}", nestedGroupIds.size(), parentGroupId);
+  }
+
+  @Override
+  public void revokeGroupPermissionOnProducts(String groupId, List<String> productIds, String relation) {
+    var tuples = tuples(PRODUCT_NAMESPACE, productIds, relation, List.of(groupId), EmbeddedAuthorizationBridge::groupMembers);
+    tupleStore.delete(tuples);
+    tuples.forEach(tuple -> publishAuditEvent(PERMISSION_REVOKED, tuple));
+    LOG.debug("Revoked '{}' from {} products via Group:{}#members", relation, productIds.size(), groupId);
+  }
+
+  @Override
+  public void purgeGroupRelations(String groupId) {
+    tupleStore.deleteObject(GROUP_NAMESPACE, groupId);
+    publishAuditEvent(GROUP_NAMESPACE, groupId);
+    LOG.debug("Purged all relations for Group:{}", groupId);
+  }
+
+  @Override
+  public void purgeProductRelations(String productId) {
+    tupleStore.deleteObject(PRODUCT_NAMESPACE, productId);
+    publishAuditEvent(PRODUCT_NAMESPACE, productId);
+    LOG.debug("Purged all relations for Product:{}", productId);
+  }
+
+  @Override
+  public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
+    this.publisher = publisher;
+  }
+
+  private void insert(String eventType, String namespace, List<String> objects, String relation, List<String> subjects,
+      Function<String, SubjectRef> subject) {
+    var tuples = tuples(namespace, objects, relation, subjects, subject);
+    tupleStore.insert(tuples);
+    tuples.forEach(tuple -> publishAuditEvent(eventType, tuple));
+  }
+
+  private static List<Tuple> tuples(String namespace, List<String> objects, String relation, List<String> subjects,
+      Function<String, SubjectRef> subject) {
+    return objects.stream()
+        .flatMap(object -> subjects.stream().map(s -> new Tuple(namespace, object, relation, subject.apply(s))))
+        .toList();
+  }
+
+  private static SubjectRef group(String groupId) {
+    return new SubjectSet(GROUP_NAMESPACE, groupId, "");
+  }
+
+  private static SubjectRef groupMembers(String groupId) {
+    return new SubjectSet(GROUP_NAMESPACE, groupId, MEMBERS_RELATION);
+  }
+
+  private static SubjectRef roleAssignees(String role) {
+    return new SubjectSet(ROLE_NAMESPACE, role, ASSIGNEES_RELATION);
+  }
+
+  private void publishAuditEvent(String eventType, Tuple tuple) {
+    var subject = switch (tuple.subject()) {
+      case SubjectId(var id) -> id;
+      case SubjectSet(var namespace, var object, var relation) when relation.isEmpty() -> namespace + ":" + object;
+      case SubjectSet(var namespace, var object, var relation) -> namespace + ":" + object + "#" + relation;
+    };
+    publisher.publishEvent(new AuditApplicationEvent(principal(), eventType, Map.of(
+        "namespace", tuple.namespace(),
+        "object", tuple.object(),
+        "relation", tuple.relation(),
+        "subject", subject
+    )));
+  }
+
+  private void publishAuditEvent(String namespace, String object) {
+    publisher.publishEvent(new AuditApplicationEvent(principal(), PERMISSION_REVOKED, Map.of(
+        "namespace", namespace,
+        "object", object
+    )));
+  }
+
+  private static String principal() {
+    return SecurityUtils.getCurrentUserLogin().orElse("system");
+  }
+}
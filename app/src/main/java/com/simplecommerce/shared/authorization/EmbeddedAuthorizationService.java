@@ -0,0 +1,27 @@
+package com.simplecommerce.shared.authorization;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+/**
+ * Checks permissions in-process against the relation tuples of {@link RelationTupleStore}, without Ory Keto.
+ * Checks are evaluated in memory and need neither a cache nor a bulkhead; the {@code embedded-authz} profile makes
+ * local development and load tests independent of a Keto deployment.
+ *
+ * @author julius.krah
+ */
+@Service("authz")
+@Profile("embedded-authz")
+public class EmbeddedAuthorizationService implements AuthorizationService {
+  private final RelationTupleStore tupleStore;
+
+  EmbeddedAuthorizationService(RelationTupleStore tupleStore) {
+    this.tupleStore = tupleStore;
+  }
+
+  @Override
+  public boolean checkPermission(String namespace, @Nullable String object, String relation, String subject) {
+    return tupleStore.check(namespace, object == null ? "" : object, relation, subject);
+  }
+}
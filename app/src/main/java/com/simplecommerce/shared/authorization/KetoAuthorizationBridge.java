@@ -7,6 +7,7 @@ import static com.simplecommerce.shared.authorization.BasePermissions.Namespaces
 import com.simplecommerce.shared.utils.SecurityUtils;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +25,10 @@ import sh.ory.keto.write.v1alpha2.RelationTupleDelta;
 import sh.ory.keto.write.v1alpha2.RelationTupleDelta.Action;
 import sh.ory.keto.write.v1alpha2.TransactRelationTuplesRequest;
 
+/**
+ * Writes relation tuples to Keto. Product permission tuples, written for every product created, are coalesced by
+ * {@link RelationTupleBatcher}, and each call waits for its batch; group and role tuples are written immediately.
+ */
 @Component
 @Profile("keto-authz")
 class KetoAuthorizationBridge implements AuthorizationBridge, ApplicationEventPublisherAware {
@@ -38,10 +43,12 @@ class KetoAuthorizationBridge implements AuthorizationBridge, ApplicationEventPu
   private static final String OBJECT_KEY = "object";
   private static final Logger LOG = LoggerFactory.getLogger(KetoAuthorizationBridge.class);
   private final KetoAuthorizationService ketoService;
+  private final RelationTupleBatcher tupleBatcher;
   private ApplicationEventPublisher publisher;
 
-  KetoAuthorizationBridge(KetoAuthorizationService ketoService) {
+  KetoAuthorizationBridge(KetoAuthorizationService ketoService, RelationTupleBatcher tupleBatcher) {
     this.ketoService = ketoService;
+    this.tupleBatcher = tupleBatcher;
   }
 
   @NonNull
@@ -67,6 +74,21 @@ class KetoAuthorizationBridge implements AuthorizationBridge, ApplicationEventPu
     publisher.publishEvent(auditEvent);
   }
 
+  /**
+   * Writes {@code deltas} with the next batch and waits for it, so that a batch Keto rejects fails the caller, and
+   * the event publication that triggered it stays incomplete, rather than being lost.
+   */
+  private void batch(List<RelationTupleDelta> deltas) {
+    try {
+      tupleBatcher.add(deltas).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
   @Override
   public void addActorsToGroup(String groupId, List<String> actorUsernames) {
     if (actorUsernames.isEmpty()) {
@@ -129,7 +151,7 @@ class KetoAuthorizationBridge implements AuthorizationBridge, ApplicationEventPu
                   .setObject(groupId)
                   .setRelation(MEMBERS_RELATION)))));
     }
-    ketoService.transactRelationship(builder.build());
+    batch(builder.getRelationTupleDeltasList());
     for (var pid : productIds) {
       publishAuditEvent(PERMISSION_ASSIGNED, PRODUCT_NAMESPACE, pid, relation, GROUP_NAMESPACE + ":" + groupId + "#" + MEMBERS_RELATION);
     }
@@ -150,7 +172,7 @@ class KetoAuthorizationBridge implements AuthorizationBridge, ApplicationEventPu
               .setRelation(relation)
               .setSubject(Subject.newBuilder().setId(username))));
     }
-    ketoService.transactRelationship(builder.build());
+    batch(builder.getRelationTupleDeltasList());
     for (var pid : productIds) {
       publishAuditEvent(PERMISSION_ASSIGNED, PRODUCT_NAMESPACE, pid, relation, username);
     }
@@ -171,7 +193,7 @@ class KetoAuthorizationBridge implements AuthorizationBridge, ApplicationEventPu
                   .setObject(role)
                   .setRelation(ASSIGNEES_RELATION)))));
     }
-    ketoService.transactRelationship(builder.build());
+    batch(builder.getRelationTupleDeltasList());
     for (var pid : productIds) {
       publishAuditEvent(PERMISSION_ASSIGNED, PRODUCT_NAMESPACE, pid, relation, ROLE_NAMESPACE + ":" + role + "#" + ASSIGNEES_RELATION);
     }
@@ -242,7 +264,7 @@ class KetoAuthorizationBridge implements AuthorizationBridge, ApplicationEventPu
                   .setObject(groupId)
                   .setRelation(MEMBERS_RELATION)))));
     }
-    ketoService.transactRelationship(builder.build());
+    batch(builder.getRelationTupleDeltasList());
     for (var pid : productIds) {
       publishAuditEvent(PERMISSION_REVOKED, PRODUCT_NAMESPACE, pid, relation, GROUP_NAMESPACE + ":" + groupId + "#" + MEMBERS_RELATION);
     }
@@ -295,6 +317,7 @@ class KetoAuthorizationBridge implements AuthorizationBridge, ApplicationEventPu
 
   @Override
   public void purgeGroupRelations(String groupId) {
+    tupleBatcher.flush();
     var request = DeleteRelationTuplesRequest.newBuilder()
         .setRelationQuery(RelationQuery.newBuilder().setNamespace(GROUP_NAMESPACE).setObject(groupId)).build();
     ketoService.deleteRelationship(request);
@@ -304,6 +327,8 @@ class KetoAuthorizationBridge implements AuthorizationBridge, ApplicationEventPu
 
   @Override
   public void purgeProductRelations(String productId) {
+    // Pending product tuples must not be written after the purge
+    tupleBatcher.flush();
     var request = DeleteRelationTuplesRequest.newBuilder()
         .setRelationQuery(RelationQuery.newBuilder().setNamespace(PRODUCT_NAMESPACE).setObject(productId)).build();
     ketoService.deleteRelationship(request);
@@ -1,27 +1,47 @@
 package com.simplecommerce.shared.authorization;
 
+import static com.simplecommerce.shared.utils.Bulkhead.AUTHORIZATION;
+import static com.simplecommerce.shared.utils.VirtualThreadHelper.callAllInScope;
 import static com.simplecommerce.shared.utils.VirtualThreadHelper.callInScope;
 import static com.simplecommerce.shared.utils.VirtualThreadHelper.runInScope;
 
 import com.google.protobuf.ByteString;
-import com.simplecommerce.shared.types.ProductStatus;
+import com.simplecommerce.shared.authorization.PermissionDecisionCache.DecisionKey;
+import com.simplecommerce.shared.exceptions.CommerceException;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import sh.ory.keto.opl.v1alpha1.CheckRequest;
 import sh.ory.keto.opl.v1alpha1.ParseError;
 import sh.ory.keto.opl.v1alpha1.SyntaxServiceGrpc.SyntaxServiceBlockingStub;
+import sh.ory.keto.read.v1alpha2.CheckResponse;
+import sh.ory.keto.read.v1alpha2.CheckServiceGrpc;
 import sh.ory.keto.read.v1alpha2.CheckServiceGrpc.CheckServiceBlockingStub;
+import sh.ory.keto.read.v1alpha2.CheckServiceGrpc.CheckServiceStub;
 import sh.ory.keto.read.v1alpha2.ListNamespacesRequest;
 import sh.ory.keto.read.v1alpha2.Namespace;
 import sh.ory.keto.read.v1alpha2.NamespacesServiceGrpc.NamespacesServiceBlockingStub;
 import sh.ory.keto.relation_tuples.v1alpha2.RelationTuple;
 import sh.ory.keto.relation_tuples.v1alpha2.Subject;
 import sh.ory.keto.write.v1alpha2.DeleteRelationTuplesRequest;
+import sh.ory.keto.write.v1alpha2.RelationTupleDelta;
 import sh.ory.keto.write.v1alpha2.TransactRelationTuplesRequest;
 import sh.ory.keto.write.v1alpha2.WriteServiceGrpc.WriteServiceBlockingStub;
 
@@ -29,27 +49,66 @@ import sh.ory.keto.write.v1alpha2.WriteServiceGrpc.WriteServiceBlockingStub;
  * Service for interacting with Ory Keto authorization system.
  * Provides methods for checking permissions and managing relationships
  * using the ReBAC (Relationship-Based Access Control) model.
+ * <p>
+ * Permission decisions are cached for {@code simple-commerce.authorization.cache.ttl} (see
+ * {@link PermissionDecisionCache}) and invalidated by the writes made through this service. With
+ * {@code simple-commerce.authorization.cache.consistency=snaptoken} every write invalidates all decisions and checks
+ * are evaluated at a snapshot no older than the last write.
+ * <p>
+ * Asynchronous checks use the non-blocking stub and do not hold a thread or a bulkhead permit while Keto answers.
+ * Within a GraphQL request, checks are first answered from the request's {@link AuthorizationMemo}.
  * 
  * @author julius.krah
  */
 @Service("authz")
 @Profile("keto-authz")
-public class KetoAuthorizationService {
+public class KetoAuthorizationService implements AuthorizationService {
   private static final Logger LOG = LoggerFactory.getLogger(KetoAuthorizationService.class);
-  private static final int DEFAULT_MAX_CHECK_DEPTH = 5;
+  // Batch checks fork without a bulkhead; each check still takes an authorization bulkhead permit
+  private static final String BATCH_CHECKS = "authorization-batch";
   private final NamespacesServiceBlockingStub namespacesService;
   private final SyntaxServiceBlockingStub syntaxService;
   private final CheckServiceBlockingStub checkService;
+  private final CheckServiceStub asyncCheckService;
   private final WriteServiceBlockingStub writeService;
+  private final Consistency consistency;
+  private final int batchConcurrency;
+  private final PermissionDecisionCache decisionCache;
+  // Snaptoken of the last write, empty if Keto did not return one; null until this instance has written
+  private final AtomicReference<@Nullable String> writeSnaptoken = new AtomicReference<>();
+
+  /**
+   * How cached permission decisions are kept consistent with relation tuple writes.
+   */
+  public enum Consistency {
+    /**
+     * Writes invalidate the decisions they can affect; decisions otherwise live for the configured time to live.
+     */
+    TTL,
+    /**
+     * Writes invalidate every decision and later checks are evaluated at a snapshot no older than the last write.
+     */
+    SNAPTOKEN
+  }
 
   public KetoAuthorizationService(NamespacesServiceBlockingStub namespacesService,
       SyntaxServiceBlockingStub syntaxService,
       CheckServiceBlockingStub checkService,
-      WriteServiceBlockingStub writeService) {
+      WriteServiceBlockingStub writeService,
+      @Value("${simple-commerce.authorization.cache.ttl:5s}") Duration cacheTimeToLive,
+      @Value("${simple-commerce.authorization.cache.max-size:10000}") int cacheSize,
+      @Value("${simple-commerce.authorization.cache.consistency:ttl}") Consistency consistency,
+      @Value("${simple-commerce.authorization.batch.max-concurrency:16}") int batchConcurrency,
+      ObjectProvider<MeterRegistry> meterRegistry) {
     this.namespacesService = namespacesService;
     this.syntaxService = syntaxService;
     this.checkService = checkService;
+    this.asyncCheckService = CheckServiceGrpc.newStub(checkService.getChannel());
     this.writeService = writeService;
+    this.consistency = consistency;
+    this.batchConcurrency = batchConcurrency;
+    this.decisionCache = new PermissionDecisionCache(cacheSize, cacheTimeToLive, this::check);
+    meterRegistry.ifAvailable(decisionCache::bindTo);
   }
 
   /**
@@ -59,7 +118,7 @@ public class KetoAuthorizationService {
    */
   public List<String> listNamespaces() {
     LOG.info("Listing all namespaces");
-    var namespaceResponse = callInScope(() -> namespacesService.listNamespaces(ListNamespacesRequest.newBuilder().build()));
+    var namespaceResponse = callInScope(AUTHORIZATION, () -> namespacesService.listNamespaces(ListNamespacesRequest.newBuilder().build()));
     return namespaceResponse.getNamespacesList().stream()
         .map(Namespace::getName).toList();
     }
@@ -72,7 +131,7 @@ public class KetoAuthorizationService {
      */
     public List<ParseError> checkSyntax(Resource resource) {
       LOG.info("Validating OPL syntax: {}", resource);
-      var checkResponse = callInScope(() -> syntaxService.check(CheckRequest.newBuilder()
+      var checkResponse = callInScope(AUTHORIZATION, () -> syntaxService.check(CheckRequest.newBuilder()
           .setContent(ByteString.readFrom(resource.getInputStream()))
           .build())
       );
@@ -88,26 +147,131 @@ public class KetoAuthorizationService {
      * @param subject The subject identifier
      * @return Boolean indicating if the permission is granted
      */
+    @Override
     public boolean checkPermission(String namespace, @Nullable String object, String relation, String subject) {
-        LOG.debug("Checking permission: {}:{}#{} for subject {}", namespace, object, relation, subject);
-        var checkResponse = callInScope(() -> checkService.check(sh.ory.keto.read.v1alpha2.CheckRequest.newBuilder()
-                .setTuple(RelationTuple.newBuilder()
-                    .setNamespace(namespace)
-                    .setObject(object)
-                    .setRelation(relation)
-                    .setSubject(Subject.newBuilder().setId(subject)))
-                .setMaxDepth(DEFAULT_MAX_CHECK_DEPTH)
-          .build())
-      );
+        return checkPermission(new DecisionKey(namespace, object, relation, subject), AuthorizationMemo.current());
+    }
+
+    private boolean checkPermission(DecisionKey key, @Nullable AuthorizationMemo memo) {
+        if (memo != null) {
+          return memo.check(key, this::checkCached);
+        }
+        return checkCached(key);
+    }
+
+    private boolean checkCached(DecisionKey key) {
+        return decisionCache.isEnabled() ? decisionCache.check(key) : check(key);
+    }
+
+    /**
+     * Check if a subject has a specific permission on each of several resources. Duplicate objects are checked
+     * once; the remaining checks run concurrently on virtual threads, at most
+     * {@code simple-commerce.authorization.batch.max-concurrency} at a time.
+     *
+     * @param namespace The namespace (e.g., "Customer", "Actor", "Order")
+     * @param objects The object identifiers
+     * @param relation The relation to check (e.g., "edit", "view", "remove")
+     * @param subject The subject identifier
+     * @return Whether the permission is granted, per distinct object in the order of {@code objects}
+     */
+    @Override
+    public Map<String, Boolean> checkPermissions(String namespace, Collection<String> objects, String relation, String subject) {
+        var distinct = List.copyOf(new LinkedHashSet<>(objects));
+        if (distinct.isEmpty()) {
+          return Map.of();
+        }
+        if (distinct.size() == 1) {
+          return Map.of(distinct.getFirst(), checkPermission(namespace, distinct.getFirst(), relation, subject));
+        }
+        LOG.debug("Checking permission: {}:[{} objects]#{} for subject {}", namespace, distinct.size(), relation, subject);
+        var permits = new Semaphore(batchConcurrency);
+        // The checks run on forked threads, which do not see the request's memo
+        var memo = AuthorizationMemo.current();
+        List<Callable<Boolean>> checks = distinct.stream().<Callable<Boolean>>map(object -> () -> {
+          permits.acquire();
+          try {
+            return checkPermission(new DecisionKey(namespace, object, relation, subject), memo);
+          } finally {
+            permits.release();
+          }
+        }).toList();
+        var allowed = callAllInScope(BATCH_CHECKS, checks);
+        var permissions = LinkedHashMap.<String, Boolean>newLinkedHashMap(distinct.size());
+        for (var i = 0; i < distinct.size(); i++) {
+          permissions.put(distinct.get(i), allowed.get(i));
+        }
+        return permissions;
+    }
+
+    /**
+     * Asynchronously check if a subject has a specific permission on a resource.
+     *
+     * @param namespace The namespace (e.g., "Customer", "Actor", "Order")
+     * @param object The object identifier
+     * @param relation The relation to check (e.g., "edit", "view", "remove")
+     * @param subject The subject identifier
+     * @return Future completing with whether the permission is granted
+     */
+    @Override
+    public CompletableFuture<Boolean> checkPermissionAsync(String namespace, @Nullable String object, String relation, String subject) {
+        var key = new DecisionKey(namespace, object, relation, subject);
+        var memo = AuthorizationMemo.current();
+        if (memo != null) {
+          return memo.checkAsync(key, this::checkCachedAsync);
+        }
+        return checkCachedAsync(key);
+    }
+
+    private CompletableFuture<Boolean> checkCachedAsync(DecisionKey key) {
+        return decisionCache.isEnabled() ? decisionCache.checkAsync(key, this::checkAsync) : checkAsync(key);
+    }
+
+    private boolean check(DecisionKey key) {
+        LOG.debug("Checking permission: {}:{}#{} for subject {}", key.namespace(), key.object(), key.relation(), key.subject());
+        var request = checkRequest(key);
+        var checkResponse = callInScope(AUTHORIZATION, () -> checkService.check(request));
         return checkResponse.getAllowed();
     }
 
-    public boolean checkPermission(String namespace, String object, String relation, String subject, Object returnObject) {
-        var hasPermission = checkPermission(namespace, object, relation, subject);
-        return switch (returnObject) {
-          case ProductStatus status -> hasPermission || status == ProductStatus.PUBLISHED;
-          default -> hasPermission;
-        };
+    private CompletableFuture<Boolean> checkAsync(DecisionKey key) {
+        LOG.debug("Checking permission asynchronously: {}:{}#{} for subject {}", key.namespace(), key.object(), key.relation(), key.subject());
+        var allowed = new CompletableFuture<Boolean>();
+        asyncCheckService.check(checkRequest(key), new StreamObserver<>() {
+          @Override
+          public void onNext(CheckResponse checkResponse) {
+            allowed.complete(checkResponse.getAllowed());
+          }
+
+          @Override
+          public void onError(Throwable t) {
+            allowed.completeExceptionally(new CommerceException(t));
+          }
+
+          @Override
+          public void onCompleted() {
+            // The single response completed the future
+          }
+        });
+        return allowed;
+    }
+
+    private sh.ory.keto.read.v1alpha2.CheckRequest checkRequest(DecisionKey key) {
+        var request = sh.ory.keto.read.v1alpha2.CheckRequest.newBuilder()
+            .setTuple(RelationTuple.newBuilder()
+                .setNamespace(key.namespace())
+                .setObject(key.object())
+                .setRelation(key.relation())
+                .setSubject(Subject.newBuilder().setId(key.subject())))
+            .setMaxDepth(DEFAULT_MAX_CHECK_DEPTH);
+        var snaptoken = writeSnaptoken.get();
+        if (consistency == Consistency.SNAPTOKEN && snaptoken != null) {
+          if (snaptoken.isEmpty()) {
+            request.setLatest(true);
+          } else {
+            request.setSnaptoken(snaptoken);
+          }
+        }
+        return request.build();
     }
 
   /**
@@ -117,14 +281,45 @@ public class KetoAuthorizationService {
    */
     public void transactRelationship(TransactRelationTuplesRequest transactionRequest) {
         LOG.debug("Creating/Deleting {} relationship tuple(s) within transaction", transactionRequest.getRelationTupleDeltasCount());
-        var transactionResponse = callInScope(() -> writeService.transactRelationTuples(transactionRequest));
+        var transactionResponse = callInScope(AUTHORIZATION, () -> writeService.transactRelationTuples(transactionRequest));
         LOG.debug("Transaction completed with {} snap-token(s)", transactionResponse.getSnaptokensCount());
+        forgetRequestDecisions();
+        if (consistency == Consistency.SNAPTOKEN) {
+          var snaptokens = transactionResponse.getSnaptokensList();
+          writeSnaptoken.set(snaptokens.isEmpty() ? "" : snaptokens.getLast());
+          decisionCache.invalidateAll();
+          return;
+        }
+        for (RelationTupleDelta delta : transactionRequest.getRelationTupleDeltasList()) {
+          var tupleSubject = delta.getRelationTuple().getSubject();
+          if (tupleSubject.hasId()) {
+            decisionCache.invalidateSubject(tupleSubject.getId());
+          } else {
+            // Subject sets grant through membership, so any actor's decisions may change
+            decisionCache.invalidateAll();
+            return;
+          }
+        }
     }
 
     public void deleteRelationship(DeleteRelationTuplesRequest transactionRequest) {
       LOG.debug("Deleting relationship tuple for query: '{}'", transactionRequest.getRelationQuery());
-      runInScope(() -> writeService.deleteRelationTuples(transactionRequest));
+      runInScope(AUTHORIZATION, () -> writeService.deleteRelationTuples(transactionRequest));
       LOG.debug("Relation deleted");
+      forgetRequestDecisions();
+      if (consistency == Consistency.SNAPTOKEN) {
+        writeSnaptoken.set("");
+      }
+      // Queries may match tuples of any subject
+      decisionCache.invalidateAll();
+    }
+
+    // A request that writes tuples must not be answered from decisions it made before the write
+    private static void forgetRequestDecisions() {
+      var memo = AuthorizationMemo.current();
+      if (memo != null) {
+        memo.invalidate();
+      }
     }
 
   // Role listing for group will be implemented when Keto read relation listing stubs are available.
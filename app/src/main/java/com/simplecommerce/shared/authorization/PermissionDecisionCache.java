@@ -0,0 +1,169 @@
+package com.simplecommerce.shared.authorization;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.jspecify.annotations.Nullable;
+import org.springframework.util.ConcurrentLruCache;
+
+/**
+ * Bounded cache of Keto permission decisions keyed by (namespace, object, relation, subject). Decisions expire after
+ * a fixed time to live and are invalidated when relation tuples are written through this application:
+ * <ul>
+ *   <li>a tuple whose subject is an actor can only change decisions for that actor, so only that actor's decisions
+ *   are invalidated;</li>
+ *   <li>a tuple whose subject is a subject set (group members, role assignees) or a purge can change decisions for
+ *   any actor, so every decision is invalidated.</li>
+ * </ul>
+ * Invalidation bumps a generation instead of scanning the cache: a decision is only served while the generations
+ * it was loaded under are current, so a check that raced with a write is never cached past it. The cache holds one
+ * slot per key and decisions are loaded outside of it, which lets asynchronous checks fill it too.
+ * Writes made directly against Keto are only picked up once cached decisions expire.
+ * <p>
+ * Cache activity is published as {@code cache.gets} (tagged {@code result=hit|miss}) and {@code cache.size}
+ * with {@code cache=keto-permissions}.
+ *
+ * @author julius.krah
+ */
+final class PermissionDecisionCache {
+
+  private static final String CACHE_NAME = "keto-permissions";
+
+  private final long timeToLiveNanos;
+  private final Predicate<DecisionKey> loader;
+  private final ConcurrentLruCache<DecisionKey, AtomicReference<@Nullable Decision>> decisions;
+  private final AtomicLong generation = new AtomicLong();
+  private final Map<String, Long> subjectGenerations = new ConcurrentHashMap<>();
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * @param capacity maximum number of cached decisions
+   * @param timeToLive how long a decision is served; zero disables caching
+   * @param loader performs the permission check against Keto
+   */
+  PermissionDecisionCache(int capacity, Duration timeToLive, Predicate<DecisionKey> loader) {
+    this.timeToLiveNanos = timeToLive.toNanos();
+    this.loader = loader;
+    this.decisions = new ConcurrentLruCache<>(capacity, _ -> new AtomicReference<>());
+  }
+
+  boolean isEnabled() {
+    return timeToLiveNanos > 0;
+  }
+
+  /**
+   * Returns the cached decision for {@code key}, checking with Keto if it is missing, expired or invalidated.
+   */
+  boolean check(DecisionKey key) {
+    var slot = decisions.get(key);
+    var cached = current(slot, key);
+    if (cached != null) {
+      return cached;
+    }
+    var stamp = stamp(key);
+    var allowed = loader.test(key);
+    slot.set(decide(stamp, allowed));
+    return allowed;
+  }
+
+  /**
+   * Returns the cached decision for {@code key}, or checks with Keto through {@code asyncLoader} and caches the
+   * decision once it completes. Failed checks are not cached.
+   */
+  CompletableFuture<Boolean> checkAsync(DecisionKey key, Function<DecisionKey, CompletableFuture<Boolean>> asyncLoader) {
+    var slot = decisions.get(key);
+    var cached = current(slot, key);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+    var stamp = stamp(key);
+    return asyncLoader.apply(key).thenApply(allowed -> {
+      slot.set(decide(stamp, allowed));
+      return allowed;
+    });
+  }
+
+  /**
+   * Invalidates every cached decision for {@code subject}.
+   */
+  void invalidateSubject(String subject) {
+    subjectGenerations.merge(subject, 1L, Long::sum);
+  }
+
+  /**
+   * Invalidates every cached decision.
+   */
+  void invalidateAll() {
+    generation.incrementAndGet();
+    subjectGenerations.clear();
+    decisions.clear();
+  }
+
+  long hitCount() {
+    return requests.sum() - misses.sum();
+  }
+
+  long missCount() {
+    return misses.sum();
+  }
+
+  void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("cache.gets", this, PermissionDecisionCache::hitCount)
+        .tags("cache", CACHE_NAME, "result", "hit")
+        .description("Permission decisions served from the cache")
+        .register(registry);
+    FunctionCounter.builder("cache.gets", this, PermissionDecisionCache::missCount)
+        .tags("cache", CACHE_NAME, "result", "miss")
+        .description("Permission decisions checked with Keto because they were not cached")
+        .register(registry);
+    Gauge.builder("cache.size", decisions, ConcurrentLruCache::size)
+        .tag("cache", CACHE_NAME)
+        .description("Number of cached permission decisions")
+        .register(registry);
+  }
+
+  private @Nullable Boolean current(AtomicReference<@Nullable Decision> slot, DecisionKey key) {
+    requests.increment();
+    var decision = slot.get();
+    if (decision != null
+        && decision.expiresAt() - System.nanoTime() > 0
+        && decision.generation() == generation.get()
+        && decision.subjectGeneration() == subjectGeneration(key.subject())) {
+      return decision.allowed();
+    }
+    misses.increment();
+    return null;
+  }
+
+  // Captured before checking with Keto, so that a write during the check makes the decision stale
+  private Stamp stamp(DecisionKey key) {
+    return new Stamp(generation.get(), subjectGeneration(key.subject()));
+  }
+
+  private Decision decide(Stamp stamp, boolean allowed) {
+    return new Decision(allowed, System.nanoTime() + timeToLiveNanos, stamp.generation(), stamp.subjectGeneration());
+  }
+
+  private long subjectGeneration(String subject) {
+    return subjectGenerations.getOrDefault(subject, 0L);
+  }
+
+  record DecisionKey(String namespace, @Nullable String object, String relation, String subject) {
+  }
+
+  private record Decision(boolean allowed, long expiresAt, long generation, long subjectGeneration) {
+  }
+
+  private record Stamp(long generation, long subjectGeneration) {
+  }
+}
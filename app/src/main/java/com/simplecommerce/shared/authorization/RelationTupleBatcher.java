@@ -0,0 +1,262 @@
+package com.simplecommerce.shared.authorization;
+
+import static java.util.Objects.requireNonNull;
+
+import io.grpc.Status;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import sh.ory.keto.relation_tuples.v1alpha2.RelationTuple;
+import sh.ory.keto.write.v1alpha2.RelationTupleDelta;
+import sh.ory.keto.write.v1alpha2.TransactRelationTuplesRequest;
+
+/**
+ * Write-behind buffer for relation tuple deltas. Deltas added within
+ * {@code simple-commerce.authorization.write-behind.window} are written to Keto as one transaction, or as soon as
+ * {@code max-batch-size} deltas are pending. Batches are written one at a time in the order their deltas were added, so changes to the same object are applied in order;
+ * a delta for a tuple that is already pending closes the current batch first, because Keto does not order the
+ * deltas within a transaction. Failed writes are retried with exponential backoff, and pending deltas are flushed
+ * when the application shuts down.
+ * <p>
+ * {@link #add} returns a future that completes once its deltas are in Keto, or completes exceptionally if they could
+ * not be written after {@code max-attempts}. Callers that must not lose deltas wait for it, so a failed batch fails
+ * the caller instead of being dropped. When Keto rejects a batch outright, for example because one delta is invalid,
+ * the deltas of each {@link #add} call are written again on their own, so only the calls whose deltas are rejected
+ * fail.
+ *
+ * @author julius.krah
+ */
+@Component
+@Profile("keto-authz")
+class RelationTupleBatcher implements SmartLifecycle {
+  private static final Logger LOG = LoggerFactory.getLogger(RelationTupleBatcher.class);
+
+  private final KetoAuthorizationService ketoService;
+  private final Duration window;
+  private final int maxBatchSize;
+  private final int maxAttempts;
+  private final Duration retryBackoff;
+  // Guards the pending batch
+  private final ReentrantLock pendingLock = new ReentrantLock();
+  // Held from draining a batch until it is written, so batches reach Keto in order
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private Batch pending = new Batch();
+  private volatile @Nullable Thread flusher;
+  private volatile @Nullable CountDownLatch stopSignal;
+
+  RelationTupleBatcher(KetoAuthorizationService ketoService,
+      @Value("${simple-commerce.authorization.write-behind.window:50ms}") Duration window,
+      @Value("${simple-commerce.authorization.write-behind.max-batch-size:500}") int maxBatchSize,
+      @Value("${simple-commerce.authorization.write-behind.max-attempts:3}") int maxAttempts,
+      @Value("${simple-commerce.authorization.write-behind.retry-backoff:200ms}") Duration retryBackoff) {
+    this.ketoService = ketoService;
+    this.window = window;
+    this.maxBatchSize = maxBatchSize;
+    this.maxAttempts = maxAttempts;
+    this.retryBackoff = retryBackoff;
+  }
+
+  /**
+   * Queues {@code deltas} for the next batch. Writes the batch immediately once it is full.
+   *
+   * @return completes when every delta of {@code deltas} has been written to Keto
+   */
+  CompletableFuture<Void> add(List<RelationTupleDelta> deltas) {
+    var writes = new ArrayList<Write>();
+    for (var delta : deltas) {
+      while (!tryAppend(delta, writes)) {
+        flush();
+      }
+    }
+    if (pendingCount() >= maxBatchSize) {
+      flush();
+    }
+    return CompletableFuture.allOf(writes.stream().map(Write::written).toArray(CompletableFuture[]::new));
+  }
+
+  /**
+   * Writes every pending delta to Keto and waits for the write. A batch that cannot be written fails the futures of
+   * the {@link #add} calls it contains; a batch that Keto rejects is split into its {@link #add} calls first.
+   */
+  void flush() {
+    writeLock.lock();
+    try {
+      Batch batch;
+      pendingLock.lock();
+      try {
+        batch = pending;
+        pending = new Batch();
+      } finally {
+        pendingLock.unlock();
+      }
+      if (batch.writes.isEmpty()) {
+        return;
+      }
+      try {
+        write(batch.writes.stream().flatMap(write -> write.deltas().stream()).toList());
+        batch.writes.forEach(write -> write.written().complete(null));
+      } catch (RuntimeException e) {
+        if (batch.writes.size() > 1 && !isRetryable(e)) {
+          LOG.warn("Keto rejected a batch of {} write(s), writing each on its own", batch.writes.size());
+          batch.writes.forEach(this::writeAlone);
+        } else {
+          batch.writes.forEach(write -> write.written().completeExceptionally(e));
+        }
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void start() {
+    var signal = new CountDownLatch(1);
+    stopSignal = signal;
+    flusher = Thread.ofVirtual().name("keto-tuple-batcher").start(() -> {
+      try {
+        while (!signal.await(window.toNanos(), TimeUnit.NANOSECONDS)) {
+          flushQuietly();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+  }
+
+  /**
+   * Stops the periodic flush once its current write completes, then flushes the deltas still pending.
+   */
+  @Override
+  public void stop() {
+    var thread = flusher;
+    if (thread != null) {
+      requireNonNull(stopSignal).countDown();
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      flusher = null;
+    }
+    flush();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return flusher != null;
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      LOG.error("Flushing relation tuples failed", e);
+    }
+  }
+
+  /**
+   * Appends {@code delta} to the caller's write in the pending batch unless a delta for the same tuple is already
+   * pending. The first delta a caller appends to a batch opens a new write and adds it to {@code writes}.
+   *
+   * @return whether {@code delta} was appended
+   */
+  private boolean tryAppend(RelationTupleDelta delta, List<Write> writes) {
+    pendingLock.lock();
+    try {
+      if (!pending.tuples.add(delta.getRelationTuple())) {
+        return false;
+      }
+      var write = writes.isEmpty() ? null : writes.getLast();
+      if (write == null || write.batch() != pending) {
+        write = new Write(pending, new ArrayList<>(), new CompletableFuture<>());
+        pending.writes.add(write);
+        writes.add(write);
+      }
+      write.deltas().add(delta);
+      return true;
+    } finally {
+      pendingLock.unlock();
+    }
+  }
+
+  private int pendingCount() {
+    pendingLock.lock();
+    try {
+      return pending.tuples.size();
+    } finally {
+      pendingLock.unlock();
+    }
+  }
+
+  private void writeAlone(Write write) {
+    try {
+      write(write.deltas());
+      write.written().complete(null);
+    } catch (RuntimeException e) {
+      write.written().completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Whether writing again may succeed. Keto rejects invalid deltas with a status that retrying will not change.
+   */
+  private static boolean isRetryable(RuntimeException e) {
+    return switch (Status.fromThrowable(e).getCode()) {
+      case INVALID_ARGUMENT, NOT_FOUND, ALREADY_EXISTS, FAILED_PRECONDITION, OUT_OF_RANGE -> false;
+      default -> true;
+    };
+  }
+
+  private void write(List<RelationTupleDelta> batch) {
+    var request = TransactRelationTuplesRequest.newBuilder().addAllRelationTupleDeltas(batch).build();
+    for (var attempt = 1; ; attempt++) {
+      try {
+        ketoService.transactRelationship(request);
+        LOG.debug("Wrote {} relation tuple delta(s) in one transaction", batch.size());
+        return;
+      } catch (RuntimeException e) {
+        if (attempt >= maxAttempts || !isRetryable(e)) {
+          LOG.error("Writing {} relation tuple delta(s) failed after {} attempts: {}", batch.size(), attempt, batch, e);
+          throw e;
+        }
+        var backoff = retryBackoff.multipliedBy(1L << (attempt - 1));
+        LOG.warn("Writing {} relation tuple delta(s) failed, retrying in {}", batch.size(), backoff, e);
+        try {
+          Thread.sleep(backoff);
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          var failure = new IllegalStateException("Interrupted while retrying relation tuple write", e);
+          LOG.error("Writing {} relation tuple delta(s) interrupted while retrying: {}", batch.size(), batch);
+          throw failure;
+        }
+      }
+    }
+  }
+
+  /**
+   * Deltas waiting for the next flush, grouped by the {@link #add} call they came from.
+   */
+  private static final class Batch {
+    final List<Write> writes = new ArrayList<>();
+    final Set<RelationTuple> tuples = new HashSet<>();
+  }
+
+  /**
+   * The deltas one {@link #add} call appended to {@code batch}, and the future that completes once they are written.
+   */
+  private record Write(Batch batch, List<RelationTupleDelta> deltas, CompletableFuture<Void> written) {
+  }
+}
@@ -0,0 +1,160 @@
+package com.simplecommerce.shared.authorization;
+
+import static com.simplecommerce.shared.authorization.BasePermissions.Namespaces.CATEGORY_NAMESPACE;
+import static com.simplecommerce.shared.authorization.BasePermissions.Namespaces.GROUP_NAMESPACE;
+import static com.simplecommerce.shared.authorization.BasePermissions.Namespaces.PRODUCT_NAMESPACE;
+import static com.simplecommerce.shared.authorization.BasePermissions.Namespaces.PRODUCT_VARIANT_NAMESPACE;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * In-memory graph of relation tuples, evaluated the way Keto evaluates {@code keto/permissions.keto.ts}:
+ * <ul>
+ *   <li>a relation holds for a subject when a tuple names the subject, or names a subject set the subject is in
+ *   ({@code Group:g#members}, {@code Role:r#assignees});</li>
+ *   <li>the {@code edit}, {@code view} and {@code delete} permits of products, product variants and categories
+ *   combine their related subjects, the permit they imply and the same permit on their {@code parents}.</li>
+ * </ul>
+ * Expanding a subject set or traversing to a parent costs one level of depth, and a check gives up (denies) once
+ * {@code maxDepth} levels are used, so cyclic group nesting terminates. A subject set without a relation on a group
+ * ({@code Group:child}, as written for nested groups) stands for the members of that group.
+ *
+ * @author julius.krah
+ */
+final class RelationTupleIndex {
+
+  private static final String MEMBERS_RELATION = "members";
+  private static final String PARENTS_RELATION = "parents";
+  private static final Map<String, Map<String, Rewrite>> PERMITS = Map.of(
+      PRODUCT_NAMESPACE, Map.of(
+          "delete", new Rewrite(null, "owners", false),
+          "edit", new Rewrite("delete", "editors", true),
+          "view", new Rewrite("edit", "viewers", true)),
+      PRODUCT_VARIANT_NAMESPACE, Map.of(
+          "edit", new Rewrite(null, "editors", true),
+          "view", new Rewrite("edit", "viewers", true)),
+      CATEGORY_NAMESPACE, Map.of(
+          "edit", new Rewrite(null, "editors", true),
+          "view", new Rewrite("edit", "viewers", true)));
+
+  private final int maxDepth;
+  private final Map<ObjectKey, Map<String, Set<SubjectRef>>> tuples = new ConcurrentHashMap<>();
+
+  RelationTupleIndex(int maxDepth) {
+    this.maxDepth = maxDepth;
+  }
+
+  void add(Tuple tuple) {
+    tuples.computeIfAbsent(new ObjectKey(tuple.namespace(), tuple.object()), _ -> new ConcurrentHashMap<>())
+        .computeIfAbsent(tuple.relation(), _ -> ConcurrentHashMap.newKeySet())
+        .add(tuple.subject());
+  }
+
+  void remove(Tuple tuple) {
+    var relations = tuples.get(new ObjectKey(tuple.namespace(), tuple.object()));
+    if (relations != null) {
+      var subjects = relations.get(tuple.relation());
+      if (subjects != null) {
+        subjects.remove(tuple.subject());
+      }
+    }
+  }
+
+  /**
+   * Removes every tuple of {@code namespace:object}. Tuples naming the object as their subject are kept, as in Keto.
+   */
+  void removeObject(String namespace, String object) {
+    tuples.remove(new ObjectKey(namespace, object));
+  }
+
+  int size() {
+    return tuples.values().stream().flatMap(relations -> relations.values().stream()).mapToInt(Set::size).sum();
+  }
+
+  boolean check(String namespace, String object, String relation, String subject) {
+    return check(namespace, object, relation, subject, maxDepth);
+  }
+
+  private boolean check(String namespace, String object, String relation, String subject, int depth) {
+    if (depth <= 0) {
+      return false;
+    }
+    var rewrite = PERMITS.getOrDefault(namespace, Map.of()).get(relation);
+    if (rewrite == null) {
+      return includes(namespace, object, relation, subject, depth);
+    }
+    // Implied permits are evaluated on the same object and cost no depth
+    return rewrite.implied() != null && check(namespace, object, rewrite.implied(), subject, depth)
+        || includes(namespace, object, rewrite.related(), subject, depth)
+        || rewrite.traverseParents() && traverseParents(namespace, object, relation, subject, depth);
+  }
+
+  private boolean includes(String namespace, String object, String relation, String subject, int depth) {
+    for (var ref : subjects(namespace, object, relation)) {
+      switch (ref) {
+        case SubjectId(var id) when id.equals(subject) -> {
+          return true;
+        }
+        case SubjectSet(var setNamespace, var setObject, var setRelation) -> {
+          var expanded = setRelation.isEmpty() && GROUP_NAMESPACE.equals(setNamespace) ? MEMBERS_RELATION : setRelation;
+          if (!expanded.isEmpty() && check(setNamespace, setObject, expanded, subject, depth - 1)) {
+            return true;
+          }
+        }
+        default -> {
+          // Another subject
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean traverseParents(String namespace, String object, String permit, String subject, int depth) {
+    for (var ref : subjects(namespace, object, PARENTS_RELATION)) {
+      if (ref instanceof SubjectSet(var parentNamespace, var parentObject, var _)
+          && check(parentNamespace, parentObject, permit, subject, depth - 1)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Set<SubjectRef> subjects(String namespace, String object, String relation) {
+    var relations = tuples.get(new ObjectKey(namespace, object));
+    if (relations == null) {
+      return Set.of();
+    }
+    return relations.getOrDefault(relation, Set.of());
+  }
+
+  /**
+   * A relation tuple {@code namespace:object#relation@subject}.
+   */
+  record Tuple(String namespace, String object, String relation, SubjectRef subject) {
+  }
+
+  sealed interface SubjectRef permits SubjectId, SubjectSet {
+  }
+
+  record SubjectId(String id) implements SubjectRef {
+  }
+
+  /**
+   * The subjects with {@code relation} on {@code namespace:object}. The relation may be empty.
+   */
+  record SubjectSet(String namespace, String object, String relation) implements SubjectRef {
+  }
+
+  private record ObjectKey(String namespace, String object) {
+  }
+
+  /**
+   * A permit: the permit it implies on the same object, if any, the relation whose subjects are granted it and
+   * whether it is inherited from the object's parents.
+   */
+  private record Rewrite(@Nullable String implied, String related, boolean traverseParents) {
+  }
+}
@@ -0,0 +1,127 @@
+package com.simplecommerce.shared.authorization;
+
+import com.simplecommerce.shared.authorization.RelationTupleIndex.SubjectId;
+import com.simplecommerce.shared.authorization.RelationTupleIndex.SubjectSet;
+import com.simplecommerce.shared.authorization.RelationTupleIndex.Tuple;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Relation tuples persisted in the {@code relation_tuples} table and indexed in memory by {@link RelationTupleIndex}.
+ * The index is loaded on first use and kept current by the writes made through this store, each applied to the index
+ * once it is committed. Writes go to the database in their own transaction, so a tuple is visible to checks as soon
+ * as the write returns. The index is per application instance: tuples written by another instance are only seen
+ * after a restart.
+ *
+ * @author julius.krah
+ */
+@Component
+@Profile("embedded-authz")
+class RelationTupleStore {
+  private static final Logger LOG = LoggerFactory.getLogger(RelationTupleStore.class);
+  private static final String INSERT = """
+      INSERT INTO relation_tuples (namespace, object, relation, subject_id, subject_set_namespace, subject_set_object, subject_set_relation)
+      VALUES (?, ?, ?, ?, ?, ?, ?)
+      ON CONFLICT DO NOTHING""";
+  private static final String DELETE = """
+      DELETE FROM relation_tuples
+      WHERE namespace = ? AND object = ? AND relation = ? AND subject_id = ?
+        AND subject_set_namespace = ? AND subject_set_object = ? AND subject_set_relation = ?""";
+
+  private final JdbcClient jdbcClient;
+  private final TransactionTemplate transactionTemplate;
+  private final Supplier<RelationTupleIndex> index = StableValue.supplier(this::load);
+  // Orders writes, so the index applies them in the order they were committed
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  RelationTupleStore(JdbcClient jdbcClient, PlatformTransactionManager transactionManager) {
+    this.jdbcClient = jdbcClient;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  boolean check(String namespace, String object, String relation, String subject) {
+    return index.get().check(namespace, object, relation, subject);
+  }
+
+  void insert(List<Tuple> tuples) {
+    write(INSERT, tuples, index.get()::add);
+  }
+
+  void delete(List<Tuple> tuples) {
+    write(DELETE, tuples, index.get()::remove);
+  }
+
+  /**
+   * Deletes every tuple of {@code namespace:object}.
+   */
+  void deleteObject(String namespace, String object) {
+    writeLock.lock();
+    try {
+      transactionTemplate.executeWithoutResult(_ -> jdbcClient
+          .sql("DELETE FROM relation_tuples WHERE namespace = ? AND object = ?")
+          .params(namespace, object)
+          .update());
+      index.get().removeObject(namespace, object);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private void write(String sql, List<Tuple> tuples, Consumer<Tuple> apply) {
+    if (tuples.isEmpty()) {
+      return;
+    }
+    writeLock.lock();
+    try {
+      transactionTemplate.executeWithoutResult(_ -> {
+        for (var tuple : tuples) {
+          jdbcClient.sql(sql).params(params(tuple)).update();
+        }
+      });
+      tuples.forEach(apply);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private RelationTupleIndex load() {
+    var relationTuples = new RelationTupleIndex(AuthorizationService.DEFAULT_MAX_CHECK_DEPTH);
+    jdbcClient.sql("""
+            SELECT namespace, object, relation, subject_id, subject_set_namespace, subject_set_object, subject_set_relation
+            FROM relation_tuples""")
+        .query(RelationTupleStore::toTuple)
+        .list()
+        .forEach(relationTuples::add);
+    LOG.info("Loaded {} relation tuple(s)", relationTuples.size());
+    return relationTuples;
+  }
+
+  private static Object[] params(Tuple tuple) {
+    return switch (tuple.subject()) {
+      case SubjectId(var id) -> new Object[]{tuple.namespace(), tuple.object(), tuple.relation(), id, "", "", ""};
+      case SubjectSet(var namespace, var object, var relation) ->
+          new Object[]{tuple.namespace(), tuple.object(), tuple.relation(), "", namespace, object, relation};
+    };
+  }
+
+  private static Tuple toTuple(ResultSet rs, int rowNum) throws SQLException {
+    var subjectId = rs.getString("subject_id");
+    var subject = subjectId.isEmpty()
+        ? new SubjectSet(rs.getString("subject_set_namespace"), rs.getString("subject_set_object"), rs.getString("subject_set_relation"))
+        : new SubjectId(subjectId);
+    return new Tuple(rs.getString("namespace"), rs.getString("object"), rs.getString("relation"), subject);
+  }
+}
@@ -0,0 +1,11 @@
+package com.simplecommerce.shared.exceptions;
+
+/// Raised when client supplied input cannot be interpreted, e.g. a malformed search query.
+///
+/// @author julius.krah
+public class InvalidInputException extends CommerceException {
+
+  public InvalidInputException(String message) {
+    super(message);
+  }
+}
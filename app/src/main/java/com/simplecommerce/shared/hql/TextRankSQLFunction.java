@@ -0,0 +1,37 @@
+package com.simplecommerce.shared.hql;
+
+import java.util.List;
+import org.hibernate.dialect.function.StandardSQLFunction;
+import org.hibernate.query.ReturnableType;
+import org.hibernate.sql.ast.SqlAstTranslator;
+import org.hibernate.sql.ast.spi.SqlAppender;
+import org.hibernate.sql.ast.tree.SqlAstNode;
+import org.hibernate.type.BasicTypeReference;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Renders {@code ts_rank(document, websearch_to_tsquery(config, query))}.
+ *
+ * @author julius.krah
+ */
+class TextRankSQLFunction extends StandardSQLFunction {
+  private static final BasicTypeReference<Double> RETURN_TYPE = new BasicTypeReference<>("double", Double.class, SqlTypes.DOUBLE);
+  private final String configuration;
+
+  TextRankSQLFunction(String functionName, String configuration) {
+    super(functionName, true, RETURN_TYPE);
+    this.configuration = configuration;
+  }
+
+  @Override
+  public void render(SqlAppender sqlAppender, List<? extends SqlAstNode> sqlAstArguments, ReturnableType<?> returnType, SqlAstTranslator<?> translator) {
+    if (sqlAstArguments.size() != 2) {
+      throw new IllegalArgumentException("Function '" + getName() + "' requires exactly 2 arguments");
+    }
+    sqlAppender.append("ts_rank(");
+    sqlAstArguments.get(0).accept(translator);
+    sqlAppender.append(", websearch_to_tsquery('" + configuration + "', ");
+    sqlAstArguments.get(1).accept(translator);
+    sqlAppender.append("))");
+  }
+}
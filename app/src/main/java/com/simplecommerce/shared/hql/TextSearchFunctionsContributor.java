@@ -0,0 +1,27 @@
+package com.simplecommerce.shared.hql;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+
+/**
+ * PostgreSQL full-text search functions:
+ * <ul>
+ *   <li>{@code textsearch(tsvector, query)} - matches a {@code tsvector} column, can use a GIN index</li>
+ *   <li>{@code textmatches(text, query)} - matches a plain text column</li>
+ *   <li>{@code textrank(tsvector, query)} - relevance of a match</li>
+ * </ul>
+ * Queries use {@code websearch_to_tsquery} syntax: quoted phrases, {@code or} and {@code -} exclusions.
+ *
+ * @author julius.krah
+ */
+public class TextSearchFunctionsContributor implements FunctionContributor {
+  public static final String TEXT_SEARCH_CONFIGURATION = "english";
+
+  @Override
+  public void contributeFunctions(FunctionContributions functionContributions) {
+    var registry = functionContributions.getFunctionRegistry();
+    registry.register("textsearch", new TextSearchSQLFunction("textsearch", TEXT_SEARCH_CONFIGURATION, false));
+    registry.register("textmatches", new TextSearchSQLFunction("textmatches", TEXT_SEARCH_CONFIGURATION, true));
+    registry.register("textrank", new TextRankSQLFunction("textrank", TEXT_SEARCH_CONFIGURATION));
+  }
+}
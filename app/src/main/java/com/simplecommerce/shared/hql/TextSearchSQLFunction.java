@@ -0,0 +1,47 @@
+package com.simplecommerce.shared.hql;
+
+import java.util.List;
+import org.hibernate.dialect.function.StandardSQLFunction;
+import org.hibernate.query.ReturnableType;
+import org.hibernate.sql.ast.SqlAstTranslator;
+import org.hibernate.sql.ast.spi.SqlAppender;
+import org.hibernate.sql.ast.tree.SqlAstNode;
+import org.hibernate.type.BasicTypeReference;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Renders {@code (document @@ websearch_to_tsquery(config, query))}. When {@code parseDocument} is set the first
+ * argument is a text column and is converted with {@code to_tsvector} first; otherwise it must be a
+ * {@code tsvector}.
+ *
+ * @author julius.krah
+ */
+class TextSearchSQLFunction extends StandardSQLFunction {
+  private static final BasicTypeReference<Boolean> RETURN_TYPE = new BasicTypeReference<>("boolean", Boolean.class, SqlTypes.BOOLEAN);
+  private final String configuration;
+  private final boolean parseDocument;
+
+  TextSearchSQLFunction(String functionName, String configuration, boolean parseDocument) {
+    super(functionName, true, RETURN_TYPE);
+    this.configuration = configuration;
+    this.parseDocument = parseDocument;
+  }
+
+  @Override
+  public void render(SqlAppender sqlAppender, List<? extends SqlAstNode> sqlAstArguments, ReturnableType<?> returnType, SqlAstTranslator<?> translator) {
+    if (sqlAstArguments.size() != 2) {
+      throw new IllegalArgumentException("Function '" + getName() + "' requires exactly 2 arguments");
+    }
+    sqlAppender.append("(");
+    if (parseDocument) {
+      sqlAppender.append("to_tsvector('" + configuration + "', ");
+      sqlAstArguments.get(0).accept(translator);
+      sqlAppender.append(")");
+    } else {
+      sqlAstArguments.get(0).accept(translator);
+    }
+    sqlAppender.append(" @@ websearch_to_tsquery('" + configuration + "', ");
+    sqlAstArguments.get(1).accept(translator);
+    sqlAppender.append("))");
+  }
+}
@@ -0,0 +1,137 @@
+package com.simplecommerce.shared.types;
+
+import com.simplecommerce.shared.utils.MonetaryUtils;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import javax.money.CurrencyUnit;
+
+/**
+ * Monetary amount held as a whole number of the currency's minor units (cents for USD, yen for JPY, fils for BHD),
+ * used for cart and checkout totals. Unit prices are not held as minor units, as they may be finer; see
+ * {@link #total(Money, long)}. Addition, subtraction and multiplication by a quantity are exact and fail
+ * on overflow; percentages are rounded half up to the currency's minor unit, which is how tax and percentage
+ * discounts have always been rounded. Convert to {@link Money} only when the amount leaves the domain.
+ *
+ * @param units amount in minor units of {@code currency}
+ * @param currency the currency
+ *
+ * @author julius.krah
+ * @since 1.0
+ */
+public record MinorAmount(long units, CurrencyUnit currency) {
+
+  private static final long[] POWERS_OF_TEN = {
+      1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+      10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+      1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+  };
+
+  /**
+   * Zero in {@code currency}.
+   */
+  public static MinorAmount zero(CurrencyUnit currency) {
+    return new MinorAmount(0L, currency);
+  }
+
+  /**
+   * Converts a decimal amount, rounding half up to the minor unit of {@code currency}.
+   *
+   * @throws ArithmeticException if the amount does not fit in minor units
+   */
+  public static MinorAmount of(BigDecimal amount, CurrencyUnit currency) {
+    return new MinorAmount(amount.setScale(scale(currency), RoundingMode.HALF_UP).unscaledValue().longValueExact(), currency);
+  }
+
+  /**
+   * Converts a decimal amount in the currency with {@code currencyCode}.
+   */
+  public static MinorAmount of(BigDecimal amount, String currencyCode) {
+    return of(amount, MonetaryUtils.getCurrency(currencyCode));
+  }
+
+  /**
+   * Multiplies {@code unitPrice} by {@code quantity} and rounds the product half up to the minor unit. Unit prices
+   * are kept at their stored scale, which may be finer than the minor unit (a tier price of 0.0125), so only the
+   * total is rounded.
+   *
+   * @throws ArithmeticException if the total does not fit in minor units
+   */
+  public static MinorAmount total(Money unitPrice, long quantity) {
+    return of(unitPrice.amount().multiply(BigDecimal.valueOf(quantity)), unitPrice.currency());
+  }
+
+  public MinorAmount plus(MinorAmount other) {
+    return new MinorAmount(Math.addExact(units, checkCurrency(other).units), currency);
+  }
+
+  public MinorAmount minus(MinorAmount other) {
+    return new MinorAmount(Math.subtractExact(units, checkCurrency(other).units), currency);
+  }
+
+  public MinorAmount times(long quantity) {
+    return new MinorAmount(Math.multiplyExact(units, quantity), currency);
+  }
+
+  /**
+   * Returns {@code percent}% of this amount, rounded half up to the minor unit.
+   *
+   * @param percent the percentage, such as {@code 7.25}
+   */
+  public MinorAmount percent(BigDecimal percent) {
+    var rate = percent.stripTrailingZeros();
+    if (rate.scale() < 0) {
+      rate = rate.setScale(0);
+    }
+    if (rate.scale() > POWERS_OF_TEN.length - 3 || rate.precision() > 18) {
+      // Too precise for long arithmetic
+      var exact = toBigDecimal().multiply(percent).divide(BigDecimal.valueOf(100L), scale(currency), RoundingMode.HALF_UP);
+      return of(exact, currency);
+    }
+    var numerator = Math.multiplyExact(units, rate.unscaledValue().longValueExact());
+    return new MinorAmount(divideHalfUp(numerator, Math.multiplyExact(100L, POWERS_OF_TEN[rate.scale()])), currency);
+  }
+
+  public MinorAmount min(MinorAmount other) {
+    return checkCurrency(other).units < units ? other : this;
+  }
+
+  public MinorAmount max(MinorAmount other) {
+    return checkCurrency(other).units > units ? other : this;
+  }
+
+  public boolean isZero() {
+    return units == 0L;
+  }
+
+  public boolean isNegative() {
+    return units < 0L;
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(units, scale(currency));
+  }
+
+  public Money toMoney() {
+    return new Money(currency, toBigDecimal());
+  }
+
+  private MinorAmount checkCurrency(MinorAmount other) {
+    if (!currency.equals(other.currency)) {
+      throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+    }
+    return other;
+  }
+
+  private static int scale(CurrencyUnit currency) {
+    return Math.max(currency.getDefaultFractionDigits(), 0);
+  }
+
+  private static long divideHalfUp(long numerator, long denominator) {
+    var quotient = numerator / denominator;
+    var remainder = Math.abs(numerator % denominator);
+    if (remainder >= denominator - remainder) {
+      quotient += Long.signum(numerator);
+    }
+    return quotient;
+  }
+}
@@ -0,0 +1,111 @@
+package com.simplecommerce.shared.utils;
+
+import com.simplecommerce.shared.exceptions.CommerceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Caps the number of concurrent calls a subsystem (database, authorization server, object store) may receive.
+ * Callers above the limit queue on a fair semaphore for at most {@code maxWaitDuration}; the time spent
+ * queueing is recorded as {@code bulkhead.queue.wait}.
+ *
+ * @author julius.krah
+ * @since 1.0
+ */
+public final class Bulkhead {
+  public static final String DATABASE = "database";
+  public static final String AUTHORIZATION = "authorization";
+  public static final String OBJECT_STORE = "object-store";
+
+  private final String name;
+  private final int maxConcurrentCalls;
+  private final Duration maxWaitDuration;
+  private final Semaphore permits;
+  private final @Nullable Timer queueWait;
+  private final @Nullable Counter rejected;
+
+  public Bulkhead(String name, int maxConcurrentCalls, Duration maxWaitDuration) {
+    this(name, maxConcurrentCalls, maxWaitDuration, null);
+  }
+
+  public Bulkhead(String name, int maxConcurrentCalls, Duration maxWaitDuration, @Nullable MeterRegistry registry) {
+    Assert.hasText(name, "name cannot be empty");
+    Assert.isTrue(maxConcurrentCalls > 0, "maxConcurrentCalls must be positive");
+    Assert.isTrue(!maxWaitDuration.isNegative(), "maxWaitDuration cannot be negative");
+    this.name = name;
+    this.maxConcurrentCalls = maxConcurrentCalls;
+    this.maxWaitDuration = maxWaitDuration;
+    this.permits = new Semaphore(maxConcurrentCalls, true);
+    if (registry == null) {
+      this.queueWait = null;
+      this.rejected = null;
+    } else {
+      this.queueWait = Timer.builder("bulkhead.queue.wait")
+          .description("Time spent waiting for a bulkhead permit")
+          .tag("name", name)
+          .publishPercentiles(0.5, 0.95, 0.99)
+          .register(registry);
+      this.rejected = Counter.builder("bulkhead.rejected")
+          .description("Calls rejected after waiting longer than the maximum wait duration")
+          .tag("name", name)
+          .register(registry);
+      Gauge.builder("bulkhead.available.permits", permits, Semaphore::availablePermits)
+          .tag("name", name)
+          .register(registry);
+      Gauge.builder("bulkhead.queue.length", permits, Semaphore::getQueueLength)
+          .tag("name", name)
+          .register(registry);
+    }
+  }
+
+  /**
+   * A bulkhead that never blocks. Used for subsystems without a configured limit.
+   */
+  public static Bulkhead unbounded(String name) {
+    return new Bulkhead(name, Integer.MAX_VALUE, Duration.ZERO);
+  }
+
+  /**
+   * Runs {@code call} once a permit is available.
+   *
+   * @throws CommerceException if no permit became available within the maximum wait duration
+   */
+  public <R> R call(Callable<R> call) throws Exception {
+    long start = System.nanoTime();
+    boolean acquired = permits.tryAcquire(maxWaitDuration.toNanos(), TimeUnit.NANOSECONDS);
+    if (queueWait != null) {
+      queueWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    if (!acquired) {
+      if (rejected != null) {
+        rejected.increment();
+      }
+      throw new CommerceException("Bulkhead '%s' is full, waited %s".formatted(name, maxWaitDuration));
+    }
+    try {
+      return call.call();
+    } finally {
+      permits.release();
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getMaxConcurrentCalls() {
+    return maxConcurrentCalls;
+  }
+
+  public int getAvailablePermits() {
+    return permits.availablePermits();
+  }
+}
@@ -1,27 +1,73 @@
 package com.simplecommerce.shared.utils;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import javax.money.CurrencyQueryBuilder;
 import javax.money.CurrencyUnit;
 import javax.money.Monetary;
 import javax.money.MonetaryAmount;
 import javax.money.MonetaryAmountFactory;
+import javax.money.MonetaryException;
 
 /**
+ * Currency and amount lookups. Currencies are resolved from immutable registries populated once from the
+ * {@link Monetary} providers, keyed by currency code and by country; lookups that miss the registries (such as
+ * currencies registered later) fall back to querying the providers. Amounts are created from a cached zero amount
+ * per currency, which avoids looking up the default amount factory on every conversion.
+ *
  * @author julius.krah
  */
 public final class MonetaryUtils {
   private MonetaryUtils() {}
 
+  private static final Map<String, CurrencyUnit> CURRENCIES_BY_CODE = Monetary.getCurrencies().stream()
+      .collect(Collectors.toUnmodifiableMap(CurrencyUnit::getCurrencyCode, Function.identity(), (first, _) -> first));
+
+  private static final Map<String, CurrencyUnit> CURRENCIES_BY_COUNTRY = currenciesByCountry();
+
+  private static final Map<String, MonetaryAmount> ZERO_AMOUNTS = CURRENCIES_BY_CODE.values().stream()
+      .collect(Collectors.toUnmodifiableMap(CurrencyUnit::getCurrencyCode,
+          currency -> Monetary.getDefaultAmountFactory().setCurrency(currency).setNumber(0).create()));
+
+  private static Map<String, CurrencyUnit> currenciesByCountry() {
+    var currencies = new HashMap<String, CurrencyUnit>();
+    for (var country : Locale.getISOCountries()) {
+      try {
+        currencies.put(country, Monetary.getCurrency(CurrencyQueryBuilder.of().setCountries(Locale.of("", country)).build()));
+      } catch (MonetaryException e) {
+        // Countries without a unique currency are resolved by querying the providers
+      }
+    }
+    return Map.copyOf(currencies);
+  }
+
   /**
    * Get currency unit.
    *
    * @param code currency code
+   * @return currency unit
+   */
+  public static CurrencyUnit getCurrency(String code) {
+    var currency = code == null ? null : CURRENCIES_BY_CODE.get(code);
+    return currency != null ? currency : Monetary.getCurrency(code);
+  }
+
+  /**
+   * Get currency unit. The currency code takes precedence over the locale, as it does for the providers.
+   *
+   * @param code currency code
    * @param locale locale
    * @return currency unit
    */
   public static CurrencyUnit getCurrency(String code, Locale locale) {
+    var currency = code == null ? null : CURRENCIES_BY_CODE.get(code);
+    if (currency != null) {
+      return currency;
+    }
     var query = CurrencyQueryBuilder.of().setCurrencyCodes(code).setCountries(locale).build();
     return Monetary.getCurrency(query);
   }
@@ -33,6 +79,10 @@ public final class MonetaryUtils {
    * @return currency unit
    */
   public static CurrencyUnit getCurrency(Locale locale) {
+    var currency = CURRENCIES_BY_COUNTRY.get(locale.getCountry());
+    if (currency != null) {
+      return currency;
+    }
     var query = CurrencyQueryBuilder.of().setCountries(locale).build();
     return Monetary.getCurrency(query);
   }
@@ -45,10 +95,11 @@ public final class MonetaryUtils {
    * @return monetary amount
    */
   public static MonetaryAmount getMonetaryAmount(BigDecimal amount, CurrencyUnit currency) {
-    MonetaryAmountFactory<?> amountFactory = Monetary.getDefaultAmountFactory();
-    return amountFactory.setCurrency(currency)
-        .setNumber(amount)
-        .create();
+    var zero = ZERO_AMOUNTS.get(currency.getCurrencyCode());
+    MonetaryAmountFactory<?> amountFactory = zero != null && zero.getCurrency().equals(currency)
+        ? zero.getFactory()
+        : Monetary.getDefaultAmountFactory().setCurrency(currency);
+    return amountFactory.setNumber(amount).create();
   }
 
   /**
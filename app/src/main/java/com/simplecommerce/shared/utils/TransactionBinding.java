@@ -0,0 +1,97 @@
+package com.simplecommerce.shared.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import org.jspecify.annotations.Nullable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Snapshot of the caller's transaction-bound resources so a forked virtual thread participates in the same
+ * transaction. The caller is blocked in {@code join()} while the fork runs, so the bound
+ * {@code EntityManager} and connection are never used by two threads at the same time.
+ * Synchronizations registered by the fork (e.g. transactional event listeners) are handed back to the
+ * caller in {@link #complete()}.
+ *
+ * @author julius.krah
+ */
+final class TransactionBinding {
+  private static final TransactionBinding NONE = new TransactionBinding(Map.of(), List.of(), false, null, false, null);
+
+  private final Map<Object, Object> resources;
+  private final List<TransactionSynchronization> synchronizations;
+  private final boolean synchronizationActive;
+  private final @Nullable String name;
+  private final boolean readOnly;
+  private final @Nullable Integer isolationLevel;
+  private final List<TransactionSynchronization> registered = new ArrayList<>();
+
+  private TransactionBinding(Map<Object, Object> resources, List<TransactionSynchronization> synchronizations,
+      boolean synchronizationActive, @Nullable String name, boolean readOnly, @Nullable Integer isolationLevel) {
+    this.resources = resources;
+    this.synchronizations = synchronizations;
+    this.synchronizationActive = synchronizationActive;
+    this.name = name;
+    this.readOnly = readOnly;
+    this.isolationLevel = isolationLevel;
+  }
+
+  static TransactionBinding capture() {
+    if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+      return NONE;
+    }
+    boolean synchronizationActive = TransactionSynchronizationManager.isSynchronizationActive();
+    return new TransactionBinding(
+        new HashMap<>(TransactionSynchronizationManager.getResourceMap()),
+        synchronizationActive ? TransactionSynchronizationManager.getSynchronizations() : List.of(),
+        synchronizationActive,
+        TransactionSynchronizationManager.getCurrentTransactionName(),
+        TransactionSynchronizationManager.isCurrentTransactionReadOnly(),
+        TransactionSynchronizationManager.getCurrentTransactionIsolationLevel());
+  }
+
+  <R> Callable<R> bind(Callable<R> call) {
+    if (this == NONE) {
+      return call;
+    }
+    return () -> {
+      resources.forEach(TransactionSynchronizationManager::bindResource);
+      if (synchronizationActive) {
+        TransactionSynchronizationManager.initSynchronization();
+        synchronizations.forEach(TransactionSynchronizationManager::registerSynchronization);
+      }
+      TransactionSynchronizationManager.setActualTransactionActive(true);
+      TransactionSynchronizationManager.setCurrentTransactionName(name);
+      TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+      TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(isolationLevel);
+      try {
+        return call.call();
+      } finally {
+        if (synchronizationActive) {
+          for (var synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (!synchronizations.contains(synchronization)) {
+              registered.add(synchronization);
+            }
+          }
+        }
+        resources.keySet().forEach(TransactionSynchronizationManager::unbindResourceIfPossible);
+        TransactionSynchronizationManager.clear();
+      }
+    };
+  }
+
+  /**
+   * Registers synchronizations added by the fork with the caller's transaction. Must be called on the
+   * caller's thread after the fork has completed.
+   */
+  void complete() {
+    if (registered.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    registered.forEach(TransactionSynchronizationManager::registerSynchronization);
+    registered.clear();
+  }
+}
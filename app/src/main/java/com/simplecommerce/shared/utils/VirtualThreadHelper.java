@@ -1,59 +1,105 @@
 package com.simplecommerce.shared.utils;
 
 import com.simplecommerce.shared.exceptions.CommerceException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 import java.util.concurrent.StructuredTaskScope;
 import java.util.concurrent.StructuredTaskScope.Joiner;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.StructuredTaskScope.Subtask;
 import java.util.function.Function;
 import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
-import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 import org.springframework.util.Assert;
 
 /**
+ * Runs blocking calls on virtual threads inside a structured task scope. Every fork carries the caller's
+ * security context, and a single fork also joins the caller's transaction. Concurrency is limited per
+ * subsystem by a {@link Bulkhead}; subsystems without a registered bulkhead are not limited.
+ *
  * @author julius.krah
  */
 public final class VirtualThreadHelper {
 
-  private static final ReentrantLock lock = new ReentrantLock();
+  private static final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
 
   private VirtualThreadHelper() {
     throw new IllegalStateException("Utility class");
   }
 
+  /**
+   * Registers (or replaces) the bulkhead for {@link Bulkhead#getName() its subsystem}.
+   */
+  public static void registerBulkhead(Bulkhead bulkhead) {
+    bulkheads.put(bulkhead.getName(), bulkhead);
+  }
+
   public static void runInScope(Runnable... runs) {
+    runInScope(Bulkhead.DATABASE, runs);
+  }
+
+  /**
+   * Runs {@code runs} concurrently and waits for all of them. A single run joins the caller's transaction;
+   * several runs are independent of each other and of the caller's transaction.
+   */
+  public static void runInScope(String subsystem, Runnable... runs) {
     Assert.notEmpty(runs, "runs cannot be empty");
-    lock.lock();
+    if (runs.length == 1) {
+      callInScope(subsystem, Executors.callable(runs[0]));
+    } else {
+      callAllInScope(subsystem, Arrays.stream(runs).map(Executors::callable).toList());
+    }
+  }
+
+  public static <R> R callInScope(Callable<R> call) {
+    return callInScope(Bulkhead.DATABASE, call);
+  }
+
+  public static <R> R callInScope(String subsystem, Callable<R> call) {
+    var bulkhead = bulkhead(subsystem);
+    var binding = TransactionBinding.capture();
     try (var scope = StructuredTaskScope.open(Joiner.allSuccessfulOrThrow(), Function.identity())) {
-      for (Runnable run : runs) {
-        DelegatingSecurityContextRunnable delegate = new DelegatingSecurityContextRunnable(run);
-        scope.fork(delegate);
-      }
+      Callable<R> guarded = () -> bulkhead.call(binding.bind(call));
+      var task = scope.fork(new DelegatingSecurityContextCallable<>(guarded));
       scope.join();
+      return task.get();
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       throw new CommerceException(e);
     } catch (Exception e) {
       throw new CommerceException(e);
     } finally {
-      lock.unlock();
+      binding.complete();
     }
   }
 
-  public static <R> R callInScope(Callable<R> call) {
-    lock.lock();
+  /**
+   * Forks every call, waits for all of them and returns their results in the order of {@code calls}.
+   * The first failure cancels the remaining calls. Calls do not join the caller's transaction.
+   */
+  public static <R> List<R> callAllInScope(String subsystem, List<? extends Callable<? extends R>> calls) {
+    Assert.notEmpty(calls, "calls cannot be empty");
+    var bulkhead = bulkhead(subsystem);
     try (var scope = StructuredTaskScope.open(Joiner.allSuccessfulOrThrow(), Function.identity())) {
-      DelegatingSecurityContextCallable<R> delegate = new DelegatingSecurityContextCallable<>(call);
-      var task = scope.fork(delegate);
+      List<Subtask<R>> tasks = new ArrayList<>(calls.size());
+      for (Callable<? extends R> call : calls) {
+        Callable<R> guarded = () -> bulkhead.call(call);
+        tasks.add(scope.fork(new DelegatingSecurityContextCallable<>(guarded)));
+      }
       scope.join();
-      return task.get();
+      return tasks.stream().map(Subtask::get).toList();
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       throw new CommerceException(e);
     } catch (Exception e) {
       throw new CommerceException(e);
-    } finally {
-      lock.unlock();
     }
   }
+
+  private static Bulkhead bulkhead(String subsystem) {
+    return bulkheads.computeIfAbsent(subsystem, Bulkhead::unbounded);
+  }
 }
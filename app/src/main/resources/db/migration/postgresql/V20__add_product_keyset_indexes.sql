@@ -0,0 +1,7 @@
+-- Indexes backing keyset pagination of products. The identifier is appended to every sort
+-- so each index ends with id; pages are then read as an index range scan instead of a sort.
+CREATE INDEX IF NOT EXISTS idx_products_title_id ON products (title, id);
+CREATE INDEX IF NOT EXISTS idx_products_created_at_id ON products (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_products_updated_at_id ON products (updated_at, id);
+-- Storefront listings are filtered to published products
+CREATE INDEX IF NOT EXISTS idx_products_status_title_id ON products (status, title, id);
@@ -0,0 +1,10 @@
+-- Weighted full-text document for products: title (A), description (B), slug words (C).
+-- Kept in sync by PostgreSQL; queried with the textsearch/textrank HQL functions.
+ALTER TABLE IF EXISTS products
+    ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english'::regconfig, coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english'::regconfig, coalesce(description, '')), 'B') ||
+        setweight(to_tsvector('english'::regconfig, replace(coalesce(slug, ''), '-', ' ')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING GIN (search_vector);
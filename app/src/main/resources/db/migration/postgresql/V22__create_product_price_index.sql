@@ -0,0 +1,125 @@
+-- Denormalized price range per product and currency, used to filter and sort product search by price.
+-- The list price of a variant is the DEFAULT rule of its highest priority active price set that applies to a
+-- single unit and has no validity window; variants without such a rule fall back to their own price.
+CREATE OR REPLACE VIEW variant_list_prices AS
+SELECT product_id, variant_id, currency, amount
+FROM (
+    SELECT DISTINCT ON (v.id, r.price_currency)
+        v.product_id, v.id AS variant_id, r.price_currency AS currency, r.price_amount AS amount
+    FROM product_variants v
+    JOIN price_sets s ON s.variant_id = v.id AND s.active
+    JOIN price_rules r ON r.price_set_id = s.id AND r.active
+    WHERE r.context_type = 'DEFAULT'
+      AND r.valid_from IS NULL AND r.valid_until IS NULL
+      AND coalesce(r.min_quantity, 1) <= 1
+    ORDER BY v.id, r.price_currency, s.priority DESC, r.created_at
+) rules
+UNION ALL
+SELECT v.product_id, v.id, v.price_currency, v.price_amount
+FROM product_variants v
+WHERE v.price_amount IS NOT NULL AND v.price_currency IS NOT NULL
+  AND NOT EXISTS (
+    SELECT 1 FROM price_sets s
+    JOIN price_rules r ON r.price_set_id = s.id AND r.active
+    WHERE s.variant_id = v.id AND s.active
+      AND r.context_type = 'DEFAULT'
+      AND r.valid_from IS NULL AND r.valid_until IS NULL
+      AND coalesce(r.min_quantity, 1) <= 1
+  );
+
+CREATE TABLE IF NOT EXISTS product_price_index (
+    product_id UUID NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    currency VARCHAR(3) NOT NULL,
+    min_amount NUMERIC(19,4) NOT NULL,
+    max_amount NUMERIC(19,4) NOT NULL,
+    PRIMARY KEY (product_id, currency)
+);
+
+-- Price filters compare the lower bound with the upper end of the requested range and vice versa
+CREATE INDEX IF NOT EXISTS idx_product_price_index_min ON product_price_index (currency, min_amount, product_id);
+CREATE INDEX IF NOT EXISTS idx_product_price_index_max ON product_price_index (currency, max_amount, product_id);
+
+-- Recomputes the price range of a single product
+CREATE OR REPLACE FUNCTION refresh_product_price_index(target_product_id UUID)
+RETURNS VOID AS $$
+BEGIN
+    IF target_product_id IS NULL THEN
+        RETURN;
+    END IF;
+
+    DELETE FROM product_price_index i
+    WHERE i.product_id = target_product_id
+      AND NOT EXISTS (
+        SELECT 1 FROM variant_list_prices p
+        WHERE p.product_id = target_product_id AND p.currency = i.currency
+      );
+
+    INSERT INTO product_price_index (product_id, currency, min_amount, max_amount)
+    SELECT product_id, currency, min(amount), max(amount)
+    FROM variant_list_prices
+    WHERE product_id = target_product_id
+    GROUP BY product_id, currency
+    ON CONFLICT (product_id, currency) DO UPDATE
+        SET min_amount = EXCLUDED.min_amount, max_amount = EXCLUDED.max_amount;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Keep the index in sync when variants, price sets or price rules change
+CREATE OR REPLACE FUNCTION refresh_price_index_on_variant_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        PERFORM refresh_product_price_index(OLD.product_id);
+    END IF;
+    IF TG_OP = 'INSERT' OR (TG_OP = 'UPDATE' AND NEW.product_id IS DISTINCT FROM OLD.product_id) THEN
+        PERFORM refresh_product_price_index(NEW.product_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION refresh_price_index_on_price_set_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        PERFORM refresh_product_price_index((SELECT product_id FROM product_variants WHERE id = OLD.variant_id));
+    END IF;
+    IF TG_OP = 'INSERT' OR (TG_OP = 'UPDATE' AND NEW.variant_id IS DISTINCT FROM OLD.variant_id) THEN
+        PERFORM refresh_product_price_index((SELECT product_id FROM product_variants WHERE id = NEW.variant_id));
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION refresh_price_index_on_price_rule_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM refresh_product_price_index((
+        SELECT v.product_id FROM price_sets s
+        JOIN product_variants v ON v.id = s.variant_id
+        WHERE s.id = COALESCE(NEW.price_set_id, OLD.price_set_id)
+    ));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER product_variant_price_index_trigger
+    AFTER INSERT OR DELETE OR UPDATE OF product_id, price_amount, price_currency ON product_variants
+    FOR EACH ROW
+    EXECUTE FUNCTION refresh_price_index_on_variant_change();
+
+CREATE TRIGGER price_set_price_index_trigger
+    AFTER INSERT OR DELETE OR UPDATE OF variant_id, priority, active ON price_sets
+    FOR EACH ROW
+    EXECUTE FUNCTION refresh_price_index_on_price_set_change();
+
+CREATE TRIGGER price_rule_price_index_trigger
+    AFTER INSERT OR UPDATE OR DELETE ON price_rules
+    FOR EACH ROW
+    EXECUTE FUNCTION refresh_price_index_on_price_rule_change();
+
+-- Backfill existing products
+INSERT INTO product_price_index (product_id, currency, min_amount, max_amount)
+SELECT product_id, currency, min(amount), max(amount)
+FROM variant_list_prices
+GROUP BY product_id, currency;
@@ -0,0 +1,14 @@
+-- Relation tuples of the embedded authorization backend (embedded-authz profile), mirroring Keto's data model.
+-- A tuple's subject is either an actor id or a subject set; the unused columns hold '' so the tuple can be the key.
+CREATE TABLE IF NOT EXISTS relation_tuples (
+    namespace VARCHAR(64) NOT NULL,
+    object VARCHAR(255) NOT NULL,
+    relation VARCHAR(64) NOT NULL,
+    subject_id VARCHAR(255) NOT NULL DEFAULT '',
+    subject_set_namespace VARCHAR(64) NOT NULL DEFAULT '',
+    subject_set_object VARCHAR(255) NOT NULL DEFAULT '',
+    subject_set_relation VARCHAR(64) NOT NULL DEFAULT '',
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now(),
+    PRIMARY KEY (namespace, object, relation, subject_id, subject_set_namespace, subject_set_object, subject_set_relation),
+    CONSTRAINT relation_tuples_subject_check CHECK ((subject_id = '') <> (subject_set_namespace = '' AND subject_set_object = ''))
+);
@@ -0,0 +1,2 @@
+-- Version of a cart, written by the cart cache so that a stale write never replaces a newer cart
+ALTER TABLE carts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
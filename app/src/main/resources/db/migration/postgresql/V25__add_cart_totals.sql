@@ -0,0 +1,20 @@
+-- Cart totals maintained on every change to the items, so reading a cart summary does not touch cart_items
+ALTER TABLE carts
+    ADD COLUMN subtotal_amount DECIMAL(19, 4) NOT NULL DEFAULT 0,
+    ADD COLUMN subtotal_currency VARCHAR(3),
+    ADD COLUMN item_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN total_quantity INT NOT NULL DEFAULT 0;
+
+UPDATE carts c
+SET subtotal_amount = t.subtotal_amount,
+    subtotal_currency = t.subtotal_currency,
+    item_count = t.item_count,
+    total_quantity = t.total_quantity
+FROM (SELECT cart_id,
+             SUM(unit_price_amount * quantity) AS subtotal_amount,
+             MIN(unit_price_currency) AS subtotal_currency,
+             COUNT(*) AS item_count,
+             SUM(quantity) AS total_quantity
+      FROM cart_items
+      GROUP BY cart_id) t
+WHERE c.id = t.cart_id;
@@ -0,0 +1,5 @@
+-- Order numbers used to be count(*) + 1000 and never came from the sequence, so move it past every number handed out
+SELECT setval('order_number_seq', GREATEST(1000, (SELECT count(*) FROM orders) + 1000,
+                                          (SELECT last_value FROM order_number_seq)));
+-- Each nextval reserves a block of 100 order numbers, handed out from memory by OrderNumberGenerator
+ALTER SEQUENCE order_number_seq INCREMENT BY 100;
@@ -0,0 +1,8 @@
+-- Indexes backing keyset pagination of orders, newest first. Listings sort by created_at and id
+-- so a page continues from the last order seen with an index range scan instead of an offset.
+CREATE INDEX IF NOT EXISTS idx_orders_created_at_id ON orders (created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_customer_id_created_at_id ON orders (customer_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_status_created_at_id ON orders (status, created_at DESC, id DESC);
+-- Superseded by the indexes above
+DROP INDEX IF EXISTS idx_orders_created_at;
+DROP INDEX IF EXISTS idx_orders_customer_id;
@@ -0,0 +1,29 @@
+-- Recomputes the price range of a single product. Transactions changing prices of the same product take turns:
+-- under READ COMMITTED each would otherwise compute the range without the other's uncommitted change, and the
+-- last to commit would leave a stale range. The lock is keyed by product, so other products are not blocked,
+-- and every statement after it sees the changes committed while waiting.
+CREATE OR REPLACE FUNCTION refresh_product_price_index(target_product_id UUID)
+RETURNS VOID AS $$
+BEGIN
+    IF target_product_id IS NULL THEN
+        RETURN;
+    END IF;
+
+    PERFORM pg_advisory_xact_lock(hashtextextended('product_price_index:' || target_product_id, 0));
+
+    DELETE FROM product_price_index i
+    WHERE i.product_id = target_product_id
+      AND NOT EXISTS (
+        SELECT 1 FROM variant_list_prices p
+        WHERE p.product_id = target_product_id AND p.currency = i.currency
+      );
+
+    INSERT INTO product_price_index (product_id, currency, min_amount, max_amount)
+    SELECT product_id, currency, min(amount), max(amount)
+    FROM variant_list_prices
+    WHERE product_id = target_product_id
+    GROUP BY product_id, currency
+    ON CONFLICT (product_id, currency) DO UPDATE
+        SET min_amount = EXCLUDED.min_amount, max_amount = EXCLUDED.max_amount;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,61 @@
+-- Announces every committed change to the pricing of a variant on the variant_pricing channel, with the variant id
+-- as payload, so each instance can evict its cached pricing (see PriceChangeNotifications). Notifications are only
+-- delivered once the transaction commits, and repeated ones within a transaction are folded into one.
+CREATE OR REPLACE FUNCTION notify_variant_pricing(changed_variant_id UUID)
+RETURNS VOID AS $$
+BEGIN
+    IF changed_variant_id IS NOT NULL THEN
+        PERFORM pg_notify('variant_pricing', changed_variant_id::text);
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION notify_variant_pricing_on_variant_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM notify_variant_pricing(CASE WHEN TG_OP = 'DELETE' THEN OLD.id ELSE NEW.id END);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION notify_variant_pricing_on_price_set_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        PERFORM notify_variant_pricing(OLD.variant_id);
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        PERFORM notify_variant_pricing(NEW.variant_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION notify_variant_pricing_on_price_rule_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    -- Rules deleted together with their price set are announced by the price set
+    IF TG_OP <> 'INSERT' THEN
+        PERFORM notify_variant_pricing((SELECT variant_id FROM price_sets WHERE id = OLD.price_set_id));
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        PERFORM notify_variant_pricing((SELECT variant_id FROM price_sets WHERE id = NEW.price_set_id));
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER product_variant_pricing_notify_trigger
+    AFTER INSERT OR UPDATE OR DELETE ON product_variants
+    FOR EACH ROW
+    EXECUTE FUNCTION notify_variant_pricing_on_variant_change();
+
+CREATE TRIGGER price_set_pricing_notify_trigger
+    AFTER INSERT OR UPDATE OR DELETE ON price_sets
+    FOR EACH ROW
+    EXECUTE FUNCTION notify_variant_pricing_on_price_set_change();
+
+CREATE TRIGGER price_rule_pricing_notify_trigger
+    AFTER INSERT OR UPDATE OR DELETE ON price_rules
+    FOR EACH ROW
+    EXECUTE FUNCTION notify_variant_pricing_on_price_rule_change();
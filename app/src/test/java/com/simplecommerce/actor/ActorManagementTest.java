@@ -7,7 +7,7 @@ import static org.mockito.Mockito.when;
 import com.simplecommerce.actor.bot.BotEntity;
 import com.simplecommerce.actor.user.UserEntity;
 import com.simplecommerce.shared.authorization.BasePermissions;
-import com.simplecommerce.shared.authorization.KetoAuthorizationService;
+import com.simplecommerce.shared.authorization.AuthorizationService;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -29,7 +29,7 @@ class ActorManagementTest {
   private Actors actorRepository;
 
   @Mock
-  private KetoAuthorizationService ketoAuthorizationService;
+  private AuthorizationService authorizationService;
 
   @InjectMocks
   private ActorManagement actorManagement;
@@ -0,0 +1,337 @@
+package com.simplecommerce.cart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.simplecommerce.cart.CartSnapshot.Customer;
+import com.simplecommerce.cart.CartSnapshot.Session;
+import com.simplecommerce.cart.CartStore.CartWrite;
+import com.simplecommerce.product.variant.ProductVariant;
+import com.simplecommerce.shared.exceptions.NotFoundException;
+import com.simplecommerce.shared.types.MinorAmount;
+import com.simplecommerce.shared.types.Money;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import javax.money.Monetary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/**
+ * Coalescing, eviction, merging and stale-write handling of {@link CartCache}, with the database replaced by a mock
+ * {@link CartStore}.
+ *
+ * @author julius.krah
+ */
+class CartCacheTest {
+  private static final Money PRICE = new Money(Monetary.getCurrency("EUR"), new BigDecimal("9.99"));
+
+  private final CartStore store = mock(CartStore.class);
+  private CartCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = new CartCache(store, 1, Duration.ofMillis(100), Duration.ofHours(1), 2);
+    when(store.load(any())).thenReturn(Optional.empty());
+    when(store.write(anyList(), anyCollection())).thenReturn(Set.of());
+  }
+
+  @Test
+  void shouldCoalesceMutationsIntoOneWrite() {
+    var owner = new Customer(UUID.randomUUID());
+    var cart = cache.getOrCreate(owner, () -> create(owner));
+    var variant = variant();
+    cart = cache.update(cart, c -> c.add(variant, 1, PRICE));
+    cart = cache.update(cart, c -> c.add(variant, 2, PRICE));
+
+    cache.flush();
+    cache.flush();
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<CartWrite>> written = ArgumentCaptor.forClass(List.class);
+    verify(store).write(written.capture(), anyCollection());
+    assertThat(written.getValue()).containsExactly(new CartWrite(cart, -1));
+    assertThat(cart.version()).isEqualTo(2);
+    assertThat(cart.lines()).singleElement().extracting(CartSnapshot.Line::quantity).isEqualTo(3);
+    assertThat(cart.subtotal()).isEqualTo(MinorAmount.total(PRICE, 3));
+    assertThat(cart.itemCount()).isEqualTo(1);
+    assertThat(cart.totalQuantity()).isEqualTo(3);
+  }
+
+  @Test
+  void shouldMoveExpiryWithEachMutation() {
+    var owner = new Customer(UUID.randomUUID());
+    var createdAt = OffsetDateTime.now().minusDays(29);
+    var expiring = new CartSnapshot(UUID.randomUUID(), owner, List.of(), null, 0, 0, createdAt, createdAt,
+        createdAt.plus(CartSnapshot.LIFETIME), 3);
+
+    var updated = cache.update(expiring, c -> c.add(variant(), 1, PRICE));
+
+    assertThat(updated.expiresAt()).isAfter(OffsetDateTime.now().plus(CartSnapshot.LIFETIME).minusMinutes(1));
+  }
+
+  @Test
+  void shouldOnlyEvictCartsWithoutPendingChanges() {
+    var guest = new Session("guest");
+    var customer = new Customer(UUID.randomUUID());
+    cache.getOrCreate(guest, () -> create(guest));
+    cache.getOrCreate(customer, () -> create(customer));
+    assertThat(cache.size()).isEqualTo(2);
+
+    cache.flush();
+
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.find(customer)).isPresent();
+    verify(store, times(1)).load(customer);
+  }
+
+  @Test
+  void shouldReloadCartsWrittenElsewhere() {
+    var owner = new Customer(UUID.randomUUID());
+    var cart = cache.getOrCreate(owner, () -> create(owner));
+    var newer = new CartSnapshot(cart.id(), owner, List.of(), null, 0, 0, cart.createdAt(), cart.updatedAt(),
+        cart.expiresAt(), 5);
+    when(store.write(anyList(), anyCollection())).thenReturn(Set.of(cart.id()));
+    when(store.load(owner)).thenReturn(Optional.of(newer));
+
+    cache.flush();
+
+    assertThat(cache.find(owner)).contains(newer);
+  }
+
+  @Test
+  void shouldApplyUnwrittenMutationsAgainToCartsChangedElsewhere() {
+    var owner = new Customer(UUID.randomUUID());
+    var loaded = new CartSnapshot(UUID.randomUUID(), owner, List.of(), null, 0, 0, OffsetDateTime.now(),
+        OffsetDateTime.now(), OffsetDateTime.now().plusDays(30), 3);
+    when(store.load(owner)).thenReturn(Optional.of(loaded));
+    var variant = variant();
+    var cart = cache.find(owner).orElseThrow();
+    cart = cache.update(cart, c -> c.add(variant, 1, PRICE));
+    // Another instance added a different variant and wrote the cart twice
+    var changed = loaded.add(variant(), 2, PRICE).add(variant(), 1, PRICE);
+    when(store.write(anyList(), anyCollection())).thenReturn(Set.of(cart.id())).thenReturn(Set.of());
+    when(store.loadById(cart.id())).thenReturn(Optional.of(changed));
+
+    cache.flush();
+    cache.flush();
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<CartWrite>> written = ArgumentCaptor.forClass(List.class);
+    verify(store, times(2)).write(written.capture(), anyCollection());
+    assertThat(written.getAllValues().getFirst()).containsExactly(new CartWrite(cart, 3));
+    var rebased = cache.find(owner).orElseThrow();
+    assertThat(written.getAllValues().getLast()).containsExactly(new CartWrite(rebased, 5));
+    assertThat(rebased.version()).isEqualTo(6);
+    assertThat(rebased.lines()).hasSize(3);
+    assertThat(rebased.totalQuantity()).isEqualTo(4);
+  }
+
+  @Test
+  void shouldDropMutationsOfCartsDeletedElsewhere() {
+    var owner = new Customer(UUID.randomUUID());
+    var loaded = new CartSnapshot(UUID.randomUUID(), owner, List.of(), null, 0, 0, OffsetDateTime.now(),
+        OffsetDateTime.now(), OffsetDateTime.now().plusDays(30), 3);
+    when(store.load(owner)).thenReturn(Optional.of(loaded)).thenReturn(Optional.empty());
+    cache.update(cache.find(owner).orElseThrow(), c -> c.add(variant(), 1, PRICE));
+    when(store.write(anyList(), anyCollection())).thenReturn(Set.of(loaded.id()));
+
+    cache.flush();
+    cache.flush();
+
+    verify(store, times(1)).write(anyList(), anyCollection());
+    assertThat(cache.find(owner)).isEmpty();
+  }
+
+  @Test
+  void shouldReloadCartsCachedLongerThanTheTimeToLive() {
+    cache = new CartCache(store, 10, Duration.ofMillis(100), Duration.ZERO, 2);
+    var owner = new Customer(UUID.randomUUID());
+    var loaded = new CartSnapshot(UUID.randomUUID(), owner, List.of(), null, 0, 0, OffsetDateTime.now(),
+        OffsetDateTime.now(), OffsetDateTime.now().plusDays(30), 3);
+    when(store.load(owner)).thenReturn(Optional.of(loaded));
+
+    cache.find(owner);
+    cache.find(owner);
+
+    verify(store, times(2)).load(owner);
+  }
+
+  @Test
+  void shouldRetryFailedWrites() {
+    var owner = new Customer(UUID.randomUUID());
+    cache.getOrCreate(owner, () -> create(owner));
+    when(store.write(anyList(), anyCollection())).thenThrow(new IllegalStateException("down")).thenReturn(Set.of());
+
+    assertThatExceptionOfType(IllegalStateException.class).isThrownBy(cache::flush);
+    cache.flush();
+
+    verify(store, times(2)).write(anyList(), anyCollection());
+  }
+
+  @Test
+  void shouldWriteOtherCartsWhenOneCannotBeWritten() {
+    var guest = new Session("guest");
+    var customer = new Customer(UUID.randomUUID());
+    var bad = cache.getOrCreate(guest, () -> create(guest));
+    var good = cache.getOrCreate(customer, () -> create(customer));
+    when(store.write(anyList(), anyCollection())).thenAnswer(invocation -> {
+      List<CartWrite> carts = invocation.getArgument(0);
+      if (carts.stream().anyMatch(write -> write.cart().id().equals(bad.id()))) {
+        throw new IllegalStateException("rejected");
+      }
+      return Set.of();
+    });
+
+    assertThatExceptionOfType(IllegalStateException.class).isThrownBy(cache::flush);
+    assertThatExceptionOfType(IllegalStateException.class).isThrownBy(cache::flush);
+    cache.flush();
+
+    verify(store).write(List.of(new CartWrite(good, -1)), Set.of());
+    // Written on its own after the combined write failed, then once more before it is dropped
+    verify(store, times(2)).write(List.of(new CartWrite(bad, -1)), Set.of());
+    assertThat(cache.find(guest)).isEmpty();
+  }
+
+  @Test
+  void shouldNotReloadRemovedCartsBeforeTheyAreDeleted() {
+    var owner = new Session("guest");
+    var cart = cache.getOrCreate(owner, () -> create(owner));
+    when(store.load(owner)).thenReturn(Optional.of(cart));
+
+    cache.remove(cart);
+
+    assertThat(cache.find(owner)).isEmpty();
+    cache.flush();
+    verify(store).write(List.of(), Set.of(cart.id()));
+  }
+
+  @Test
+  void shouldFlushBeforeMergingAndReloadTheMergedCart() {
+    var guest = new Session("guest");
+    var customer = new Customer(UUID.randomUUID());
+    var guestCart = cache.getOrCreate(guest, () -> create(guest));
+    var userCart = cache.getOrCreate(customer, () -> create(customer));
+    var merged = cache.update(userCart, c -> c.add(variant(), 2, PRICE));
+    when(store.merge(guestCart.id(), userCart.id())).thenReturn(true);
+    when(store.loadById(userCart.id())).thenReturn(Optional.of(merged));
+
+    assertThat(cache.merge(guestCart.id(), userCart.id())).isEqualTo(merged);
+
+    var order = inOrder(store);
+    order.verify(store).write(anyList(), anyCollection());
+    order.verify(store).merge(guestCart.id(), userCart.id());
+    order.verify(store).loadById(userCart.id());
+  }
+
+  @Test
+  void shouldApplyChangesMadeDuringMergeToTheMergedCart() {
+    var guest = new Session("guest");
+    var customer = new Customer(UUID.randomUUID());
+    var guestCart = cache.getOrCreate(guest, () -> create(guest));
+    var userCart = cache.getOrCreate(customer, () -> create(customer));
+    var mergedRow = new CartSnapshot(userCart.id(), customer, List.of(), null, 0, 0, userCart.createdAt(),
+        userCart.updatedAt(), userCart.expiresAt(), 1).add(variant(), 2, PRICE);
+    when(store.merge(guestCart.id(), userCart.id())).thenAnswer(_ -> {
+      // Requests for both carts arrive while the merge statement runs
+      cache.update(userCart, c -> c.add(variant(), 1, PRICE));
+      assertThatExceptionOfType(NotFoundException.class)
+          .isThrownBy(() -> cache.update(guestCart, c -> c.add(variant(), 1, PRICE)));
+      return true;
+    });
+    when(store.loadById(userCart.id())).thenReturn(Optional.of(mergedRow));
+
+    var merged = cache.merge(guestCart.id(), userCart.id());
+
+    assertThat(merged.version()).isEqualTo(mergedRow.version() + 1);
+    assertThat(merged.lines()).hasSize(2);
+    assertThat(merged.totalQuantity()).isEqualTo(3);
+    cache.flush();
+    verify(store).write(List.of(new CartWrite(merged, mergedRow.version())), Set.of());
+  }
+
+  @Test
+  void shouldRejectMergingMissingGuestCart() {
+    var customer = new Customer(UUID.randomUUID());
+    var userCart = cache.getOrCreate(customer, () -> create(customer));
+    var guestCartId = UUID.randomUUID();
+
+    assertThatExceptionOfType(NotFoundException.class).isThrownBy(() -> cache.merge(guestCartId, userCart.id()));
+  }
+
+  @Test
+  void shouldKeepChangesMadeAfterCheckoutWroteTheCart() {
+    var owner = new Customer(UUID.randomUUID());
+    var cart = cache.getOrCreate(owner, () -> create(owner));
+    cart = cache.update(cart, c -> c.add(variant(), 1, PRICE));
+    when(store.writeInTransaction(anyList(), anyCollection())).thenReturn(Set.of());
+    CartSnapshot later;
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      cache.flushInTransaction(cart.id());
+      later = cache.update(cart, c -> c.add(variant(), 2, PRICE));
+      // Left pending until the checkout transaction completes
+      cache.flush();
+      verify(store, never()).write(anyList(), anyCollection());
+
+      TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+          TransactionSynchronization.STATUS_COMMITTED);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    // Checkout cleared the version it wrote
+    cache.evict(cart.id(), cart.version());
+    cache.flush();
+
+    verify(store).writeInTransaction(List.of(new CartWrite(cart, -1)), Set.of());
+    verify(store).write(List.of(new CartWrite(later, cart.version())), Set.of());
+    assertThat(cache.find(owner)).contains(later);
+  }
+
+  @Test
+  void shouldWriteCartsAgainWhenTheCheckoutTransactionRollsBack() {
+    var owner = new Customer(UUID.randomUUID());
+    var cart = cache.getOrCreate(owner, () -> create(owner));
+    when(store.writeInTransaction(anyList(), anyCollection())).thenReturn(Set.of());
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      cache.flushInTransaction(owner);
+
+      TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+          TransactionSynchronization.STATUS_ROLLED_BACK);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    cache.flush();
+
+    verify(store).writeInTransaction(List.of(new CartWrite(cart, -1)), Set.of());
+    verify(store).write(List.of(new CartWrite(cart, -1)), Set.of());
+  }
+
+  private static CartSnapshot create(CartSnapshot.Owner owner) {
+    return CartSnapshot.create(owner);
+  }
+
+  private static ProductVariant variant() {
+    var now = OffsetDateTime.now();
+    return new ProductVariant(UUID.randomUUID().toString(), now, now, UUID.randomUUID().toString(), "SKU-1", "Default",
+        PRICE.toBigDecimal(), "EUR");
+  }
+}
@@ -0,0 +1,117 @@
+package com.simplecommerce.cart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.simplecommerce.DataPostgresTest;
+import com.simplecommerce.product.ProductEntity;
+import com.simplecommerce.product.variant.ProductVariantEntity;
+import com.simplecommerce.shared.types.MinorAmount;
+import com.simplecommerce.shared.types.Money;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import javax.money.Monetary;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Integration tests for Carts repository.
+ *
+ * @author julius.krah
+ */
+@DataPostgresTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class CartsTest {
+
+  @Autowired
+  TestEntityManager em;
+  @Autowired
+  private Carts cartRepository;
+
+  @Test
+  void shouldLoadCartItemsAndVariantsInOneQuery() {
+    var product = em.find(ProductEntity.class, UUID.fromString("632a34d9-13fb-47f7-a324-d0e6ee160858"));
+    var cart = new CartEntity();
+    cart.setSessionId("guest-session");
+    cart.setExpiresAt(OffsetDateTime.now().plusDays(30));
+    for (var i = 0; i < 50; i++) {
+      var variant = new ProductVariantEntity();
+      variant.setProduct(product);
+      variant.setSku("DD-CART-" + i);
+      variant.setTitle("Cart " + i);
+      variant.setPriceAmount(new BigDecimal("9.99"));
+      variant.setPriceCurrency("USD");
+      variant.setSystemGenerated(false);
+      em.persist(variant);
+
+      var item = new CartItemEntity();
+      item.setVariant(variant);
+      item.setQuantity(1);
+      item.setUnitPrice(new Money(Monetary.getCurrency("USD"), new BigDecimal("9.99")));
+      cart.addItem(item);
+    }
+    var cartId = em.persistAndFlush(cart).getId();
+    em.clear();
+    var statistics = em.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    var found = cartRepository.findWithItemsById(cartId);
+
+    assertThat(found).isPresent();
+    assertThat(found.get().getItems()).hasSize(50)
+        .allSatisfy(item -> assertThat(item.getVariant().getSku()).startsWith("DD-CART-"));
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldMaintainTotalsOnMutation() {
+    var product = em.find(ProductEntity.class, UUID.fromString("632a34d9-13fb-47f7-a324-d0e6ee160858"));
+    var cart = new CartEntity();
+    cart.setSessionId("totals-session");
+    var first = item(variant(product, "DD-TOTALS-1"), 2, "10.00");
+    var second = item(variant(product, "DD-TOTALS-2"), 1, "5.50");
+    cart.addItem(first);
+    cart.addItem(second);
+    cart.addItem(item(first.getVariant(), 1, "10.00"));
+    var cartId = em.persistAndFlush(cart).getId();
+
+    cart.setQuantity(second, 4);
+    cart.removeItem(first);
+    em.flush();
+    em.clear();
+
+    var found = cartRepository.findById(cartId).orElseThrow();
+    assertThat(found.getSubtotal()).isEqualTo(MinorAmount.of(new BigDecimal("22.00"), "USD"));
+    assertThat(found.getItemCount()).isEqualTo(1);
+    assertThat(found.getTotalQuantity()).isEqualTo(4);
+    assertThat(found.getVersion()).isEqualTo(1);
+
+    found.clearItems();
+    em.flush();
+    assertThat(found.getSubtotal()).isNull();
+    assertThat(found.getItemCount()).isZero();
+    assertThat(found.getVersion()).isEqualTo(2);
+  }
+
+  private ProductVariantEntity variant(ProductEntity product, String sku) {
+    var variant = new ProductVariantEntity();
+    variant.setProduct(product);
+    variant.setSku(sku);
+    variant.setTitle(sku);
+    variant.setPriceAmount(new BigDecimal("9.99"));
+    variant.setPriceCurrency("USD");
+    variant.setSystemGenerated(false);
+    return em.persist(variant);
+  }
+
+  private static CartItemEntity item(ProductVariantEntity variant, int quantity, String unitPrice) {
+    var item = new CartItemEntity();
+    item.setVariant(variant);
+    item.setQuantity(quantity);
+    item.setUnitPrice(new Money(Monetary.getCurrency("USD"), new BigDecimal(unitPrice)));
+    return item;
+  }
+}
@@ -0,0 +1,69 @@
+package com.simplecommerce.cart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.simplecommerce.DataPostgresTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Batched deletion of expired carts by {@link ExpiredCartSweeper}.
+ *
+ * @author julius.krah
+ */
+@DataPostgresTest
+@ActiveProfiles("test")
+class ExpiredCartSweeperTest {
+
+  @Autowired
+  TestEntityManager em;
+  @Autowired
+  DataSource dataSource;
+
+  private final CartCache cartCache = mock(CartCache.class);
+  private ExpiredCartSweeper sweeper;
+
+  @BeforeEach
+  void setUp() {
+    sweeper = new ExpiredCartSweeper(JdbcClient.create(dataSource), cartCache,
+        new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class),
+        Duration.ofMinutes(5), 10, Duration.ofSeconds(5), Duration.ZERO);
+  }
+
+  @Test
+  void shouldDeleteExpiredCartsInBatches() throws InterruptedException {
+    var now = OffsetDateTime.now();
+    for (var i = 0; i < 25; i++) {
+      cart("expired-" + i, now.minusDays(1));
+    }
+    var active = cart("active", now.plusDays(1));
+    var expired = cart("expired-last", now.minusMinutes(1));
+    em.flush();
+
+    var deleted = sweeper.sweep(now);
+
+    assertThat(deleted).isEqualTo(26);
+    em.clear();
+    assertThat(em.find(CartEntity.class, active.getId())).isNotNull();
+    assertThat(em.find(CartEntity.class, expired.getId())).isNull();
+    verify(cartCache).evict(expired.getId());
+  }
+
+  private CartEntity cart(String sessionId, OffsetDateTime expiresAt) {
+    var cart = new CartEntity();
+    cart.setSessionId(sessionId);
+    cart.setExpiresAt(expiresAt);
+    return em.persist(cart);
+  }
+}
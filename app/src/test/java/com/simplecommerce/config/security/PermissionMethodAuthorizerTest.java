@@ -0,0 +1,126 @@
+package com.simplecommerce.config.security;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.simplecommerce.security.aspects.Check;
+import com.simplecommerce.security.aspects.Permit;
+import com.simplecommerce.shared.GlobalId;
+import com.simplecommerce.shared.authorization.AuthorizationService;
+import com.simplecommerce.shared.types.ProductStatus;
+import java.lang.reflect.Method;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDeniedException;
+import org.springframework.security.authorization.AuthorizationEventPublisher;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Resolution of the {@link Permit} and {@link Check} expressions by {@link PermissionMethodAuthorizer}.
+ *
+ * @author julius.krah
+ */
+class PermissionMethodAuthorizerTest {
+  private static final String PRODUCT_ID = "1c7e429c-45ed-45d7-9d1a-36f561b9d6b9";
+
+  private final AuthorizationService authorizationService = mock(AuthorizationService.class);
+  private final AuthorizationEventPublisher eventPublisher = mock(AuthorizationEventPublisher.class);
+  private PermissionMethodAuthorizer authorizer;
+
+  @BeforeEach
+  void setUp() {
+    var beanFactory = new StaticListableBeanFactory();
+    beanFactory.addBean("authz", authorizationService);
+    authorizer = new PermissionMethodAuthorizer(beanFactory.getBeanProvider(AuthorizationService.class), eventPublisher, beanFactory);
+    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("neo", "password"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void shouldResolveParameterAndAuthenticationName() throws NoSuchMethodException {
+    when(authorizationService.checkPermission("Product", "p1", "edit", "neo")).thenReturn(true);
+
+    assertThatCode(() -> authorizer.preAuthorize(method("edit", String.class), new Object[]{"p1"})).doesNotThrowAnyException();
+  }
+
+  @Test
+  void shouldEvaluateExpressionsEveryCall() throws NoSuchMethodException {
+    when(authorizationService.checkPermission("Product", PRODUCT_ID, "delete", "neo")).thenReturn(true);
+    var method = method("delete", String.class);
+    var id = new GlobalId("Product", PRODUCT_ID).encode();
+
+    for (var i = 0; i < 5; i++) {
+      assertThatCode(() -> authorizer.preAuthorize(method, new Object[]{id})).doesNotThrowAnyException();
+    }
+    var other = new GlobalId("Product", "f1e2d3c4-45ed-45d7-9d1a-36f561b9d6b9").encode();
+    assertThatExceptionOfType(AuthorizationDeniedException.class)
+        .isThrownBy(() -> authorizer.preAuthorize(method, new Object[]{other}));
+  }
+
+  @Test
+  void shouldPublishDenials() throws NoSuchMethodException {
+    var method = method("create");
+
+    assertThatExceptionOfType(AuthorizationDeniedException.class)
+        .isThrownBy(() -> authorizer.preAuthorize(method, new Object[0]));
+    verify(authorizationService).checkPermission("Product", "__CREATE__", "edit", "neo");
+    verify(eventPublisher).publishAuthorizationEvent(any(), eq(method), any(AuthorizationResult.class));
+  }
+
+  @Test
+  void shouldPassReturnObjectProperty() throws NoSuchMethodException {
+    when(authorizationService.checkPermission("Product", "p1", "view", "neo", ProductStatus.PUBLISHED)).thenReturn(true);
+
+    assertThatCode(() -> authorizer.postAuthorize(method("find", String.class), new Object[]{"p1"}, new Fixture.Item(ProductStatus.PUBLISHED)))
+        .doesNotThrowAnyException();
+  }
+
+  @Test
+  void shouldRequireAuthentication() throws NoSuchMethodException {
+    SecurityContextHolder.clearContext();
+    var method = method("edit", String.class);
+
+    assertThatExceptionOfType(AuthenticationCredentialsNotFoundException.class)
+        .isThrownBy(() -> authorizer.preAuthorize(method, new Object[]{"p1"}));
+  }
+
+  private static Method method(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+    return Fixture.class.getDeclaredMethod(name, parameterTypes);
+  }
+
+  static class Fixture {
+    record Item(ProductStatus status) {
+    }
+
+    @Permit(namespace = "Product", relation = "edit")
+    void edit(String id) {
+    }
+
+    @Permit(namespace = "Product", relation = "delete", object = "T(com.simplecommerce.shared.GlobalId).decode(#id).id")
+    void delete(String id) {
+    }
+
+    @Permit(namespace = "Product", relation = "edit", object = "'__CREATE__'")
+    void create() {
+    }
+
+    @Check(namespace = "Product", relation = "view", returnObject = "returnObject.status")
+    Item find(String id) {
+      return new Item(ProductStatus.DRAFT);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.simplecommerce.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Uniqueness of the order numbers handed out by {@link OrderNumberGenerator}, with the database sequence replaced by
+ * an in-memory one shared by several generators, as it is by several instances.
+ *
+ * @author julius.krah
+ */
+class OrderNumberGeneratorTest {
+  private static final long BLOCK_SIZE = 100;
+  private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-17T10:15:30Z"), ZoneOffset.UTC);
+
+  private final AtomicLong sequence = new AtomicLong(1000);
+  private final AtomicLong sequenceReads = new AtomicLong();
+
+  @Test
+  void shouldFormatOrderNumbers() {
+    var generator = generator();
+
+    assertThat(generator.next()).isEqualTo("ORD-20261017-1000");
+    assertThat(generator.next()).isEqualTo("ORD-20261017-1001");
+  }
+
+  @Test
+  void shouldNotCollideUnderConcurrentCheckouts() throws Exception {
+    var checkouts = 10_000;
+    var generators = new OrderNumberGenerator[]{generator(), generator(), generator()};
+    var orderNumbers = ConcurrentHashMap.<String>newKeySet();
+    var start = new CountDownLatch(1);
+    var results = new ArrayList<Future<Boolean>>(checkouts);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (var i = 0; i < checkouts; i++) {
+        var generator = generators[i % generators.length];
+        results.add(executor.submit(() -> {
+          start.await();
+          return orderNumbers.add(generator.next());
+        }));
+      }
+      start.countDown();
+      for (var result : results) {
+        assertThat(result.get()).isTrue();
+      }
+    }
+
+    assertThat(orderNumbers).hasSize(checkouts);
+    // At most one partly used block per generator
+    assertThat(sequenceReads.get()).isLessThanOrEqualTo(checkouts / BLOCK_SIZE + generators.length);
+  }
+
+  private OrderNumberGenerator generator() {
+    return new OrderNumberGenerator(() -> {
+      sequenceReads.incrementAndGet();
+      return sequence.getAndAdd(BLOCK_SIZE);
+    }, () -> BLOCK_SIZE, CLOCK);
+  }
+}
@@ -0,0 +1,67 @@
+package com.simplecommerce.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.simplecommerce.DataPostgresTest;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Order numbers handed out by {@link OrderNumberGenerator} from the migrated {@code order_number_seq}.
+ *
+ * @author julius.krah
+ */
+@DataPostgresTest
+@ActiveProfiles("test")
+class OrderNumberSequenceTest {
+
+  @Autowired
+  DataSource dataSource;
+
+  @Test
+  void shouldReserveBlocksPastExistingOrderNumbers() {
+    var jdbcClient = JdbcClient.create(dataSource);
+    var orders = jdbcClient.sql("SELECT count(*) FROM orders").query(Long.class).single();
+
+    var orderNumber = new OrderNumberGenerator(jdbcClient).next();
+
+    // Numbers handed out before the sequence was used went up to count(*) + 999
+    assertThat(Long.parseLong(orderNumber.substring(orderNumber.lastIndexOf('-') + 1))).isGreaterThan(orders + 999);
+    assertThat(jdbcClient.sql("SELECT increment_by FROM pg_sequences WHERE sequencename = 'order_number_seq'")
+        .query(Long.class).single()).isEqualTo(100);
+  }
+
+  @Test
+  void shouldNotCollideAcrossGeneratorsSharingTheSequence() throws Exception {
+    var jdbcClient = JdbcClient.create(dataSource);
+    var generators = new OrderNumberGenerator[]{new OrderNumberGenerator(jdbcClient), new OrderNumberGenerator(jdbcClient)};
+    var checkouts = 500;
+    var orderNumbers = ConcurrentHashMap.<String>newKeySet();
+    var start = new CountDownLatch(1);
+    var results = new ArrayList<Future<Boolean>>(checkouts);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (var i = 0; i < checkouts; i++) {
+        var generator = generators[i % generators.length];
+        results.add(executor.submit(() -> {
+          start.await();
+          return orderNumbers.add(generator.next());
+        }));
+      }
+      start.countDown();
+      for (var result : results) {
+        assertThat(result.get()).isTrue();
+      }
+    }
+
+    assertThat(orderNumbers).hasSize(checkouts);
+  }
+}
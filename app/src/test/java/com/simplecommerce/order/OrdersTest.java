@@ -0,0 +1,129 @@
+package com.simplecommerce.order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.simplecommerce.DataPostgresTest;
+import com.simplecommerce.actor.ActorEntity;
+import com.simplecommerce.product.variant.ProductVariantEntity;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Integration tests for Orders repository.
+ *
+ * @author julius.krah
+ */
+@DataPostgresTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class OrdersTest {
+  private static final UUID CUSTOMER_ID = UUID.fromString("aab278e5-5495-4706-bc0c-7aa53eecff2f");
+  private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
+  @Autowired
+  TestEntityManager em;
+  @Autowired
+  private Orders orderRepository;
+
+  @Test
+  void shouldScrollOrdersNewestFirst() {
+    var customer = em.find(ActorEntity.class, CUSTOMER_ID);
+    var placedAt = OffsetDateTime.now();
+    var orders = new ArrayList<OrderEntity>();
+    for (var i = 0; i < 7; i++) {
+      orders.add(order(customer, "ORD-TEST-" + i, placedAt.minusMinutes(i)));
+    }
+    em.clear();
+
+    var scrolled = new ArrayList<UUID>();
+    var window = orderRepository.findByCustomerId(CUSTOMER_ID, Limit.of(3), NEWEST_FIRST, ScrollPosition.keyset());
+    window.forEach(order -> scrolled.add(order.getId()));
+    while (window.hasNext()) {
+      window = orderRepository.findByCustomerId(CUSTOMER_ID, Limit.of(3), NEWEST_FIRST,
+          window.positionAt(window.size() - 1));
+      window.forEach(order -> scrolled.add(order.getId()));
+    }
+
+    assertThat(scrolled).containsExactlyElementsOf(orders.stream().map(OrderEntity::getId).toList());
+  }
+
+  @Test
+  void shouldLoadPagesOfOrdersWithItemsInConstantStatements() {
+    var customer = em.find(ActorEntity.class, CUSTOMER_ID);
+    var variant = em.getEntityManager()
+        .createQuery("FROM ProductVariant v WHERE v.sku = 'DD-DEFAULT'", ProductVariantEntity.class)
+        .getSingleResult();
+    var placedAt = OffsetDateTime.now();
+    for (var i = 0; i < 20; i++) {
+      var order = order(customer, "ORD-TEST-" + i, placedAt.minusMinutes(i));
+      for (var j = 0; j < 3; j++) {
+        order.addItem(item(variant));
+      }
+    }
+    em.flush();
+    em.clear();
+    var statistics = em.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+    var position = ScrollPosition.keyset();
+    for (var page = 0; page < 4; page++) {
+      statistics.clear();
+      var window = orderRepository.findByCustomerId(CUSTOMER_ID, Limit.of(5), NEWEST_FIRST, position);
+      orderRepository.findWithItemsByOrderIn(window.getContent());
+      for (var order : window) {
+        assertThat(order.getCustomer().getUsername()).isEqualTo("naomi");
+        assertThat(order.getItems()).hasSize(3)
+            .allSatisfy(item -> assertThat(item.getVariant().getId()).isEqualTo(variant.getId()));
+      }
+
+      // One statement for the orders with their customer, one for their items
+      assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+      position = window.positionAt(window.size() - 1);
+    }
+  }
+
+  private OrderItemEntity item(ProductVariantEntity variant) {
+    var item = new OrderItemEntity();
+    item.setVariant(variant);
+    item.setProductTitle("Data Dynamo");
+    item.setVariantTitle(variant.getTitle());
+    item.setSku(variant.getSku());
+    item.setQuantity(1);
+    item.setUnitPriceAmount(BigDecimal.TEN);
+    item.setUnitPriceCurrency("USD");
+    item.setTotalPriceAmount(BigDecimal.TEN);
+    item.setTotalPriceCurrency("USD");
+    item.setTaxCurrency("USD");
+    item.setDiscountCurrency("USD");
+    return item;
+  }
+
+  private OrderEntity order(ActorEntity customer, String orderNumber, OffsetDateTime createdAt) {
+    var order = new OrderEntity();
+    order.setOrderNumber(orderNumber);
+    order.setCustomer(customer);
+    order.setCustomerEmail("naomi@example.com");
+    order.setSubtotalAmount(BigDecimal.TEN);
+    order.setSubtotalCurrency("USD");
+    order.setTaxCurrency("USD");
+    order.setShippingCurrency("USD");
+    order.setDiscountCurrency("USD");
+    order.setTotalAmount(BigDecimal.TEN);
+    order.setTotalCurrency("USD");
+    em.persistAndFlush(order);
+    // created_at is not updatable through the entity
+    em.getEntityManager().createNativeQuery("UPDATE orders SET created_at = ?1 WHERE id = ?2")
+        .setParameter(1, createdAt)
+        .setParameter(2, order.getId())
+        .executeUpdate();
+    return order;
+  }
+}
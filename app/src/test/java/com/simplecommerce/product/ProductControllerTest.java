@@ -3,9 +3,12 @@ package com.simplecommerce.product;
 import static org.assertj.core.api.Assertions.as;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.simplecommerce.config.Sorting;
@@ -15,11 +18,15 @@ import com.simplecommerce.product.category.CategoryService;
 import com.simplecommerce.product.pricing.PriceResolutionService;
 import com.simplecommerce.shared.ExceptionHandling;
 import com.simplecommerce.shared.exceptions.NotFoundException;
+import com.simplecommerce.shared.types.Money;
 import com.simplecommerce.shared.types.Product;
 import com.simplecommerce.shared.types.ProductStatus;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import javax.money.Monetary;
 import org.assertj.core.api.InstanceOfAssertFactories;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -52,7 +59,7 @@ class ProductControllerTest {
   @MockitoBean
   private PriceResolutionService priceResolutionService;
   @MockitoBean
-  private com.simplecommerce.shared.authorization.KetoAuthorizationService ketoAuthorizationService;
+  private com.simplecommerce.shared.authorization.AuthorizationService authorizationService;
   @MockitoBean
   private com.simplecommerce.product.ProductStateMachineService productStateMachineService;
 
@@ -162,6 +169,30 @@ class ProductControllerTest {
             .extracting(Product::title).contains("Cyberdyne Rover"));
   }
 
+  @Test
+  @DisplayName("Should fetch price ranges of a product page in one batch")
+  void shouldBatchPriceRanges() {
+    var cheap = UUID.randomUUID().toString();
+    var pricey = UUID.randomUUID().toString();
+    var entities = List.of(
+        new Product(cheap, "Cyberdyne Rover", "cyberdyne-rover", null, null, null, null, null, ProductStatus.DRAFT),
+        new Product(pricey, "Cyberdyne Lander", "cyberdyne-lander", null, null, null, null, null, ProductStatus.DRAFT));
+    var usd = Monetary.getCurrency("USD");
+    when(productService.findProducts(anyInt(), any(Sort.class), any(ScrollPosition.class), any()))
+        .thenReturn(Window.from(entities, ignored -> ScrollPosition.keyset()));
+    when(priceResolutionService.calculatePriceRanges(anyCollection(), any(Locale.class))).thenReturn(Map.of(
+        cheap, new PriceRange(new Money(usd, new BigDecimal("9.99")), new Money(usd, new BigDecimal("19.99"))),
+        pricey, new PriceRange(new Money(usd, new BigDecimal("99.99")), new Money(usd, new BigDecimal("199.99")))));
+
+    graphQlTester.documentName("productsWithPrice")
+        .variable("first", 10)
+        .execute()
+        .path("products.edges[*].node.priceRange.start.amount").entityList(BigDecimal.class)
+        .containsExactly(new BigDecimal("9.99"), new BigDecimal("99.99"));
+
+    verify(priceResolutionService, times(1)).calculatePriceRanges(anyCollection(), any(Locale.class));
+  }
+
   @Test
   @DisplayName("Should add a product")
   void shouldAddProduct() {
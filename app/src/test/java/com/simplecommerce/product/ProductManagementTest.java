@@ -1,25 +1,34 @@
 package com.simplecommerce.product;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.atMostOnce;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.simplecommerce.product.search.SearchPlan;
+import com.simplecommerce.product.search.SearchQuery;
+import com.simplecommerce.product.search.SearchQueryCompiler;
+import com.simplecommerce.product.search.SearchTerm;
 import com.simplecommerce.product.variant.ProductVariants;
 import com.simplecommerce.shared.Event;
-import com.simplecommerce.shared.authorization.KetoAuthorizationService;
+import com.simplecommerce.shared.authorization.AuthorizationService;
 import com.simplecommerce.shared.types.Product;
 import com.simplecommerce.shared.types.ProductStatus;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -30,6 +39,13 @@ import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDeniedException;
+import org.springframework.security.authorization.AuthorizationEventPublisher;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 /**
  * @author julius.krah
@@ -41,12 +57,21 @@ class ProductManagementTest {
   @Mock
   private ProductVariants variantRepository;
   @Mock
-  private KetoAuthorizationService ketoAuthorizationService;
+  private AuthorizationService authorizationService;
   @Mock
   private Event<ProductEvent> event;
+  @Mock
+  private SearchQueryCompiler searchQueryCompiler;
+  @Mock
+  private AuthorizationEventPublisher eventPublisher;
   @InjectMocks
   ProductManagement productService;
 
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
   @Test
   void shouldResolveNode() {
     var entity = new ProductEntity();
@@ -88,6 +113,24 @@ class ProductManagementTest {
         .isEqualTo(Window.from(List.of(expected), ignored -> null));
   }
 
+  @Test
+  void shouldSearchProductsWithKeysetCursor() {
+    var entity = new ProductEntity();
+    entity.setId(UUID.randomUUID());
+    entity.setTitle("Opti Core");
+    var searchQuery = new SearchQuery(List.of(new SearchTerm("status", SearchTerm.Operator.EQUALS, "published")), SearchQuery.Operator.AND);
+    var next = ScrollPosition.forward(Map.of("title", "Opti Core", "id", entity.getId()));
+    when(searchQueryCompiler.compile("status:published"))
+        .thenReturn(new SearchPlan(searchQuery, Specification.unrestricted(), false));
+    when(productRepository.findBy(any(), any()))
+        .thenReturn(Window.from(List.of(entity), ignored -> next, true));
+    var products = productService.findProducts(1, Sort.by("title"), ScrollPosition.keyset(), "status:published");
+
+    assertThat(products).hasSize(1);
+    assertThat(products.hasNext()).isTrue();
+    assertThat(products.positionAt(0)).isEqualTo(next);
+  }
+
   @Test
   void shouldFindProductsByCategoryId() {
     var entity = new ProductEntity();
@@ -204,4 +247,26 @@ class ProductManagementTest {
     assertThat(idCaptor.getValue()).isEqualTo(UUID.fromString(id));
     verify(event, atMostOnce()).fire(any(ProductEvent.class));
   }
-}
\ No newline at end of file
+
+  @Test
+  void shouldNotPublishProductWithoutAuthentication() {
+    // gid://SimpleCommerce/Product/7004ebbc-e71c-45f3-8d23-1ba2c37f2f1c
+    var product = productService.publishProduct("Z2lkOi8vU2ltcGxlQ29tbWVyY2UvUHJvZHVjdC83MDA0ZWJiYy1lNzFjLTQ1ZjMtOGQyMy0xYmEyYzM3ZjJmMWM=");
+
+    assertThatExceptionOfType(AuthenticationCredentialsNotFoundException.class).isThrownBy(product::block);
+    verifyNoInteractions(authorizationService, productRepository);
+  }
+
+  @Test
+  void shouldPublishDeniedProductEdits() {
+    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("neo", "password"));
+    when(authorizationService.checkPermissionAsync("Product", "7004ebbc-e71c-45f3-8d23-1ba2c37f2f1c", "edit", "neo"))
+        .thenReturn(CompletableFuture.completedFuture(false));
+    // gid://SimpleCommerce/Product/7004ebbc-e71c-45f3-8d23-1ba2c37f2f1c
+    var product = productService.publishProduct("Z2lkOi8vU2ltcGxlQ29tbWVyY2UvUHJvZHVjdC83MDA0ZWJiYy1lNzFjLTQ1ZjMtOGQyMy0xYmEyYzM3ZjJmMWM=");
+
+    assertThatExceptionOfType(AuthorizationDeniedException.class).isThrownBy(product::block);
+    verify(eventPublisher).publishAuthorizationEvent(any(), any(), any(AuthorizationResult.class));
+    verifyNoInteractions(productRepository);
+  }
+}
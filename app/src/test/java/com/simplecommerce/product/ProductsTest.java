@@ -6,6 +6,12 @@ import static org.assertj.core.api.Assertions.atIndex;
 import static org.assertj.core.api.Assertions.tuple;
 
 import com.simplecommerce.DataPostgresTest;
+import com.simplecommerce.product.search.SearchQuery;
+import com.simplecommerce.product.search.SearchQueryParser;
+import com.simplecommerce.product.search.SearchQueryTranslator;
+import com.simplecommerce.product.search.SearchTerm;
+import com.simplecommerce.product.variant.ProductVariantEntity;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -17,6 +23,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.event.ApplicationEvents;
 import org.springframework.test.context.event.RecordApplicationEvents;
@@ -148,6 +155,75 @@ class ProductsTest {
             "Opti Core");
   }
 
+  @Test
+  void shouldSearchProductsByKeyword() {
+    var searchQuery = new SearchQuery(List.of(new SearchTerm("text", SearchTerm.Operator.CONTAINS, "vaults")), SearchQuery.Operator.AND);
+    var specification = new SearchQueryTranslator().translateToSpecification(searchQuery);
+    var window = productRepository.findBy(specification, query -> query.limit(10).scroll(ScrollPosition.offset()));
+    assertThat(window).hasSize(2).extractingResultOf("getTitle")
+        .containsExactlyInAnyOrder("Virtual Vault", "Super Vault");
+  }
+
+  @Test
+  void shouldSearchProductsByTitle() {
+    var searchQuery = new SearchQuery(List.of(new SearchTerm("title", SearchTerm.Operator.EQUALS, "super vault")), SearchQuery.Operator.AND);
+    var specification = new SearchQueryTranslator().translateToSpecification(searchQuery);
+    var window = productRepository.findBy(specification, query -> query.limit(10).scroll(ScrollPosition.offset()));
+    assertThat(window).hasSize(1).extractingResultOf("getTitle").containsExactly("Super Vault");
+  }
+
+  @Test
+  void shouldSearchProductsByExpression() {
+    var searchQuery = new SearchQueryParser().parse("vault NOT title:super");
+    var specification = new SearchQueryTranslator().translateToSpecification(searchQuery);
+    var window = productRepository.findBy(specification, query -> query.limit(10).scroll(ScrollPosition.offset()));
+    assertThat(window).hasSize(1).extractingResultOf("getTitle").containsExactly("Virtual Vault");
+  }
+
+  @Test
+  void shouldFilterProductsByPriceRange() {
+    var window = search("price:100..150 currency:USD");
+    assertThat(window).extractingResultOf("getTitle")
+        .containsExactlyInAnyOrder("Data Dynamo", "Pixel Pro", "Sync Fusion");
+  }
+
+  @Test
+  void shouldFilterProductsByPriceInAnyCurrency() {
+    var window = search("price:>170");
+    assertThat(window).extractingResultOf("getTitle")
+        .containsExactlyInAnyOrder("Pixel Pro", "Pixel Forge");
+  }
+
+  @Test
+  void shouldSortProductsByPrice() {
+    var window = search("currency:USD sort:price-desc");
+    assertThat(window).extractingResultOf("getTitle")
+        .containsExactly("Pixel Pro", "Sync Fusion", "Data Dynamo", "Virtual Vault");
+  }
+
+  @Test
+  void shouldMaintainPriceIndexWhenVariantsChange() {
+    var variant = new ProductVariantEntity();
+    variant.setProduct(em.find(ProductEntity.class, UUID.fromString("8a293c02-33f9-4bdb-96b9-3e7d4f753666")));
+    variant.setSku("VV-LITE");
+    variant.setTitle("Lite");
+    variant.setPriceAmount(new BigDecimal("9.99"));
+    variant.setPriceCurrency("USD");
+    em.persistAndFlush(variant);
+
+    assertThat(search("price:<10")).extractingResultOf("getTitle").containsExactly("Virtual Vault");
+
+    variant.setPriceAmount(new BigDecimal("19.99"));
+    em.flush();
+    assertThat(search("price:<10")).isEmpty();
+  }
+
+  private Window<ProductEntity> search(String query) {
+    var searchQuery = new SearchQueryParser().parse(query);
+    var specification = new SearchQueryTranslator().translateToSpecification(searchQuery);
+    return productRepository.findBy(specification, q -> q.limit(10).scroll(ScrollPosition.offset()));
+  }
+
   @Test
   void shouldDeleteProduct() {
     var product = new ProductEntity();
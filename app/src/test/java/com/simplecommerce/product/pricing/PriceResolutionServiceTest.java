@@ -0,0 +1,91 @@
+package com.simplecommerce.product.pricing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.simplecommerce.DataPostgresTest;
+import com.simplecommerce.product.variant.ProductVariantEntity;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import javax.money.Monetary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * @author julius.krah
+ */
+@DataPostgresTest
+@ActiveProfiles("test")
+@Import({PriceResolutionService.class, VariantPricingCache.class})
+class PriceResolutionServiceTest {
+  private static final UUID DATA_DYNAMO_DEFAULT = UUID.fromString("a1b2c3d4-1111-2222-3333-444455556666");
+
+  @Autowired
+  TestEntityManager em;
+  @Autowired
+  private PriceResolutionService priceResolutionService;
+  @Autowired
+  private VariantPricingCache pricingCache;
+
+  private PriceRuleEntity bulkRule;
+
+  @BeforeEach
+  void setUp() {
+    pricingCache.clear();
+    var variant = em.find(ProductVariantEntity.class, DATA_DYNAMO_DEFAULT);
+    var priceSet = new PriceSetEntity();
+    priceSet.setName("Volume pricing");
+    priceSet.addRule(rule(null, null, "99.99"));
+    bulkRule = rule(10, null, "89.99");
+    priceSet.addRule(bulkRule);
+    variant.addPriceSet(priceSet);
+    em.persistAndFlush(priceSet);
+  }
+
+  @Test
+  void shouldApplyQuantityTiersPerLine() {
+    var single = new VariantQuantity(DATA_DYNAMO_DEFAULT, 1);
+    var bulk = new VariantQuantity(DATA_DYNAMO_DEFAULT, 25);
+    var unknown = new VariantQuantity(UUID.randomUUID(), 1);
+
+    var prices = priceResolutionService.resolvePrices(List.of(single, bulk, unknown), context());
+
+    assertThat(prices).containsOnlyKeys(single, bulk);
+    assertThat(prices.get(single).amount()).isEqualByComparingTo("99.99");
+    assertThat(prices.get(bulk).amount()).isEqualByComparingTo("89.99");
+  }
+
+  @Test
+  void shouldRecompilePricingWhenRulesChange() {
+    var bulk = new VariantQuantity(DATA_DYNAMO_DEFAULT, 25);
+    assertThat(priceResolutionService.resolvePrices(List.of(bulk), context()).get(bulk).amount())
+        .isEqualByComparingTo("89.99");
+    var misses = pricingCache.missCount();
+
+    bulkRule.setPriceAmount(new BigDecimal("79.99"));
+    em.flush();
+
+    assertThat(priceResolutionService.resolvePrices(List.of(bulk), context()).get(bulk).amount())
+        .isEqualByComparingTo("79.99");
+    assertThat(pricingCache.missCount()).isEqualTo(misses + 1);
+  }
+
+  private static PriceRuleEntity rule(Integer minQuantity, Integer maxQuantity, String amount) {
+    var rule = new PriceRuleEntity();
+    rule.setContextType(PriceContextType.DEFAULT);
+    rule.setPriceAmount(new BigDecimal(amount));
+    rule.setPriceCurrency("USD");
+    rule.setMinQuantity(minQuantity);
+    rule.setMaxQuantity(maxQuantity);
+    return rule;
+  }
+
+  private static PriceContext context() {
+    return new PriceContext(Locale.US, null, null, Monetary.getCurrency("USD"), 1);
+  }
+}
@@ -0,0 +1,69 @@
+package com.simplecommerce.product.pricing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.simplecommerce.product.variant.ProductVariants;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+/**
+ * Expiry and eviction of {@link VariantPricingCache} entries.
+ *
+ * @author julius.krah
+ */
+class VariantPricingCacheTest {
+  private static final UUID VARIANT_ID = UUID.randomUUID();
+
+  private final ProductVariants variantRepository = mock(ProductVariants.class);
+
+  @Test
+  void shouldServeCachedPricing() {
+    var cache = cache(Duration.ofMinutes(5));
+    when(variantRepository.findById(VARIANT_ID)).thenReturn(Optional.empty());
+
+    assertThat(cache.get(VARIANT_ID)).isSameAs(VariantPricing.NONE);
+    assertThat(cache.get(VARIANT_ID)).isSameAs(VariantPricing.NONE);
+
+    verify(variantRepository, times(1)).findById(VARIANT_ID);
+  }
+
+  @Test
+  void shouldReloadExpiredPricing() {
+    var cache = cache(Duration.ZERO);
+    when(variantRepository.findById(VARIANT_ID)).thenReturn(Optional.empty());
+
+    cache.get(VARIANT_ID);
+    cache.get(VARIANT_ID);
+
+    verify(variantRepository, times(3)).findById(VARIANT_ID);
+  }
+
+  @Test
+  void shouldNotKeepPricingEvictedWhileLoading() {
+    var cache = cache(Duration.ofMinutes(5));
+    when(variantRepository.findById(VARIANT_ID)).thenAnswer(_ -> {
+      // A change to the variant is committed while its pricing is read
+      cache.evict(VARIANT_ID);
+      return Optional.empty();
+    }).thenReturn(Optional.empty());
+
+    cache.get(VARIANT_ID);
+    cache.get(VARIANT_ID);
+    cache.get(VARIANT_ID);
+
+    verify(variantRepository, times(2)).findById(VARIANT_ID);
+  }
+
+  private VariantPricingCache cache(Duration timeToLive) {
+    return new VariantPricingCache(variantRepository, 100, timeToLive,
+        new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+  }
+}
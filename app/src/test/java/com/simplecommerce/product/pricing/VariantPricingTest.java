@@ -0,0 +1,129 @@
+package com.simplecommerce.product.pricing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.simplecommerce.product.variant.ProductVariantEntity;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
+import javax.money.Monetary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author julius.krah
+ */
+class VariantPricingTest {
+  private static final long NOW = Instant.parse("2025-06-15T12:00:00Z").toEpochMilli();
+
+  private ProductVariantEntity variant;
+  private PriceSetEntity standard;
+
+  @BeforeEach
+  void setUp() {
+    variant = new ProductVariantEntity();
+    standard = priceSet(0);
+    standard.addRule(rule(PriceContextType.DEFAULT, null, "100.00"));
+  }
+
+  @Test
+  void shouldResolveNothingWithoutActivePriceSets() {
+    standard.setActive(false);
+
+    assertThat(VariantPricing.compile(variant)).isSameAs(VariantPricing.NONE);
+    assertThat(VariantPricing.NONE.resolve(context(null, null, 1), NOW)).isNull();
+  }
+
+  @Test
+  void shouldPreferHigherPrioritySets() {
+    var sale = priceSet(10);
+    sale.addRule(rule(PriceContextType.DEFAULT, null, "80.00"));
+
+    var pricing = VariantPricing.compile(variant);
+
+    assertThat(pricing.resolve(context(null, null, 1), NOW).amount()).isEqualByComparingTo("80.00");
+    sale.setActive(false);
+    assertThat(VariantPricing.compile(variant).resolve(context(null, null, 1), NOW).amount()).isEqualByComparingTo("100.00");
+  }
+
+  @Test
+  void shouldPreferMoreSpecificContexts() {
+    standard.addRule(rule(PriceContextType.CURRENCY, "usd", "95.00"));
+    standard.addRule(rule(PriceContextType.GEOGRAPHIC, "US", "90.00"));
+    standard.addRule(rule(PriceContextType.CUSTOMER_GROUP, "VIP", "85.00"));
+
+    var pricing = VariantPricing.compile(variant);
+
+    assertThat(pricing.resolve(context("VIP", "US", 1), NOW).amount()).isEqualByComparingTo("85.00");
+    assertThat(pricing.resolve(context("B2C", "US", 1), NOW).amount()).isEqualByComparingTo("90.00");
+    assertThat(pricing.resolve(context(null, "EU", 1), NOW).amount()).isEqualByComparingTo("95.00");
+    assertThat(pricing.resolve(new PriceContext(Locale.US, null, null, Monetary.getCurrency("EUR"), 1), NOW).amount())
+        .isEqualByComparingTo("100.00");
+  }
+
+  @Test
+  void shouldSelectQuantityTiers() {
+    var tier = rule(PriceContextType.DEFAULT, null, "90.00");
+    tier.setMinQuantity(10);
+    tier.setMaxQuantity(49);
+    standard.addRule(tier);
+    var bulk = rule(PriceContextType.DEFAULT, null, "75.00");
+    bulk.setMinQuantity(50);
+    standard.addRule(bulk);
+
+    var pricing = VariantPricing.compile(variant);
+
+    assertThat(pricing.resolve(context(null, null, 1), NOW).amount()).isEqualByComparingTo("100.00");
+    assertThat(pricing.resolve(context(null, null, 10), NOW).amount()).isEqualByComparingTo("90.00");
+    assertThat(pricing.resolve(context(null, null, 49), NOW).amount()).isEqualByComparingTo("90.00");
+    assertThat(pricing.resolve(context(null, null, 500), NOW).amount()).isEqualByComparingTo("75.00");
+  }
+
+  @Test
+  void shouldHonourValidityWindows() {
+    var promotion = rule(PriceContextType.DEFAULT, null, "60.00");
+    promotion.setMinQuantity(1);
+    promotion.setValidFrom(OffsetDateTime.of(2025, 6, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+    promotion.setValidUntil(OffsetDateTime.of(2025, 6, 30, 0, 0, 0, 0, ZoneOffset.UTC));
+    standard.addRule(promotion);
+
+    var pricing = VariantPricing.compile(variant);
+
+    assertThat(pricing.resolve(context(null, null, 1), NOW).amount()).isEqualByComparingTo("60.00");
+    assertThat(pricing.resolve(context(null, null, 1), Instant.parse("2025-07-01T00:00:00Z").toEpochMilli()).amount())
+        .isEqualByComparingTo("100.00");
+  }
+
+  @Test
+  void shouldIgnoreInactiveRules() {
+    var inactive = rule(PriceContextType.CUSTOMER_GROUP, "VIP", "50.00");
+    inactive.setActive(false);
+    standard.addRule(inactive);
+
+    assertThat(VariantPricing.compile(variant).resolve(context("VIP", null, 1), NOW).amount())
+        .isEqualByComparingTo("100.00");
+  }
+
+  private PriceSetEntity priceSet(int priority) {
+    var priceSet = new PriceSetEntity();
+    priceSet.setName("priority-" + priority);
+    priceSet.setPriority(priority);
+    variant.addPriceSet(priceSet);
+    return priceSet;
+  }
+
+  private static PriceRuleEntity rule(PriceContextType contextType, String contextValue, String amount) {
+    var rule = new PriceRuleEntity();
+    rule.setContextType(contextType);
+    rule.setContextValue(contextValue);
+    rule.setPriceAmount(new BigDecimal(amount));
+    rule.setPriceCurrency("USD");
+    return rule;
+  }
+
+  private static PriceContext context(String customerGroup, String region, int quantity) {
+    return new PriceContext(Locale.US, customerGroup, region, Monetary.getCurrency("USD"), quantity);
+  }
+}
@@ -0,0 +1,64 @@
+package com.simplecommerce.product.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.simplecommerce.shared.exceptions.InvalidInputException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+/**
+ * @author julius.krah
+ */
+class SearchQueryCompilerTest {
+  private SimpleMeterRegistry registry;
+  private SearchQueryCompiler compiler;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    var beanFactory = new StaticListableBeanFactory();
+    beanFactory.addBean("meterRegistry", registry);
+    compiler = new SearchQueryCompiler(new SearchQueryParser(), new SearchQueryTranslator(), 2,
+        beanFactory.getBeanProvider(MeterRegistry.class));
+  }
+
+  @Test
+  void shouldReuseCompiledPlansForNormalizedQueries() {
+    var plan = compiler.compile("status:published  vault");
+
+    assertThat(compiler.compile(" status:published vault ")).isSameAs(plan);
+    assertThat(plan.ordered()).isTrue();
+    assertThat(compiler.missCount()).isOne();
+    assertThat(compiler.hitCount()).isOne();
+    assertThat(registry.get("cache.gets").tags("cache", "search-plans", "result", "hit").functionCounter().count()).isOne();
+    assertThat(registry.get("cache.gets").tags("cache", "search-plans", "result", "miss").functionCounter().count()).isOne();
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedPlans() {
+    var first = compiler.compile("status:published");
+    compiler.compile("status:draft");
+    compiler.compile("status:archived");
+
+    assertThat(compiler.compile("status:published")).isNotSameAs(first);
+    assertThat(compiler.missCount()).isEqualTo(4L);
+    assertThat(registry.get("cache.size").tag("cache", "search-plans").gauge().value()).isEqualTo(2d);
+  }
+
+  @Test
+  void shouldNotCacheInvalidQueries() {
+    assertThatExceptionOfType(InvalidInputException.class).isThrownBy(() -> compiler.compile("(vault"));
+    assertThatExceptionOfType(InvalidInputException.class).isThrownBy(() -> compiler.compile("(vault"));
+    assertThat(compiler.missCount()).isEqualTo(2L);
+    assertThat(compiler.hitCount()).isZero();
+  }
+
+  @Test
+  void shouldNotRankNegatedKeywords() {
+    assertThat(compiler.compile("NOT vault").ordered()).isFalse();
+  }
+}
@@ -0,0 +1,81 @@
+package com.simplecommerce.product.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.simplecommerce.product.search.SearchExpression.And;
+import com.simplecommerce.product.search.SearchExpression.Not;
+import com.simplecommerce.product.search.SearchExpression.Or;
+import com.simplecommerce.product.search.SearchExpression.Term;
+import com.simplecommerce.product.search.SearchTerm.Operator;
+import com.simplecommerce.shared.exceptions.InvalidInputException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author julius.krah
+ */
+class SearchQueryParserTest {
+  private final SearchQueryParser parser = new SearchQueryParser();
+
+  @Test
+  void shouldBindAndTighterThanOr() {
+    var query = parser.parse("status:draft OR status:published AND category:electronics");
+
+    assertThat(query.operator()).isEqualTo(SearchQuery.Operator.OR);
+    assertThat(query.expression()).isEqualTo(new Or(List.of(
+        term("status", Operator.EQUALS, "draft"),
+        new And(List.of(
+            term("status", Operator.EQUALS, "published"),
+            term("category", Operator.EQUALS, "electronics"))))));
+  }
+
+  @Test
+  void shouldCombineAdjacentTermsWithAnd() {
+    var query = parser.parse("status:published   price:100..200 created:>=2024-01-01");
+
+    assertThat(query.expression()).isEqualTo(new And(List.of(
+        term("status", Operator.EQUALS, "published"),
+        term("price", Operator.RANGE, "100..200"),
+        term("created", Operator.GREATER_THAN_OR_EQUAL, "2024-01-01"))));
+    assertThat(query.terms()).hasSize(3);
+  }
+
+  @Test
+  void shouldParseGroupsAndNegation() {
+    var query = parser.parse("(status:published OR status:draft) NOT category:toys");
+
+    assertThat(query.expression()).isEqualTo(new And(List.of(
+        new Or(List.of(term("status", Operator.EQUALS, "published"), term("status", Operator.EQUALS, "draft"))),
+        new Not(term("category", Operator.EQUALS, "toys")))));
+    assertThat(query.expression().positiveTerms()).extracting(SearchTerm::field).containsOnly("status");
+  }
+
+  @Test
+  void shouldParseKeywordsAndQuotedValues() {
+    var query = parser.parse("headphones \"noise cancelling\" title:\"wireless headphones\"");
+
+    assertThat(query.terms()).containsExactly(
+        new SearchTerm("text", Operator.CONTAINS, "headphones"),
+        new SearchTerm("text", Operator.CONTAINS, "noise cancelling"),
+        new SearchTerm("title", Operator.EQUALS, "wireless headphones"));
+  }
+
+  @Test
+  void shouldParseEmptyQuery() {
+    assertThat(parser.parse("  ").isEmpty()).isTrue();
+  }
+
+  @Test
+  void shouldRejectInvalidQuery() {
+    assertThatExceptionOfType(InvalidInputException.class)
+        .isThrownBy(() -> parser.parse("(status:published OR"))
+        .withMessageStartingWith("Invalid search query");
+    assertThat(parser.validate("status:published)").valid()).isFalse();
+    assertThat(parser.validate("status:published").valid()).isTrue();
+  }
+
+  private static Term term(String field, Operator operator, String value) {
+    return new Term(new SearchTerm(field, operator, value));
+  }
+}
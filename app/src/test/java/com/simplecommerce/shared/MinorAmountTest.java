@@ -0,0 +1,146 @@
+package com.simplecommerce.shared;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.simplecommerce.shared.types.MinorAmount;
+import com.simplecommerce.shared.types.Money;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.constraints.BigRange;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Scale;
+import net.jqwik.api.constraints.Size;
+
+/**
+ * Properties of {@link MinorAmount}, checked against the {@link BigDecimal} arithmetic it replaces.
+ *
+ * @author julius.krah
+ */
+class MinorAmountTest {
+
+  @Property
+  void shouldRoundHalfUpToMinorUnits(@ForAll @BigRange(min = "-1000000000", max = "1000000000") @Scale(4) BigDecimal amount,
+      @ForAll("currencies") CurrencyUnit currency) {
+    assertThat(MinorAmount.of(amount, currency).toBigDecimal())
+        .isEqualTo(amount.setScale(currency.getDefaultFractionDigits(), RoundingMode.HALF_UP));
+  }
+
+  @Property
+  void shouldAddAndSubtractLikeBigDecimal(@ForAll("amounts") BigDecimal a, @ForAll("amounts") BigDecimal b) {
+    var usd = Monetary.getCurrency("USD");
+    assertThat(MinorAmount.of(a, usd).plus(MinorAmount.of(b, usd)).toBigDecimal()).isEqualByComparingTo(a.add(b));
+    assertThat(MinorAmount.of(a, usd).minus(MinorAmount.of(b, usd)).toBigDecimal()).isEqualByComparingTo(a.subtract(b));
+  }
+
+  @Property
+  void shouldCalculateSubtotalLikeBigDecimal(@ForAll @Size(max = 50) List<@IntRange(min = 1, max = 10_000) Integer> quantities,
+      @ForAll("amounts") BigDecimal unitPrice) {
+    var usd = Monetary.getCurrency("USD");
+    var expected = BigDecimal.ZERO;
+    var subtotal = MinorAmount.zero(usd);
+    for (var quantity : quantities) {
+      expected = expected.add(unitPrice.multiply(BigDecimal.valueOf(quantity)));
+      subtotal = subtotal.plus(MinorAmount.of(unitPrice, usd).times(quantity));
+    }
+    assertThat(subtotal.toBigDecimal()).isEqualByComparingTo(expected);
+  }
+
+  @Property
+  void shouldRoundOnlyTheTotalOfStorageScaleUnitPrices(@ForAll("unitPrices") BigDecimal unitPrice,
+      @ForAll @IntRange(min = 1, max = 10_000) int quantity, @ForAll("currencies") CurrencyUnit currency) {
+    // Unit prices are NUMERIC(19,4); rounding them to the minor unit first loses up to half a minor unit per item
+    var expected = unitPrice.multiply(BigDecimal.valueOf(quantity))
+        .setScale(currency.getDefaultFractionDigits(), RoundingMode.HALF_UP);
+    assertThat(MinorAmount.total(new Money(currency, unitPrice), quantity).toBigDecimal()).isEqualTo(expected);
+  }
+
+  @Property
+  void shouldCalculateSubtotalOfStorageScaleUnitPricesLikeBigDecimal(
+      @ForAll @Size(max = 50) List<@IntRange(min = 1, max = 10_000) Integer> quantities,
+      @ForAll("unitPrices") BigDecimal unitPrice) {
+    // Each line total is rounded to cents, then the line totals are summed exactly
+    var usd = Monetary.getCurrency("USD");
+    var expected = BigDecimal.ZERO;
+    var subtotal = MinorAmount.zero(usd);
+    for (var quantity : quantities) {
+      expected = expected.add(unitPrice.multiply(BigDecimal.valueOf(quantity)).setScale(2, RoundingMode.HALF_UP));
+      subtotal = subtotal.plus(MinorAmount.total(new Money(usd, unitPrice), quantity));
+    }
+    assertThat(subtotal.toBigDecimal()).isEqualByComparingTo(expected);
+  }
+
+  @Example
+  void shouldNotRoundUnitPriceBeforeMultiplying() {
+    var unitPrice = new Money(Monetary.getCurrency("USD"), new BigDecimal("0.0125"));
+    assertThat(MinorAmount.total(unitPrice, 1000).toBigDecimal()).isEqualTo(new BigDecimal("12.50"));
+  }
+
+  @Property
+  void shouldCalculatePercentagesLikeBigDecimal(@ForAll("amounts") BigDecimal amount,
+      @ForAll @BigRange(min = "0", max = "100") @Scale(3) BigDecimal percent) {
+    // Tax and percentage discounts: amount * rate / 100, rounded half up to cents
+    var expected = amount.multiply(percent).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+    assertThat(MinorAmount.of(amount, "USD").percent(percent).toBigDecimal()).isEqualTo(expected);
+  }
+
+  @Property
+  void shouldCalculatePercentagesInAnyCurrency(@ForAll @BigRange(min = "-1000000", max = "1000000") @Scale(3) BigDecimal amount,
+      @ForAll @BigRange(min = "0", max = "100") @Scale(4) BigDecimal percent, @ForAll("currencies") CurrencyUnit currency) {
+    var minor = MinorAmount.of(amount, currency);
+    var expected = minor.toBigDecimal().multiply(percent)
+        .divide(BigDecimal.valueOf(100), currency.getDefaultFractionDigits(), RoundingMode.HALF_UP);
+    assertThat(minor.percent(percent).toBigDecimal()).isEqualTo(expected);
+  }
+
+  @Property
+  void shouldCapFixedDiscountsLikeBigDecimal(@ForAll("amounts") BigDecimal orderAmount, @ForAll("amounts") BigDecimal discount) {
+    var usd = Monetary.getCurrency("USD");
+    assertThat(MinorAmount.of(discount, usd).min(MinorAmount.of(orderAmount, usd)).toBigDecimal())
+        .isEqualByComparingTo(discount.min(orderAmount));
+  }
+
+  @Example
+  void shouldRejectMixedCurrencies() {
+    var usd = MinorAmount.of(BigDecimal.ONE, "USD");
+    var eur = MinorAmount.of(BigDecimal.ONE, "EUR");
+    assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> usd.plus(eur));
+  }
+
+  @Example
+  void shouldFailOnOverflow() {
+    var amount = new MinorAmount(Long.MAX_VALUE, Monetary.getCurrency("USD"));
+    assertThatExceptionOfType(ArithmeticException.class).isThrownBy(() -> amount.times(2));
+  }
+
+  @Example
+  void shouldConvertToMoney() {
+    var money = MinorAmount.of(new BigDecimal("19.99"), "USD").toMoney();
+    assertThat(money.currency()).isEqualTo(Monetary.getCurrency("USD"));
+    assertThat(money.amount()).isEqualTo(new BigDecimal("19.99"));
+  }
+
+  @Provide
+  Arbitrary<BigDecimal> amounts() {
+    return Arbitraries.bigDecimals().between(new BigDecimal("-1000000"), new BigDecimal("1000000")).ofScale(2);
+  }
+
+  @Provide
+  Arbitrary<BigDecimal> unitPrices() {
+    return Arbitraries.bigDecimals().between(BigDecimal.ZERO, new BigDecimal("100000")).ofScale(4);
+  }
+
+  @Provide
+  Arbitrary<CurrencyUnit> currencies() {
+    return Arbitraries.of("USD", "EUR", "JPY", "BHD", "GHS").map(Monetary::getCurrency);
+  }
+}
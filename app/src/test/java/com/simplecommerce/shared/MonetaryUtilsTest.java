@@ -0,0 +1,43 @@
+package com.simplecommerce.shared;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.simplecommerce.shared.utils.MonetaryUtils;
+import java.math.BigDecimal;
+import java.util.Locale;
+import javax.money.Monetary;
+import javax.money.UnknownCurrencyException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author julius.krah
+ */
+class MonetaryUtilsTest {
+
+  @Test
+  void shouldResolveCurrencyByCode() {
+    assertThat(MonetaryUtils.getCurrency("EUR", Locale.US)).isEqualTo(Monetary.getCurrency("EUR"));
+    assertThat(MonetaryUtils.getCurrency("GHS")).isEqualTo(Monetary.getCurrency("GHS"));
+  }
+
+  @Test
+  void shouldResolveCurrencyByLocale() {
+    assertThat(MonetaryUtils.getCurrency(Locale.US)).isEqualTo(Monetary.getCurrency("USD"));
+    assertThat(MonetaryUtils.getCurrency(Locale.GERMANY)).isEqualTo(Monetary.getCurrency("EUR"));
+  }
+
+  @Test
+  void shouldRejectUnknownCurrency() {
+    assertThatExceptionOfType(UnknownCurrencyException.class).isThrownBy(() -> MonetaryUtils.getCurrency("XYZ"));
+  }
+
+  @Test
+  void shouldCreateAmounts() {
+    var amount = MonetaryUtils.getMonetaryAmount(new BigDecimal("19.99"), "USD", Locale.US);
+    assertThat(amount).isEqualTo(Monetary.getDefaultAmountFactory()
+        .setCurrency("USD").setNumber(new BigDecimal("19.99")).create());
+    assertThat(MonetaryUtils.getMonetaryAmount(BigDecimal.TEN, Monetary.getCurrency("EUR")).getCurrency().getCurrencyCode())
+        .isEqualTo("EUR");
+  }
+}
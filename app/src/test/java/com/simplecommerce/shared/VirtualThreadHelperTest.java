@@ -0,0 +1,151 @@
+package com.simplecommerce.shared;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.simplecommerce.shared.exceptions.CommerceException;
+import com.simplecommerce.shared.utils.Bulkhead;
+import com.simplecommerce.shared.utils.VirtualThreadHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * @author julius.krah
+ */
+class VirtualThreadHelperTest {
+  private static final Duration SIMULATED_LATENCY = Duration.ofMillis(20);
+  private static final int CALLS_PER_CALLER = 10;
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void shouldRunCallsConcurrently() {
+    var callers = 32;
+    var allInFlight = new CountDownLatch(callers);
+    var inFlight = new AtomicInteger();
+    var maxInFlight = new AtomicInteger();
+
+    runCallers(callers, () -> VirtualThreadHelper.callInScope("load-test", () -> {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      allInFlight.countDown();
+      // A process-wide lock would admit one call at a time, which then waits here in vain
+      var concurrent = allInFlight.await(5, TimeUnit.SECONDS);
+      inFlight.decrementAndGet();
+      return concurrent;
+    }));
+
+    assertThat(maxInFlight).hasValue(callers);
+  }
+
+  @Test
+  void shouldCapConcurrencyPerSubsystem() {
+    var registry = new SimpleMeterRegistry();
+    VirtualThreadHelper.registerBulkhead(new Bulkhead("capped", 4, Duration.ofSeconds(30), registry));
+    var inFlight = new AtomicInteger();
+    var maxInFlight = new AtomicInteger();
+
+    runCallers(16, () -> VirtualThreadHelper.callInScope("capped", () -> {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      Thread.sleep(SIMULATED_LATENCY);
+      return inFlight.decrementAndGet();
+    }));
+
+    assertThat(maxInFlight).hasValueBetween(1, 4);
+    var queueWait = registry.get("bulkhead.queue.wait").tag("name", "capped").timer();
+    assertThat(queueWait.count()).isEqualTo(16L * CALLS_PER_CALLER);
+    assertThat(queueWait.max(TimeUnit.MILLISECONDS)).isPositive();
+  }
+
+  @Test
+  void shouldRejectWhenBulkheadWaitExpires() throws InterruptedException {
+    VirtualThreadHelper.registerBulkhead(new Bulkhead("saturated", 1, Duration.ofMillis(10)));
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      executor.submit(() -> VirtualThreadHelper.callInScope("saturated", () -> {
+        started.countDown();
+        release.await();
+        return true;
+      }));
+      started.await();
+      assertThatExceptionOfType(CommerceException.class)
+          .isThrownBy(() -> VirtualThreadHelper.callInScope("saturated", () -> true))
+          .withStackTraceContaining("Bulkhead 'saturated' is full");
+      release.countDown();
+    }
+  }
+
+  @Test
+  void shouldForkAndJoinInOrder() {
+    List<Callable<Integer>> calls = List.of(
+        () -> sleepAndReturn(30, 1),
+        () -> sleepAndReturn(10, 2),
+        () -> sleepAndReturn(20, 3));
+    var results = VirtualThreadHelper.callAllInScope(Bulkhead.DATABASE, calls);
+    assertThat(results).containsExactly(1, 2, 3);
+  }
+
+  @Test
+  void shouldPropagateSecurityContext() {
+    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("julius", "secret"));
+    var name = VirtualThreadHelper.callInScope(() -> SecurityContextHolder.getContext().getAuthentication().getName());
+    assertThat(name).isEqualTo("julius");
+  }
+
+  @Test
+  void shouldJoinCallerTransaction() {
+    var resourceKey = new Object();
+    var synchronization = new TransactionSynchronization() { };
+    TransactionSynchronizationManager.bindResource(resourceKey, "connection");
+    TransactionSynchronizationManager.initSynchronization();
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    try {
+      var resource = VirtualThreadHelper.callInScope(() -> {
+        TransactionSynchronizationManager.registerSynchronization(synchronization);
+        return TransactionSynchronizationManager.getResource(resourceKey);
+      });
+      assertThat(resource).isEqualTo("connection");
+      assertThat(TransactionSynchronizationManager.getSynchronizations()).containsExactly(synchronization);
+    } finally {
+      TransactionSynchronizationManager.clear();
+      TransactionSynchronizationManager.unbindResource(resourceKey);
+    }
+  }
+
+  private static void runCallers(int concurrency, Runnable call) {
+    var callers = new ArrayList<Future<?>>(concurrency);
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < concurrency; i++) {
+        callers.add(executor.submit(() -> {
+          for (int j = 0; j < CALLS_PER_CALLER; j++) {
+            call.run();
+          }
+        }));
+      }
+    }
+    // A caller that failed would otherwise only show up as a miscount
+    callers.forEach(caller -> assertThat(caller).succeedsWithin(Duration.ZERO));
+  }
+
+  private static int sleepAndReturn(long millis, int value) throws InterruptedException {
+    Thread.sleep(millis);
+    return value;
+  }
+}
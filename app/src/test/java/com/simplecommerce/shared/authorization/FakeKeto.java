@@ -0,0 +1,129 @@
+package com.simplecommerce.shared.authorization;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import sh.ory.keto.read.v1alpha2.CheckRequest;
+import sh.ory.keto.read.v1alpha2.CheckResponse;
+import sh.ory.keto.read.v1alpha2.CheckServiceGrpc;
+import sh.ory.keto.relation_tuples.v1alpha2.RelationTuple;
+import sh.ory.keto.relation_tuples.v1alpha2.Subject;
+import sh.ory.keto.write.v1alpha2.DeleteRelationTuplesRequest;
+import sh.ory.keto.write.v1alpha2.DeleteRelationTuplesResponse;
+import sh.ory.keto.write.v1alpha2.RelationTupleDelta.Action;
+import sh.ory.keto.write.v1alpha2.TransactRelationTuplesRequest;
+import sh.ory.keto.write.v1alpha2.TransactRelationTuplesResponse;
+import sh.ory.keto.write.v1alpha2.WriteServiceGrpc;
+
+/**
+ * In-process stand-in for Keto's check and write services. Keeps relation tuples in memory, resolves direct tuples
+ * and one level of subject sets, and records the requests it receives.
+ *
+ * @author julius.krah
+ */
+final class FakeKeto {
+  final Set<RelationTuple> tuples = ConcurrentHashMap.newKeySet();
+  final AtomicInteger checks = new AtomicInteger();
+  final List<CheckRequest> requests = new CopyOnWriteArrayList<>();
+  final List<TransactRelationTuplesRequest> transactions = new CopyOnWriteArrayList<>();
+  final AtomicInteger failingWrites = new AtomicInteger();
+  // Objects whose deltas fail a whole transaction with INVALID_ARGUMENT
+  final Set<String> rejectedObjects = ConcurrentHashMap.newKeySet();
+  final AtomicInteger inFlight = new AtomicInteger();
+  final AtomicInteger maxInFlight = new AtomicInteger();
+  volatile String snaptoken;
+  volatile Duration latency = Duration.ZERO;
+  volatile boolean unavailable;
+
+  static RelationTuple.Builder tuple(String namespace, String object, String relation, Subject.Builder subject) {
+    return RelationTuple.newBuilder().setNamespace(namespace).setObject(object).setRelation(relation).setSubject(subject);
+  }
+
+  static Subject.Builder id(String subject) {
+    return Subject.newBuilder().setId(subject);
+  }
+
+  void insert(String namespace, String object, String relation, String subject) {
+    tuples.add(tuple(namespace, object, relation, id(subject)).build());
+  }
+
+  boolean allowed(RelationTuple check) {
+    return tuples.stream()
+        .filter(tuple -> tuple.getNamespace().equals(check.getNamespace())
+            && tuple.getObject().equals(check.getObject())
+            && tuple.getRelation().equals(check.getRelation()))
+        .anyMatch(tuple -> tuple.getSubject().hasId()
+            ? tuple.getSubject().getId().equals(check.getSubject().getId())
+            : tuples.contains(tuple(tuple.getSubject().getSet().getNamespace(), tuple.getSubject().getSet().getObject(),
+                tuple.getSubject().getSet().getRelation(), check.getSubject().toBuilder()).build()));
+  }
+
+  CheckServiceGrpc.CheckServiceImplBase checkService() {
+    return new CheckServiceGrpc.CheckServiceImplBase() {
+      @Override
+      public void check(CheckRequest request, StreamObserver<CheckResponse> responseObserver) {
+        checks.incrementAndGet();
+        requests.add(request);
+        if (unavailable) {
+          responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+          return;
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+          Thread.sleep(latency);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          inFlight.decrementAndGet();
+        }
+        responseObserver.onNext(CheckResponse.newBuilder().setAllowed(allowed(request.getTuple())).build());
+        responseObserver.onCompleted();
+      }
+    };
+  }
+
+  WriteServiceGrpc.WriteServiceImplBase writeService() {
+    return new WriteServiceGrpc.WriteServiceImplBase() {
+      @Override
+      public void transactRelationTuples(TransactRelationTuplesRequest request,
+          StreamObserver<TransactRelationTuplesResponse> responseObserver) {
+        if (failingWrites.getAndUpdate(remaining -> Math.max(remaining - 1, 0)) > 0) {
+          responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+          return;
+        }
+        if (request.getRelationTupleDeltasList().stream().anyMatch(delta -> rejectedObjects.contains(delta.getRelationTuple().getObject()))) {
+          responseObserver.onError(Status.INVALID_ARGUMENT.asRuntimeException());
+          return;
+        }
+        transactions.add(request);
+        var response = TransactRelationTuplesResponse.newBuilder();
+        for (var delta : request.getRelationTupleDeltasList()) {
+          if (delta.getAction() == Action.ACTION_INSERT) {
+            tuples.add(delta.getRelationTuple());
+          } else {
+            tuples.remove(delta.getRelationTuple());
+          }
+          if (snaptoken != null) {
+            response.addSnaptokens(snaptoken);
+          }
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+      }
+
+      @Override
+      public void deleteRelationTuples(DeleteRelationTuplesRequest request,
+          StreamObserver<DeleteRelationTuplesResponse> responseObserver) {
+        var query = request.getRelationQuery();
+        tuples.removeIf(tuple -> tuple.getNamespace().equals(query.getNamespace()) && tuple.getObject().equals(query.getObject()));
+        responseObserver.onNext(DeleteRelationTuplesResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+      }
+    };
+  }
+}
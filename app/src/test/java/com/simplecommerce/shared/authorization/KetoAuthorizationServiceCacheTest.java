@@ -0,0 +1,300 @@
+package com.simplecommerce.shared.authorization;
+
+import static com.simplecommerce.shared.authorization.FakeKeto.id;
+import static com.simplecommerce.shared.authorization.FakeKeto.tuple;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import com.simplecommerce.shared.authorization.KetoAuthorizationService.Consistency;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import sh.ory.keto.opl.v1alpha1.SyntaxServiceGrpc;
+import sh.ory.keto.read.v1alpha2.CheckServiceGrpc;
+import sh.ory.keto.read.v1alpha2.NamespacesServiceGrpc;
+import sh.ory.keto.relation_tuples.v1alpha2.RelationQuery;
+import sh.ory.keto.relation_tuples.v1alpha2.RelationTuple;
+import sh.ory.keto.relation_tuples.v1alpha2.Subject;
+import sh.ory.keto.relation_tuples.v1alpha2.SubjectSet;
+import sh.ory.keto.write.v1alpha2.DeleteRelationTuplesRequest;
+import sh.ory.keto.write.v1alpha2.RelationTupleDelta;
+import sh.ory.keto.write.v1alpha2.RelationTupleDelta.Action;
+import sh.ory.keto.write.v1alpha2.TransactRelationTuplesRequest;
+import sh.ory.keto.write.v1alpha2.WriteServiceGrpc;
+
+/**
+ * Caching, per-request memoization and batching of permission checks by {@link KetoAuthorizationService}, checked
+ * against an in-process {@link FakeKeto}.
+ *
+ * @author julius.krah
+ */
+class KetoAuthorizationServiceCacheTest {
+  private static final String PRODUCT = "Product";
+  private static final String GROUP = "Group";
+  private static final String MATRIX = "eff5dfb9-3caf-40ff-9ed9-55045e2022be";
+
+  private final FakeKeto keto = new FakeKeto();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private Server server;
+  private ManagedChannel channel;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    var name = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(name).directExecutor()
+        .addService(keto.checkService())
+        .addService(keto.writeService())
+        .build().start();
+    channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  void shouldServeRepeatedChecksFromCache() {
+    var authz = authorizationService(Duration.ofMinutes(1), Consistency.TTL);
+    keto.insert(PRODUCT, MATRIX, "view", "neo");
+
+    for (var i = 0; i < 5; i++) {
+      assertThat(authz.checkPermission(PRODUCT, MATRIX, "view", "neo")).isTrue();
+      assertThat(authz.checkPermission(PRODUCT, MATRIX, "edit", "neo")).isFalse();
+    }
+
+    assertThat(keto.checks).hasValue(2);
+    assertThat(meterRegistry.get("cache.gets").tags("cache", "keto-permissions", "result", "hit").functionCounter().count())
+        .isEqualTo(8);
+    assertThat(meterRegistry.get("cache.gets").tags("cache", "keto-permissions", "result", "miss").functionCounter().count())
+        .isEqualTo(2);
+    assertThat(meterRegistry.get("cache.size").tags("cache", "keto-permissions").gauge().value()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldInvalidateOnlyTheWrittenSubject() {
+    var authz = authorizationService(Duration.ofMinutes(1), Consistency.TTL);
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "edit", "neo")).isFalse();
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "edit", "trinity")).isFalse();
+
+    authz.transactRelationship(transaction(Action.ACTION_INSERT, tuple(PRODUCT, MATRIX, "edit", id("neo"))));
+
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "edit", "neo")).isTrue();
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "edit", "trinity")).isFalse();
+    // neo was reloaded, trinity was served from the cache
+    assertThat(keto.checks).hasValue(3);
+
+    authz.transactRelationship(transaction(Action.ACTION_DELETE, tuple(PRODUCT, MATRIX, "edit", id("neo"))));
+
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "edit", "neo")).isFalse();
+  }
+
+  @Test
+  void shouldInvalidateEverySubjectOnSubjectSetWrites() {
+    var authz = authorizationService(Duration.ofMinutes(1), Consistency.TTL);
+    keto.insert(GROUP, "admins", "members", "morpheus");
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "edit", "morpheus")).isFalse();
+
+    var admins = Subject.newBuilder().setSet(SubjectSet.newBuilder().setNamespace(GROUP).setObject("admins").setRelation("members"));
+    authz.transactRelationship(transaction(Action.ACTION_INSERT, tuple(PRODUCT, MATRIX, "edit", admins)));
+
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "edit", "morpheus")).isTrue();
+  }
+
+  @Test
+  void shouldInvalidateEverySubjectOnPurge() {
+    var authz = authorizationService(Duration.ofMinutes(1), Consistency.TTL);
+    keto.insert(PRODUCT, MATRIX, "view", "neo");
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "view", "neo")).isTrue();
+
+    authz.deleteRelationship(DeleteRelationTuplesRequest.newBuilder()
+        .setRelationQuery(RelationQuery.newBuilder().setNamespace(PRODUCT).setObject(MATRIX)).build());
+
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "view", "neo")).isFalse();
+  }
+
+  @Test
+  void shouldExpireDecisions() throws InterruptedException {
+    var authz = authorizationService(Duration.ofMillis(50), Consistency.TTL);
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "view", "neo")).isFalse();
+
+    // Written directly to Keto, bypassing invalidation
+    keto.insert(PRODUCT, MATRIX, "view", "neo");
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "view", "neo")).isFalse();
+    Thread.sleep(100);
+
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "view", "neo")).isTrue();
+  }
+
+  @Test
+  void shouldCheckEveryTimeWhenCachingIsDisabled() {
+    var authz = authorizationService(Duration.ZERO, Consistency.TTL);
+    for (var i = 0; i < 3; i++) {
+      authz.checkPermission(PRODUCT, MATRIX, "view", "neo");
+    }
+    assertThat(keto.checks).hasValue(3);
+  }
+
+  @Test
+  void shouldPinChecksAfterWritesInSnaptokenMode() {
+    var authz = authorizationService(Duration.ofMinutes(1), Consistency.SNAPTOKEN);
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "view", "trinity")).isFalse();
+    assertThat(keto.requests.getLast().getLatest()).isFalse();
+
+    keto.snaptoken = "snap-1";
+    authz.transactRelationship(transaction(Action.ACTION_INSERT, tuple(PRODUCT, MATRIX, "view", id("neo"))));
+
+    // A write for neo invalidates trinity's decision as well
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "view", "trinity")).isFalse();
+    assertThat(keto.requests.getLast().getSnaptoken()).isEqualTo("snap-1");
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "view", "neo")).isTrue();
+
+    // Keto does not return snaptokens for deletes, so later checks use the latest snapshot
+    authz.deleteRelationship(DeleteRelationTuplesRequest.newBuilder()
+        .setRelationQuery(RelationQuery.newBuilder().setNamespace(PRODUCT).setObject(MATRIX)).build());
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "view", "neo")).isFalse();
+    assertThat(keto.requests.getLast().getLatest()).isTrue();
+    assertThat(keto.checks).hasValue(4);
+  }
+
+  @Test
+  void shouldCheckDistinctObjectsOnceInBatch() {
+    var authz = authorizationService(Duration.ofMinutes(1), Consistency.TTL);
+    keto.insert(PRODUCT, "a", "view", "neo");
+    keto.insert(PRODUCT, "c", "view", "neo");
+
+    var permissions = authz.checkPermissions(PRODUCT, List.of("a", "b", "a", "c", "b"), "view", "neo");
+
+    assertThat(permissions).containsExactly(entry("a", true), entry("b", false), entry("c", true));
+    assertThat(keto.checks).hasValue(3);
+    // Decisions from the batch are cached for single checks
+    assertThat(authz.checkPermission(PRODUCT, "c", "view", "neo")).isTrue();
+    assertThat(keto.checks).hasValue(3);
+  }
+
+  @Test
+  void shouldCapConcurrentChecksInBatch() {
+    var authz = authorizationService(Duration.ZERO, Consistency.TTL);
+    keto.latency = Duration.ofMillis(20);
+    var objects = IntStream.range(0, 40).mapToObj(Integer::toString).toList();
+
+    var permissions = authz.checkPermissions(PRODUCT, objects, "view", "neo");
+
+    assertThat(permissions).hasSize(40).doesNotContainValue(true);
+    assertThat(keto.checks).hasValue(40);
+    assertThat(keto.maxInFlight.get()).isGreaterThan(1).isLessThanOrEqualTo(4);
+  }
+
+  @Test
+  void shouldCacheAsynchronousChecks() {
+    var authz = authorizationService(Duration.ofMinutes(1), Consistency.TTL);
+    keto.insert(PRODUCT, MATRIX, "edit", "neo");
+
+    assertThat(authz.checkPermissionAsync(PRODUCT, MATRIX, "edit", "neo")).succeedsWithin(Duration.ofSeconds(1)).isEqualTo(true);
+    assertThat(authz.checkPermissionAsync(PRODUCT, MATRIX, "edit", "neo")).isCompletedWithValue(true);
+    assertThat(authz.checkPermission(PRODUCT, MATRIX, "edit", "neo")).isTrue();
+    assertThat(keto.checks).hasValue(1);
+
+    authz.transactRelationship(transaction(Action.ACTION_DELETE, tuple(PRODUCT, MATRIX, "edit", id("neo"))));
+
+    assertThat(authz.checkPermissionAsync(PRODUCT, MATRIX, "edit", "neo")).succeedsWithin(Duration.ofSeconds(1)).isEqualTo(false);
+    assertThat(keto.checks).hasValue(2);
+  }
+
+  @Test
+  void shouldNotCacheFailedAsynchronousChecks() {
+    var authz = authorizationService(Duration.ofMinutes(1), Consistency.TTL);
+    keto.unavailable = true;
+
+    assertThat(authz.checkPermissionAsync(PRODUCT, MATRIX, "view", "neo")).failsWithin(Duration.ofSeconds(1));
+
+    keto.unavailable = false;
+    keto.insert(PRODUCT, MATRIX, "view", "neo");
+    assertThat(authz.checkPermissionAsync(PRODUCT, MATRIX, "view", "neo")).succeedsWithin(Duration.ofSeconds(1)).isEqualTo(true);
+  }
+
+  @Test
+  void shouldCheckEachTupleOncePerRequest() {
+    var authz = authorizationService(Duration.ZERO, Consistency.TTL);
+    keto.insert(PRODUCT, MATRIX, "view", "neo");
+    var memo = new AuthorizationMemo();
+    AuthorizationMemo.setCurrent(memo);
+    try {
+      for (var i = 0; i < 3; i++) {
+        assertThat(authz.checkPermission(PRODUCT, MATRIX, "view", "neo")).isTrue();
+      }
+      assertThat(authz.checkPermissionAsync(PRODUCT, MATRIX, "view", "neo")).isCompletedWithValue(true);
+      assertThat(authz.checkPermissions(PRODUCT, List.of(MATRIX, "b"), "view", "neo"))
+          .containsExactly(entry(MATRIX, true), entry("b", false));
+    } finally {
+      AuthorizationMemo.setCurrent(null);
+    }
+
+    assertThat(keto.checks).hasValue(2);
+    assertThat(memo.savedChecks()).isEqualTo(4);
+    // Outside the request every check goes to Keto again
+    authz.checkPermission(PRODUCT, MATRIX, "view", "neo");
+    assertThat(keto.checks).hasValue(3);
+  }
+
+  @Test
+  void shouldForgetRequestDecisionsOnWrites() {
+    var authz = authorizationService(Duration.ZERO, Consistency.TTL);
+    AuthorizationMemo.setCurrent(new AuthorizationMemo());
+    try {
+      assertThat(authz.checkPermission(PRODUCT, MATRIX, "edit", "neo")).isFalse();
+      authz.transactRelationship(transaction(Action.ACTION_INSERT, tuple(PRODUCT, MATRIX, "edit", id("neo"))));
+      assertThat(authz.checkPermission(PRODUCT, MATRIX, "edit", "neo")).isTrue();
+    } finally {
+      AuthorizationMemo.setCurrent(null);
+    }
+  }
+
+  @Test
+  void shouldNotRememberFailedChecksInRequest() {
+    var authz = authorizationService(Duration.ZERO, Consistency.TTL);
+    var memo = new AuthorizationMemo();
+    AuthorizationMemo.setCurrent(memo);
+    try {
+      keto.unavailable = true;
+      assertThat(authz.checkPermissionAsync(PRODUCT, MATRIX, "view", "neo")).failsWithin(Duration.ofSeconds(1));
+      keto.unavailable = false;
+      keto.insert(PRODUCT, MATRIX, "view", "neo");
+      assertThat(authz.checkPermissionAsync(PRODUCT, MATRIX, "view", "neo")).succeedsWithin(Duration.ofSeconds(1)).isEqualTo(true);
+    } finally {
+      AuthorizationMemo.setCurrent(null);
+    }
+    assertThat(memo.savedChecks()).isZero();
+  }
+
+  private KetoAuthorizationService authorizationService(Duration timeToLive, Consistency consistency) {
+    var beanFactory = new StaticListableBeanFactory();
+    beanFactory.addBean("meterRegistry", meterRegistry);
+    ObjectProvider<MeterRegistry> meterRegistryProvider = beanFactory.getBeanProvider(MeterRegistry.class);
+    return new KetoAuthorizationService(
+        NamespacesServiceGrpc.newBlockingStub(channel),
+        SyntaxServiceGrpc.newBlockingStub(channel),
+        CheckServiceGrpc.newBlockingStub(channel),
+        WriteServiceGrpc.newBlockingStub(channel),
+        timeToLive, 100, consistency, 4, meterRegistryProvider);
+  }
+
+  private static TransactRelationTuplesRequest transaction(Action action, RelationTuple.Builder tuple) {
+    return TransactRelationTuplesRequest.newBuilder()
+        .addRelationTupleDeltas(RelationTupleDelta.newBuilder().setAction(action).setRelationTuple(tuple))
+        .build();
+  }
+}
@@ -0,0 +1,181 @@
+package com.simplecommerce.shared.authorization;
+
+import static com.simplecommerce.shared.authorization.FakeKeto.id;
+import static com.simplecommerce.shared.authorization.FakeKeto.tuple;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.simplecommerce.shared.authorization.KetoAuthorizationService.Consistency;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import sh.ory.keto.opl.v1alpha1.SyntaxServiceGrpc;
+import sh.ory.keto.read.v1alpha2.CheckServiceGrpc;
+import sh.ory.keto.read.v1alpha2.NamespacesServiceGrpc;
+import sh.ory.keto.write.v1alpha2.RelationTupleDelta;
+import sh.ory.keto.write.v1alpha2.RelationTupleDelta.Action;
+import sh.ory.keto.write.v1alpha2.WriteServiceGrpc;
+
+/**
+ * Coalescing, ordering and retries of {@link RelationTupleBatcher}, checked against an in-process {@link FakeKeto}.
+ *
+ * @author julius.krah
+ */
+class RelationTupleBatcherTest {
+  private static final String PRODUCT = "Product";
+
+  private final FakeKeto keto = new FakeKeto();
+  private Server server;
+  private ManagedChannel channel;
+  private KetoAuthorizationService ketoService;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    var name = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(name).directExecutor()
+        .addService(keto.checkService())
+        .addService(keto.writeService())
+        .build().start();
+    channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    ketoService = new KetoAuthorizationService(
+        NamespacesServiceGrpc.newBlockingStub(channel),
+        SyntaxServiceGrpc.newBlockingStub(channel),
+        CheckServiceGrpc.newBlockingStub(channel),
+        WriteServiceGrpc.newBlockingStub(channel),
+        Duration.ZERO, 100, Consistency.TTL, 4, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+  }
+
+  @AfterEach
+  void tearDown() {
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  void shouldWriteDeltasFromSeveralCallsInOneTransaction() {
+    var batcher = batcher(100);
+    batcher.add(List.of(insert("p1", "neo")));
+    batcher.add(List.of(insert("p1", "Merchandiser"), insert("p2", "neo")));
+    assertThat(keto.transactions).isEmpty();
+
+    batcher.flush();
+
+    assertThat(keto.transactions).singleElement()
+        .satisfies(transaction -> assertThat(transaction.getRelationTupleDeltasCount()).isEqualTo(3));
+    assertThat(ketoService.checkPermission(PRODUCT, "p2", "owners", "neo")).isTrue();
+  }
+
+  @Test
+  void shouldWriteFullBatchesImmediately() {
+    var batcher = batcher(2);
+    batcher.add(List.of(insert("p1", "neo"), insert("p2", "neo"), insert("p3", "neo")));
+
+    assertThat(keto.transactions).singleElement()
+        .satisfies(transaction -> assertThat(transaction.getRelationTupleDeltasCount()).isEqualTo(2));
+    batcher.flush();
+    assertThat(keto.transactions).hasSize(2);
+  }
+
+  @Test
+  void shouldKeepChangesToTheSameTupleInOrder() {
+    var batcher = batcher(100);
+    batcher.add(List.of(insert("p1", "neo")));
+    batcher.add(List.of(delta(Action.ACTION_DELETE, "p1", "neo")));
+    batcher.add(List.of(insert("p1", "neo")));
+    batcher.flush();
+
+    assertThat(keto.transactions).hasSize(3);
+    assertThat(ketoService.checkPermission(PRODUCT, "p1", "owners", "neo")).isTrue();
+  }
+
+  @Test
+  void shouldRetryFailedWrites() {
+    var batcher = batcher(100);
+    keto.failingWrites.set(2);
+    batcher.add(List.of(insert("p1", "neo")));
+
+    batcher.flush();
+
+    assertThat(keto.failingWrites).hasValue(0);
+    assertThat(keto.transactions).hasSize(1);
+    assertThat(ketoService.checkPermission(PRODUCT, "p1", "owners", "neo")).isTrue();
+  }
+
+  @Test
+  void shouldCompleteAddOnceItsBatchIsWritten() {
+    var batcher = batcher(100);
+    var written = batcher.add(List.of(insert("p1", "neo")));
+    assertThat(written).isNotDone();
+
+    batcher.flush();
+
+    assertThat(written).isCompleted();
+  }
+
+  @Test
+  void shouldFailAddWhenItsBatchCannotBeWritten() {
+    var batcher = batcher(100);
+    keto.failingWrites.set(3);
+    var written = batcher.add(List.of(insert("p1", "neo")));
+
+    batcher.flush();
+
+    assertThat(written).isCompletedExceptionally();
+    assertThat(keto.transactions).isEmpty();
+  }
+
+  @Test
+  void shouldFailOnlyTheAddWhoseDeltasAreRejected() {
+    var batcher = batcher(100);
+    keto.rejectedObjects.add("bad");
+    var rejected = batcher.add(List.of(insert("bad", "neo")));
+    var written = batcher.add(List.of(insert("p1", "neo")));
+
+    batcher.flush();
+
+    assertThat(rejected).isCompletedExceptionally();
+    assertThat(written).isCompleted();
+    assertThat(keto.transactions).singleElement()
+        .satisfies(transaction -> assertThat(transaction.getRelationTupleDeltasCount()).isEqualTo(1));
+    assertThat(ketoService.checkPermission(PRODUCT, "p1", "owners", "neo")).isTrue();
+  }
+
+  @Test
+  void shouldFlushPeriodicallyAndOnStop() throws InterruptedException {
+    var batcher = new RelationTupleBatcher(ketoService, Duration.ofMillis(20), 100, 3, Duration.ofMillis(1));
+    batcher.start();
+    batcher.add(List.of(insert("p1", "neo")));
+    Thread.sleep(200);
+    assertThat(keto.transactions).hasSize(1);
+
+    batcher.add(List.of(insert("p2", "neo")));
+    batcher.stop();
+
+    assertThat(batcher.isRunning()).isFalse();
+    assertThat(keto.transactions).hasSize(2);
+  }
+
+  private RelationTupleBatcher batcher(int maxBatchSize) {
+    // Never flushes on its own: the tests flush explicitly
+    return new RelationTupleBatcher(ketoService, Duration.ofHours(1), maxBatchSize, 3, Duration.ofMillis(1));
+  }
+
+  private static RelationTupleDelta insert(String productId, String subject) {
+    return delta(Action.ACTION_INSERT, productId, subject);
+  }
+
+  private static RelationTupleDelta delta(Action action, String productId, String subject) {
+    return RelationTupleDelta.newBuilder()
+        .setAction(action)
+        .setRelationTuple(tuple(PRODUCT, productId, "owners", id(subject)))
+        .build();
+  }
+}
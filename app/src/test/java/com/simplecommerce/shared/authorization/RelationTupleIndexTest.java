@@ -0,0 +1,100 @@
+package com.simplecommerce.shared.authorization;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.simplecommerce.shared.authorization.RelationTupleIndex.SubjectId;
+import com.simplecommerce.shared.authorization.RelationTupleIndex.SubjectRef;
+import com.simplecommerce.shared.authorization.RelationTupleIndex.SubjectSet;
+import com.simplecommerce.shared.authorization.RelationTupleIndex.Tuple;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Evaluation of the permission model of {@code keto/permissions.keto.ts} by {@link RelationTupleIndex}.
+ *
+ * @author julius.krah
+ */
+class RelationTupleIndexTest {
+  private final RelationTupleIndex index = new RelationTupleIndex(AuthorizationService.DEFAULT_MAX_CHECK_DEPTH);
+
+  @Test
+  void shouldGrantProductPermitsImpliedByOwnership() {
+    index.add(new Tuple("Product", "p1", "owners", new SubjectId("neo")));
+
+    assertThat(index.check("Product", "p1", "delete", "neo")).isTrue();
+    assertThat(index.check("Product", "p1", "edit", "neo")).isTrue();
+    assertThat(index.check("Product", "p1", "view", "neo")).isTrue();
+    assertThat(index.check("Product", "p1", "view", "trinity")).isFalse();
+    assertThat(index.check("Product", "p2", "view", "neo")).isFalse();
+  }
+
+  @Test
+  void shouldNotGrantStrongerPermitsToViewers() {
+    index.add(new Tuple("Product", "p1", "viewers", new SubjectId("neo")));
+
+    assertThat(index.check("Product", "p1", "view", "neo")).isTrue();
+    assertThat(index.check("Product", "p1", "edit", "neo")).isFalse();
+    assertThat(index.check("Product", "p1", "delete", "neo")).isFalse();
+  }
+
+  @Test
+  void shouldExpandRoleAssigneesAndNestedGroupMembers() {
+    index.add(new Tuple("Product", "p1", "owners", set("Role", "Merchandiser", "assignees")));
+    index.add(new Tuple("Role", "Merchandiser", "assignees", set("Group", "staff", "members")));
+    index.add(new Tuple("Group", "staff", "members", set("Group", "buyers", "")));
+    index.add(new Tuple("Group", "buyers", "members", new SubjectId("neo")));
+
+    assertThat(index.check("Role", "Merchandiser", "assignees", "neo")).isTrue();
+    assertThat(index.check("Product", "p1", "delete", "neo")).isTrue();
+    assertThat(index.check("Product", "p1", "delete", "trinity")).isFalse();
+  }
+
+  @Test
+  void shouldInheritPermitsFromParents() {
+    index.add(new Tuple("Category", "c1", "editors", new SubjectId("neo")));
+    index.add(new Tuple("Category", "c2", "parents", set("Category", "c1", "")));
+    index.add(new Tuple("Product", "p1", "parents", set("Category", "c2", "")));
+    index.add(new Tuple("ProductVariant", "v1", "parents", set("Product", "p1", "")));
+
+    assertThat(index.check("ProductVariant", "v1", "view", "neo")).isTrue();
+    assertThat(index.check("ProductVariant", "v1", "edit", "neo")).isTrue();
+    assertThat(index.check("Product", "p1", "delete", "neo")).isFalse();
+  }
+
+  @Test
+  void shouldDenyBeyondMaxDepth() {
+    var shallow = new RelationTupleIndex(2);
+    shallow.add(new Tuple("Product", "p1", "owners", set("Group", "g1", "members")));
+    shallow.add(new Tuple("Group", "g1", "members", set("Group", "g2", "")));
+    shallow.add(new Tuple("Group", "g2", "members", new SubjectId("neo")));
+
+    assertThat(shallow.check("Group", "g1", "members", "neo")).isTrue();
+    assertThat(shallow.check("Product", "p1", "delete", "neo")).isFalse();
+  }
+
+  @Test
+  void shouldTerminateOnCyclicGroups() {
+    index.add(new Tuple("Group", "g1", "members", set("Group", "g2", "")));
+    index.add(new Tuple("Group", "g2", "members", set("Group", "g1", "")));
+
+    assertThat(index.check("Group", "g1", "members", "neo")).isFalse();
+  }
+
+  @Test
+  void shouldRemoveTuplesAndObjects() {
+    var owner = new Tuple("Product", "p1", "owners", new SubjectId("neo"));
+    index.add(owner);
+    index.add(new Tuple("Product", "p1", "viewers", new SubjectId("trinity")));
+
+    index.remove(owner);
+    assertThat(index.check("Product", "p1", "delete", "neo")).isFalse();
+    assertThat(index.check("Product", "p1", "view", "trinity")).isTrue();
+
+    index.removeObject("Product", "p1");
+    assertThat(index.check("Product", "p1", "view", "trinity")).isFalse();
+    assertThat(index.size()).isZero();
+  }
+
+  private static SubjectRef set(String namespace, String object, String relation) {
+    return new SubjectSet(namespace, object, relation);
+  }
+}
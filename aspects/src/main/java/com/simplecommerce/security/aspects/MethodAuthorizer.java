@@ -0,0 +1,20 @@
+package com.simplecommerce.security.aspects;
+
+import java.lang.reflect.Method;
+
+/**
+ * Authorizes the execution of methods annotated with {@link Permit} and {@link Check}. Called by {@link PermitAspect}
+ * before and by {@link CheckAspect} after the method executes; denying throws.
+ */
+public interface MethodAuthorizer {
+
+  /**
+   * Authorizes invoking {@code method} with {@code arguments}.
+   */
+  void preAuthorize(Method method, Object[] arguments);
+
+  /**
+   * Authorizes returning {@code returnObject} from {@code method} invoked with {@code arguments}.
+   */
+  void postAuthorize(Method method, Object[] arguments, Object returnObject);
+}
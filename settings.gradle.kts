@@ -8,6 +8,7 @@ pluginManagement {
         id("io.spring.dependency-management") version providers.gradleProperty("dependencyManagementPluginVersion")
         id("com.google.protobuf") version providers.gradleProperty("protobufPluginVersion")
         id("io.freefair.aspectj") version providers.gradleProperty("aspectjPluginVersion")
+        id("me.champeau.jmh") version providers.gradleProperty("jmhPluginVersion")
     }
 }
 rootProject.name = "simple-commerce"